@@ -0,0 +1,172 @@
+/**
+ * AsyncService.java
+ *
+ * Summary:
+ * Central place for blocking work that must stay off the JavaFX Application Thread: loading
+ * FXML views and images, writing exports and appending to journals such as the session
+ * snapshot. Each task runs on its own virtual thread and is returned as a CompletableFuture;
+ * onFx() hands the result back to the FX thread, which is the only thread allowed to touch
+ * the scene graph. Images are cached by resource path, and writes to the same journal file
+ * run one after another in the order they were submitted.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.image.Image;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public final class AsyncService {
+
+    // One virtual thread per task; blocking on disk costs no platform thread.
+    private static final ExecutorService IO = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("async-io-", 0).factory());
+    // Runs continuations on the JavaFX Application Thread.
+    private static final Executor FX = Platform::runLater;
+    // Images already loaded (or loading), by resource path.
+    private static final Map<String, CompletableFuture<Image>> IMAGES = new ConcurrentHashMap<>();
+    // Last pending write of each journal file; the next write is chained after it.
+    private static final Map<Path, CompletableFuture<Void>> JOURNALS = new ConcurrentHashMap<>();
+
+    private AsyncService() {
+    }
+
+    /**
+     * Runs a blocking task on a virtual thread.
+     *
+     * @param task the task to run.
+     * @param <T> the result type.
+     * @return a future completed with the task's result or exception.
+     */
+    public static <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        IO.execute(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Loads an FXML view on a virtual thread. The loaded nodes are not attached to any scene
+     * yet, so building them off the FX thread is allowed; the caller shows them in onFx().
+     *
+     * @param fxmlPath the resource path of the FXML file.
+     * @return a future completed with the loader, whose root and controller are ready.
+     */
+    public static CompletableFuture<FXMLLoader> loadView(String fxmlPath) {
+        return supply(() -> {
+            FXMLLoader loader = new FXMLLoader(AsyncService.class.getResource(fxmlPath));
+            if (loader.getLocation() == null) {
+                throw new IOException("Could not find " + fxmlPath);
+            }
+            loader.load();
+            return loader;
+        });
+    }
+
+    /**
+     * Loads an image resource on a virtual thread, falling back to a second resource if the
+     * first is missing. Each path is only read once.
+     *
+     * @param path the resource path or file: URL of the image.
+     * @param fallback the resource path to use if the image is missing.
+     * @return a future completed with the image, or with null if neither resource exists.
+     */
+    public static CompletableFuture<Image> loadImage(String path, String fallback) {
+        return IMAGES.computeIfAbsent(path, key -> supply(() -> {
+            Image image = readImage(key);
+            return image != null || fallback == null ? image : readImage(fallback);
+        }));
+    }
+
+    /**
+     * Appends to a journal file on a virtual thread. Writes to the same file never overlap
+     * and happen in the order they were submitted.
+     *
+     * @param file the journal file.
+     * @param write the write to perform.
+     * @return a future completed once this write has finished.
+     */
+    public static CompletableFuture<Void> journal(Path file, Callable<?> write) {
+        return JOURNALS.compute(file, (key, tail) -> {
+            CompletableFuture<Void> previous = tail == null
+                    ? CompletableFuture.completedFuture(null)
+                    // A failed write must not hold up the ones after it.
+                    : tail.exceptionally(e -> null);
+            return previous.thenRunAsync(() -> {
+                try {
+                    write.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, IO);
+        });
+    }
+
+    /**
+     * Hands the outcome of a task to the FX thread.
+     *
+     * @param future the task's future.
+     * @param onSuccess called on the FX thread with the result.
+     * @param onFailure called on the FX thread with the cause if the task failed.
+     * @param <T> the result type.
+     */
+    public static <T> void onFx(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        }, FX);
+    }
+
+    /**
+     * Waits for pending journal writes to finish, so nothing is lost when the application exits.
+     *
+     * @param timeoutMillis how long to wait at most.
+     */
+    public static void awaitJournals(long timeoutMillis) {
+        try {
+            CompletableFuture.allOf(JOURNALS.values().toArray(new CompletableFuture<?>[0]))
+                    .get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Failed writes have been reported by their callers; a timeout just gives up waiting.
+        }
+    }
+
+    /**
+     * Reads one image resource, or a file: URL such as a picture named in the menu catalog.
+     * Returns null if it does not exist.
+     */
+    private static Image readImage(String path) throws IOException {
+        if (path.startsWith("file:")) {
+            Image image = new Image(path);
+            return image.isError() ? null : image;
+        }
+        try (InputStream stream = AsyncService.class.getResourceAsStream(path)) {
+            return stream == null ? null : new Image(stream);
+        }
+    }
+}
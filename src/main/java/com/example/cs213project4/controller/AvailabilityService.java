@@ -0,0 +1,128 @@
+/**
+ * AvailabilityService.java
+ *
+ * Summary:
+ * Keeps the ordering views in step with the inventory, so sold-out options are greyed out as
+ * soon as they run out rather than being refused when the order is placed. Each ingredient a
+ * view shows gets one sold-out BooleanProperty; views bind their controls' disable property
+ * to it. Inventory events are batched by Availability and applied on the FX thread once per
+ * batch, so a rush of stock changes costs one runLater rather than one per change. Bindings
+ * only hold their controls weakly, so a closed view is collected without unsubscribing.
+ *
+ * Views are loaded on a virtual thread, so a controller's initialize() may ask for its
+ * controls to be disabled off the FX thread. The binding is then handed to the FX thread,
+ * where it runs before the loaded window is shown, and the flags are only ever touched there.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.scene.Node;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ListCell;
+import com.example.cs213project4.model.Availability;
+import com.example.cs213project4.model.Inventory;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class AvailabilityService {
+
+    // Sold-out flag of each ingredient a view has asked about; only touched on the FX thread.
+    private static final Map<String, BooleanProperty> SOLD_OUT = new HashMap<>();
+    // Stock the flags start from, or null when stock is not tracked.
+    private static Inventory inventory;
+
+    private AvailabilityService() {
+    }
+
+    /**
+     * Starts following an inventory. Must be called on the FX thread.
+     *
+     * @param stock the inventory orders take their ingredients from.
+     */
+    public static void start(Inventory stock) {
+        inventory = stock;
+        // Flags created before now were made without stock; bring them up to date.
+        SOLD_OUT.forEach((ingredient, flag) -> flag.set(stock.getStock(ingredient) == 0));
+        stock.addListener(new Availability(Platform::runLater, AvailabilityService::apply));
+    }
+
+    /**
+     * Returns whether an option is sold out, as a property to bind to. Must be called on
+     * the FX thread.
+     *
+     * @param option a Bread, Protein, AddOns or SideOption, or a Size for cups of that size.
+     * @return a property that is true while the option is sold out.
+     */
+    public static ReadOnlyBooleanProperty soldOut(Enum<?> option) {
+        return SOLD_OUT.computeIfAbsent(Inventory.ingredient(option),
+                ingredient -> new SimpleBooleanProperty(inventory != null && inventory.getStock(ingredient) == 0));
+    }
+
+    /**
+     * Disables a control while an option is sold out. May be called on any thread; the
+     * binding is made on the FX thread.
+     *
+     * @param control the check box, radio button or button for the option.
+     * @param option the option it stands for.
+     */
+    public static void disableSoldOut(Node control, Enum<?> option) {
+        onFxThread(() -> control.disableProperty().bind(soldOut(option)));
+    }
+
+    /**
+     * Greys out the sold-out entries in a combo box's list. May be called on any thread; the
+     * cell factory is set on the FX thread.
+     *
+     * @param box the combo box.
+     * @param <E> the option type.
+     */
+    public static <E extends Enum<E>> void disableSoldOut(ComboBox<E> box) {
+        onFxThread(() -> box.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(E item, boolean empty) {
+                super.updateItem(item, empty);
+                // Cells are reused for different entries, so rebind on every update.
+                disableProperty().unbind();
+                if (empty || item == null) {
+                    setText(null);
+                    setDisable(false);
+                } else {
+                    setText(item.toString());
+                    disableProperty().bind(soldOut(item));
+                }
+            }
+        }));
+    }
+
+    /**
+     * Runs a task now if this is the FX thread, or queues it for the FX thread. Queued tasks
+     * run in order, so a binding asked for while a view loads is made before the view is shown.
+     */
+    private static void onFxThread(Runnable task) {
+        if (Platform.isFxApplicationThread()) {
+            task.run();
+        } else {
+            Platform.runLater(task);
+        }
+    }
+
+    /**
+     * Applies a batch of availability changes to the flags views are bound to.
+     */
+    private static void apply(Map<String, Boolean> batch) {
+        batch.forEach((ingredient, available) -> {
+            BooleanProperty flag = SOLD_OUT.get(ingredient);
+            if (flag != null) {
+                flag.set(!available);
+            }
+        });
+    }
+}
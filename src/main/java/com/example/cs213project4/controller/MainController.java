@@ -1,205 +1,769 @@
-/**
- * MainController.java
- *
- * Summary:
- * This controller serves as the primary interface for navigating the RU Fast Food application.
- * It facilitates opening different ordering windows for burgers, sandwiches, beverages, and sides,
- * as well as viewing the current and stored orders. The controller maintains a reference to the current
- * order and the stored orders to ensure that any new order created is non-null.
- *
- * @authors
- * Anirudh Deveram
- * Karthik Penumetch
- */
-
-package com.example.cs213project4.controller;
-
-import javafx.event.ActionEvent;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
-import javafx.scene.control.Button;
-import javafx.stage.Stage;
-import com.example.cs213project4.model.Order;
-import com.example.cs213project4.model.StoredOrder;
-import java.io.IOException;
-import javafx.scene.control.Alert;
-
-public class MainController {
-
-    // FXML Components: buttons for navigating to various ordering screens.
-    @FXML
-    private Button burgerButton;        // Opens the Burger ordering view.
-    @FXML
-    private Button sandwichButton;      // Opens the Sandwich ordering view.
-    @FXML
-    private Button bevButton;           // Opens the Beverage ordering view.
-    @FXML
-    private Button sideButton;          // Opens the Sides ordering view.
-    @FXML
-    private Button viewOrderButton;     // Opens the current order view.
-    @FXML
-    private Button viewStoredOrderButton; // Opens the stored orders view.
-
-    // Static model objects to maintain the state of orders.
-    private static StoredOrder storedOrder = new StoredOrder();
-    private static Order current;
-
-    /**
-     * Initialization method called after FXML loading.
-     * Ensures that a current order exists for the session.
-     */
-    public void initialize() {
-        // If no current order exists, create a new one from the stored orders.
-        if (current == null) {
-            current = storedOrder.createNewOrder();
-        }
-    }
-
-    /**
-     * Returns the current order, ensuring it is not null.
-     *
-     * @return the current Order instance.
-     */
-    public static Order getCurrentOrder() {
-        // Create a new order if the current one is null.
-        if (current == null) {
-            current = storedOrder.createNewOrder();
-        }
-        return current;
-    }
-
-    /**
-     * Returns the stored order collection.
-     *
-     * @return the StoredOrder instance.
-     */
-    public static StoredOrder getStoredOrder() {
-        return storedOrder;
-    }
-
-    /**
-     * Resets the current order by creating a new order from the stored order collection.
-     */
-    public static void setNewCurrentOrder() {
-        current = storedOrder.createNewOrder();
-    }
-
-    /**
-     * Event handler for the Burger button.
-     * Opens the Burger ordering window.
-     *
-     * @param event the triggering ActionEvent.
-     */
-    @FXML
-    private void handleBurgerButton(ActionEvent event) {
-        try {
-            openWindow("/com/example/cs213project4/BurgerView.fxml", "Order Burger");
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    /**
-     * Event handler for the Sandwich button.
-     * Opens the Sandwich ordering window.
-     *
-     * @param event the triggering ActionEvent.
-     */
-    @FXML
-    private void handleSandwichButton(ActionEvent event) {
-        try {
-            openWindow("/com/example/cs213project4/SandwichView.fxml", "Order Sandwich");
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    /**
-     * Event handler for the Side button.
-     * Opens the Sides ordering window.
-     *
-     * @param event the triggering ActionEvent.
-     */
-    @FXML
-    private void handleSideButton(ActionEvent event) {
-        try {
-            openWindow("/com/example/cs213project4/SideView.fxml", "Order Sides");
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    /**
-     * Event handler for the View Order button.
-     * Opens the window displaying the current order details.
-     *
-     * @param event the triggering ActionEvent.
-     */
-    @FXML
-    private void handleViewOrderButton(ActionEvent event) {
-        try {
-            openWindow("/com/example/cs213project4/OrderView.fxml", "Current Order");
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    /**
-     * Event handler for the View Stored Orders button.
-     * Opens the window displaying stored orders.
-     *
-     * @param event the triggering ActionEvent.
-     */
-    @FXML
-    private void handleViewStoredOrdersButton(ActionEvent event) {
-        try {
-            openWindow("/com/example/cs213project4/StoreOrdersView.fxml", "Store Orders");
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    /**
-     * Event handler for the Beverage button.
-     * Opens the Beverage ordering window.
-     *
-     * @param event the triggering ActionEvent.
-     */
-    @FXML
-    private void handleBevButton(ActionEvent event) {
-        try {
-            openWindow("/com/example/cs213project4/BeverageView.fxml", "Order Beverage");
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    /**
-     * Opens a new window given the FXML file path and window title.
-     * If an error occurs during loading, it prints the error and throws an IOException.
-     *
-     * @param fxmlPath the path of the FXML file to load.
-     * @param title the title of the new window.
-     * @throws IOException if the FXML file cannot be loaded.
-     */
-    private void openWindow(String fxmlPath, String title) throws IOException {
-        try {
-            // Load the FXML view using the provided path.
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent root = loader.load();
-
-            // Create a new stage (window) for the view.
-            Stage stage = new Stage();
-            stage.setTitle(title);
-            stage.setScene(new Scene(root, 600, 500));  // Set the scene dimensions.
-            stage.show();
-        } catch (Exception e) {
-            // Log the error details if opening the window fails.
-            System.out.println("Error opening " + title + ": " + e.getMessage());
-            e.printStackTrace();
-            throw new IOException("Could not load " + fxmlPath);
-        }
-    }
-}
+/**
+ * MainController.java
+ *
+ * Summary:
+ * This controller serves as the primary interface for navigating the RU Fast Food application.
+ * It facilitates opening different ordering windows for burgers, sandwiches, beverages, and sides,
+ * as well as viewing the current and stored orders. The controller keeps the open tabs, the orders
+ * in progress at this terminal, so a cashier can hold one customer's order while serving the next;
+ * the active tab is the current order. Windows opened from here work on the tab that was active
+ * when they were opened.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceBox;
+import javafx.stage.Stage;
+import javafx.util.StringConverter;
+import com.example.cs213project4.model.CatalogWatcher;
+import com.example.cs213project4.model.EditJournal;
+import com.example.cs213project4.model.EditLog;
+import com.example.cs213project4.model.Inventory;
+import com.example.cs213project4.model.KitchenScheduler;
+import com.example.cs213project4.model.MenuCatalog;
+import com.example.cs213project4.model.MenuItem;
+import com.example.cs213project4.model.OpenTabs;
+import com.example.cs213project4.model.Order;
+import com.example.cs213project4.model.OrderHistory;
+import com.example.cs213project4.model.OrderEventBus;
+import com.example.cs213project4.model.OrderEventLog;
+import com.example.cs213project4.model.OrderListener;
+import com.example.cs213project4.model.OrderReplicator;
+import com.example.cs213project4.model.OrderValidator;
+import com.example.cs213project4.model.Promotions;
+import com.example.cs213project4.model.ReceiptPrinter;
+import com.example.cs213project4.model.ReceiptTemplate;
+import com.example.cs213project4.model.SessionSnapshot;
+import com.example.cs213project4.model.StoredOrder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javafx.scene.control.Alert;
+
+public class MainController {
+
+    // FXML Components: buttons for navigating to various ordering screens.
+    @FXML
+    private Button burgerButton;        // Opens the Burger ordering view.
+    @FXML
+    private Button sandwichButton;      // Opens the Sandwich ordering view.
+    @FXML
+    private Button bevButton;           // Opens the Beverage ordering view.
+    @FXML
+    private Button sideButton;          // Opens the Sides ordering view.
+    @FXML
+    private Button viewOrderButton;     // Opens the current order view.
+    @FXML
+    private Button viewStoredOrderButton; // Opens the stored orders view.
+    @FXML
+    private ChoiceBox<Integer> tabChoice; // Picks the open tab to work on.
+
+    // Directory holding the persistent order history, one file per day.
+    private static final Path HISTORY_DIR = Path.of(System.getProperty("user.home"), ".rufastfood", "history");
+    // Snapshot of the session (stored orders, numbering and the order in progress).
+    private static final Path SNAPSHOT_FILE = HISTORY_DIR.resolveSibling("session.snap");
+    // Directory the receipt printer service watches, unless rufastfood.spool says otherwise.
+    private static final Path SPOOL_DIR = HISTORY_DIR.resolveSibling("spool");
+    // Menu catalog used unless rufastfood.catalog names another one.
+    private static final Path CATALOG_FILE = HISTORY_DIR.resolveSibling("menu.catalog");
+    // Promotions file used unless rufastfood.promotions names another one.
+    private static final Path PROMOTIONS_FILE = HISTORY_DIR.resolveSibling("promotions.txt");
+    // Stock file used unless rufastfood.inventory names another one.
+    private static final Path INVENTORY_FILE = HISTORY_DIR.resolveSibling("inventory.txt");
+    // Log of order lifecycle events, unless rufastfood.eventlog names another file.
+    private static final Path EVENT_LOG_FILE = HISTORY_DIR.resolveSibling("events.log");
+    // Edits to the order in progress since the last session snapshot.
+    private static final Path EDIT_JOURNAL_FILE = HISTORY_DIR.resolveSibling("session.journal");
+    // How often the session is snapshotted while the application runs.
+    private static final long SNAPSHOT_SECONDS = 30;
+    // Most orders the terminal holds open at once, and how large each may grow: lines in
+    // the order and edits that can be undone.
+    private static final int MAX_TABS = 8;
+    private static final int TAB_LINES = 100;
+    private static final int TAB_UNDO = 200;
+
+    // Journals the edits to the current order. Its writes share the snapshot's journal queue,
+    // so a snapshot and the edits before and after it reach the disk in order.
+    private static final EditJournal editJournal = new EditJournal(EDIT_JOURNAL_FILE,
+            write -> AsyncService.journal(SNAPSHOT_FILE, () -> {
+                write.run();
+                return null;
+            }).exceptionally(e -> {
+                System.out.println("Could not write session snapshot or edit journal: " + e.getMessage());
+                return null;
+            }));
+    // The open tabs and the active one, as shown by the tab chooser; kept up by showTabs().
+    private static final ObservableList<Integer> tabNumbers = FXCollections.observableArrayList();
+    private static final ObjectProperty<Integer> activeTab = new SimpleObjectProperty<>();
+
+    // Static model objects to maintain the state of orders.
+    private static StoredOrder storedOrder = openStoredOrder();
+    // The orders in progress; the active tab is the current order.
+    private static final OpenTabs tabs = restoreSession();
+    // Timer that triggers session snapshots; the writes themselves go through AsyncService.
+    private static ScheduledExecutorService snapshots;
+    // Streams orders to the other terminals, or null when this terminal runs alone.
+    private static OrderReplicator replicator;
+    // Reloads the menu catalog when its file changes, or null if it could not be watched.
+    private static CatalogWatcher catalog;
+    // Ingredient stock taken by placed orders, or null when stock is not tracked.
+    private static Inventory inventory;
+    // Checks orders before they are placed; checks the stock too once it is tracked.
+    private static OrderValidator validator = OrderValidator.standard(null);
+    // Schedules placed orders across the kitchen stations, or null until startKitchen() runs.
+    private static KitchenScheduler kitchen;
+    // Moves the kitchen's clock forward, so orders are reported ready on time.
+    private static ScheduledExecutorService kitchenTicks;
+    // Checks each minute whether a promotion's time window opens or closes, or null without promotions.
+    private static ScheduledExecutorService promotionWindows;
+    // Order lifecycle events from the store and the kitchen, for the counter's views and the log.
+    private static final OrderEventBus events = new OrderEventBus(1 << 14);
+    // Writes the events to a file, or null if it could not be opened.
+    private static OrderEventLog eventLog;
+
+    /**
+     * Opens the stored orders on the persistent history so order numbers and placed
+     * orders survive a restart. Falls back to an in-memory store if the history can't be opened.
+     *
+     * @return the StoredOrder for this session.
+     */
+    private static StoredOrder openStoredOrder() {
+        try {
+            return new StoredOrder(new OrderHistory(HISTORY_DIR));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Order history unavailable, orders will not be saved: " + e.getMessage());
+            return new StoredOrder();
+        }
+    }
+
+    /**
+     * Restores the last session snapshot, if there is one, on top of the opened store, then
+     * replays the edits made since, and starts recording the tabs.
+     *
+     * @return the tabs that were open.
+     */
+    private static OpenTabs restoreSession() {
+        OpenTabs restored = null;
+        if (Files.exists(SNAPSHOT_FILE)) {
+            try {
+                SessionSnapshot snapshot = SessionSnapshot.read(SNAPSHOT_FILE);
+                storedOrder = snapshot.restore(storedOrder);
+                restored = snapshot.reopenTabs(MAX_TABS, TAB_LINES, TAB_UNDO);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Could not restore the last session: " + e.getMessage());
+            }
+        }
+        if (restored == null) {
+            restored = new OpenTabs(MAX_TABS, TAB_LINES, TAB_UNDO);
+        }
+        // Edits made after the snapshot was taken are in the edit journal.
+        try {
+            EditJournal.replay(EDIT_JOURNAL_FILE, restored);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not replay the edits since the last snapshot: " + e.getMessage());
+        }
+        for (int orderNum : restored.getNumbers()) {
+            storedOrder.advanceOrderNumber(orderNum + 1);
+        }
+        restored.record(editJournal);
+        return restored;
+    }
+
+    /**
+     * Starts replicating orders with the other terminals when the store runs as one of several.
+     * Configured with system properties: rufastfood.terminal and rufastfood.terminals give this
+     * terminal's id and the number of terminals, rufastfood.port the port to listen on, and
+     * rufastfood.peers a comma-separated list of host:port for the other terminals.
+     * Must be called before the first order is created so numbering uses this terminal's range.
+     */
+    public static void startReplication() {
+        String terminals = System.getProperty("rufastfood.terminals");
+        if (terminals == null) {
+            return;
+        }
+        try {
+            int terminal = Integer.parseInt(System.getProperty("rufastfood.terminal", "1"));
+            storedOrder.setNumbering(terminal, Integer.parseInt(terminals));
+            replicator = OrderReplicator.start(storedOrder, terminal, Integer.parseInt(System.getProperty("rufastfood.port", "0")));
+            for (String peer : System.getProperty("rufastfood.peers", "").split(",")) {
+                int colon = peer.lastIndexOf(':');
+                if (colon > 0) {
+                    replicator.addPeer(peer.substring(0, colon).trim(), Integer.parseInt(peer.substring(colon + 1).trim()));
+                }
+            }
+            System.out.println("Replicating orders as terminal " + terminal + " on port " + replicator.getPort());
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Order replication unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the menu catalog and keeps watching it, so price and picture changes take effect
+     * without a restart. The file is rufastfood.catalog or CATALOG_FILE; until it exists the
+     * built-in prices are used.
+     */
+    public static void startCatalog() {
+        Path file = Path.of(System.getProperty("rufastfood.catalog", CATALOG_FILE.toString()));
+        try {
+            catalog = CatalogWatcher.start(file, reloaded -> {
+                System.out.println("Menu catalog reloaded from " + file);
+                // Open views show the new prices.
+                Platform.runLater(MenuCatalog::pricesChanged);
+            });
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Menu catalog unavailable, using built-in prices: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts tracking ingredient stock from the file named by rufastfood.inventory, or
+     * INVENTORY_FILE if it exists; without either, stock is unlimited. Running low on an
+     * ingredient pops up a warning, without blocking whoever placed the order, and sold-out
+     * options are disabled in the ordering views.
+     */
+    public static void startInventory() {
+        String configured = System.getProperty("rufastfood.inventory");
+        Path file = configured == null ? INVENTORY_FILE : Path.of(configured);
+        if (configured == null && !Files.exists(file)) {
+            return;
+        }
+        try {
+            Inventory loaded = Inventory.load(file);
+            // Orders may be placed off the FX thread, so hop onto it before showing anything.
+            loaded.addListener((ingredient, remaining) -> Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle("Low Stock");
+                alert.setHeaderText(remaining == 0 ? ingredient + " has run out" : ingredient + " is running low");
+                alert.setContentText(remaining + " left.");
+                alert.show();
+            }));
+            storedOrder.setInventory(loaded);
+            // Grey out sold-out options in the ordering views.
+            AvailabilityService.start(loaded);
+            inventory = loaded;
+            validator = OrderValidator.standard(loaded);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Inventory unavailable, stock is not tracked: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the ingredient stock, if it is tracked.
+     *
+     * @return the inventory, or null when stock is not tracked.
+     */
+    public static Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Returns the validator orders must pass before they are placed.
+     *
+     * @return the order validator.
+     */
+    public static OrderValidator getValidator() {
+        return validator;
+    }
+
+    /**
+     * Loads marketing's promotions so order totals include them. Reads the file named by
+     * rufastfood.promotions, or PROMOTIONS_FILE if it exists; without either, prices are
+     * the plain menu prices. A malformed file is reported and ignored.
+     */
+    public static void loadPromotions() {
+        String configured = System.getProperty("rufastfood.promotions");
+        Path file = configured == null ? PROMOTIONS_FILE : Path.of(configured);
+        if (configured == null && !Files.exists(file)) {
+            return;
+        }
+        try {
+            Promotions promotions = Promotions.load(file);
+            Promotions.setActive(promotions);
+            System.out.println("Loaded promotions " + promotions.names() + " from " + file);
+            startPromotionWindows();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Promotions unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reprices open views at the start of every minute in which a promotion's time window
+     * opens or closes, so a discount shows up or goes away without an edit to the order.
+     */
+    private static void startPromotionWindows() {
+        promotionWindows = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "promotion-windows");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long toNextMinute = 60_000 - System.currentTimeMillis() % 60_000;
+        promotionWindows.scheduleAtFixedRate(() -> {
+            LocalTime now = LocalTime.now();
+            if (Promotions.active().changesAt(now.getHour() * 60 + now.getMinute())) {
+                Platform.runLater(MenuCatalog::pricesChanged);
+            }
+        }, toNextMinute, 60_000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts printing a receipt for every order placed on this terminal. The spool directory
+     * defaults to SPOOL_DIR and can be set with rufastfood.spool; rufastfood.receipt names a
+     * template file to use instead of the standard layout. Receipts are rendered and written
+     * on a background thread, one after another, so placing an order never waits on the disk.
+     */
+    public static void startReceipts() {
+        try {
+            String templateFile = System.getProperty("rufastfood.receipt");
+            ReceiptTemplate template = templateFile == null
+                    ? ReceiptTemplate.standard()
+                    : ReceiptTemplate.compile(Files.readString(Path.of(templateFile)));
+            ReceiptPrinter printer = new ReceiptPrinter(
+                    Path.of(System.getProperty("rufastfood.spool", SPOOL_DIR.toString())), template);
+            storedOrder.addListener(new OrderListener() {
+                @Override
+                public void placed(Order order) {
+                    AsyncService.journal(printer.getSpool(), () -> printer.print(order)).exceptionally(e -> {
+                        System.out.println("Could not print receipt for order #" + order.getNumber() + ": " + e.getMessage());
+                        return null;
+                    });
+                }
+
+                @Override
+                public void cancelled(int orderNum) {
+                    // Receipts already handed to the printer stay printed.
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Receipt printing unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes orders placed and cancelled on this terminal as events, and starts the event
+     * log in rufastfood.eventlog or EVENT_LOG_FILE. Call before startKitchen(), so an
+     * order's PLACED event comes before its kitchen events.
+     */
+    public static void startEvents() {
+        storedOrder.addListener(events);
+        try {
+            eventLog = OrderEventLog.start(events, Path.of(System.getProperty("rufastfood.eventlog", EVENT_LOG_FILE.toString())));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Order event log unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the bus order lifecycle events are published on.
+     *
+     * @return the event bus.
+     */
+    public static OrderEventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Starts scheduling placed orders across the kitchen stations, so customers can be told
+     * when their order will be ready. rufastfood.stations sets the number of grills, fryers
+     * and counter stations, e.g. "4,2,2", which is also the default.
+     */
+    public static void startKitchen() {
+        try {
+            String[] stations = System.getProperty("rufastfood.stations", "4,2,2").split(",");
+            if (stations.length != 3) {
+                throw new IllegalArgumentException("Expected grills,fryers,counters");
+            }
+            KitchenScheduler scheduler = new KitchenScheduler(KitchenScheduler.Policy.EARLIEST_DEADLINE,
+                    Integer.parseInt(stations[0].strip()), Integer.parseInt(stations[1].strip()),
+                    Integer.parseInt(stations[2].strip()));
+            scheduler.setEvents(events);
+            storedOrder.addListener(new OrderListener() {
+                @Override
+                public void placed(Order order) {
+                    scheduler.submit(order, kitchenClock());
+                }
+
+                @Override
+                public void cancelled(int orderNum) {
+                    scheduler.cancel(orderNum);
+                }
+            });
+            kitchen = scheduler;
+            kitchenTicks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kitchen-clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            kitchenTicks.scheduleAtFixedRate(() -> scheduler.advance(kitchenClock()), 1, 1, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            System.out.println("Kitchen scheduling unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns how many seconds from now an order is expected to be ready.
+     *
+     * @param orderNum the order number.
+     * @return the seconds left, or -1 if the order is not being scheduled.
+     */
+    public static long secondsUntilReady(int orderNum) {
+        if (kitchen == null) {
+            return -1;
+        }
+        long ready = kitchen.expectedReady(orderNum);
+        return ready < 0 ? -1 : Math.max(0, ready - kitchenClock());
+    }
+
+    /**
+     * The kitchen schedules in whole seconds of wall-clock time.
+     */
+    private static long kitchenClock() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Starts taking periodic session snapshots. The snapshot is captured on the FX thread,
+     * which only takes a copy-on-write view of the store, and written on a background thread.
+     */
+    public static void startSnapshots() {
+        snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshots.scheduleWithFixedDelay(() -> Platform.runLater(() -> {
+            if (!snapshots.isShutdown()) {
+                writeSnapshot(SessionSnapshot.capture(storedOrder, tabs));
+            }
+        }), SNAPSHOT_SECONDS, SNAPSHOT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes a snapshot to the snapshot file on a background thread, logging any failure.
+     * Snapshot writes go through the journal queue, so they land in the order they were taken.
+     * The edit journal starts over once the snapshot is written, as it holds those edits.
+     *
+     * @param snapshot the snapshot to write.
+     */
+    private static void writeSnapshot(SessionSnapshot snapshot) {
+        editJournal.checkpoint(() -> {
+            Files.createDirectories(SNAPSHOT_FILE.getParent());
+            snapshot.write(SNAPSHOT_FILE);
+            return null;
+        });
+    }
+
+    /**
+     * Stops replication, takes a final snapshot, then flushes and closes the stored orders.
+     * Called once on the FX thread when the application exits.
+     */
+    public static void shutdown() {
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+        }
+        if (replicator != null) {
+            replicator.close();
+        }
+        if (catalog != null) {
+            catalog.close();
+        }
+        if (kitchenTicks != null) {
+            kitchenTicks.shutdownNow();
+        }
+        if (promotionWindows != null) {
+            promotionWindows.shutdownNow();
+        }
+        if (eventLog != null) {
+            eventLog.close();
+        }
+        writeSnapshot(SessionSnapshot.capture(storedOrder, tabs));
+        AsyncService.awaitJournals(5000);
+        storedOrder.getArchive().close();
+    }
+
+    /**
+     * Initialization method called after FXML loading.
+     * Ensures that a current order exists for the session and sets up the tab chooser.
+     */
+    public void initialize() {
+        // If no tab is open yet, open one for a new order.
+        getCurrentOrder();
+        tabChoice.setItems(tabNumbers);
+        tabChoice.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Integer orderNum) {
+                return orderNum == null ? "" : "Order #" + orderNum;
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                return Integer.valueOf(text.substring(text.indexOf('#') + 1));
+            }
+        });
+        tabChoice.valueProperty().bindBidirectional(activeTab);
+        // Picking a tab makes it the current order; showTabs() setting the active tab is a no-op here.
+        activeTab.addListener((observable, oldValue, newValue) -> {
+            if (newValue != null && tabs.isOpen(newValue)) {
+                tabs.switchTo(newValue);
+            }
+        });
+        showTabs();
+    }
+
+    /**
+     * Shows the open tabs and the active one in the tab chooser.
+     */
+    private static void showTabs() {
+        int[] numbers = tabs.getNumbers();
+        Integer[] boxed = new Integer[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            boxed[i] = numbers[i];
+        }
+        tabNumbers.setAll(boxed);
+        activeTab.set(tabs.getActive() == null ? null : tabs.getActive().getNumber());
+    }
+
+    /**
+     * Returns the current order, the active tab's, opening a tab for a new order if none
+     * is active.
+     *
+     * @return the current Order instance.
+     */
+    public static Order getCurrentOrder() {
+        if (tabs.getActive() == null) {
+            tabs.open(storedOrder.createNewOrder());
+            showTabs();
+        }
+        return tabs.getActive();
+    }
+
+    /**
+     * Makes a tab the active one, so its order can be edited.
+     *
+     * @param orderNum the order number of the tab.
+     * @return the tab's order, or null if the tab has been closed.
+     */
+    public static Order useTab(int orderNum) {
+        if (!tabs.isOpen(orderNum)) {
+            return null;
+        }
+        Order order = tabs.switchTo(orderNum);
+        showTabs();
+        return order;
+    }
+
+    /**
+     * Adds an item to a tab's order, telling the cashier if it can't be added: the tab
+     * has been closed, or its order has as many lines as a tab may hold.
+     *
+     * @param orderNum the order number of the tab.
+     * @param item the item to add.
+     * @return true if the item was added.
+     */
+    public static boolean addToTab(int orderNum, MenuItem item) {
+        Order order = useTab(orderNum);
+        String problem;
+        if (order == null) {
+            problem = "Order #" + orderNum + " is no longer open.";
+        } else {
+            try {
+                order.addItem(item);
+                return true;
+            } catch (IllegalStateException e) {
+                problem = e.getMessage() + ".";
+            }
+        }
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Cannot Add Item");
+        alert.setHeaderText("Item not added to Order #" + orderNum);
+        alert.setContentText(problem);
+        alert.showAndWait();
+        return false;
+    }
+
+    /**
+     * Closes a tab once its order has been placed or discarded. If it was the active tab,
+     * a tab for a new order takes its place.
+     *
+     * @param orderNum the order number of the tab.
+     */
+    public static void closeTab(int orderNum) {
+        tabs.close(orderNum);
+        getCurrentOrder();
+        showTabs();
+    }
+
+    /**
+     * Returns the stored order collection.
+     *
+     * @return the StoredOrder instance.
+     */
+    public static StoredOrder getStoredOrder() {
+        return storedOrder;
+    }
+
+    /**
+     * Returns the undo history of the current order.
+     *
+     * @return the EditLog of the current order.
+     */
+    public static EditLog getEdits() {
+        getCurrentOrder();
+        return tabs.getEdits();
+    }
+
+    /**
+     * Event handler for the New Tab button.
+     * Opens a tab for a new order, unless the active tab's order is still empty.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleNewTab(ActionEvent event) {
+        if (getCurrentOrder().getItems().isEmpty()) {
+            return;
+        }
+        try {
+            tabs.open(storedOrder.createNewOrder());
+            showTabs();
+        } catch (IllegalStateException e) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("New Tab");
+            alert.setHeaderText("No room for another tab");
+            alert.setContentText(e.getMessage() + ".");
+            alert.showAndWait();
+        }
+    }
+
+    /**
+     * Event handler for the Close Tab button.
+     * Discards the active tab's order, after asking if it has items.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleCloseTab(ActionEvent event) {
+        Order order = getCurrentOrder();
+        if (!order.getItems().isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("Close Tab");
+            alert.setHeaderText("Discard Order #" + order.getNumber());
+            alert.setContentText("The order has not been placed. Are you sure you want to discard it?");
+            if (alert.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+                return;
+            }
+        }
+        closeTab(order.getNumber());
+    }
+
+    /**
+     * Event handler for the Burger button.
+     * Opens the Burger ordering window.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleBurgerButton(ActionEvent event) {
+        openWindow("/com/example/cs213project4/BurgerView.fxml", "Order Burger");
+    }
+
+    /**
+     * Event handler for the Sandwich button.
+     * Opens the Sandwich ordering window.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleSandwichButton(ActionEvent event) {
+        openWindow("/com/example/cs213project4/SandwichView.fxml", "Order Sandwich");
+    }
+
+    /**
+     * Event handler for the Side button.
+     * Opens the Sides ordering window.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleSideButton(ActionEvent event) {
+        openWindow("/com/example/cs213project4/SideView.fxml", "Order Sides");
+    }
+
+    /**
+     * Event handler for the View Order button.
+     * Opens the window displaying the current order details.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleViewOrderButton(ActionEvent event) {
+        openWindow("/com/example/cs213project4/OrderView.fxml", "Current Order");
+    }
+
+    /**
+     * Event handler for the View Stored Orders button.
+     * Opens the window displaying stored orders.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleViewStoredOrdersButton(ActionEvent event) {
+        openWindow("/com/example/cs213project4/StoreOrdersView.fxml", "Store Orders");
+    }
+
+    /**
+     * Event handler for the Beverage button.
+     * Opens the Beverage ordering window.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    private void handleBevButton(ActionEvent event) {
+        openWindow("/com/example/cs213project4/BeverageView.fxml", "Order Beverage");
+    }
+
+    /**
+     * Opens a new window given the FXML file path and window title.
+     * The view is loaded on a background thread and shown on the FX thread once it is ready;
+     * if loading fails, the error is printed. A window for a tab works on the tab that is
+     * active now, and its title says which.
+     *
+     * @param fxmlPath the path of the FXML file to load.
+     * @param title the title of the new window.
+     */
+    private void openWindow(String fxmlPath, String title) {
+        int tab = getCurrentOrder().getNumber();
+        AsyncService.onFx(AsyncService.loadView(fxmlPath), loader -> {
+            // Create a new stage (window) for the loaded view.
+            Stage stage = new Stage();
+            stage.setTitle(title);
+            if (loader.getController() instanceof TabWindow window) {
+                window.setTab(tab);
+                stage.setTitle(title + " - Order #" + tab);
+            }
+            stage.setScene(new Scene(loader.getRoot(), 600, 500));  // Set the scene dimensions.
+            stage.show();
+        }, error -> {
+            // Log the error details if opening the window fails.
+            System.out.println("Error opening " + title + ": " + error.getMessage());
+            error.printStackTrace();
+        });
+    }
+}
@@ -1,181 +1,297 @@
-/**
- * OrderController.java
- *
- * Summary:
- * This controller manages the order view where users can review the items added to
- * their order. It displays the list of ordered items along with the subtotal, tax, and
- * total cost. Users can remove individual items, clear the entire order, place the order,
- * or simply close the order view.
- *
- * @authors
- * Anirudh Deveram
- * Karthik Penumetch
- */
-
-package com.example.cs213project4.controller;
-
-import javafx.event.ActionEvent;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
-import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.stage.Stage;
-import com.example.cs213project4.model.*;
-import com.example.cs213project4.model.MenuItem;
-import java.io.IOException;
-
-public class OrderController {
-
-    // FXML Components for the order view UI.
-    @FXML
-    private ListView<MenuItem> items;      // List view for displaying all menu items in the order.
-    @FXML
-    private Label subtotal;                // Label for showing the order's subtotal.
-    @FXML
-    private Label tax;                     // Label for showing the calculated tax.
-    @FXML
-    private Label total;                   // Label for showing the overall total cost.
-    @FXML
-    private Label orderNumber;             // Label to display the unique order number.
-    @FXML
-    private Button removeItem;             // Button for removing a selected item.
-    @FXML
-    private Button clearOrder;             // Button for clearing all items from the order.
-    @FXML
-    private Button placeOrder;             // Button for placing the order.
-    @FXML
-    private Button close;                  // Button for closing the order view window.
-
-    // Represents the current order being edited.
-    private Order current;
-
-    /**
-     * Initialization method called after FXML components are loaded.
-     * Retrieves the current order, updates order number and item list,
-     * cost display, and sets up a listener to adjust buttons based on selection changes.
-     */
-    public void initialize() {
-        // Retrieve the current order; if not available, create a new one.
-        current = MainController.getCurrentOrder();
-        if (current == null) {
-            MainController.setNewCurrentOrder();
-            current = MainController.getCurrentOrder();
-        }
-
-        // Set the order number label using the current order's unique number.
-        orderNumber.setText("Order #" + current.getNumber());
-
-        // Update UI elements based on current order data.
-        updateItemList();
-        updateCostDisplay();
-        updateButton();
-
-        // Add a listener to the selection model to enable/disable buttons as needed.
-        items.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> updateButton());
-    }
-
-    /**
-     * Updates the list view to display the current order's items.
-     */
-    private void updateItemList() {
-        items.getItems().clear();
-        items.getItems().addAll(current.getItems());
-    }
-
-    /**
-     * Updates the subtotal, tax, and total labels based on the current order costs.
-     */
-    private void updateCostDisplay() {
-        subtotal.setText(String.format("$%.2f", current.getTotal()));
-        tax.setText(String.format("$%.2f", current.getTax()));
-        total.setText(String.format("$%.2f", current.getTotalCost()));
-    }
-
-    /**
-     * Enables or disables buttons based on whether items exist in the order and if an item is selected.
-     */
-    public void updateButton() {
-        boolean hasItems = !current.getItems().isEmpty();
-        boolean hasSelection = items.getSelectionModel().getSelectedItem() != null;
-
-        removeItem.setDisable(!hasSelection);
-        clearOrder.setDisable(!hasItems);
-        placeOrder.setDisable(!hasItems);
-    }
-
-    /**
-     * Event handler for removing a selected item from the order.
-     * Updates the item list, cost display, and button states accordingly.
-     *
-     * @param event the ActionEvent triggered when the remove item button is clicked.
-     */
-    @FXML
-    public void handleRemoveItem(ActionEvent event) {
-        MenuItem selected = items.getSelectionModel().getSelectedItem();
-        if (selected != null) {
-            current.removeItem(selected);
-            updateItemList();
-            updateCostDisplay();
-            updateButton();
-        }
-    }
-
-    /**
-     * Event handler for clearing the entire order.
-     * Confirms the user action before removing all items from the current order.
-     *
-     * @param event the ActionEvent triggered when the clear order button is clicked.
-     */
-    @FXML
-    public void handleClearOrder(ActionEvent event) {
-        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-        alert.setTitle("Clear Order");
-        alert.setHeaderText("Clear Entire Order");
-        alert.setContentText("Are you sure you want to clear this order?");
-        alert.showAndWait().ifPresent(response -> {
-            if (response == ButtonType.OK) {
-                current.eradicateAllItems();
-                updateItemList();
-                updateCostDisplay();
-                updateButton();
-            }
-        });
-    }
-
-    /**
-     * Event handler for placing the order.
-     * Adds the current order to stored orders, resets the current order,
-     * displays a confirmation alert, and closes the order view window.
-     *
-     * @param event the ActionEvent triggered when the place order button is clicked.
-     */
-    @FXML
-    public void handlePlaceOrder(ActionEvent event) {
-        // Add the current order to the stored orders and reset for a new order.
-        MainController.getStoredOrder().addOrder(current);
-        MainController.setNewCurrentOrder();
-
-        // Inform the user that the order was placed successfully.
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Order Placed");
-        alert.setHeaderText("Order #" + current.getNumber() + " Placed");
-        alert.setContentText("The order has been placed successfully!");
-        alert.showAndWait();
-
-        // Close the order view window.
-        ((Stage) placeOrder.getScene().getWindow()).close();
-    }
-
-    /**
-     * Event handler for closing the order view window without making changes.
-     *
-     * @param event the ActionEvent triggered when the close button is clicked.
-     */
-    @FXML
-    public void handleClose(ActionEvent event) {
-        ((Stage) close.getScene().getWindow()).close();
-    }
-}
+/**
+ * OrderController.java
+ *
+ * Summary:
+ * This controller manages the order view where users can review the items added to
+ * their order. It displays the list of ordered items along with the subtotal, tax, and
+ * total cost. Users can remove individual items, clear the entire order, place the order,
+ * or simply close the order view. The view shows the tab that was active when it was opened;
+ * acting on the order makes that tab the active one again.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.stage.Stage;
+import com.example.cs213project4.model.*;
+import com.example.cs213project4.model.MenuItem;
+import java.io.IOException;
+import java.util.List;
+
+public class OrderController implements TabWindow {
+
+    // FXML Components for the order view UI.
+    @FXML
+    private ListView<MenuItem> items;      // List view for displaying all menu items in the order.
+    @FXML
+    private Label subtotal;                // Label for showing the order's subtotal.
+    @FXML
+    private Label tax;                     // Label for showing the calculated tax.
+    @FXML
+    private Label total;                   // Label for showing the overall total cost.
+    @FXML
+    private Label orderNumber;             // Label to display the unique order number.
+    @FXML
+    private Button removeItem;             // Button for removing a selected item.
+    @FXML
+    private Button clearOrder;             // Button for clearing all items from the order.
+    @FXML
+    private Button placeOrder;             // Button for placing the order.
+    @FXML
+    private Button undo;                   // Button for undoing the last edit to the order.
+    @FXML
+    private Button redo;                   // Button for redoing the last undone edit.
+    @FXML
+    private Button close;                  // Button for closing the order view window.
+
+    // Represents the order being edited, and the number of its tab.
+    private Order current;
+    private int tab;
+
+    /**
+     * Initialization method called after FXML components are loaded.
+     * Sets up a listener to adjust buttons based on selection changes; the order itself is
+     * shown once the tab is set.
+     */
+    public void initialize() {
+        // Add a listener to the selection model to enable/disable buttons as needed.
+        items.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
+            if (current != null) {
+                updateButton();
+            }
+        });
+    }
+
+    /**
+     * Shows a tab's order: its number, item list and cost display.
+     *
+     * @param orderNum the order number of the tab.
+     */
+    @Override
+    public void setTab(int orderNum) {
+        tab = orderNum;
+        current = MainController.useTab(orderNum);
+        if (current == null) {
+            current = MainController.getCurrentOrder();
+            tab = current.getNumber();
+        }
+        show();
+    }
+
+    /**
+     * Shows the current order: its number, item list and cost display.
+     */
+    private void show() {
+        // Set the order number label using the current order's unique number.
+        orderNumber.setText("Order #" + current.getNumber());
+
+        // Update UI elements based on current order data.
+        updateItemList();
+        bindCostDisplay();
+        updateButton();
+    }
+
+    /**
+     * Makes this view's tab the active one before the order is changed. If the cashier
+     * worked on another tab in the meantime, this tab's order has been parked and rebuilt,
+     * so the view shows it afresh instead, and the change is not made.
+     *
+     * @return true if the order shown is the tab's live order and can be changed.
+     */
+    private boolean target() {
+        Order live = MainController.useTab(tab);
+        if (live == null) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Order Closed");
+            alert.setHeaderText("Order #" + tab + " is no longer open");
+            alert.setContentText("It has been placed or discarded.");
+            alert.showAndWait();
+            ((Stage) close.getScene().getWindow()).close();
+            return false;
+        }
+        if (live != current) {
+            current = live;
+            show();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Updates the list view to display the current order's items.
+     */
+    private void updateItemList() {
+        items.getItems().clear();
+        items.getItems().addAll(current.getItems());
+    }
+
+    /**
+     * Binds the subtotal, tax, and total labels to the current order. They follow every
+     * added, removed or changed item, and are only recalculated after such a change.
+     */
+    private void bindCostDisplay() {
+        subtotal.textProperty().bind(ReceiptLine.dollars(current.subtotalProperty()));
+        tax.textProperty().bind(ReceiptLine.dollars(current.taxProperty()));
+        total.textProperty().bind(ReceiptLine.dollars(current.totalProperty()));
+    }
+
+    /**
+     * Enables or disables buttons based on whether items exist in the order and if an item is selected.
+     */
+    public void updateButton() {
+        boolean hasItems = !current.getItems().isEmpty();
+        boolean hasSelection = items.getSelectionModel().getSelectedItem() != null;
+
+        removeItem.setDisable(!hasSelection);
+        clearOrder.setDisable(!hasItems);
+        placeOrder.setDisable(!hasItems);
+        undo.setDisable(!MainController.getEdits().canUndo());
+        redo.setDisable(!MainController.getEdits().canRedo());
+    }
+
+    /**
+     * Event handler for undoing the last edit to the order, such as a removed line or a
+     * cleared order. The cost labels follow the order.
+     *
+     * @param event the ActionEvent triggered when the undo button is clicked.
+     */
+    @FXML
+    public void handleUndo(ActionEvent event) {
+        if (target() && MainController.getEdits().undo()) {
+            updateItemList();
+        }
+        updateButton();
+    }
+
+    /**
+     * Event handler for redoing the last undone edit.
+     *
+     * @param event the ActionEvent triggered when the redo button is clicked.
+     */
+    @FXML
+    public void handleRedo(ActionEvent event) {
+        if (target() && MainController.getEdits().redo()) {
+            updateItemList();
+        }
+        updateButton();
+    }
+
+    /**
+     * Event handler for removing a selected item from the order.
+     * The selected row is mapped to its line ID, so the right line is removed even when
+     * several lines print the same, and only that row is removed from the list view.
+     * Updates the button states accordingly; the cost labels follow the order.
+     *
+     * @param event the ActionEvent triggered when the remove item button is clicked.
+     */
+    @FXML
+    public void handleRemoveItem(ActionEvent event) {
+        int index = items.getSelectionModel().getSelectedIndex();
+        if (index >= 0 && target()) {
+            current.removeLine(current.getLineId(index));
+            items.getItems().remove(index);
+            updateButton();
+        }
+    }
+
+    /**
+     * Event handler for clearing the entire order.
+     * Confirms the user action before removing all items from the current order.
+     *
+     * @param event the ActionEvent triggered when the clear order button is clicked.
+     */
+    @FXML
+    public void handleClearOrder(ActionEvent event) {
+        if (!target()) {
+            return;
+        }
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Clear Order");
+        alert.setHeaderText("Clear Entire Order");
+        alert.setContentText("Are you sure you want to clear this order?");
+        alert.showAndWait().ifPresent(response -> {
+            if (response == ButtonType.OK) {
+                current.eradicateAllItems();
+                updateItemList();
+                updateButton();
+            }
+        });
+    }
+
+    /**
+     * Event handler for placing the order.
+     * Validates the order, takes the ingredients it needs from the inventory, adds it to
+     * stored orders, closes its tab, displays a confirmation alert, and closes the order
+     * view window. An order with an incomplete item, a quantity out of range, or more than
+     * the stock can cover is not placed.
+     *
+     * @param event the ActionEvent triggered when the place order button is clicked.
+     */
+    @FXML
+    public void handlePlaceOrder(ActionEvent event) {
+        if (!target()) {
+            return;
+        }
+        // Check every line first, stopping at the first one that can't be placed.
+        OrderValidator.Failure failure = MainController.getValidator().validate(current);
+        if (failure != null) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Cannot Place Order");
+            alert.setHeaderText("Order #" + current.getNumber() + " Not Placed");
+            alert.setContentText("Line " + (failure.line() + 1) + ", " + failure.item() + ": " + failure.reason() + ".");
+            alert.showAndWait();
+            items.getSelectionModel().select(failure.line());
+            return;
+        }
+
+        // Take the stock and add the order to the stored orders; nothing is taken if any
+        // ingredient runs short.
+        List<String> shortages = MainController.getStoredOrder().placeOrder(current);
+        if (!shortages.isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Out of Stock");
+            alert.setHeaderText("Order #" + current.getNumber() + " Not Placed");
+            alert.setContentText("Not enough stock for: " + String.join(", ", shortages));
+            alert.showAndWait();
+            return;
+        }
+
+        // Close the placed order's tab.
+        MainController.closeTab(current.getNumber());
+
+        // Inform the user that the order was placed successfully.
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Order Placed");
+        alert.setHeaderText("Order #" + current.getNumber() + " Placed");
+        long seconds = MainController.secondsUntilReady(current.getNumber());
+        alert.setContentText(seconds < 0
+                ? "The order has been placed successfully!"
+                : "The order has been placed successfully! It should be ready in about "
+                        + Math.max(1, (seconds + 59) / 60) + " min.");
+        alert.showAndWait();
+
+        // Close the order view window.
+        ((Stage) placeOrder.getScene().getWindow()).close();
+    }
+
+    /**
+     * Event handler for closing the order view window without making changes.
+     *
+     * @param event the ActionEvent triggered when the close button is clicked.
+     */
+    @FXML
+    public void handleClose(ActionEvent event) {
+        ((Stage) close.getScene().getWindow()).close();
+    }
+}
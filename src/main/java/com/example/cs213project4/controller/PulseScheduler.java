@@ -0,0 +1,66 @@
+/**
+ * PulseScheduler.java
+ *
+ * Summary:
+ * Runs work on the next JavaFX pulse, the point in each frame where animations run just
+ * before the scene is laid out and drawn. Work queued during one frame's events runs together
+ * on the following pulse, so whatever it changes is drawn once, in the same frame. One
+ * AnimationTimer serves every view and only runs while work is waiting, so an idle
+ * application requests no pulses. Views use coalesce() to rebuild their item at most once
+ * per frame however many controls change in between.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+import javafx.animation.AnimationTimer;
+import com.example.cs213project4.model.Coalescer;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class PulseScheduler {
+
+    // Work waiting for the next pulse, in the order it was queued; only touched on the FX thread.
+    private static final List<Runnable> NEXT = new ArrayList<>();
+    private static final AnimationTimer TIMER = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            // Take the queue first; work queued while it runs waits for the pulse after.
+            Runnable[] due = NEXT.toArray(new Runnable[0]);
+            NEXT.clear();
+            stop();
+            for (Runnable task : due) {
+                task.run();
+            }
+        }
+    };
+
+    private PulseScheduler() {
+    }
+
+    /**
+     * Queues work for the next pulse. Must be called on the FX thread.
+     *
+     * @param task the work to run.
+     */
+    public static void nextPulse(Runnable task) {
+        if (NEXT.isEmpty()) {
+            TIMER.start();
+        }
+        NEXT.add(task);
+    }
+
+    /**
+     * Returns a coalescer that runs an update on the next pulse after it is requested.
+     * Must be used on the FX thread.
+     *
+     * @param update the update, typically rebuilding a view's item from its controls.
+     * @return the coalescer.
+     */
+    public static Coalescer coalesce(Runnable update) {
+        return new Coalescer(PulseScheduler::nextPulse, update);
+    }
+}
@@ -1,233 +1,245 @@
-/**
- * SandwichController.java
- *
- * Summary:
- * This controller manages the UI interactions for customizing a sandwich order within the application.
- * It allows the user to choose the bread type, protein, and a selection of add-ons such as lettuce,
- * tomatoes, onions, avocado, and cheese. The controller also handles the sandwich quantity, calculates the cost
- * (including an extra fee if the sandwich is part of a combo), and updates the displayed sandwich name.
- * When a combo is selected, it invokes the ComboView to allow further customization.
- *
- * @authors
- * Anirudh Deveram
- * Karthik Penumetch
- */
-
-package com.example.cs213project4.controller;
-
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.control.*;
-import javafx.scene.image.ImageView;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
-import javafx.stage.Stage;
-import com.example.cs213project4.model.*;
-import com.example.cs213project4.model.MenuItem;
-import javafx.scene.control.SpinnerValueFactory;
-import javafx.event.ActionEvent;
-import java.io.IOException;
-
-public class SandwichController {
-
-    // FXML Components for sandwich customization.
-    @FXML
-    private ComboBox<Bread> breadCombo;   // Dropdown for selecting the type of bread.
-    @FXML
-    private ComboBox<Protein> meatCombo;    // Dropdown for selecting the protein.
-    @FXML
-    private CheckBox lettuce;             // Checkbox to add lettuce.
-    @FXML
-    private CheckBox tomatoes;            // Checkbox to add tomatoes.
-    @FXML
-    private CheckBox onions;              // Checkbox to add onions.
-    @FXML
-    private CheckBox avocado;             // Checkbox to add avocado.
-    @FXML
-    private CheckBox cheese;              // Checkbox to add cheese.
-    @FXML
-    private CheckBox combo;               // Checkbox to mark the sandwich as part of a combo.
-    @FXML
-    private Spinner<Integer> quantity;    // Spinner to set the quantity of sandwiches.
-    @FXML
-    private TextField cost;               // Text field for displaying the sandwich cost.
-    @FXML
-    private Button addOrder;              // Button to add the sandwich (or combo) to the order.
-    @FXML
-    private Button cancel;                // Button to cancel the operation and close the window.
-    @FXML
-    private ImageView sandwichImage;      // ImageView to display the sandwich image (if used).
-
-    // Model representing the sandwich being built.
-    private Sandwich sandwich;
-    // Flag to indicate whether the sandwich is being ordered as a combo.
-    private boolean isCombo;
-
-    /**
-     * Initializes the SandwichController.
-     * Sets up the initial sandwich model, default selections, and event listeners on UI components.
-     */
-    @FXML
-    public void initialize() {
-        // Create a new sandwich instance.
-        sandwich = new Sandwich();
-        // Initialize combo flag to false (i.e., not a combo by default).
-        isCombo = false;
-
-        // Populate the bread selection ComboBox with all available bread options.
-        breadCombo.getItems().addAll(Bread.values());
-        // Set the default bread selection.
-        breadCombo.setValue(Bread.BRIOCHE);
-        // Update the sandwich model when the bread selection changes.
-        breadCombo.setOnAction(e -> updateSandwich());
-
-        // Populate the protein selection ComboBox with available protein types.
-        meatCombo.getItems().addAll(Protein.ROAST_BEEF, Protein.SALMON, Protein.CHICKEN);
-        // When the protein selection is updated, adjust the sandwich accordingly.
-        meatCombo.setOnAction(e -> updateSandwich());
-
-        // Set up add-on check boxes to update the sandwich configuration when toggled.
-        lettuce.setOnAction(e -> updateSandwich());
-        tomatoes.setOnAction(e -> updateSandwich());
-        onions.setOnAction(e -> updateSandwich());
-        cheese.setOnAction(e -> updateSandwich());
-        avocado.setOnAction(e -> updateSandwich());
-
-        // Combo checkbox: update the combo flag and cost when toggled.
-        combo.setOnAction(e -> {
-            isCombo = combo.isSelected();
-            updateCost();
-        });
-
-        // Configure the quantity spinner with a minimum of 1 and maximum of 10, defaulting to 1.
-        SpinnerValueFactory<Integer> valueFactory =
-                new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 10, 1);
-        quantity.setValueFactory(valueFactory);
-        // Listener to update sandwich quantity and cost when the spinner value changes.
-        quantity.valueProperty().addListener((obs, oldVal, newVal) -> {
-            sandwich.setQuantity(newVal);
-            updateCost();
-        });
-
-        // Explicit listener for the meatCombo to also update the protein in the sandwich.
-        meatCombo.setOnAction(e -> {
-            sandwich.setProtein(meatCombo.getValue());
-            updateSandwich();
-        });
-    }
-
-    /**
-     * Updates the sandwich model based on the current UI selections.
-     * Sets the bread and protein types, clears previous add-ons and adds new ones,
-     * and generates a descriptive name for the sandwich.
-     */
-    private void updateSandwich() {
-        // Set bread and protein from the selections.
-        sandwich.setBread(breadCombo.getValue());
-        if (meatCombo.getValue() != null) {
-            sandwich.setProtein(meatCombo.getValue());
-        }
-
-        // Clear any previously selected add-ons.
-        sandwich.getAddons().clear();
-        // Add selected add-ons.
-        if (lettuce.isSelected()) {
-            sandwich.addAddOns(AddOns.LETTUCE);
-        }
-        if (onions.isSelected()) {
-            sandwich.addAddOns(AddOns.ONIONS);
-        }
-        if (tomatoes.isSelected()) {
-            sandwich.addAddOns(AddOns.TOMATOES);
-        }
-        if (cheese.isSelected()) {
-            sandwich.addAddOns(AddOns.CHEESE);
-        }
-        if (avocado.isSelected()) {
-            sandwich.addAddOns(AddOns.AVOCADO);
-        }
-
-        // Build a descriptive name for the sandwich.
-        StringBuilder nameBuilder = new StringBuilder();
-        nameBuilder.append(breadCombo.getValue())
-                .append(" Sandwich with ")
-                .append(meatCombo.getValue());
-        // If add-ons are present, append them to the name.
-        if (!sandwich.getAddons().isEmpty()) {
-            nameBuilder.append(" (Add-ons: ");
-            String addonsStr = sandwich.getAddons().stream()
-                    .map(AddOns::toString)
-                    .reduce((a, b) -> a + ", " + b)
-                    .orElse("");
-            nameBuilder.append(addonsStr)
-                    .append(")");
-        }
-        sandwich.setName(nameBuilder.toString());
-
-        // Update the displayed cost.
-        updateCost();
-    }
-
-    /**
-     * Recalculates and updates the displayed cost of the sandwich.
-     * Adds an extra fee if the sandwich is part of a combo order.
-     */
-    private void updateCost() {
-        double totCost = sandwich.cost();
-        // Add an additional $2.00 if the combo option is selected.
-        if (isCombo) {
-            totCost += 2.00;
-        }
-        // Format the cost as currency and update the text field.
-        cost.setText(String.format("$%.2f", totCost));
-    }
-
-    /**
-     * Event handler for the "Add to Order" button.
-     * If the sandwich is marked as a combo, it opens the ComboView to allow additional customizations.
-     * Otherwise, it adds the sandwich directly to the current order and closes the window.
-     *
-     * @param event the triggering ActionEvent.
-     * @throws IOException if there is an error loading the ComboView.
-     */
-    @FXML
-    public void handleAddToOrder(ActionEvent event) throws IOException {
-        // Retrieve the current order from the MainController.
-        Order current = MainController.getCurrentOrder();
-        // If the sandwich is a combo, load the ComboView.
-        if (isCombo) {
-            try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/cs213project4/ComboView.fxml"));
-                Parent root = loader.load();
-                // Pass the sandwich model to the ComboController for further customization.
-                ComboController control = loader.getController();
-                control.setSandwich(sandwich);
-                // Create and show a new stage (window) for the combo customization.
-                Stage stage = new Stage();
-                stage.setTitle("Choose Combo Items");
-                stage.setScene(new Scene(root, 800, 800));
-                stage.show();
-            } catch (IOException e) {
-                e.printStackTrace();
-                Alert warning = new Alert(Alert.AlertType.ERROR);
-                warning.setTitle("Oh no is broke :(");
-                warning.setHeaderText("Could not load combo, please try again later...");
-            }
-        } else {
-            // If not a combo, add the sandwich directly to the current order.
-            current.addItem(sandwich);
-            // Close the sandwich ordering window.
-            ((Stage) addOrder.getScene().getWindow()).close();
-        }
-    }
-
-    /**
-     * Event handler for the "Cancel" button.
-     * Closes the current window without saving any changes.
-     *
-     * @param event the triggering ActionEvent.
-     */
-    public void handleCancel(ActionEvent event) {
-        ((Stage) cancel.getScene().getWindow()).close();
-    }
-}
+/**
+ * SandwichController.java
+ *
+ * Summary:
+ * This controller manages the UI interactions for customizing a sandwich order within the application.
+ * It allows the user to choose the bread type, protein, and a selection of add-ons such as lettuce,
+ * tomatoes, onions, avocado, and cheese. The controller also handles the sandwich quantity, calculates the cost
+ * (including an extra fee if the sandwich is part of a combo), and updates the displayed sandwich name.
+ * When a combo is selected, it invokes the ComboView to allow further customization.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+import javafx.beans.binding.Bindings;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.image.ImageView;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import com.example.cs213project4.model.*;
+import com.example.cs213project4.model.MenuItem;
+import javafx.scene.control.SpinnerValueFactory;
+import javafx.event.ActionEvent;
+
+public class SandwichController implements TabWindow {
+
+    // FXML Components for sandwich customization.
+    @FXML
+    private ComboBox<Bread> breadCombo;   // Dropdown for selecting the type of bread.
+    @FXML
+    private ComboBox<Protein> meatCombo;    // Dropdown for selecting the protein.
+    @FXML
+    private CheckBox lettuce;             // Checkbox to add lettuce.
+    @FXML
+    private CheckBox tomatoes;            // Checkbox to add tomatoes.
+    @FXML
+    private CheckBox onions;              // Checkbox to add onions.
+    @FXML
+    private CheckBox avocado;             // Checkbox to add avocado.
+    @FXML
+    private CheckBox cheese;              // Checkbox to add cheese.
+    @FXML
+    private CheckBox combo;               // Checkbox to mark the sandwich as part of a combo.
+    @FXML
+    private Spinner<Integer> quantity;    // Spinner to set the quantity of sandwiches.
+    @FXML
+    private TextField cost;               // Text field for displaying the sandwich cost.
+    @FXML
+    private Button addOrder;              // Button to add the sandwich (or combo) to the order.
+    @FXML
+    private Button cancel;                // Button to cancel the operation and close the window.
+    @FXML
+    private ImageView sandwichImage;      // ImageView to display the sandwich image (if used).
+
+    // Model representing the sandwich being built.
+    private Sandwich sandwich;
+    // Flag to indicate whether the sandwich is being ordered as a combo.
+    private boolean isCombo;
+    // Order number of the tab the sandwich is added to.
+    private int tab;
+    // Rebuilds the sandwich from the controls once per frame, however many of them changed.
+    private final Coalescer refresh = PulseScheduler.coalesce(this::updateSandwich);
+
+    /**
+     * Initializes the SandwichController.
+     * Sets up the initial sandwich model, default selections, and event listeners on UI components.
+     */
+    @FXML
+    public void initialize() {
+        // Create a new sandwich instance.
+        sandwich = new Sandwich();
+        // Initialize combo flag to false (i.e., not a combo by default).
+        isCombo = false;
+
+        // Populate the bread selection ComboBox with all available bread options.
+        breadCombo.getItems().addAll(Bread.values());
+        // Set the default bread selection.
+        breadCombo.setValue(Bread.BRIOCHE);
+        // Update the sandwich model when the bread selection changes.
+        breadCombo.setOnAction(e -> refresh.request());
+        // Grey out breads that have sold out.
+        AvailabilityService.disableSoldOut(breadCombo);
+
+        // Populate the protein selection ComboBox with available protein types.
+        meatCombo.getItems().addAll(Protein.ROAST_BEEF, Protein.SALMON, Protein.CHICKEN);
+        // When the protein selection is updated, adjust the sandwich accordingly.
+        meatCombo.setOnAction(e -> refresh.request());
+        AvailabilityService.disableSoldOut(meatCombo);
+
+        // Set up add-on check boxes to update the sandwich configuration when toggled.
+        lettuce.setOnAction(e -> refresh.request());
+        tomatoes.setOnAction(e -> refresh.request());
+        onions.setOnAction(e -> refresh.request());
+        cheese.setOnAction(e -> refresh.request());
+        avocado.setOnAction(e -> refresh.request());
+        // Disable add-ons while they are sold out.
+        AvailabilityService.disableSoldOut(lettuce, AddOns.LETTUCE);
+        AvailabilityService.disableSoldOut(tomatoes, AddOns.TOMATOES);
+        AvailabilityService.disableSoldOut(onions, AddOns.ONIONS);
+        AvailabilityService.disableSoldOut(cheese, AddOns.CHEESE);
+        AvailabilityService.disableSoldOut(avocado, AddOns.AVOCADO);
+
+        // Combo checkbox: update the combo flag when toggled.
+        combo.setOnAction(e -> isCombo = combo.isSelected());
+        // The cost follows the sandwich, plus the combo extra while combo is checked;
+        // it is only recalculated when it or the menu's prices changed.
+        cost.textProperty().bind(ReceiptLine.dollars(Bindings.createDoubleBinding(
+                () -> sandwich.costProperty().get()
+                        + (combo.isSelected() ? MenuCatalog.current().comboExtra() : 0.0),
+                sandwich.costProperty(), combo.selectedProperty(),
+                MenuCatalog.priceVersionProperty())));
+
+        // Configure the quantity spinner with a minimum of 1 and maximum of 10, defaulting to 1.
+        SpinnerValueFactory<Integer> valueFactory =
+                new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 10, 1);
+        quantity.setValueFactory(valueFactory);
+        // Update the sandwich quantity when the spinner value changes; a fast scroll is one update per frame.
+        quantity.valueProperty().addListener((obs, oldVal, newVal) -> refresh.request());
+    }
+
+    /**
+     * Updates the sandwich model based on the current UI selections.
+     * Sets the bread, protein and quantity, clears previous add-ons and adds new ones,
+     * and generates a descriptive name for the sandwich. Runs through refresh, at most
+     * once per frame.
+     */
+    private void updateSandwich() {
+        // Set bread, protein and quantity from the selections.
+        sandwich.setBread(breadCombo.getValue());
+        if (meatCombo.getValue() != null) {
+            sandwich.setProtein(meatCombo.getValue());
+        }
+        sandwich.setQuantity(quantity.getValue());
+
+        // Clear any previously selected add-ons.
+        sandwich.clearAddOns();
+        // Add selected add-ons.
+        if (lettuce.isSelected()) {
+            sandwich.addAddOns(AddOns.LETTUCE);
+        }
+        if (onions.isSelected()) {
+            sandwich.addAddOns(AddOns.ONIONS);
+        }
+        if (tomatoes.isSelected()) {
+            sandwich.addAddOns(AddOns.TOMATOES);
+        }
+        if (cheese.isSelected()) {
+            sandwich.addAddOns(AddOns.CHEESE);
+        }
+        if (avocado.isSelected()) {
+            sandwich.addAddOns(AddOns.AVOCADO);
+        }
+
+        // Build a descriptive name for the sandwich in one builder.
+        StringBuilder nameBuilder = new StringBuilder(64);
+        ReceiptLine.appendLabel(nameBuilder, breadCombo.getValue()).append(" Sandwich with ");
+        ReceiptLine.appendLabel(nameBuilder, meatCombo.getValue());
+        // If add-ons are present, append them to the name.
+        if (!sandwich.getAddons().isEmpty()) {
+            nameBuilder.append(" (Add-ons: ");
+            for (int i = 0; i < sandwich.getAddons().size(); i++) {
+                if (i > 0) {
+                    nameBuilder.append(", ");
+                }
+                ReceiptLine.appendLabel(nameBuilder, sandwich.getAddons().get(i));
+            }
+            nameBuilder.append(")");
+        }
+        sandwich.setName(nameBuilder.toString());
+    }
+
+    /**
+     * Event handler for the "Add to Order" button.
+     * If the sandwich is marked as a combo, it opens the ComboView to allow additional customizations.
+     * Otherwise, it adds the sandwich directly to the order of the tab the window was opened for
+     * and closes the window.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    @FXML
+    public void handleAddToOrder(ActionEvent event) {
+        // Apply any selection made since the last frame.
+        refresh.flush();
+        // The sandwich model starts out with a protein of its own; only add what the cashier chose.
+        if (meatCombo.getValue() == null) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Choose a Protein");
+            alert.setHeaderText("No protein chosen");
+            alert.setContentText("Choose a protein before adding the sandwich to the order.");
+            alert.showAndWait();
+            return;
+        }
+        // If the sandwich is a combo, load the ComboView.
+        if (isCombo) {
+            // The combo gets a copy, so later changes in this window don't reach a line already ordered.
+            Sandwich ordered = sandwich.copy();
+            // Load the ComboView in the background and show it once it is ready.
+            AsyncService.onFx(AsyncService.loadView("/com/example/cs213project4/ComboView.fxml"), loader -> {
+                // Pass the sandwich to the ComboController for further customization.
+                ComboController control = loader.getController();
+                control.setSandwich(ordered);
+                control.setTab(tab);
+                // Create and show a new stage (window) for the combo customization.
+                Stage stage = new Stage();
+                stage.setTitle("Choose Combo Items");
+                stage.setScene(new Scene(loader.getRoot(), 800, 800));
+                stage.show();
+            }, error -> {
+                error.printStackTrace();
+                Alert warning = new Alert(Alert.AlertType.ERROR);
+                warning.setTitle("Oh no is broke :(");
+                warning.setHeaderText("Could not load combo, please try again later...");
+            });
+        } else {
+            // If not a combo, add the sandwich directly to the tab's order and close the window.
+            if (MainController.addToTab(tab, sandwich)) {
+                ((Stage) addOrder.getScene().getWindow()).close();
+            }
+        }
+    }
+
+    /**
+     * Sets the tab the sandwich is added to.
+     *
+     * @param orderNum the order number of the tab.
+     */
+    @Override
+    public void setTab(int orderNum) {
+        tab = orderNum;
+    }
+
+    /**
+     * Event handler for the "Cancel" button.
+     * Closes the current window without saving any changes.
+     *
+     * @param event the triggering ActionEvent.
+     */
+    public void handleCancel(ActionEvent event) {
+        ((Stage) cancel.getScene().getWindow()).close();
+    }
+}
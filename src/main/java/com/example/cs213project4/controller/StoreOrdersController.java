@@ -1,154 +1,334 @@
-/**
- * StoreOrdersController.java
- *
- * Summary:
- * This controller manages the UI for viewing, canceling, and exporting stored orders.
- * It displays a list of stored orders, shows the details of the selected order, and
- * allows the user to cancel or export orders via file chooser dialogs.
- *
- * @authors
- * Anirudh Deveram
- * Karthik Penumetch
- */
-
-package com.example.cs213project4.controller;
-
-import com.example.cs213project4.model.Order;
-import com.example.cs213project4.model.StoredOrder;
-import javafx.event.ActionEvent;
-import javafx.fxml.FXML;
-import javafx.scene.control.*;
-import javafx.stage.FileChooser;
-import javafx.stage.Stage;
-import java.io.File;
-
-public class StoreOrdersController {
-
-    // FXML components injected from the view.
-    @FXML
-    private ListView<Order> orderList;      // List view displaying all stored orders.
-    @FXML
-    private TextArea orderDetails;          // Text area for showing detailed info of the selected order.
-    @FXML
-    private Button cancelOrder;             // Button to cancel the currently selected order.
-    @FXML
-    private Button exportOrder;             // Button to export all stored orders to a file.
-    @FXML
-    private Button close;                   // Button to close the order management window.
-
-    // The stored orders model.
-    private StoredOrder sOrder;
-
-    /**
-     * Initializes the StoreOrdersController.
-     * Sets up the stored order model, updates the order list, and configures listeners
-     * for order selection changes and button states.
-     */
-    public void initialize() {
-        // Retrieve the stored orders from the MainController.
-        sOrder = MainController.getStoredOrder();
-        // Populate the order list with current stored orders.
-        updateOrderList();
-
-        // Add a listener to update the order details display when a new order is selected.
-        orderList.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue != null) {
-                orderDetails.setText(newValue.toString());
-                cancelOrder.setDisable(false);
-            } else {
-                orderDetails.clear();
-                cancelOrder.setDisable(true);
-            }
-        });
-
-        // Initially, cancel button should be disabled until an order is selected.
-        cancelOrder.setDisable(true);
-        // Disable export button if there are no orders in storage.
-        exportOrder.setDisable(sOrder.getOrders().isEmpty());
-    }
-
-    /**
-     * Updates the order list view with the latest stored orders.
-     * Also enables or disables the export button based on whether orders exist.
-     */
-    private void updateOrderList() {
-        orderList.getItems().clear();
-        orderList.getItems().addAll(sOrder.getOrders());
-        exportOrder.setDisable(sOrder.getOrders().isEmpty());
-    }
-
-    /**
-     * Handles the event for canceling a selected order.
-     * Prompts the user for confirmation, cancels the order if confirmed,
-     * and updates the UI accordingly.
-     */
-    public void handleCancelOrder() {
-        // Get the currently selected order from the list.
-        Order selected = orderList.getSelectionModel().getSelectedItem();
-        if (selected != null) {
-            // Create a confirmation alert before canceling the order.
-            Alert warning = new Alert(Alert.AlertType.CONFIRMATION);
-            warning.setTitle("Cancel Order");
-            warning.setHeaderText("Cancel Order #" + selected.getNumber());
-            warning.setContentText("Are you sure you want to cancel your order?");
-            // Show the alert and wait for user response.
-            warning.showAndWait().ifPresent(response -> {
-                if (response == ButtonType.OK) {
-                    // If confirmed, cancel the order in the stored orders model.
-                    sOrder.cancelOrder(selected.getNumber());
-                    // Refresh the order list and clear the order details.
-                    updateOrderList();
-                    orderDetails.clear();
-                    // Disable the cancel order button as no order is now selected.
-                    cancelOrder.setDisable(true);
-                }
-            });
-        }
-    }
-
-    /**
-     * Handles the event for closing the stored orders window.
-     *
-     * @param event the ActionEvent triggered by clicking the close button.
-     */
-    public void handleClose(ActionEvent event) {
-        ((Stage) close.getScene().getWindow()).close();
-    }
-
-    /**
-     * Handles the event for exporting stored orders.
-     * Opens a file chooser to select the destination file and attempts to export orders.
-     * Displays a success or failure message accordingly.
-     *
-     * @param event the ActionEvent triggered when the export button is clicked.
-     */
-    @FXML
-    private void handleExportOrders(ActionEvent event) {
-        // Setup and configure the file chooser.
-        FileChooser chooser = new FileChooser();
-        chooser.setTitle("Export Orders");
-        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
-        chooser.setInitialFileName("RUBurger_Orders.txt");
-
-        // Open the file save dialog.
-        File file = chooser.showSaveDialog(exportOrder.getScene().getWindow());
-        if (file != null) {
-            // Attempt to export orders to the selected file path.
-            boolean success = sOrder.exportOrders(file.getAbsolutePath());
-            // Notify the user of the result.
-            if (success) {
-                Alert pass = new Alert(Alert.AlertType.INFORMATION);
-                pass.setTitle("Export Successful");
-                pass.setHeaderText("Orders Exported");
-                pass.setContentText("Orders have been exported successfully to " + file.getAbsolutePath());
-                pass.showAndWait();
-            } else {
-                Alert failure = new Alert(Alert.AlertType.ERROR);
-                failure.setTitle("Export Failed");
-                failure.setHeaderText("Orders Export Failed");
-                failure.setContentText("There was an error exporting the orders.");
-                failure.showAndWait();
-            }
-        }
-    }
-}
+/**
+ * StoreOrdersController.java
+ *
+ * Summary:
+ * This controller manages the UI for viewing, canceling, and exporting stored orders.
+ * It displays a list of stored orders, shows the details of the selected order, and
+ * allows the user to cancel, export or import orders via file chooser dialogs. It follows the
+ * order event bus to keep the list current and show which orders are ready for pickup, and
+ * publishes PICKED_UP when the counter hands an order over.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+import com.example.cs213project4.model.Order;
+import com.example.cs213project4.model.OrderArchive;
+import com.example.cs213project4.model.OrderEventBus;
+import com.example.cs213project4.model.OrderEventHandler;
+import com.example.cs213project4.model.OrderImporter;
+import com.example.cs213project4.model.OrderStage;
+import com.example.cs213project4.model.StoredOrder;
+import javafx.animation.AnimationTimer;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class StoreOrdersController {
+
+    // FXML components injected from the view.
+    @FXML
+    private ListView<Order> orderList;      // List view displaying all stored orders.
+    @FXML
+    private TextArea orderDetails;          // Text area for showing detailed info of the selected order.
+    @FXML
+    private Label readyBoard;               // Label listing the orders ready for pickup.
+    @FXML
+    private Button cancelOrder;             // Button to cancel the currently selected order.
+    @FXML
+    private Button pickedUp;                // Button to mark the selected order as handed over.
+    @FXML
+    private Button exportOrder;             // Button to export all stored orders to a file.
+    @FXML
+    private Button importOrder;             // Button to import orders from a text or CSV file.
+    @FXML
+    private Button close;                   // Button to close the order management window.
+
+    // The stored orders model.
+    private StoredOrder sOrder;
+    // This view's position on the order event bus.
+    private OrderEventBus.Reader events;
+    // Orders ready and not yet picked up, oldest first.
+    private final Set<Integer> ready = new LinkedHashSet<>();
+    // Set by the event handler when the list or the ready board needs redrawing.
+    private boolean listChanged;
+    private boolean readyChanged;
+    // Handles the events of one poll; made once so polling allocates nothing when idle.
+    private final OrderEventHandler onEvent = (stage, orderNum, time) -> {
+        switch (stage) {
+            case PLACED -> listChanged = true;
+            case READY -> readyChanged |= ready.add(orderNum);
+            case PICKED_UP -> readyChanged |= ready.remove(orderNum);
+            case CANCELLED -> {
+                listChanged = true;
+                readyChanged |= ready.remove(orderNum);
+            }
+            default -> {
+                // IN_PREP changes nothing shown here.
+            }
+        }
+    };
+    // Polls the event bus once per frame while the window is open.
+    private final AnimationTimer poller = new AnimationTimer() {
+        private boolean shown;
+
+        @Override
+        public void handle(long now) {
+            // Stop once the window has been closed, so the timer does not keep this view alive.
+            boolean showing = orderList.getScene() != null && orderList.getScene().getWindow() != null
+                    && orderList.getScene().getWindow().isShowing();
+            if (shown && !showing) {
+                stop();
+                return;
+            }
+            shown |= showing;
+            pollEvents();
+        }
+    };
+
+    /**
+     * Initializes the StoreOrdersController.
+     * Sets up the stored order model, updates the order list, and configures listeners
+     * for order selection changes and button states.
+     */
+    public void initialize() {
+        // Retrieve the stored orders from the MainController.
+        sOrder = MainController.getStoredOrder();
+        // Populate the order list with current stored orders.
+        updateOrderList();
+
+        // Add a listener to update the order details display when a new order is selected.
+        orderList.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue != null) {
+                orderDetails.setText(newValue.toString());
+                cancelOrder.setDisable(false);
+            } else {
+                orderDetails.clear();
+                cancelOrder.setDisable(true);
+            }
+        });
+
+        // Keep the picked up button in step with the selection as well.
+        orderList.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) ->
+                pickedUp.setDisable(newValue == null || !ready.contains(newValue.getNumber())));
+
+        // Initially, cancel button should be disabled until an order is selected.
+        cancelOrder.setDisable(true);
+        pickedUp.setDisable(true);
+
+        // Catch up on recent events, then follow new ones every frame.
+        events = MainController.getEvents().subscribe();
+        events.poll(onEvent);
+        listChanged = false;
+        readyChanged = true;
+        showEvents();
+        poller.start();
+        // Disable export button if there are no orders in storage.
+        exportOrder.setDisable(sOrder.getOrders().isEmpty());
+    }
+
+    /**
+     * Updates the order list view with the latest stored orders.
+     * Also enables or disables the export button based on whether orders exist.
+     */
+    private void updateOrderList() {
+        orderList.getItems().clear();
+        orderList.getItems().addAll(sOrder.getOrders());
+        exportOrder.setDisable(sOrder.getOrders().isEmpty());
+    }
+
+    /**
+     * Takes the events published since the last frame and redraws what they changed.
+     */
+    private void pollEvents() {
+        if (events.poll(onEvent) > 0) {
+            showEvents();
+        }
+    }
+
+    /**
+     * Redraws the order list and the ready board if events changed them.
+     */
+    private void showEvents() {
+        if (listChanged) {
+            listChanged = false;
+            // Refresh the list, keeping the same order selected.
+            Order selected = orderList.getSelectionModel().getSelectedItem();
+            updateOrderList();
+            if (selected != null) {
+                for (Order order : orderList.getItems()) {
+                    if (order.getNumber() == selected.getNumber()) {
+                        orderList.getSelectionModel().select(order);
+                        break;
+                    }
+                }
+            }
+        }
+        if (readyChanged) {
+            readyChanged = false;
+            readyBoard.setText(ready.isEmpty()
+                    ? "Ready for pickup: none"
+                    : "Ready for pickup: " + ready.stream().map(n -> "#" + n).collect(Collectors.joining(", ")));
+            Order selected = orderList.getSelectionModel().getSelectedItem();
+            pickedUp.setDisable(selected == null || !ready.contains(selected.getNumber()));
+        }
+    }
+
+    /**
+     * Handles the event for handing the selected order to the customer.
+     * Publishes PICKED_UP, which takes it off the ready board here and on every other view.
+     *
+     * @param event the ActionEvent triggered by clicking the picked up button.
+     */
+    @FXML
+    private void handlePickedUp(ActionEvent event) {
+        Order selected = orderList.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            MainController.getEvents().publish(OrderStage.PICKED_UP, selected.getNumber());
+            pollEvents();
+        }
+    }
+
+    /**
+     * Handles the event for canceling a selected order.
+     * Prompts the user for confirmation, cancels the order if confirmed,
+     * and updates the UI accordingly.
+     */
+    public void handleCancelOrder() {
+        // Get the currently selected order from the list.
+        Order selected = orderList.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            // Create a confirmation alert before canceling the order.
+            Alert warning = new Alert(Alert.AlertType.CONFIRMATION);
+            warning.setTitle("Cancel Order");
+            warning.setHeaderText("Cancel Order #" + selected.getNumber());
+            warning.setContentText("Are you sure you want to cancel your order?");
+            // Show the alert and wait for user response.
+            warning.showAndWait().ifPresent(response -> {
+                if (response == ButtonType.OK) {
+                    // If confirmed, cancel the order in the stored orders model.
+                    sOrder.cancelOrder(selected.getNumber());
+                    // Refresh the order list and clear the order details.
+                    updateOrderList();
+                    orderDetails.clear();
+                    // Disable the cancel order button as no order is now selected.
+                    cancelOrder.setDisable(true);
+                }
+            });
+        }
+    }
+
+    /**
+     * Handles the event for closing the stored orders window.
+     *
+     * @param event the ActionEvent triggered by clicking the close button.
+     */
+    public void handleClose(ActionEvent event) {
+        poller.stop();
+        ((Stage) close.getScene().getWindow()).close();
+    }
+
+    /**
+     * Handles the event for exporting stored orders.
+     * Opens a file chooser to select the destination file and attempts to export orders.
+     * Displays a success or failure message accordingly.
+     *
+     * @param event the ActionEvent triggered when the export button is clicked.
+     */
+    @FXML
+    private void handleExportOrders(ActionEvent event) {
+        // Setup and configure the file chooser.
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Orders");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        chooser.setInitialFileName("RUBurger_Orders.txt");
+
+        // Open the file save dialog.
+        File file = chooser.showSaveDialog(exportOrder.getScene().getWindow());
+        if (file != null) {
+            // Take a snapshot of the orders here, then write the file on a background thread,
+            // as CSV if a .csv file was chosen.
+            OrderArchive orders = sOrder.snapshot();
+            String path = file.getAbsolutePath();
+            boolean csv = file.getName().toLowerCase().endsWith(".csv");
+            exportOrder.setDisable(true);
+            AsyncService.onFx(AsyncService.supply(() -> csv
+                    ? StoredOrder.exportCsv(orders, path)
+                    : StoredOrder.exportOrders(orders, path)), success -> {
+                exportOrder.setDisable(sOrder.getOrders().isEmpty());
+                // Notify the user of the result.
+                if (success) {
+                    Alert pass = new Alert(Alert.AlertType.INFORMATION);
+                    pass.setTitle("Export Successful");
+                    pass.setHeaderText("Orders Exported");
+                    pass.setContentText("Orders have been exported successfully to " + path);
+                    pass.showAndWait();
+                } else {
+                    showExportFailure();
+                }
+            }, error -> {
+                exportOrder.setDisable(sOrder.getOrders().isEmpty());
+                showExportFailure();
+            });
+        }
+    }
+
+    /**
+     * Tells the user that exporting the orders failed.
+     */
+    private void showExportFailure() {
+        Alert failure = new Alert(Alert.AlertType.ERROR);
+        failure.setTitle("Export Failed");
+        failure.setHeaderText("Orders Export Failed");
+        failure.setContentText("There was an error exporting the orders.");
+        failure.showAndWait();
+    }
+
+    /**
+     * Handles the event for importing orders.
+     * Opens a file chooser for a text report or CSV file and adds its orders to the stored orders.
+     * Orders that are already stored are skipped.
+     *
+     * @param event the ActionEvent triggered when the import button is clicked.
+     */
+    @FXML
+    private void handleImportOrders(ActionEvent event) {
+        // Setup and configure the file chooser.
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Orders");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Order Files", "*.txt", "*.csv"));
+
+        // Open the file open dialog.
+        File file = chooser.showOpenDialog(importOrder.getScene().getWindow());
+        if (file != null) {
+            // Parse the file on a background thread and refresh the list once the orders are added.
+            importOrder.setDisable(true);
+            AsyncService.onFx(AsyncService.supply(() -> OrderImporter.importOrders(file.toPath(), sOrder)), added -> {
+                importOrder.setDisable(false);
+                updateOrderList();
+                Alert pass = new Alert(Alert.AlertType.INFORMATION);
+                pass.setTitle("Import Successful");
+                pass.setHeaderText("Orders Imported");
+                pass.setContentText(added + " orders were imported from " + file.getAbsolutePath());
+                pass.showAndWait();
+            }, error -> {
+                importOrder.setDisable(false);
+                Alert failure = new Alert(Alert.AlertType.ERROR);
+                failure.setTitle("Import Failed");
+                failure.setHeaderText("Orders Import Failed");
+                failure.setContentText(error.getMessage());
+                failure.showAndWait();
+            });
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * TabWindow.java
+ *
+ * Summary:
+ * A window that works on one open tab. MainController tells it which tab was active when
+ * the window was opened, and the window keeps adding to or showing that tab even if the
+ * cashier switches to another tab in the meantime.
+ *
+ * @authors
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.controller;
+
+interface TabWindow {
+
+    /**
+     * Sets the tab the window works on. Called on the FX thread before the window is shown.
+     *
+     * @param orderNum the order number of the tab.
+     */
+    void setTab(int orderNum);
+}
@@ -0,0 +1,84 @@
+/**
+ * Availability.java
+ *
+ * Summary:
+ * Batches an Inventory's sold-out events before they reach the screen. Stock can change
+ * hundreds of times a second while the registers are busy, but the menu only needs to know
+ * where each ingredient stands when it next draws. Changes are collected into a map keyed by
+ * ingredient, where a later change replaces an earlier one, and a single flush is handed to
+ * the delivery executor (the FX thread, in the application) however many changes arrive
+ * before it runs. The flush passes the whole batch on at once.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class Availability implements StockListener {
+	private final Executor deliver;
+	private final Consumer<Map<String, Boolean>> apply;
+	// Latest availability of each ingredient that changed since the last flush.
+	private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+	// Set while a flush is waiting on the delivery executor.
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private volatile long flushes;
+
+	/**
+	 * Creates a batcher; register it with Inventory.addListener().
+	 *
+	 * @param deliver runs the flushes, e.g. Platform::runLater.
+	 * @param apply receives each batch on the delivery executor, mapping ingredients to
+	 *              whether they are available now.
+	 */
+	public Availability(Executor deliver, Consumer<Map<String, Boolean>> apply) {
+		this.deliver = deliver;
+		this.apply = apply;
+	}
+
+	@Override
+	public void lowStock(String ingredient, long remaining) {
+		// Only sold-out changes affect what can be ordered.
+	}
+
+	@Override
+	public void availabilityChanged(String ingredient, boolean available) {
+		pending.put(ingredient, available);
+		if (scheduled.compareAndSet(false, true)) {
+			deliver.execute(this::flush);
+		}
+	}
+
+	private void flush() {
+		// Clear the flag first, so a change arriving during the drain schedules another flush.
+		scheduled.set(false);
+		Map<String, Boolean> batch = new HashMap<>();
+		for (String ingredient : pending.keySet()) {
+			Boolean available = pending.remove(ingredient);
+			if (available != null) {
+				batch.put(ingredient, available);
+			}
+		}
+		if (!batch.isEmpty()) {
+			flushes++;
+			apply.accept(batch);
+		}
+	}
+
+	/**
+	 * Returns how many batches have been delivered.
+	 *
+	 * @return the flush count.
+	 */
+	public long getFlushes() {
+		return flushes;
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * CatalogWatcher.java
+ *
+ * Summary:
+ * Keeps MenuCatalog.current() in step with the catalog file. The file's directory is watched
+ * with a WatchService on a daemon thread; when the file is created or changed it is parsed
+ * into a fresh catalog, which replaces the current one in a single swap. A file that does not
+ * parse is reported and the previous catalog stays in use, so a half-saved edit never takes
+ * the menu down.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class CatalogWatcher implements AutoCloseable {
+	// Editors often save in several writes; wait this long after the last event before reading.
+	private static final long SETTLE_MILLIS = 100;
+
+	private final Path file;
+	private final WatchService watcher;
+	private final Consumer<MenuCatalog> onReload;
+	// Set by start() once the watcher is built.
+	private Thread thread;
+	private volatile long reloads;
+
+	private CatalogWatcher(Path file, Consumer<MenuCatalog> onReload) throws IOException {
+		this.file = file.toAbsolutePath();
+		this.onReload = onReload;
+		Path directory = Files.createDirectories(this.file.getParent());
+		this.watcher = directory.getFileSystem().newWatchService();
+		directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+
+	/**
+	 * Loads the catalog file, if it exists, and starts watching it.
+	 *
+	 * @param file the catalog file.
+	 * @param onReload called on the watcher thread with each catalog swapped in after a change,
+	 *                 or null.
+	 * @return the watcher.
+	 * @throws IOException if the file's directory cannot be watched.
+	 */
+	public static CatalogWatcher start(Path file, Consumer<MenuCatalog> onReload) throws IOException {
+		CatalogWatcher catalog = new CatalogWatcher(file, onReload);
+		try {
+			if (Files.exists(catalog.file)) {
+				MenuCatalog.setCurrent(MenuCatalog.load(catalog.file));
+			}
+		} catch (IOException | RuntimeException e) {
+			catalog.watcher.close();
+			throw e;
+		}
+		catalog.thread = new Thread(catalog::watch, "catalog-watcher");
+		catalog.thread.setDaemon(true);
+		catalog.thread.start();
+		return catalog;
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = watcher.take();
+				boolean changed = touches(key);
+				// Collect the rest of a burst of writes before reading the file.
+				WatchKey more;
+				while ((more = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					changed |= touches(more);
+				}
+				if (changed) {
+					reload();
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// Closed.
+		}
+	}
+
+	/**
+	 * Drains a watch key and tells whether any of its events were for the catalog file.
+	 */
+	private boolean touches(WatchKey key) {
+		boolean touched = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+				touched = true;
+			}
+		}
+		key.reset();
+		return touched;
+	}
+
+	/**
+	 * Reads the file again and swaps in the new catalog, keeping the old one on any error.
+	 *
+	 * @return true if a new catalog was swapped in.
+	 */
+	public synchronized boolean reload() {
+		if (!Files.exists(file)) {
+			return false;
+		}
+		try {
+			MenuCatalog catalog = MenuCatalog.load(file);
+			MenuCatalog.setCurrent(catalog);
+			reloads++;
+			if (onReload != null) {
+				onReload.accept(catalog);
+			}
+			return true;
+		} catch (IOException | RuntimeException e) {
+			System.out.println("Menu catalog not reloaded, keeping the previous one: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Returns how many times the catalog has been reloaded since the watcher started.
+	 *
+	 * @return the reload count.
+	 */
+	public long getReloads() {
+		return reloads;
+	}
+
+	/**
+	 * Stops watching. The current catalog stays in use.
+	 */
+	@Override
+	public void close() {
+		try {
+			watcher.close();
+		} catch (IOException e) {
+			// Nothing left to release.
+		}
+		thread.interrupt();
+	}
+}
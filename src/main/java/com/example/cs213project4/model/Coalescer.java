@@ -0,0 +1,83 @@
+/**
+ * Coalescer.java
+ *
+ * Summary:
+ * Collapses bursts of requests for the same update into one run. An ordering view asks for
+ * its item to be rebuilt on every check box, combo box and spinner tick, and scrolling a
+ * spinner or clicking through add-ons fires many of those between two frames. The first
+ * request hands one run to the scheduling executor (the next JavaFX pulse, in the
+ * application) and later requests only join it, so the update runs once with the view's
+ * latest state. flush() runs a pending update straight away, for code that needs the result
+ * before the scheduled run, such as adding the item to the order.
+ *
+ * A coalescer is used from one thread; in the application, the FX thread.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.concurrent.Executor;
+
+public class Coalescer {
+	private final Executor schedule;
+	private final Runnable update;
+	// Set from the first request until the update runs.
+	private boolean pending;
+	private long requests;
+	private long runs;
+
+	/**
+	 * Creates a coalescer.
+	 *
+	 * @param schedule runs the update later, e.g. on the next pulse.
+	 * @param update the update to run.
+	 */
+	public Coalescer(Executor schedule, Runnable update) {
+		this.schedule = schedule;
+		this.update = update;
+	}
+
+	/**
+	 * Asks for the update to run. Requests made before it runs are served by the same run.
+	 */
+	public void request() {
+		requests++;
+		if (!pending) {
+			pending = true;
+			schedule.execute(this::flush);
+		}
+	}
+
+	/**
+	 * Runs the update now if it has been requested and not run yet.
+	 */
+	public void flush() {
+		if (pending) {
+			// Cleared first, so a request made by the update itself schedules another run.
+			pending = false;
+			runs++;
+			update.run();
+		}
+	}
+
+	/**
+	 * Returns how many times the update has been requested.
+	 *
+	 * @return the request count.
+	 */
+	public long getRequests() {
+		return requests;
+	}
+
+	/**
+	 * Returns how many times the update has run.
+	 *
+	 * @return the run count.
+	 */
+	public long getRuns() {
+		return runs;
+	}
+}
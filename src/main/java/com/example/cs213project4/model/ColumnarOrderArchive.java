@@ -0,0 +1,396 @@
+/**
+ * ColumnarOrderArchive.java
+ *
+ * Summary:
+ * An in-memory OrderArchive that keeps every column in its own primitive array.
+ * Appending an order writes one slot into the order table and one row per item into
+ * the line table, so a placed order costs a handful of ints instead of a list of objects.
+ * Cancelled orders leave their line rows behind until enough of them pile up to be compacted.
+ *
+ * Snapshots share the arrays instead of copying them. Appends only write past the end a
+ * snapshot can see, so they stay in place; removals and compaction copy the arrays first
+ * while a snapshot still holds them.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.Arrays;
+
+public class ColumnarOrderArchive extends OrderArchive {
+	// Order table columns, one entry per slot.
+	private int[] orderNums;
+	private int[] firstLines;
+	private int[] lineCounts;
+	private int orders;
+
+	// Line table columns, one entry per line item.
+	private byte[] types;
+	private int[] configs;
+	private int[] quantities;
+	private int[] cents;
+	private int lines;
+	// Rows that belong to removed orders and are waiting to be compacted.
+	private int deadLines;
+
+	private final IntIndex index;
+	private int maxOrderNum;
+	// Set while a snapshot refers to the current arrays.
+	private boolean shared;
+
+	/**
+	 * Creates an empty archive.
+	 */
+	public ColumnarOrderArchive() {
+		this(64, 256);
+	}
+
+	/**
+	 * Creates an empty archive with room for the given number of orders and line items.
+	 *
+	 * @param orderCapacity the initial order capacity.
+	 * @param lineCapacity the initial line capacity.
+	 */
+	public ColumnarOrderArchive(int orderCapacity, int lineCapacity) {
+		orderNums = new int[orderCapacity];
+		firstLines = new int[orderCapacity];
+		lineCounts = new int[orderCapacity];
+		types = new byte[lineCapacity];
+		configs = new int[lineCapacity];
+		quantities = new int[lineCapacity];
+		cents = new int[lineCapacity];
+		index = new IntIndex(orderCapacity);
+	}
+
+	@Override
+	public int orderCount() {
+		return orders;
+	}
+
+	@Override
+	public int orderNumber(int slot) {
+		return orderNums[slot];
+	}
+
+	@Override
+	public int firstLine(int slot) {
+		return firstLines[slot];
+	}
+
+	@Override
+	public int lineCount(int slot) {
+		return lineCounts[slot];
+	}
+
+	@Override
+	public int itemType(int line) {
+		return types[line];
+	}
+
+	@Override
+	public int config(int line) {
+		return configs[line];
+	}
+
+	@Override
+	public int quantity(int line) {
+		return quantities[line];
+	}
+
+	@Override
+	public int cents(int line) {
+		return cents[line];
+	}
+
+	@Override
+	public long subtotalCents(int slot) {
+		int first = firstLines[slot];
+		return OrderPricer.sum(cents, first, first + lineCounts[slot]);
+	}
+
+	@Override
+	public int find(int orderNum) {
+		return index.get(orderNum);
+	}
+
+	@Override
+	public int maxOrderNumber() {
+		return maxOrderNum;
+	}
+
+	@Override
+	public void append(Order order) {
+		var items = order.getItems();
+		ensureOrderCapacity(orders + 1);
+		ensureLineCapacity(lines + items.size());
+
+		orderNums[orders] = order.getNumber();
+		firstLines[orders] = lines;
+		lineCounts[orders] = items.size();
+		for (MenuItem item : items) {
+			types[lines] = (byte) ItemCodec.type(item);
+			configs[lines] = ItemCodec.pack(item);
+			quantities[lines] = item.getQuantity();
+			cents[lines] = ItemCodec.cents(item.cost());
+			lines++;
+		}
+		index.put(order.getNumber(), orders);
+		orders++;
+		maxOrderNum = Math.max(maxOrderNum, order.getNumber());
+	}
+
+	@Override
+	public boolean remove(int orderNum) {
+		int slot = index.get(orderNum);
+		if (slot < 0) {
+			return false;
+		}
+		unshare();
+		deadLines += lineCounts[slot];
+		int tail = orders - slot - 1;
+		System.arraycopy(orderNums, slot + 1, orderNums, slot, tail);
+		System.arraycopy(firstLines, slot + 1, firstLines, slot, tail);
+		System.arraycopy(lineCounts, slot + 1, lineCounts, slot, tail);
+		orders--;
+		index.remove(orderNum);
+		for (int i = slot; i < orders; i++) {
+			index.put(orderNums[i], i);
+		}
+		if (deadLines > 1024 && deadLines > lines - deadLines) {
+			compact();
+		}
+		return true;
+	}
+
+	/**
+	 * Drops the line rows of removed orders and closes the gaps they left.
+	 */
+	public void compact() {
+		unshare();
+		int write = 0;
+		for (int slot = 0; slot < orders; slot++) {
+			int read = firstLines[slot];
+			int count = lineCounts[slot];
+			if (read != write) {
+				System.arraycopy(types, read, types, write, count);
+				System.arraycopy(configs, read, configs, write, count);
+				System.arraycopy(quantities, read, quantities, write, count);
+				System.arraycopy(cents, read, cents, write, count);
+				firstLines[slot] = write;
+			}
+			write += count;
+		}
+		lines = write;
+		deadLines = 0;
+	}
+
+	/**
+	 * Returns a read-only view of the archive as it is now, sharing its arrays.
+	 * Taking a snapshot is O(1) no matter how many orders the archive holds.
+	 *
+	 * @return a frozen view of the archive.
+	 */
+	@Override
+	public OrderArchive snapshot() {
+		shared = true;
+		return new Snapshot(this);
+	}
+
+	/**
+	 * Copies the live orders of any archive into a new, compacted ColumnarOrderArchive.
+	 *
+	 * @param source the archive to copy.
+	 * @return the copy.
+	 */
+	static ColumnarOrderArchive copyOf(OrderArchive source) {
+		int lineTotal = 0;
+		for (int slot = 0; slot < source.orderCount(); slot++) {
+			lineTotal += source.lineCount(slot);
+		}
+		ColumnarOrderArchive copy = new ColumnarOrderArchive(Math.max(source.orderCount(), 1), Math.max(lineTotal, 1));
+		for (int slot = 0; slot < source.orderCount(); slot++) {
+			int first = source.firstLine(slot);
+			int count = source.lineCount(slot);
+			copy.appendRaw(source.orderNumber(slot), count);
+			for (int line = first; line < first + count; line++) {
+				copy.setLine(source.itemType(line), source.config(line), source.quantity(line), source.cents(line));
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Appends an order slot whose line rows are filled in by the next calls to setLine().
+	 * Used when loading orders that are already in packed form.
+	 *
+	 * @param orderNum the order number.
+	 * @param lineCount the number of line rows that follow.
+	 */
+	void appendRaw(int orderNum, int lineCount) {
+		ensureOrderCapacity(orders + 1);
+		ensureLineCapacity(lines + lineCount);
+		orderNums[orders] = orderNum;
+		firstLines[orders] = lines;
+		lineCounts[orders] = lineCount;
+		index.put(orderNum, orders);
+		orders++;
+		maxOrderNum = Math.max(maxOrderNum, orderNum);
+	}
+
+	/**
+	 * Writes the next line row of the order most recently added with appendRaw().
+	 *
+	 * @param type the item type code.
+	 * @param config the packed configuration.
+	 * @param quantity the quantity.
+	 * @param cost the line cost in cents.
+	 */
+	void setLine(int type, int config, int quantity, int cost) {
+		types[lines] = (byte) type;
+		configs[lines] = config;
+		quantities[lines] = quantity;
+		cents[lines] = cost;
+		lines++;
+	}
+
+	/**
+	 * Gives this archive its own copy of the arrays if a snapshot is still using them.
+	 */
+	private void unshare() {
+		if (shared) {
+			orderNums = orderNums.clone();
+			firstLines = firstLines.clone();
+			lineCounts = lineCounts.clone();
+			types = types.clone();
+			configs = configs.clone();
+			quantities = quantities.clone();
+			cents = cents.clone();
+			shared = false;
+		}
+	}
+
+	private void ensureOrderCapacity(int needed) {
+		if (needed > orderNums.length) {
+			int capacity = Math.max(needed, orderNums.length * 2);
+			orderNums = Arrays.copyOf(orderNums, capacity);
+			firstLines = Arrays.copyOf(firstLines, capacity);
+			lineCounts = Arrays.copyOf(lineCounts, capacity);
+		}
+	}
+
+	private void ensureLineCapacity(int needed) {
+		if (needed > configs.length) {
+			int capacity = Math.max(needed, configs.length * 2);
+			types = Arrays.copyOf(types, capacity);
+			configs = Arrays.copyOf(configs, capacity);
+			quantities = Arrays.copyOf(quantities, capacity);
+			cents = Arrays.copyOf(cents, capacity);
+		}
+	}
+
+	/**
+	 * A frozen view over the arrays of a ColumnarOrderArchive at the moment it was taken.
+	 */
+	private static final class Snapshot extends OrderArchive {
+		private final int[] orderNums;
+		private final int[] firstLines;
+		private final int[] lineCounts;
+		private final int orders;
+		private final byte[] types;
+		private final int[] configs;
+		private final int[] quantities;
+		private final int[] cents;
+		private final int maxOrderNum;
+
+		Snapshot(ColumnarOrderArchive source) {
+			orderNums = source.orderNums;
+			firstLines = source.firstLines;
+			lineCounts = source.lineCounts;
+			orders = source.orders;
+			types = source.types;
+			configs = source.configs;
+			quantities = source.quantities;
+			cents = source.cents;
+			maxOrderNum = source.maxOrderNum;
+		}
+
+		@Override
+		public int orderCount() {
+			return orders;
+		}
+
+		@Override
+		public int orderNumber(int slot) {
+			return orderNums[slot];
+		}
+
+		@Override
+		public int firstLine(int slot) {
+			return firstLines[slot];
+		}
+
+		@Override
+		public int lineCount(int slot) {
+			return lineCounts[slot];
+		}
+
+		@Override
+		public int itemType(int line) {
+			return types[line];
+		}
+
+		@Override
+		public int config(int line) {
+			return configs[line];
+		}
+
+		@Override
+		public int quantity(int line) {
+			return quantities[line];
+		}
+
+		@Override
+		public int cents(int line) {
+			return cents[line];
+		}
+
+		@Override
+		public long subtotalCents(int slot) {
+			int first = firstLines[slot];
+			return OrderPricer.sum(cents, first, first + lineCounts[slot]);
+		}
+
+		@Override
+		public int find(int orderNum) {
+			for (int slot = 0; slot < orders; slot++) {
+				if (orderNums[slot] == orderNum) {
+					return slot;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public int maxOrderNumber() {
+			return maxOrderNum;
+		}
+
+		@Override
+		public OrderArchive snapshot() {
+			return this;
+		}
+
+		@Override
+		public void append(Order order) {
+			throw new UnsupportedOperationException("Snapshots are read-only");
+		}
+
+		@Override
+		public boolean remove(int orderNum) {
+			throw new UnsupportedOperationException("Snapshots are read-only");
+		}
+	}
+}
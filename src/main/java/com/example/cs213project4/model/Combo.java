@@ -1,69 +1,86 @@
-package com.example.cs213project4.model;
-
-public class Combo extends MenuItem
-{
-	private Sandwich earlOfSandwich;
-	private Beverage bigGulp; 
-	private Side side; 
-
-	public Combo() 
-	{
-		this.quantity = 1; 
-		this.earlOfSandwich = new Sandwich(); 
-		this.bigGulp = new Beverage(Size.MEDIUM, Flavor.COLA);
-		this.side = new Side(Size.SMALL, SideOption.CHIPS);
-	}
-	public Combo(Sandwich sandwich, Beverage drink, Side side)
-	{
-		this.quantity = 1; 
-		this.earlOfSandwich = sandwich; 
-		this.bigGulp = drink;
-		this.side = side; 
-		bigGulp.setSize(Size.MEDIUM);
-		side.setSize(Size.SMALL);
-	}
-	public Sandwich getSandwich()
-	{
-		return earlOfSandwich;
-	}
-	public Beverage getDrink()
-	{
-		return bigGulp;
-	}
-	public void setDrink(Beverage drink)
-	{
-		this.bigGulp = drink; 
-		bigGulp.setSize(Size.MEDIUM);
-	}
-	public Side getSide()
-	{
-		return side; 
-	}
-	public void setSide(Side side)
-	{
-		this.side = side; 
-		side.setSize(Size.SMALL);
-	}
-	public double cost()
-	{
-		double comboCost = earlOfSandwich.cost()+2.00; 
-		return comboCost * quantity; 
-	}
-	@Override
-	public String toString() {
-		StringBuilder string = new StringBuilder();
-
-		string.append("Combo: ").append(earlOfSandwich.toString().split(" \\$")[0]);
-		string.append(", ").append(side.getSide());
-		string.append(", ").append(bigGulp.getFlavor());
-
-		if (quantity > 1) {
-			string.append(" (").append(quantity).append(")");
-		}
-
-		string.append(" $").append(String.format("%.2f", cost()));
-
-		return string.toString();
-	}
-
-}
+package com.example.cs213project4.model;
+
+import javafx.beans.Observable;
+
+public class Combo extends MenuItem
+{
+	private Sandwich earlOfSandwich;
+	private Beverage bigGulp; 
+	private Side side; 
+	private int retired;
+
+	public Combo() 
+	{
+		this.quantity = 1; 
+		this.earlOfSandwich = new Sandwich(); 
+		this.bigGulp = new Beverage(Size.MEDIUM, Flavor.COLA);
+		this.side = new Side(Size.SMALL, SideOption.CHIPS);
+	}
+	public Combo(Sandwich sandwich, Beverage drink, Side side)
+	{
+		this.quantity = 1; 
+		this.earlOfSandwich = sandwich; 
+		this.bigGulp = drink;
+		this.side = side; 
+		bigGulp.setSize(Size.MEDIUM);
+		side.setSize(Size.SMALL);
+	}
+	public Sandwich getSandwich()
+	{
+		return earlOfSandwich;
+	}
+	public Beverage getDrink()
+	{
+		return bigGulp;
+	}
+	public void setDrink(Beverage drink)
+	{
+		retired += bigGulp.getVersion();
+		this.bigGulp = drink; 
+		changed();
+		bigGulp.setSize(Size.MEDIUM);
+	}
+	public Side getSide()
+	{
+		return side; 
+	}
+	public void setSide(Side side)
+	{
+		retired += this.side.getVersion();
+		this.side = side; 
+		changed();
+		side.setSize(Size.SMALL);
+	}
+	public double cost()
+	{
+		double comboCost = earlOfSandwich.cost()+MenuCatalog.current().comboExtra(); 
+		return comboCost * quantity; 
+	}
+	/*
+	 * Only the sandwich is priced; the drink and side come with the combo.
+	 */
+	@Override
+	protected Observable[] costDependencies()
+	{
+		return new Observable[] {earlOfSandwich.costProperty()};
+	}
+	/*
+	 * A combo changes whenever one of its parts does. Replacing a part adds the old part's
+	 * version to retired, so the sum never goes back to a value it had before.
+	 */
+	@Override
+	public int getVersion()
+	{
+		return super.getVersion() + retired + earlOfSandwich.getVersion() + bigGulp.getVersion() + side.getVersion();
+	}
+	@Override
+	protected void describe(StringBuilder string) {
+		string.append("Combo: ");
+		earlOfSandwich.describe(string);
+		string.append(", ");
+		ReceiptLine.appendLabel(string, side.getSide()).append(", ");
+		ReceiptLine.appendLabel(string, bigGulp.getFlavor());
+		ReceiptLine.appendQuantityAndPrice(string, this);
+	}
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Discount.java
+ *
+ * Summary:
+ * The line that records what promotions took off an order. It is added when the order is
+ * placed (see Order.applyPromotions()), so archives, replication, exports and receipts carry
+ * the discount that applied at that moment instead of working it out again later.
+ *
+ * The amount off is kept in cents in a field of its own and the line's quantity is 1, like
+ * any other item; packed, the amount is the line's configuration (see ItemCodec).
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public class Discount extends MenuItem {
+	private final int cents;
+
+	/**
+	 * Creates a discount line with a quantity of 1.
+	 *
+	 * @param cents the amount off, in cents.
+	 * @throws IllegalArgumentException if the amount is negative.
+	 */
+	public Discount(int cents) {
+		if (cents < 0) {
+			throw new IllegalArgumentException("Discount of " + cents + " cents");
+		}
+		this.cents = cents;
+		this.quantity = 1;
+	}
+
+	/**
+	 * Returns the amount off for a quantity of 1.
+	 *
+	 * @return the amount in cents.
+	 */
+	public int getCents() {
+		return cents;
+	}
+
+	/**
+	 * Returns the (negative) cost of the line.
+	 *
+	 * @return minus the amount off, in dollars.
+	 */
+	@Override
+	public double cost() {
+		return -(long) cents * quantity / 100.0;
+	}
+
+	/**
+	 * Appends "Discount -$1.50", the amount off for the whole line.
+	 *
+	 * @param out the builder to append to.
+	 */
+	@Override
+	protected void describe(StringBuilder out) {
+		ReceiptLine.appendCents(out.append("Discount -$"), (long) cents * quantity);
+	}
+}
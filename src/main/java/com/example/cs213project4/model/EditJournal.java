@@ -0,0 +1,268 @@
+/**
+ * EditJournal.java
+ *
+ * Summary:
+ * Writes the edits made to the order being built to a file as they happen, so an order is
+ * not lost when the register crashes between two session snapshots. Each edit is one
+ * fixed-size record of six big-endian ints:
+ *   operation, order number, line position, item type, packed configuration, quantity
+ * using ItemCodec for the item. START makes an order the open tab being edited, opening a
+ * tab for it if it has none; ADD puts an item in at a position; REMOVE takes out the line at
+ * a position; QUANTITY sets the quantity of the line at a position; CLEAR empties the order;
+ * CLOSE closes the order's tab.
+ *
+ * Records are collected on the editing thread and handed to the writer executor in batches,
+ * one write per batch however many edits arrive before it runs. checkpoint() is called with
+ * each snapshot: the edits before it are written, then the snapshot, and once the snapshot
+ * is safely on disk the journal is emptied, as the snapshot now holds them. The writer must
+ * run tasks one at a time in the order they were handed to it.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+public class EditJournal {
+	static final int START = 1;
+	static final int ADD = 2;
+	static final int REMOVE = 3;
+	static final int QUANTITY = 4;
+	static final int CLEAR = 5;
+	static final int CLOSE = 6;
+	private static final int RECORD = 6;
+
+	private final Path file;
+	private final Executor writer;
+	// Records not handed to the writer yet, RECORD ints each; guarded by this.
+	private int[] pending = new int[RECORD * 32];
+	private int pendingInts;
+	// Set while a write of the pending records is waiting on the writer.
+	private boolean scheduled;
+	// Counts checkpoints; a write scheduled before one finds its records already taken.
+	private int generation;
+
+	/**
+	 * Creates a journal.
+	 *
+	 * @param file the journal file; created on the first write.
+	 * @param writer runs the writes, one at a time and in order.
+	 */
+	public EditJournal(Path file, Executor writer) {
+		this.file = file;
+		this.writer = writer;
+	}
+
+	void started(int orderNum) {
+		append(START, orderNum, 0, -1, 0, 0);
+	}
+
+	void added(int orderNum, int index, MenuItem item) {
+		int type;
+		int config;
+		try {
+			type = ItemCodec.type(item);
+			config = ItemCodec.pack(item);
+		} catch (IllegalArgumentException e) {
+			// Not a complete item yet, so it cannot be packed; replay skips it.
+			type = -1;
+			config = 0;
+		}
+		append(ADD, orderNum, index, type, config, item.getQuantity());
+	}
+
+	void removed(int orderNum, int index) {
+		append(REMOVE, orderNum, index, -1, 0, 0);
+	}
+
+	void quantityChanged(int orderNum, int index, int quantity) {
+		append(QUANTITY, orderNum, index, -1, 0, quantity);
+	}
+
+	void cleared(int orderNum) {
+		append(CLEAR, orderNum, 0, -1, 0, 0);
+	}
+
+	void closed(int orderNum) {
+		append(CLOSE, orderNum, 0, -1, 0, 0);
+	}
+
+	private synchronized void append(int op, int orderNum, int index, int type, int config, int quantity) {
+		if (pendingInts + RECORD > pending.length) {
+			pending = Arrays.copyOf(pending, pending.length * 2);
+		}
+		pending[pendingInts++] = op;
+		pending[pendingInts++] = orderNum;
+		pending[pendingInts++] = index;
+		pending[pendingInts++] = type;
+		pending[pendingInts++] = config;
+		pending[pendingInts++] = quantity;
+		if (!scheduled) {
+			scheduled = true;
+			int batch = generation;
+			writer.execute(() -> write(take(batch)));
+		}
+	}
+
+	/**
+	 * Takes the pending records, so the next edit schedules a write of its own. A write
+	 * scheduled before the last checkpoint gets nothing: its records went with the checkpoint,
+	 * and later ones must wait until the snapshot is written.
+	 */
+	private synchronized int[] take(int batch) {
+		if (batch != generation) {
+			return new int[0];
+		}
+		int[] records = Arrays.copyOf(pending, pendingInts);
+		pendingInts = 0;
+		scheduled = false;
+		return records;
+	}
+
+	private void write(int[] batch) {
+		if (batch.length == 0) {
+			return;
+		}
+		try {
+			Path parent = file.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 12))) {
+				for (int value : batch) {
+					out.writeInt(value);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes a snapshot and starts the journal over. Call it on the editing thread, at the
+	 * moment the snapshot is taken. On the writer, the edits made before this call are
+	 * written, then the snapshot; the journal is only emptied if the snapshot was written.
+	 *
+	 * @param snapshot writes the snapshot.
+	 */
+	public void checkpoint(Callable<?> snapshot) {
+		int[] before;
+		synchronized (this) {
+			before = take(generation);
+			generation++;
+		}
+		writer.execute(() -> {
+			write(before);
+			try {
+				snapshot.call();
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	/**
+	 * Replays a journal on the order a snapshot left off with.
+	 *
+	 * @param file the journal file.
+	 * @param order the order from the snapshot, or null.
+	 * @return the tab being edited when the last record was written, or the given order if
+	 *         there is no journal.
+	 * @throws IOException if the journal cannot be read.
+	 * @throws IllegalArgumentException if a record does not fit the order, with its number.
+	 */
+	public static Order replay(Path file, Order order) throws IOException {
+		OpenTabs tabs = new OpenTabs(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+		if (order != null) {
+			tabs.open(order);
+		}
+		replay(file, tabs);
+		return tabs.getActive();
+	}
+
+	/**
+	 * Replays a journal on the tabs a snapshot left off with. Call it before the tabs are
+	 * recorded, so the replay is not journaled again. A record cut short by a crash ends the
+	 * replay.
+	 *
+	 * @param file the journal file.
+	 * @param tabs the tabs from the snapshot.
+	 * @throws IOException if the journal cannot be read.
+	 * @throws IllegalArgumentException if a record does not fit its order, with its number.
+	 */
+	public static void replay(Path file, OpenTabs tabs) throws IOException {
+		if (!Files.exists(file)) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 12))) {
+			int[] record = new int[RECORD];
+			for (int n = 1; ; n++) {
+				try {
+					for (int i = 0; i < RECORD; i++) {
+						record[i] = in.readInt();
+					}
+				} catch (EOFException e) {
+					return;
+				}
+				int orderNum = record[1];
+				if (record[0] == START) {
+					if (tabs.isOpen(orderNum)) {
+						tabs.switchTo(orderNum);
+					} else {
+						tabs.open(new Order(orderNum));
+					}
+					continue;
+				}
+				if (record[0] == CLOSE) {
+					tabs.close(orderNum);
+					continue;
+				}
+				if (!tabs.isOpen(orderNum)) {
+					throw new IllegalArgumentException("Edit record " + n + " is for order " + orderNum
+							+ " but no START for it came first");
+				}
+				Order order = tabs.switchTo(orderNum);
+				try {
+					apply(order, record);
+				} catch (IndexOutOfBoundsException e) {
+					throw new IllegalArgumentException("Edit record " + n + " does not fit order "
+							+ orderNum + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private static void apply(Order order, int[] record) {
+		int index = record[2];
+		switch (record[0]) {
+			case ADD -> {
+				if (record[3] >= 0) {
+					order.insertLine(index, 0, ItemCodec.unpack(record[3], record[4], record[5]));
+				}
+			}
+			case REMOVE -> order.dropLine(order.getLineId(index));
+			case QUANTITY -> order.getItems().get(index).setQuantity(record[5]);
+			case CLEAR -> order.eradicateAllItems();
+			default -> throw new IllegalArgumentException("Unknown edit " + record[0]);
+		}
+	}
+}
@@ -0,0 +1,296 @@
+/**
+ * EditLog.java
+ *
+ * Summary:
+ * Records the edits made to an order at the register so they can be undone and redone, as
+ * far back as the order goes. Each edit is one small step: a line added or removed (with its
+ * position and item), or a line's quantity raised by adding an identical item. Clearing the
+ * order does not copy its lines into the step: the order hands its whole line storage to the
+ * step and starts on empty storage, and undoing the clear hands it back. Every step is the
+ * same size whatever the order holds, and undo and redo move a step from one stack to the
+ * other without allocating. A log may be given a depth; once that many edits can be undone,
+ * the older half of them is forgotten, so the history of a long-open order stays bounded.
+ *
+ * Every edit, undo and redo is also written to the EditJournal as the change it made to the
+ * order, so the journal can replay the order after a crash without knowing about undo.
+ *
+ * A log is used on the thread that edits its order.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public class EditLog {
+	private static final int ADD = 1;
+	private static final int REMOVE = 2;
+	private static final int QUANTITY = 3;
+	private static final int CLEAR = 4;
+
+	private final Order order;
+	private final EditJournal journal;
+	private final int maxSteps;
+	// Tops of the undo and redo stacks, linked through Step.below.
+	private Step undo;
+	private Step redo;
+	private int undoCount;
+	private int redoCount;
+
+	/**
+	 * One edit. ADD and REMOVE are each other's inverse; QUANTITY and CLEAR hold the other
+	 * side of the edit and swap it in, so the same step serves for undo and redo.
+	 */
+	private static final class Step {
+		final int op;
+		final int lineId;
+		final int index;
+		final MenuItem item;
+		// QUANTITY: the line's quantity on the other side of the edit.
+		int quantity;
+		// CLEAR: the lines on the other side of the edit.
+		Order.Contents contents;
+		Step below;
+
+		Step(int op, int lineId, int index, MenuItem item) {
+			this.op = op;
+			this.lineId = lineId;
+			this.index = index;
+			this.item = item;
+		}
+	}
+
+	private EditLog(Order order, EditJournal journal, int maxSteps) {
+		if (maxSteps < 2) {
+			throw new IllegalArgumentException("An edit log needs room for at least 2 steps, not " + maxSteps);
+		}
+		this.order = order;
+		this.journal = journal;
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Starts recording an order's edits, replacing any log it had, as far back as the order goes.
+	 *
+	 * @param order the order.
+	 * @param journal the journal to write edits to, or null.
+	 * @return the log.
+	 */
+	public static EditLog attach(Order order, EditJournal journal) {
+		return attach(order, journal, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Starts recording an order's edits, replacing any log it had.
+	 *
+	 * @param order the order.
+	 * @param journal the journal to write edits to, or null.
+	 * @param maxSteps the most edits that can be undone; at least 2.
+	 * @return the log.
+	 */
+	public static EditLog attach(Order order, EditJournal journal, int maxSteps) {
+		EditLog log = new EditLog(order, journal, maxSteps);
+		// The order only gets the log once it is fully built.
+		order.setEditLog(log);
+		if (journal != null) {
+			journal.started(order.getNumber());
+		}
+		return log;
+	}
+
+	/**
+	 * Returns the order this log records.
+	 *
+	 * @return the order.
+	 */
+	public Order getOrder() {
+		return order;
+	}
+
+	/**
+	 * Stops recording, e.g. once the order has been placed.
+	 */
+	public void detach() {
+		order.setEditLog(null);
+	}
+
+	void added(int lineId) {
+		Step step = new Step(ADD, lineId, order.indexOfLine(lineId), order.getLine(lineId));
+		push(step);
+		journalAdd(step.index, step.item);
+	}
+
+	void removed(int lineId, int index, MenuItem item) {
+		push(new Step(REMOVE, lineId, index, item));
+		journalRemove(index);
+	}
+
+	void quantityChanged(int lineId, int before) {
+		Step step = new Step(QUANTITY, lineId, order.indexOfLine(lineId), order.getLine(lineId));
+		step.quantity = before;
+		push(step);
+		journalQuantity(step.index, step.item);
+	}
+
+	void cleared(Order.Contents contents) {
+		Step step = new Step(CLEAR, 0, 0, null);
+		step.contents = contents;
+		push(step);
+		if (journal != null) {
+			journal.cleared(order.getNumber());
+		}
+	}
+
+	private void push(Step step) {
+		step.below = undo;
+		undo = step;
+		undoCount++;
+		// A new edit starts a new history; the undone edits can no longer be redone.
+		redo = null;
+		redoCount = 0;
+		if (undoCount > maxSteps) {
+			forgetOldest();
+		}
+	}
+
+	/**
+	 * Cuts the undo stack to its newer half. The stack only links downwards, so this walks
+	 * it; doing so once per maxSteps / 2 edits keeps pushing constant time on average.
+	 */
+	private void forgetOldest() {
+		int keep = maxSteps / 2;
+		Step last = undo;
+		for (int i = 1; i < keep; i++) {
+			last = last.below;
+		}
+		last.below = null;
+		undoCount = keep;
+	}
+
+	/**
+	 * Undoes the latest edit that has not been undone.
+	 *
+	 * @return false if there was nothing to undo.
+	 */
+	public boolean undo() {
+		Step step = undo;
+		if (step == null) {
+			return false;
+		}
+		undo = step.below;
+		undoCount--;
+		apply(step, false);
+		step.below = redo;
+		redo = step;
+		redoCount++;
+		return true;
+	}
+
+	/**
+	 * Redoes the latest undone edit.
+	 *
+	 * @return false if there was nothing to redo.
+	 */
+	public boolean redo() {
+		Step step = redo;
+		if (step == null) {
+			return false;
+		}
+		redo = step.below;
+		redoCount--;
+		apply(step, true);
+		step.below = undo;
+		undo = step;
+		undoCount++;
+		return true;
+	}
+
+	private void apply(Step step, boolean forward) {
+		switch (step.op) {
+			case ADD, REMOVE -> {
+				if ((step.op == ADD) == forward) {
+					order.insertLine(step.index, step.lineId, step.item);
+					journalAdd(step.index, step.item);
+				} else {
+					order.dropLine(step.lineId);
+					journalRemove(step.index);
+				}
+			}
+			case QUANTITY -> {
+				int now = step.item.getQuantity();
+				step.item.setQuantity(step.quantity);
+				step.quantity = now;
+				journalQuantity(step.index, step.item);
+			}
+			case CLEAR -> {
+				step.contents = order.swapContents(step.contents);
+				if (journal != null) {
+					// Redoing a clear empties the order again; undoing one brings back every
+					// line, and the journal has to be told each one.
+					if (forward) {
+						journal.cleared(order.getNumber());
+					}
+					for (int i = 0; i < order.getItems().size(); i++) {
+						journalAdd(i, order.getItems().get(i));
+					}
+				}
+			}
+			default -> throw new IllegalStateException("Unknown step " + step.op);
+		}
+	}
+
+	private void journalAdd(int index, MenuItem item) {
+		if (journal != null) {
+			journal.added(order.getNumber(), index, item);
+		}
+	}
+
+	private void journalRemove(int index) {
+		if (journal != null) {
+			journal.removed(order.getNumber(), index);
+		}
+	}
+
+	private void journalQuantity(int index, MenuItem item) {
+		if (journal != null) {
+			journal.quantityChanged(order.getNumber(), index, item.getQuantity());
+		}
+	}
+
+	/**
+	 * Returns whether there is an edit to undo.
+	 *
+	 * @return true if undo() would do something.
+	 */
+	public boolean canUndo() {
+		return undo != null;
+	}
+
+	/**
+	 * Returns whether there is an undone edit to redo.
+	 *
+	 * @return true if redo() would do something.
+	 */
+	public boolean canRedo() {
+		return redo != null;
+	}
+
+	/**
+	 * Returns the number of edits that can be undone.
+	 *
+	 * @return the undo depth.
+	 */
+	public int getUndoCount() {
+		return undoCount;
+	}
+
+	/**
+	 * Returns the number of edits that can be redone.
+	 *
+	 * @return the redo depth.
+	 */
+	public int getRedoCount() {
+		return redoCount;
+	}
+}
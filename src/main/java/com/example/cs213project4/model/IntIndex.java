@@ -0,0 +1,145 @@
+/**
+ * IntIndex.java
+ *
+ * Summary:
+ * A small open-addressing hash map from int keys to int values, used to look up
+ * orders and line items by number without boxing. Uses linear probing with
+ * backward-shift deletion so lookups never have to skip tombstones.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.Arrays;
+
+final class IntIndex {
+	// Marker for an empty slot; keys equal to this value cannot be stored.
+	private static final int EMPTY = Integer.MIN_VALUE;
+
+	private int[] keys;
+	private int[] values;
+	private int size;
+
+	/**
+	 * Creates an index sized for roughly the given number of entries.
+	 *
+	 * @param expected the expected number of entries.
+	 */
+	IntIndex(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * Returns the value stored for a key.
+	 *
+	 * @param key the key to look up.
+	 * @return the value, or -1 if the key is not present.
+	 */
+	int get(int key) {
+		int mask = keys.length - 1;
+		for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+			int found = keys[slot];
+			if (found == key) {
+				return values[slot];
+			}
+			if (found == EMPTY) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Stores a value for a key, replacing any previous value.
+	 *
+	 * @param key the key.
+	 * @param value the value.
+	 */
+	void put(int key, int value) {
+		if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == EMPTY) {
+			size++;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+	}
+
+	/**
+	 * Removes a key from the index.
+	 *
+	 * @param key the key to remove.
+	 * @return the removed value, or -1 if the key was not present.
+	 */
+	int remove(int key) {
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while (keys[slot] != key) {
+			if (keys[slot] == EMPTY) {
+				return -1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		int removed = values[slot];
+		// Shift later entries of the probe run back so no tombstone is needed.
+		int hole = slot;
+		for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+			int home = mix(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				values[hole] = values[next];
+				hole = next;
+			}
+		}
+		keys[hole] = EMPTY;
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Returns the number of entries in the index.
+	 *
+	 * @return the entry count.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Removes every entry.
+	 */
+	void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,353 @@
+/**
+ * Inventory.java
+ *
+ * Summary:
+ * Stock of every ingredient the menu uses: each Bread, Protein, AddOns and SideOption, and
+ * cups of each Size. Placing an order takes everything it needs in one all-or-nothing step,
+ * and cancelling it gives the stock back. Each counter is updated with its own
+ * compare-and-set, so registers placing orders at the same time only contend when they need
+ * the same ingredient, and never wait on a lock. Counters are spread a cache line apart so
+ * busy ingredients don't slow each other down through false sharing.
+ *
+ * Only ingredients named in the stock file are tracked; everything else is unlimited. File
+ * format, one entry per line, # starts a comment:
+ *   protein.SALMON = 40        stock of 40, low-stock warning below 10% of that
+ *   addon.AVOCADO = 25 5       stock of 25, warning below 5
+ *   bread.BAGEL, side.FRIES and cups.LARGE work the same way.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class Inventory {
+	// Longs per counter: 64 bytes, one cache line.
+	private static final int STRIDE = 8;
+
+	private static final Bread[] BREADS = Bread.values();
+	private static final Protein[] PROTEINS = Protein.values();
+	private static final AddOns[] ADDONS = AddOns.values();
+	private static final SideOption[] SIDE_OPTIONS = SideOption.values();
+	private static final Size[] SIZES = Size.values();
+
+	// First slot of each ingredient group.
+	private static final int BREAD = 0;
+	private static final int PROTEIN = BREAD + BREADS.length;
+	private static final int ADDON = PROTEIN + PROTEINS.length;
+	private static final int SIDE = ADDON + ADDONS.length;
+	private static final int CUPS = SIDE + SIDE_OPTIONS.length;
+	private static final int SLOTS = CUPS + SIZES.length;
+
+	private final AtomicLongArray stock = new AtomicLongArray(SLOTS * STRIDE);
+	private final boolean[] tracked = new boolean[SLOTS];
+	private final long[] lowMarks = new long[SLOTS];
+	private final List<StockListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Loads a stock file.
+	 *
+	 * @param file the file.
+	 * @return the inventory.
+	 * @throws IOException if the file cannot be read.
+	 * @throws IllegalArgumentException if an entry is malformed.
+	 */
+	public static Inventory load(Path file) throws IOException {
+		return parse(Files.readAllLines(file));
+	}
+
+	/**
+	 * Parses stock entries.
+	 *
+	 * @param lines the entries, one per line.
+	 * @return the inventory.
+	 * @throws IllegalArgumentException if an entry is malformed, naming its line.
+	 */
+	public static Inventory parse(List<String> lines) {
+		Inventory inventory = new Inventory();
+		for (int n = 0; n < lines.size(); n++) {
+			String line = lines.get(n);
+			int hash = line.indexOf('#');
+			line = (hash < 0 ? line : line.substring(0, hash)).strip();
+			if (line.isEmpty()) {
+				continue;
+			}
+			try {
+				int equals = line.indexOf('=');
+				if (equals < 0) {
+					throw new IllegalArgumentException("Expected ingredient = stock [low]");
+				}
+				String[] values = line.substring(equals + 1).strip().split("\\s+");
+				if (values.length > 2) {
+					throw new IllegalArgumentException("Expected ingredient = stock [low]");
+				}
+				long count = Long.parseLong(values[0]);
+				long low = values.length == 2 ? Long.parseLong(values[1]) : count / 10;
+				inventory.setStock(line.substring(0, equals).strip(), count, low);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Stock line " + (n + 1) + ": " + e.getMessage(), e);
+			}
+		}
+		return inventory;
+	}
+
+	/**
+	 * Starts tracking an ingredient, or restocks it. Meant for setting up and for restocking
+	 * between rushes; takes racing with it may be lost.
+	 *
+	 * @param ingredient the ingredient, e.g. "protein.SALMON" or "cups.LARGE".
+	 * @param count the stock on hand.
+	 * @param low warn once the stock drops below this.
+	 * @throws IllegalArgumentException if the ingredient is unknown or a number is negative.
+	 */
+	public void setStock(String ingredient, long count, long low) {
+		if (count < 0 || low < 0) {
+			throw new IllegalArgumentException("Stock must be zero or more: " + ingredient);
+		}
+		int slot = slot(ingredient);
+		boolean wasOut = tracked[slot] && stock.get(slot * STRIDE) == 0;
+		lowMarks[slot] = low;
+		tracked[slot] = true;
+		stock.set(slot * STRIDE, count);
+		if (wasOut != (count == 0)) {
+			announce(slot, count != 0);
+		}
+	}
+
+	/**
+	 * Returns the stock of an ingredient.
+	 *
+	 * @param ingredient the ingredient.
+	 * @return the stock, or Long.MAX_VALUE if it is not tracked.
+	 */
+	public long getStock(String ingredient) {
+		int slot = slot(ingredient);
+		return tracked[slot] ? stock.get(slot * STRIDE) : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the name an option is tracked under, as used in stock files and events.
+	 *
+	 * @param option a Bread, Protein, AddOns or SideOption, or a Size for cups of that size.
+	 * @return the ingredient, e.g. "protein.SALMON".
+	 * @throws IllegalArgumentException if the option is not an ingredient.
+	 */
+	public static String ingredient(Enum<?> option) {
+		String group = switch (option) {
+			case Bread bread -> "bread";
+			case Protein protein -> "protein";
+			case AddOns extra -> "addon";
+			case SideOption side -> "side";
+			case Size size -> "cups";
+			default -> throw new IllegalArgumentException("Not an ingredient: " + option);
+		};
+		return group + "." + option.name();
+	}
+
+	/**
+	 * Registers a listener for low-stock and sold-out events.
+	 *
+	 * @param listener the listener to add.
+	 */
+	public void addListener(StockListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener added with addListener().
+	 *
+	 * @param listener the listener to remove.
+	 */
+	public void removeListener(StockListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Takes the stock an order needs, all or nothing. Listeners only hear about ingredients
+	 * running low or out once the whole order has been taken, so a refused order tells them
+	 * nothing.
+	 *
+	 * @param order the order about to be placed.
+	 * @return the ingredients that ran short; empty if the stock was taken.
+	 */
+	public List<String> take(Order order) {
+		long[] needs = needs(order);
+		long[] before = new long[SLOTS];
+		for (int slot = 0; slot < SLOTS; slot++) {
+			if (needs[slot] == 0) {
+				continue;
+			}
+			int at = slot * STRIDE;
+			do {
+				before[slot] = stock.get(at);
+				if (before[slot] < needs[slot]) {
+					// Hand back what was already taken, quietly, as nobody was told it was taken.
+					for (int undo = 0; undo < slot; undo++) {
+						if (needs[undo] != 0) {
+							stock.addAndGet(undo * STRIDE, needs[undo]);
+						}
+					}
+					return shortages(needs, slot);
+				}
+			} while (!stock.compareAndSet(at, before[slot], before[slot] - needs[slot]));
+		}
+		for (int slot = 0; slot < SLOTS; slot++) {
+			long after = before[slot] - needs[slot];
+			if (needs[slot] != 0 && (before[slot] >= lowMarks[slot] && after < lowMarks[slot] || after == 0)) {
+				for (StockListener listener : listeners) {
+					listener.lowStock(name(slot), after);
+				}
+				if (after == 0) {
+					announce(slot, false);
+				}
+			}
+		}
+		return List.of();
+	}
+
+	/**
+	 * Returns an ingredient a single item needs more of than is left, without taking any.
+	 * Stock can change at any moment, so take() still decides whether an order is placed.
+	 *
+	 * @param item the item.
+	 * @return the first ingredient that is short, e.g. "protein.SALMON", or null if the
+	 *         stock left covers the item.
+	 */
+	public String shortOf(MenuItem item) {
+		long[] needs = new long[SLOTS];
+		addItem(needs, item);
+		for (int slot = 0; slot < SLOTS; slot++) {
+			if (needs[slot] != 0 && stock.get(slot * STRIDE) < needs[slot]) {
+				return name(slot);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gives back the stock an order took, when it is cancelled.
+	 *
+	 * @param order the cancelled order.
+	 */
+	public void restore(Order order) {
+		long[] needs = needs(order);
+		for (int slot = 0; slot < SLOTS; slot++) {
+			if (needs[slot] != 0) {
+				giveBack(slot, needs[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Returns stock to a counter, announcing the ingredient if it was sold out.
+	 */
+	private void giveBack(int slot, long count) {
+		if (stock.addAndGet(slot * STRIDE, count) == count) {
+			announce(slot, true);
+		}
+	}
+
+	private void announce(int slot, boolean available) {
+		for (StockListener listener : listeners) {
+			listener.availabilityChanged(name(slot), available);
+		}
+	}
+
+	/**
+	 * Lists the ingredients an order needs more of than is left, always including the one
+	 * that failed even if it was restocked meanwhile.
+	 */
+	private List<String> shortages(long[] needs, int failed) {
+		List<String> missing = new ArrayList<>();
+		for (int slot = 0; slot < SLOTS; slot++) {
+			if (slot == failed || needs[slot] != 0 && stock.get(slot * STRIDE) < needs[slot]) {
+				missing.add(name(slot));
+			}
+		}
+		return missing;
+	}
+
+	/**
+	 * Adds up what an order uses of each tracked ingredient.
+	 */
+	private long[] needs(Order order) {
+		long[] needs = new long[SLOTS];
+		for (MenuItem item : order.getItems()) {
+			addItem(needs, item);
+		}
+		return needs;
+	}
+
+	private void addItem(long[] needs, MenuItem item) {
+		int quantity = item.getQuantity();
+		if (item instanceof Sandwich sandwich) {
+			addSandwich(needs, sandwich, quantity);
+		} else if (item instanceof Beverage drink) {
+			add(needs, CUPS + (drink.getSize() == null ? Size.SMALL : drink.getSize()).ordinal(), quantity);
+		} else if (item instanceof Side side) {
+			add(needs, SIDE + side.getSide().ordinal(), quantity);
+		} else if (item instanceof Combo combo) {
+			addSandwich(needs, combo.getSandwich(), quantity * combo.getSandwich().getQuantity());
+			add(needs, SIDE + combo.getSide().getSide().ordinal(), quantity);
+			add(needs, CUPS + combo.getDrink().getSize().ordinal(), quantity);
+		}
+	}
+
+	private void addSandwich(long[] needs, Sandwich sandwich, int quantity) {
+		if (sandwich.getBread() != null) {
+			add(needs, BREAD + sandwich.getBread().ordinal(), quantity);
+		}
+		if (sandwich.getProtein() != null) {
+			int patties = sandwich instanceof Burger burger && burger.isDoublePatty() ? 2 : 1;
+			add(needs, PROTEIN + sandwich.getProtein().ordinal(), (long) patties * quantity);
+		}
+		for (AddOns extra : sandwich.getAddons()) {
+			add(needs, ADDON + extra.ordinal(), quantity);
+		}
+	}
+
+	private void add(long[] needs, int slot, long count) {
+		if (tracked[slot] && count > 0) {
+			needs[slot] += count;
+		}
+	}
+
+	private static int slot(String ingredient) {
+		int dot = ingredient.indexOf('.');
+		String group = dot < 0 ? ingredient : ingredient.substring(0, dot);
+		String name = ingredient.substring(dot + 1);
+		return switch (group) {
+			case "bread" -> BREAD + Bread.valueOf(name).ordinal();
+			case "protein" -> PROTEIN + Protein.valueOf(name).ordinal();
+			case "addon" -> ADDON + AddOns.valueOf(name).ordinal();
+			case "side" -> SIDE + SideOption.valueOf(name).ordinal();
+			case "cups" -> CUPS + Size.valueOf(name).ordinal();
+			default -> throw new IllegalArgumentException("Unknown ingredient: " + ingredient);
+		};
+	}
+
+	private static String name(int slot) {
+		if (slot >= CUPS) {
+			return "cups." + SIZES[slot - CUPS].name();
+		}
+		if (slot >= SIDE) {
+			return "side." + SIDE_OPTIONS[slot - SIDE].name();
+		}
+		if (slot >= ADDON) {
+			return "addon." + ADDONS[slot - ADDON].name();
+		}
+		if (slot >= PROTEIN) {
+			return "protein." + PROTEINS[slot - PROTEIN].name();
+		}
+		return "bread." + BREADS[slot - BREAD].name();
+	}
+}
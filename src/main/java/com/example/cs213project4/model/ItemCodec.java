@@ -0,0 +1,210 @@
+/**
+ * ItemCodec.java
+ *
+ * Summary:
+ * Packs the configuration of a MenuItem into a single int so that placed orders can be
+ * stored as primitive columns instead of object graphs. Every enum is stored by ordinal,
+ * so the codes line up with the model enums (Bread, Protein, AddOns, Size, Flavor, SideOption).
+ *
+ * Layout of the packed configuration:
+ *   Sandwich / Burger : bread[0-2] protein[3-4] add-ons[5-9] double patty[10]
+ *   Combo             : sandwich bits[0-10] burger flag[11] side[12-13] flavor[14-17] sandwich quantity[18-25]
+ *                       (a combo whose sandwich quantity is over MAX_COMBO_QUANTITY cannot be packed)
+ *   Beverage          : size[0-1] flavor[2-5]
+ *   Side              : size[0-1] side option[2-3]
+ *   Discount          : amount off in cents[0-25]
+ *
+ * A custom sandwich name is not part of the configuration; decoded sandwiches describe
+ * themselves from their bread, protein and add-ons, with the add-ons in menu order.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public final class ItemCodec {
+	// Item type codes stored in the archive's type column.
+	public static final int SANDWICH = 1;
+	public static final int BURGER = 2;
+	public static final int BEVERAGE = 3;
+	public static final int SIDE = 4;
+	public static final int COMBO = 5;
+	public static final int DISCOUNT = 6;
+
+	private static final int BREAD_SHIFT = 0;
+	private static final int PROTEIN_SHIFT = 3;
+	private static final int ADDON_SHIFT = 5;
+	private static final int DOUBLE_SHIFT = 10;
+	private static final int COMBO_BURGER_SHIFT = 11;
+	private static final int COMBO_SIDE_SHIFT = 12;
+	private static final int COMBO_FLAVOR_SHIFT = 14;
+	private static final int COMBO_QUANTITY_SHIFT = 18;
+	// Largest sandwich quantity a combo's 8 bits hold.
+	public static final int MAX_COMBO_QUANTITY = 0xFF;
+	private static final int SIZE_SHIFT = 0;
+	private static final int OPTION_SHIFT = 2;
+
+	private static final Bread[] BREADS = Bread.values();
+	private static final Protein[] PROTEINS = Protein.values();
+	private static final AddOns[] ADDONS = AddOns.values();
+	private static final Size[] SIZES = Size.values();
+	private static final Flavor[] FLAVORS = Flavor.values();
+	private static final SideOption[] SIDE_OPTIONS = SideOption.values();
+
+	private ItemCodec() {
+	}
+
+	/**
+	 * Returns the type code of a menu item.
+	 *
+	 * @param item the item to classify.
+	 * @return one of SANDWICH, BURGER, BEVERAGE, SIDE, COMBO or DISCOUNT.
+	 */
+	public static int type(MenuItem item) {
+		if (item instanceof Burger) {
+			return BURGER;
+		}
+		if (item instanceof Sandwich) {
+			return SANDWICH;
+		}
+		if (item instanceof Beverage) {
+			return BEVERAGE;
+		}
+		if (item instanceof Side) {
+			return SIDE;
+		}
+		if (item instanceof Combo) {
+			return COMBO;
+		}
+		if (item instanceof Discount) {
+			return DISCOUNT;
+		}
+		throw new IllegalArgumentException("Unknown menu item: " + item.getClass().getName());
+	}
+
+	/**
+	 * Packs the configuration of a menu item (everything except its quantity) into an int.
+	 *
+	 * @param item the item to pack.
+	 * @return the packed configuration.
+	 * @throws IllegalArgumentException if the item is of an unknown kind, is a combo whose
+	 *         sandwich quantity is not between 0 and MAX_COMBO_QUANTITY, or is a discount
+	 *         whose amount does not fit in 26 bits.
+	 */
+	public static int pack(MenuItem item) {
+		if (item instanceof Sandwich sandwich) {
+			return packSandwich(sandwich);
+		}
+		if (item instanceof Beverage drink) {
+			return drink.getSize().ordinal() << SIZE_SHIFT | drink.getFlavor().ordinal() << OPTION_SHIFT;
+		}
+		if (item instanceof Side side) {
+			return side.getSize().ordinal() << SIZE_SHIFT | side.getSide().ordinal() << OPTION_SHIFT;
+		}
+		if (item instanceof Combo combo) {
+			Sandwich sandwich = combo.getSandwich();
+			int config = packSandwich(sandwich);
+			if (sandwich instanceof Burger) {
+				config |= 1 << COMBO_BURGER_SHIFT;
+			}
+			config |= combo.getSide().getSide().ordinal() << COMBO_SIDE_SHIFT;
+			config |= combo.getDrink().getFlavor().ordinal() << COMBO_FLAVOR_SHIFT;
+			int inside = sandwich.getQuantity();
+			if (inside < 0 || inside > MAX_COMBO_QUANTITY) {
+				// Masking would wrap it onto another quantity, and another configuration.
+				throw new IllegalArgumentException("Combo sandwich quantity " + inside + " is not between 0 and " + MAX_COMBO_QUANTITY);
+			}
+			config |= inside << COMBO_QUANTITY_SHIFT;
+			return config;
+		}
+		if (item instanceof Discount discount) {
+			if (discount.getCents() >= 1 << 26) {
+				throw new IllegalArgumentException("Discount of " + discount.getCents() + " cents is too large");
+			}
+			return discount.getCents();
+		}
+		throw new IllegalArgumentException("Unknown menu item: " + item.getClass().getName());
+	}
+
+	/**
+	 * Rebuilds a menu item from its type code, packed configuration and quantity.
+	 *
+	 * @param type the item type code.
+	 * @param config the packed configuration.
+	 * @param quantity the item quantity.
+	 * @return a new MenuItem equivalent to the one that was packed.
+	 */
+	public static MenuItem unpack(int type, int config, int quantity) {
+		MenuItem item;
+		switch (type) {
+			case SANDWICH, BURGER -> item = unpackSandwich(type == BURGER, config);
+			case BEVERAGE -> item = new Beverage(SIZES[config >>> SIZE_SHIFT & 0x3], FLAVORS[config >>> OPTION_SHIFT & 0xF]);
+			case SIDE -> item = new Side(SIZES[config >>> SIZE_SHIFT & 0x3], SIDE_OPTIONS[config >>> OPTION_SHIFT & 0x3]);
+			case COMBO -> {
+				Sandwich sandwich = unpackSandwich((config >>> COMBO_BURGER_SHIFT & 1) != 0, config);
+				sandwich.setQuantity(config >>> COMBO_QUANTITY_SHIFT & MAX_COMBO_QUANTITY);
+				item = new Combo(sandwich,
+						new Beverage(Size.MEDIUM, FLAVORS[config >>> COMBO_FLAVOR_SHIFT & 0xF]),
+						new Side(Size.SMALL, SIDE_OPTIONS[config >>> COMBO_SIDE_SHIFT & 0x3]));
+			}
+			case DISCOUNT -> item = new Discount(config);
+			default -> throw new IllegalArgumentException("Unknown item type: " + type);
+		}
+		item.setQuantity(quantity);
+		return item;
+	}
+
+	/**
+	 * Combines a type code and a packed configuration into one non-negative int that
+	 * identifies the configuration, for hash lookups. Packed configurations use at most 26 bits.
+	 *
+	 * @param type the item type code.
+	 * @param config the packed configuration.
+	 * @return the configuration key.
+	 */
+	static int key(int type, int config) {
+		return type << 26 | config;
+	}
+
+	/**
+	 * Converts a dollar amount to whole cents, rounding to the nearest cent.
+	 *
+	 * @param dollars the amount in dollars.
+	 * @return the amount in cents.
+	 */
+	public static int cents(double dollars) {
+		return (int) Math.round(dollars * 100);
+	}
+
+	private static int packSandwich(Sandwich sandwich) {
+		if (sandwich.getProtein() == null) {
+			throw new IllegalArgumentException("Sandwich has no protein selected");
+		}
+		int config = sandwich.getBread().ordinal() << BREAD_SHIFT | sandwich.getProtein().ordinal() << PROTEIN_SHIFT;
+		for (AddOns extra : sandwich.getAddons()) {
+			config |= 1 << (ADDON_SHIFT + extra.ordinal());
+		}
+		if (sandwich instanceof Burger burger && burger.isDoublePatty()) {
+			config |= 1 << DOUBLE_SHIFT;
+		}
+		return config;
+	}
+
+	private static Sandwich unpackSandwich(boolean burger, int config) {
+		Bread bread = BREADS[config >>> BREAD_SHIFT & 0x7];
+		Sandwich sandwich;
+		if (burger) {
+			sandwich = new Burger(bread, (config >>> DOUBLE_SHIFT & 1) != 0);
+		} else {
+			sandwich = new Sandwich(bread, PROTEINS[config >>> PROTEIN_SHIFT & 0x3]);
+		}
+		for (AddOns extra : ADDONS) {
+			if ((config >>> (ADDON_SHIFT + extra.ordinal()) & 1) != 0) {
+				sandwich.addAddOns(extra);
+			}
+		}
+		return sandwich;
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ * ItemRule.java
+ *
+ * Summary:
+ * One check the items of an order must pass before it is placed, run by OrderValidator.
+ * A rule looks at a single item and says what is wrong with it, if anything. Rules may be
+ * called from several threads at once, for different items. The validator remembers a rule's
+ * answer for each item configuration and quantity, unless the rule depends on something that
+ * changes, such as stock, and says so with isCacheable().
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+@FunctionalInterface
+public interface ItemRule {
+	/**
+	 * Checks an item.
+	 *
+	 * @param item the item; must not be changed.
+	 * @return why the item can't be placed, e.g. "no protein chosen", or null if it can.
+	 */
+	String check(MenuItem item);
+
+	/**
+	 * Returns whether the rule's answer depends only on the item's configuration and
+	 * quantity, so it can be remembered for identical items.
+	 *
+	 * @return true unless the rule must be run every time.
+	 */
+	default boolean isCacheable() {
+		return true;
+	}
+}
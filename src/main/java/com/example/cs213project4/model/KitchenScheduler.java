@@ -0,0 +1,412 @@
+/**
+ * KitchenScheduler.java
+ *
+ * Summary:
+ * Decides the order the kitchen works through placed orders, and when each one will be
+ * ready. Every item line is split into a task for the station that makes it: the grill
+ * (sandwiches and burgers), the fryer (fries and onion rings) or the counter (drinks, chips
+ * and apple slices). Each task gets a prep time estimate, so a double patty takes longer than
+ * a single and fries longer than chips. Each kind of station has its own priority queue of
+ * waiting tasks, and whenever one of its stations frees up it takes the head of that queue.
+ *
+ * The queue order is the policy. FIFO takes tasks in the order they were placed, so a
+ * catering order holds up every burger behind it. SHORTEST_JOB puts the tasks of the
+ * orders with the least total work first, which serves the most customers quickly but can
+ * leave a catering order waiting for as long as small orders keep coming. EARLIEST_DEADLINE
+ * gives each order a deadline of its arrival plus three times its total work, and takes the
+ * earliest deadline first: small orders still jump ahead, but a big order's deadline comes
+ * up eventually, so it is never starved.
+ *
+ * Time is in seconds on whatever clock the caller uses; the scheduler only needs it to go
+ * forward. Started tasks are never interrupted, and an order is ready once its last task is.
+ * With an event bus set, the kitchen publishes IN_PREP when an order's first task starts and
+ * READY once the clock passes its ready time.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+public class KitchenScheduler {
+	/** The kinds of station tasks are split across. */
+	public enum Station { GRILL, FRYER, COUNTER }
+
+	/** The order waiting tasks are taken in. */
+	public enum Policy { FIFO, SHORTEST_JOB, EARLIEST_DEADLINE }
+
+	private static final Station[] STATIONS = Station.values();
+
+	// Prep time estimates in seconds, for one unit of an item.
+	private static final long SANDWICH_SECONDS = 75;
+	private static final long BURGER_SECONDS = 180;
+	private static final long DOUBLE_PATTY_SECONDS = 240;
+	private static final long ADD_ON_SECONDS = 10;
+	private static final long FRIES_SECONDS = 180;
+	private static final long ONION_RINGS_SECONDS = 240;
+	private static final long CHIPS_SECONDS = 10;
+	private static final long APPLE_SLICES_SECONDS = 20;
+	private static final long DRINK_SECONDS = 20;
+	// An order's deadline is its arrival plus this many times its total work.
+	private static final long DEADLINE_FACTOR = 3;
+
+	// Waiting tasks first by key, which the policy sets when the order is submitted.
+	private static final Comparator<Task> QUEUE_ORDER = Comparator.comparingLong(Task::key)
+			.thenComparingLong(Task::arrival)
+			.thenComparingInt(Task::order)
+			.thenComparingLong(Task::seconds);
+
+	/**
+	 * One item line's work at one station.
+	 *
+	 * @param order the order number.
+	 * @param station the station that makes it.
+	 * @param seconds the estimated prep time.
+	 * @param arrival when the order was placed.
+	 * @param key the queue position the policy gave the order; lower goes first.
+	 */
+	record Task(int order, Station station, long seconds, long arrival, long key) {
+	}
+
+	/**
+	 * An order some of whose tasks have not started yet, or that is not ready yet.
+	 */
+	private static final class Ticket {
+		final long arrival;
+		int waiting;
+		long ready;
+		boolean started;
+
+		Ticket(long arrival) {
+			this.arrival = arrival;
+			this.ready = arrival;
+		}
+	}
+
+	/**
+	 * How orders fared.
+	 *
+	 * @param orders orders whose tasks have all started.
+	 * @param late those ready later than the quoted time.
+	 * @param lastReady when the last of them is ready.
+	 * @param turnaround seconds from placing each order until it is ready.
+	 */
+	public record Report(long orders, long late, long lastReady, LatencyHistogram turnaround) {
+		/**
+		 * Returns the orders ready within the quoted time, per hour of kitchen time.
+		 *
+		 * @return the on-time throughput.
+		 */
+		public double onTimePerHour() {
+			return (orders - late) * 3600.0 / Math.max(lastReady, 1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d orders, %d late, %.0f on time/h; turnaround mean=%.0fs p50=%ds p90=%ds p99=%ds max=%ds",
+					orders, late, onTimePerHour(), turnaround.mean(), turnaround.percentile(0.50),
+					turnaround.percentile(0.90), turnaround.percentile(0.99), turnaround.max());
+		}
+	}
+
+	private final Policy policy;
+	// When each station of each kind is next free.
+	private final long[][] freeAt = new long[STATIONS.length][];
+	// Tasks waiting for each station kind, by Station ordinal.
+	private final List<PriorityQueue<Task>> waiting = new ArrayList<>(STATIONS.length);
+	private final Map<Integer, Ticket> tickets = new HashMap<>();
+	private final LatencyHistogram turnaround = new LatencyHistogram();
+	private long quote = 600;
+	private long orders;
+	private long late;
+	private long lastReady;
+	private OrderEventBus events;
+
+	/**
+	 * Creates a kitchen.
+	 *
+	 * @param policy the order waiting tasks are taken in.
+	 * @param grills the number of grill stations.
+	 * @param fryers the number of fryers.
+	 * @param counters the number of counter stations.
+	 * @throws IllegalArgumentException if a station count is below 1.
+	 */
+	public KitchenScheduler(Policy policy, int grills, int fryers, int counters) {
+		if (grills < 1 || fryers < 1 || counters < 1) {
+			throw new IllegalArgumentException("Every station needs at least one of its kind");
+		}
+		this.policy = policy;
+		freeAt[Station.GRILL.ordinal()] = new long[grills];
+		freeAt[Station.FRYER.ordinal()] = new long[fryers];
+		freeAt[Station.COUNTER.ordinal()] = new long[counters];
+		for (int s = 0; s < STATIONS.length; s++) {
+			waiting.add(new PriorityQueue<>(QUEUE_ORDER));
+		}
+	}
+
+	/**
+	 * Sets the ready time promised to customers; orders taking longer count as late.
+	 *
+	 * @param seconds the promised time, 600 unless set.
+	 */
+	public synchronized void setQuote(long seconds) {
+		quote = seconds;
+	}
+
+	/**
+	 * Sets the bus the kitchen publishes IN_PREP and READY events on.
+	 *
+	 * @param events the bus, or null to publish nothing.
+	 */
+	public synchronized void setEvents(OrderEventBus events) {
+		this.events = events;
+	}
+
+	/**
+	 * Estimates the prep time of an item, over all the stations it needs.
+	 *
+	 * @param item the item.
+	 * @return the estimate in seconds.
+	 */
+	public static long prepSeconds(MenuItem item) {
+		long total = 0;
+		for (Task task : split(0, item)) {
+			total += task.seconds();
+		}
+		return total;
+	}
+
+	/**
+	 * Splits an order into station tasks, keyed by the policy.
+	 */
+	private List<Task> tasks(Order order, long now) {
+		List<Task> tasks = new ArrayList<>();
+		for (MenuItem item : order.getItems()) {
+			tasks.addAll(split(order.getNumber(), item));
+		}
+		long work = 0;
+		for (Task task : tasks) {
+			work += task.seconds();
+		}
+		long key = switch (policy) {
+			case FIFO -> now;
+			case SHORTEST_JOB -> work;
+			case EARLIEST_DEADLINE -> now + DEADLINE_FACTOR * work;
+		};
+		List<Task> keyed = new ArrayList<>(tasks.size());
+		for (Task task : tasks) {
+			keyed.add(new Task(task.order(), task.station(), task.seconds(), now, key));
+		}
+		return keyed;
+	}
+
+	/**
+	 * Splits an item into station tasks, not yet keyed.
+	 */
+	private static List<Task> split(int order, MenuItem item) {
+		List<Task> tasks = new ArrayList<>(3);
+		int quantity = item.getQuantity();
+		if (item instanceof Combo combo) {
+			Sandwich sandwich = combo.getSandwich();
+			tasks.add(new Task(order, Station.GRILL,
+					batch(sandwichSeconds(sandwich), quantity * sandwich.getQuantity()), 0, 0));
+			tasks.add(sideTask(order, combo.getSide().getSide(), quantity));
+			tasks.add(new Task(order, Station.COUNTER, DRINK_SECONDS * quantity, 0, 0));
+		} else if (item instanceof Sandwich sandwich) {
+			tasks.add(new Task(order, Station.GRILL, batch(sandwichSeconds(sandwich), quantity), 0, 0));
+		} else if (item instanceof Side side) {
+			tasks.add(sideTask(order, side.getSide(), quantity));
+		} else if (item instanceof Beverage) {
+			tasks.add(new Task(order, Station.COUNTER, DRINK_SECONDS * quantity, 0, 0));
+		}
+		return tasks;
+	}
+
+	private static long sandwichSeconds(Sandwich sandwich) {
+		long unit = sandwich instanceof Burger burger
+				? (burger.isDoublePatty() ? DOUBLE_PATTY_SECONDS : BURGER_SECONDS)
+				: SANDWICH_SECONDS;
+		return unit + ADD_ON_SECONDS * sandwich.getAddons().size();
+	}
+
+	private static Task sideTask(int order, SideOption option, int quantity) {
+		return switch (option) {
+			case FRIES -> new Task(order, Station.FRYER, batch(FRIES_SECONDS, quantity), 0, 0);
+			case ONION_RINGS -> new Task(order, Station.FRYER, batch(ONION_RINGS_SECONDS, quantity), 0, 0);
+			case CHIPS -> new Task(order, Station.COUNTER, CHIPS_SECONDS * quantity, 0, 0);
+			case APPLE_SLICES -> new Task(order, Station.COUNTER, APPLE_SLICES_SECONDS * quantity, 0, 0);
+		};
+	}
+
+	/**
+	 * Cooked items are made in batches: each unit past the first adds a third of the time.
+	 */
+	private static long batch(long unit, long quantity) {
+		return unit + (quantity - 1) * unit / 3;
+	}
+
+	/**
+	 * Queues a placed order's tasks.
+	 *
+	 * @param order the order.
+	 * @param now the time it was placed; must not be before earlier calls.
+	 */
+	public synchronized void submit(Order order, long now) {
+		advance(now);
+		List<Task> tasks = tasks(order, now);
+		if (tasks.isEmpty()) {
+			return;
+		}
+		Ticket ticket = new Ticket(now);
+		ticket.waiting = tasks.size();
+		tickets.put(order.getNumber(), ticket);
+		for (Task task : tasks) {
+			waiting.get(task.station().ordinal()).add(task);
+		}
+	}
+
+	/**
+	 * Drops the tasks of a cancelled order that have not started yet.
+	 *
+	 * @param orderNum the order number.
+	 */
+	public synchronized void cancel(int orderNum) {
+		if (tickets.remove(orderNum) != null) {
+			for (PriorityQueue<Task> queue : waiting) {
+				queue.removeIf(task -> task.order() == orderNum);
+			}
+		}
+	}
+
+	/**
+	 * Starts every task whose station frees up before a time, in policy order. Stations
+	 * freeing up exactly then wait, because an order placed at that moment may go first.
+	 *
+	 * @param now the time.
+	 */
+	public synchronized void advance(long now) {
+		for (int s = 0; s < STATIONS.length; s++) {
+			PriorityQueue<Task> queue = waiting.get(s);
+			long[] free = freeAt[s];
+			while (!queue.isEmpty()) {
+				int station = earliest(free);
+				Task head = queue.peek();
+				long start = Math.max(free[station], head.arrival());
+				if (start >= now) {
+					break;
+				}
+				queue.poll();
+				free[station] = start + head.seconds();
+				finish(head, free[station]);
+			}
+		}
+		// Orders ready by now leave the kitchen.
+		tickets.entrySet().removeIf(entry -> {
+			Ticket ticket = entry.getValue();
+			if (ticket.waiting != 0 || ticket.ready > now) {
+				return false;
+			}
+			if (events != null) {
+				events.publish(OrderStage.READY, entry.getKey());
+			}
+			return true;
+		});
+	}
+
+	/**
+	 * Starts every waiting task, as if no more orders were coming.
+	 *
+	 * @return how the orders fared.
+	 */
+	public synchronized Report drain() {
+		advance(Long.MAX_VALUE);
+		return report();
+	}
+
+	private void finish(Task task, long end) {
+		Ticket ticket = tickets.get(task.order());
+		ticket.ready = Math.max(ticket.ready, end);
+		if (!ticket.started) {
+			ticket.started = true;
+			if (events != null) {
+				events.publish(OrderStage.IN_PREP, task.order());
+			}
+		}
+		if (--ticket.waiting == 0) {
+			long took = ticket.ready - ticket.arrival;
+			turnaround.record(took);
+			orders++;
+			if (took > quote) {
+				late++;
+			}
+			lastReady = Math.max(lastReady, ticket.ready);
+		}
+	}
+
+	private static int earliest(long[] free) {
+		int best = 0;
+		for (int i = 1; i < free.length; i++) {
+			if (free[i] < free[best]) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Estimates when an order will be ready, assuming no more orders arrive ahead of it.
+	 *
+	 * @param orderNum the order number.
+	 * @return the expected ready time, or -1 if the order is not in the kitchen.
+	 */
+	public synchronized long expectedReady(int orderNum) {
+		Ticket ticket = tickets.get(orderNum);
+		if (ticket == null) {
+			return -1;
+		}
+		long ready = ticket.ready;
+		if (ticket.waiting == 0) {
+			return ready;
+		}
+		// Play each station's queue forward on copies until the order's last task is done.
+		for (int s = 0; s < STATIONS.length; s++) {
+			long[] free = freeAt[s].clone();
+			PriorityQueue<Task> queue = new PriorityQueue<>(waiting.get(s));
+			int left = 0;
+			for (Task task : queue) {
+				if (task.order() == orderNum) {
+					left++;
+				}
+			}
+			while (left > 0) {
+				Task head = queue.poll();
+				int station = earliest(free);
+				free[station] = Math.max(free[station], head.arrival()) + head.seconds();
+				if (head.order() == orderNum) {
+					ready = Math.max(ready, free[station]);
+					left--;
+				}
+			}
+		}
+		return ready;
+	}
+
+	/**
+	 * Returns how the orders whose tasks have all started fared so far.
+	 *
+	 * @return the report.
+	 */
+	public synchronized Report report() {
+		LatencyHistogram copy = new LatencyHistogram();
+		copy.merge(turnaround);
+		return new Report(orders, late, lastReady, copy);
+	}
+}
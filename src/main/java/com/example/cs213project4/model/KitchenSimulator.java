@@ -0,0 +1,128 @@
+/**
+ * KitchenSimulator.java
+ *
+ * Summary:
+ * Compares kitchen scheduling policies on the same rush. Customers arrive at random, on
+ * average one every 75 seconds; most order a couple of items, and a small share are
+ * catering orders of up to 8 lines in large quantities. Items are drawn by a
+ * TrafficSimulator, so they follow its menu weights. Every policy runs through exactly the
+ * same orders and arrival times, and the reports show how long customers waited for their
+ * orders and how many got them within the quoted time.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class KitchenSimulator {
+	private final TrafficSimulator everyday = new TrafficSimulator();
+	private final TrafficSimulator catering = new TrafficSimulator();
+	private double meanGapSeconds = 75;
+	private double cateringRate = 0.03;
+	private int grills = 4;
+	private int fryers = 2;
+	private int counters = 2;
+	private long seed = 42;
+
+	/**
+	 * Creates a simulator with everyday orders of up to 3 items of up to 2 each, and catering
+	 * orders of up to 8 items of up to 6 each.
+	 */
+	public KitchenSimulator() {
+		everyday.setLimits(3, 2);
+		catering.setLimits(8, 6);
+	}
+
+	/**
+	 * Sets how busy the rush is.
+	 *
+	 * @param meanGapSeconds the average time between customers.
+	 * @param cateringRate the share of orders that are catering orders.
+	 */
+	public void setLoad(double meanGapSeconds, double cateringRate) {
+		this.meanGapSeconds = meanGapSeconds;
+		this.cateringRate = cateringRate;
+	}
+
+	/**
+	 * Sets the stations the kitchen has.
+	 *
+	 * @param grills the number of grill stations.
+	 * @param fryers the number of fryers.
+	 * @param counters the number of counter stations.
+	 */
+	public void setStations(int grills, int fryers, int counters) {
+		this.grills = grills;
+		this.fryers = fryers;
+		this.counters = counters;
+	}
+
+	/**
+	 * Sets the random seed.
+	 *
+	 * @param seed the seed.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Runs the same rush through a kitchen with each policy.
+	 *
+	 * @param orders the number of customers.
+	 * @return the report of each policy.
+	 */
+	public Map<KitchenScheduler.Policy, KitchenScheduler.Report> run(int orders) {
+		SplittableRandom random = new SplittableRandom(seed);
+		List<Order> rush = new ArrayList<>(orders);
+		long[] arrivals = new long[orders];
+		double clock = 0;
+		for (int i = 0; i < orders; i++) {
+			// Exponential gaps: customers arrive independently of each other.
+			clock += -Math.log(1 - random.nextDouble()) * meanGapSeconds;
+			arrivals[i] = (long) clock;
+			TrafficSimulator items = random.nextDouble() < cateringRate ? catering : everyday;
+			Order order = new Order(i + 1);
+			int lines = 1 + random.nextInt(items == catering ? 8 : 3);
+			for (int j = 0; j < lines; j++) {
+				order.addItem(items.randomItem(random));
+			}
+			rush.add(order);
+		}
+		Map<KitchenScheduler.Policy, KitchenScheduler.Report> reports = new EnumMap<>(KitchenScheduler.Policy.class);
+		for (KitchenScheduler.Policy policy : KitchenScheduler.Policy.values()) {
+			KitchenScheduler kitchen = new KitchenScheduler(policy, grills, fryers, counters);
+			for (int i = 0; i < orders; i++) {
+				kitchen.submit(rush.get(i), arrivals[i]);
+			}
+			reports.put(policy, kitchen.drain());
+		}
+		return reports;
+	}
+
+	/**
+	 * Runs a rush with every policy and prints the reports.
+	 *
+	 * Arguments: [orders [mean seconds between customers [catering share]]].
+	 *
+	 * @param args the command-line arguments.
+	 */
+	public static void main(String[] args) {
+		int orders = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+		KitchenSimulator simulator = new KitchenSimulator();
+		if (args.length > 2) {
+			simulator.setLoad(Double.parseDouble(args[1]), Double.parseDouble(args[2]));
+		} else if (args.length > 1) {
+			simulator.setLoad(Double.parseDouble(args[1]), simulator.cateringRate);
+		}
+		simulator.run(orders).forEach((policy, report) -> System.out.println(policy + ": " + report));
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * LatencyHistogram.java
+ *
+ * Summary:
+ * Records latencies in nanoseconds into fixed log-linear buckets (16 per power of two, so
+ * every bucket is within about 6% of the values it holds) and reports counts and
+ * percentiles. Recording is a couple of shifts and an array increment, cheap enough to do
+ * on every request of a load test. A histogram is not thread-safe; give each thread its own
+ * and merge them for the report.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public class LatencyHistogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+	private long total;
+	private long sum;
+	private long max;
+
+	/**
+	 * Records one latency.
+	 *
+	 * @param nanos the latency in nanoseconds; negative values count as zero.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0);
+		counts[bucket(value)]++;
+		total++;
+		sum += value;
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds every latency recorded in another histogram to this one.
+	 *
+	 * @param other the histogram to merge.
+	 */
+	public void merge(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		total += other.total;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Returns the number of latencies recorded.
+	 *
+	 * @return the count.
+	 */
+	public long count() {
+		return total;
+	}
+
+	/**
+	 * Returns the mean latency.
+	 *
+	 * @return the mean in nanoseconds, or 0 if nothing was recorded.
+	 */
+	public double mean() {
+		return total == 0 ? 0 : (double) sum / total;
+	}
+
+	/**
+	 * Returns the largest latency recorded.
+	 *
+	 * @return the maximum in nanoseconds.
+	 */
+	public long max() {
+		return max;
+	}
+
+	/**
+	 * Returns the latency below which the given fraction of recorded latencies fall,
+	 * as the upper bound of the bucket it lands in.
+	 *
+	 * @param fraction the percentile as a fraction, e.g. 0.99.
+	 * @return the latency in nanoseconds, or 0 if nothing was recorded.
+	 */
+	public long percentile(double fraction) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * total));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(upperBound(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Formats the count and the main percentiles in microseconds, for load test reports.
+	 *
+	 * @return a one-line summary.
+	 */
+	public String summary() {
+		return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+				total, mean() / 1e3, percentile(0.50) / 1e3, percentile(0.90) / 1e3,
+				percentile(0.99) / 1e3, percentile(0.999) / 1e3, max / 1e3);
+	}
+
+	private static int bucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BITS);
+		return (1L << exponent) + (sub + 1) * width - 1;
+	}
+}
@@ -0,0 +1,354 @@
+/**
+ * LineItems.java
+ *
+ * Summary:
+ * The item lines of an Order. Every line gets a line ID when it is added, and the ID stays
+ * the same for as long as the line exists, however many lines before it are removed, so the
+ * order view can refer to lines by ID instead of by object identity. Adding a line and
+ * removing one by ID are O(1) (amortized), and lines always iterate in the order they were
+ * added.
+ *
+ * Lines live in parallel arrays in insertion order. Removing a line only clears its entry;
+ * the arrays are compacted once cleared entries outnumber live ones, and an IntIndex maps
+ * line IDs to their current entry. A Fenwick tree counts live entries, so the line at a
+ * given position (for the list view and the order view's selection) is found in O(log n).
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public final class LineItems {
+	// Cleared entries are only compacted away once there are at least this many.
+	private static final int MIN_COMPACT = 16;
+
+	private MenuItem[] items = new MenuItem[8];
+	private int[] ids = new int[8];
+	// Entries in use, including cleared ones.
+	private int end;
+	private int size;
+	private int nextId = 1;
+	private final IntIndex positions = new IntIndex(8);
+	// Fenwick tree over the entries, 1-based: live entries count 1, cleared ones 0.
+	private int[] live = new int[9];
+	private final List<MenuItem> view = new AbstractList<>() {
+		@Override
+		public MenuItem get(int index) {
+			return LineItems.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Iterator<MenuItem> iterator() {
+			// Walks the entries directly instead of looking up each position.
+			return new Iterator<>() {
+				private int next = skip(0);
+
+				@Override
+				public boolean hasNext() {
+					return next < end;
+				}
+
+				@Override
+				public MenuItem next() {
+					if (next >= end) {
+						throw new NoSuchElementException();
+					}
+					MenuItem item = items[next];
+					next = skip(next + 1);
+					return item;
+				}
+			};
+		}
+	};
+
+	/**
+	 * Appends a line.
+	 *
+	 * @param item the item on the line.
+	 * @return the new line's ID.
+	 */
+	public int add(MenuItem item) {
+		ensureRoom();
+		int id = nextId++;
+		items[end] = item;
+		ids[end] = id;
+		positions.put(id, end);
+		count(end, 1);
+		end++;
+		size++;
+		return id;
+	}
+
+	/**
+	 * Puts a line in at a position, under a given ID or a new one. Undoing a removal finds
+	 * the line's old entry still cleared and takes it back in O(log n); otherwise the entries
+	 * after the position move up one, in O(n).
+	 *
+	 * @param index the position, from 0 to size().
+	 * @param lineId the ID to give the line, or 0 for a new one.
+	 * @param item the item on the line.
+	 * @return the line's ID.
+	 */
+	int insert(int index, int lineId, MenuItem item) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Line " + index + " of " + size);
+		}
+		int id = lineId > 0 ? lineId : nextId;
+		nextId = Math.max(nextId, id + 1);
+		int at = index == size ? end : position(index);
+		if (at > 0 && items[at - 1] == null) {
+			// A cleared entry sits between the line before and this position.
+			at--;
+		} else {
+			if (end == items.length) {
+				ensureRoom();
+				at = index == size ? end : position(index);
+			}
+			System.arraycopy(items, at, items, at + 1, end - at);
+			System.arraycopy(ids, at, ids, at + 1, end - at);
+			end++;
+			for (int i = at + 1; i < end; i++) {
+				if (items[i] != null) {
+					positions.put(ids[i], i);
+				}
+			}
+			items[at] = null;
+			if (at < end - 1) {
+				rebuildLive();
+			}
+		}
+		items[at] = item;
+		ids[at] = id;
+		positions.put(id, at);
+		count(at, 1);
+		size++;
+		return id;
+	}
+
+	/**
+	 * Returns the position of a line, counting lines in order.
+	 *
+	 * @param lineId the line ID.
+	 * @return the position, or -1 if there is no such line.
+	 */
+	int indexOf(int lineId) {
+		int at = positions.get(lineId);
+		if (at < 0) {
+			return -1;
+		}
+		// Live entries before this one, summed down the Fenwick tree.
+		int index = 0;
+		for (int i = at; i > 0; i -= i & -i) {
+			index += live[i];
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the item on a line.
+	 *
+	 * @param lineId the line ID.
+	 * @return the item, or null if there is no such line.
+	 */
+	public MenuItem item(int lineId) {
+		int at = positions.get(lineId);
+		return at < 0 ? null : items[at];
+	}
+
+	/**
+	 * Removes a line. Lines after it keep their IDs and their order.
+	 *
+	 * @param lineId the line ID.
+	 * @return the removed item, or null if there was no such line.
+	 */
+	public MenuItem remove(int lineId) {
+		int at = positions.get(lineId);
+		if (at < 0) {
+			return null;
+		}
+		MenuItem removed = items[at];
+		positions.remove(lineId);
+		items[at] = null;
+		count(at, -1);
+		size--;
+		if (at == end - 1) {
+			end--;
+		} else if (end - size >= MIN_COMPACT && end - size > size) {
+			compact();
+		}
+		return removed;
+	}
+
+	/**
+	 * Returns the ID of the line at a position, counting lines in order.
+	 *
+	 * @param index the position, from 0 to size() - 1.
+	 * @return the line ID.
+	 */
+	public int lineId(int index) {
+		return ids[position(index)];
+	}
+
+	/**
+	 * Returns the item at a position, counting lines in order.
+	 *
+	 * @param index the position, from 0 to size() - 1.
+	 * @return the item.
+	 */
+	public MenuItem get(int index) {
+		return items[position(index)];
+	}
+
+	/**
+	 * Returns the number of lines.
+	 *
+	 * @return the line count.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns an empty LineItems whose line IDs carry on after this one's, so an order can
+	 * set its lines aside and start over without handing out an ID twice.
+	 *
+	 * @return the empty lines.
+	 */
+	LineItems successor() {
+		LineItems next = new LineItems();
+		next.nextId = nextId;
+		return next;
+	}
+
+	/**
+	 * Makes sure the next new line ID is past every ID another LineItems has handed out.
+	 *
+	 * @param other the other lines.
+	 */
+	void continueIds(LineItems other) {
+		nextId = Math.max(nextId, other.nextId);
+	}
+
+	/**
+	 * Removes every line. Line IDs are not reused.
+	 */
+	public void clear() {
+		Arrays.fill(items, 0, end, null);
+		Arrays.fill(live, 0);
+		positions.clear();
+		end = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns a read-only list view of the items, in line order.
+	 *
+	 * @return the list view.
+	 */
+	public List<MenuItem> asList() {
+		return view;
+	}
+
+	/**
+	 * Makes room for one more entry at the end, compacting when most entries are cleared.
+	 */
+	private void ensureRoom() {
+		if (end == items.length) {
+			if (end - size >= MIN_COMPACT && end - size >= size) {
+				compact();
+			} else {
+				items = Arrays.copyOf(items, end * 2);
+				ids = Arrays.copyOf(ids, end * 2);
+				rebuildLive();
+			}
+		}
+	}
+
+	/**
+	 * Maps a position among the live lines to an entry, by descending the Fenwick tree.
+	 */
+	private int position(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Line " + index + " of " + size);
+		}
+		if (end == size) {
+			return index;
+		}
+		int at = 0;
+		int remaining = index + 1;
+		for (int step = Integer.highestOneBit(live.length - 1); step > 0; step >>= 1) {
+			int next = at + step;
+			if (next < live.length && live[next] < remaining) {
+				at = next;
+				remaining -= live[next];
+			}
+		}
+		// at is the count of entries before the one holding the line.
+		return at;
+	}
+
+	/**
+	 * Returns the first entry at or after a given one that holds a line, or end.
+	 */
+	private int skip(int from) {
+		while (from < end && items[from] == null) {
+			from++;
+		}
+		return from;
+	}
+
+	private void count(int entry, int delta) {
+		for (int i = entry + 1; i < live.length; i += i & -i) {
+			live[i] += delta;
+		}
+	}
+
+	/**
+	 * Rebuilds the Fenwick tree for the current entries in O(n).
+	 */
+	private void rebuildLive() {
+		live = new int[items.length + 1];
+		for (int i = 0; i < end; i++) {
+			if (items[i] != null) {
+				live[i + 1]++;
+			}
+		}
+		for (int i = 1; i < live.length; i++) {
+			int parent = i + (i & -i);
+			if (parent < live.length) {
+				live[parent] += live[i];
+			}
+		}
+	}
+
+	/**
+	 * Drops cleared entries, keeping the remaining lines in order.
+	 */
+	private void compact() {
+		int to = 0;
+		for (int from = 0; from < end; from++) {
+			if (items[from] != null) {
+				items[to] = items[from];
+				ids[to] = ids[from];
+				positions.put(ids[to], to);
+				to++;
+			}
+		}
+		Arrays.fill(items, to, end, null);
+		end = to;
+		rebuildLive();
+	}
+}
@@ -0,0 +1,418 @@
+/**
+ * MappedOrderArchive.java
+ *
+ * Summary:
+ * An OrderArchive whose tables live off the Java heap in a memory-mapped file, accessed
+ * through the Foreign Function and Memory API. Records are fixed width, so any order or
+ * line item is one offset calculation away and nothing needs to be deserialized to read it.
+ *
+ * File layout (all values are ints):
+ *   header (64 bytes) : magic, version, order capacity, line capacity, order count,
+ *                       line count, highest order number, dead line count, lowest order number
+ *   order table       : order capacity x {order number, first line, line count}
+ *   index table       : 2 x order capacity x {order number, slot}, an open-addressing hash
+ *                       index so reopening a file never has to scan it
+ *   line table        : line capacity x {item type, packed configuration, quantity, cents}
+ *
+ * When either table fills up the file is grown and remapped, moving the line table up
+ * to make room for the larger order and index tables. The mappings it replaces stay open
+ * until the archive is closed, as a reader on another thread may still be using one; the
+ * file only doubles in size when it grows, so there are few of them.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+public class MappedOrderArchive extends OrderArchive {
+	static final int MAGIC = 0x52554F41; // "RUOA"
+	static final int VERSION = 2;
+
+	static final long HEADER_BYTES = 64;
+	static final long ORDER_BYTES = 12;
+	static final long LINE_BYTES = 16;
+	static final long INDEX_BYTES = 8;
+
+	// Header field offsets.
+	private static final long H_MAGIC = 0;
+	private static final long H_VERSION = 4;
+	private static final long H_ORDER_CAPACITY = 8;
+	private static final long H_LINE_CAPACITY = 12;
+	private static final long H_ORDERS = 16;
+	private static final long H_LINES = 20;
+	private static final long H_MAX_ORDER = 24;
+	private static final long H_DEAD_LINES = 28;
+	private static final long H_MIN_ORDER = 32;
+
+	private final Path file;
+	private final FileChannel channel;
+	private Arena arena;
+	private volatile MemorySegment segment;
+	// Arenas of the mappings replaced when the file grew, closed with the archive.
+	private final List<Arena> retired = new ArrayList<>();
+
+	// Cached copies of the header so hot paths do not read the mapping for them.
+	private int orderCapacity;
+	private int lineCapacity;
+	private int orders;
+	private int lines;
+	private long indexBase;
+	private int indexMask;
+	private long lineBase;
+
+	/**
+	 * Opens an archive file, creating it if it does not exist yet. Opening only maps
+	 * the file; nothing in it is read until it is used.
+	 *
+	 * @param file the archive file.
+	 * @throws IOException if the file cannot be opened, mapped, or is not an order archive.
+	 */
+	public MappedOrderArchive(Path file) throws IOException {
+		this(file, 1024, 4096);
+	}
+
+	/**
+	 * Opens an archive file, creating it with the given capacities if it does not exist yet.
+	 *
+	 * @param file the archive file.
+	 * @param orderCapacity the order capacity for a new file.
+	 * @param lineCapacity the line capacity for a new file.
+	 * @throws IOException if the file cannot be opened, mapped, or is not an order archive.
+	 */
+	public MappedOrderArchive(Path file, int orderCapacity, int lineCapacity) throws IOException {
+		this.file = file;
+		boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (fresh) {
+				map(orderCapacity, lineCapacity);
+				segment.set(JAVA_INT, H_MAGIC, MAGIC);
+				segment.set(JAVA_INT, H_VERSION, VERSION);
+				segment.set(JAVA_INT, H_ORDER_CAPACITY, orderCapacity);
+				segment.set(JAVA_INT, H_LINE_CAPACITY, lineCapacity);
+			} else {
+				MemorySegment header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES, Arena.ofAuto());
+				if (header.get(JAVA_INT, H_MAGIC) != MAGIC || header.get(JAVA_INT, H_VERSION) != VERSION) {
+					throw new IOException(file + " is not an order archive");
+				}
+				map(header.get(JAVA_INT, H_ORDER_CAPACITY), header.get(JAVA_INT, H_LINE_CAPACITY));
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		orders = segment.get(JAVA_INT, H_ORDERS);
+		lines = segment.get(JAVA_INT, H_LINES);
+		int last = orders > 0 ? segment.get(JAVA_INT, orderOffset(orders - 1)) : 0;
+		if (orders > 0 && indexFind(last) != orders - 1) {
+			// The last append was cut short before its index entry was written.
+			indexPut(last, orders - 1);
+		}
+	}
+
+	/**
+	 * Returns the file backing this archive.
+	 *
+	 * @return the archive file.
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	@Override
+	public int orderCount() {
+		return orders;
+	}
+
+	@Override
+	public int orderNumber(int slot) {
+		return segment.get(JAVA_INT, orderOffset(slot));
+	}
+
+	@Override
+	public int firstLine(int slot) {
+		return segment.get(JAVA_INT, orderOffset(slot) + 4);
+	}
+
+	@Override
+	public int lineCount(int slot) {
+		return segment.get(JAVA_INT, orderOffset(slot) + 8);
+	}
+
+	@Override
+	public int itemType(int line) {
+		return segment.get(JAVA_INT, lineOffset(line));
+	}
+
+	@Override
+	public int config(int line) {
+		return segment.get(JAVA_INT, lineOffset(line) + 4);
+	}
+
+	@Override
+	public int quantity(int line) {
+		return segment.get(JAVA_INT, lineOffset(line) + 8);
+	}
+
+	@Override
+	public int cents(int line) {
+		return segment.get(JAVA_INT, lineOffset(line) + 12);
+	}
+
+	@Override
+	public int find(int orderNum) {
+		if (orders == 0 || orderNum < minOrderNumber() || orderNum > maxOrderNumber()) {
+			return -1;
+		}
+		return indexFind(orderNum);
+	}
+
+	@Override
+	public boolean isDurable() {
+		return true;
+	}
+
+	@Override
+	public int maxOrderNumber() {
+		return segment.get(JAVA_INT, H_MAX_ORDER);
+	}
+
+	/**
+	 * Returns the lowest order number ever appended, or 0 if nothing has been appended.
+	 *
+	 * @return the lowest order number.
+	 */
+	public int minOrderNumber() {
+		return segment.get(JAVA_INT, H_MIN_ORDER);
+	}
+
+	/**
+	 * Returns the number of line rows in use, including rows of removed orders
+	 * that have not been compacted yet.
+	 *
+	 * @return the end of the line table.
+	 */
+	int lineEnd() {
+		return lines;
+	}
+
+	@Override
+	public void append(Order order) {
+		var items = order.getItems();
+		ensureCapacity(orders + 1, lines + items.size());
+
+		long at = orderOffset(orders);
+		segment.set(JAVA_INT, at, order.getNumber());
+		segment.set(JAVA_INT, at + 4, lines);
+		segment.set(JAVA_INT, at + 8, items.size());
+		for (MenuItem item : items) {
+			long row = lineOffset(lines);
+			segment.set(JAVA_INT, row, ItemCodec.type(item));
+			segment.set(JAVA_INT, row + 4, ItemCodec.pack(item));
+			segment.set(JAVA_INT, row + 8, item.getQuantity());
+			segment.set(JAVA_INT, row + 12, ItemCodec.cents(item.cost()));
+			lines++;
+		}
+		if (order.getNumber() > maxOrderNumber()) {
+			segment.set(JAVA_INT, H_MAX_ORDER, order.getNumber());
+		}
+		if (minOrderNumber() == 0 || order.getNumber() < minOrderNumber()) {
+			segment.set(JAVA_INT, H_MIN_ORDER, order.getNumber());
+		}
+		// The counts are published before the index entry, so a crash mid-append leaves either
+		// the previous orders or an order the index is missing, which reopening puts back; never
+		// an index entry for a slot the next append will reuse.
+		orders++;
+		segment.set(JAVA_INT, H_LINES, lines);
+		segment.set(JAVA_INT, H_ORDERS, orders);
+		indexPut(order.getNumber(), orders - 1);
+	}
+
+	@Override
+	public boolean remove(int orderNum) {
+		int slot = find(orderNum);
+		if (slot < 0) {
+			return false;
+		}
+		int dead = segment.get(JAVA_INT, H_DEAD_LINES) + lineCount(slot);
+		MemorySegment.copy(segment, orderOffset(slot + 1), segment, orderOffset(slot), (orders - slot - 1) * ORDER_BYTES);
+		orders--;
+		segment.set(JAVA_INT, H_ORDERS, orders);
+		segment.set(JAVA_INT, H_DEAD_LINES, dead);
+		indexRemove(orderNum);
+		for (int i = slot; i < orders; i++) {
+			indexPut(orderNumber(i), i);
+		}
+		if (dead > 1024 && dead > lines - dead) {
+			compact();
+		}
+		return true;
+	}
+
+	/**
+	 * Drops the line rows of removed orders and closes the gaps they left.
+	 */
+	public void compact() {
+		int write = 0;
+		for (int slot = 0; slot < orders; slot++) {
+			int read = firstLine(slot);
+			int count = lineCount(slot);
+			if (read != write) {
+				MemorySegment.copy(segment, lineOffset(read), segment, lineOffset(write), count * LINE_BYTES);
+				segment.set(JAVA_INT, orderOffset(slot) + 4, write);
+			}
+			write += count;
+		}
+		lines = write;
+		segment.set(JAVA_INT, H_LINES, lines);
+		segment.set(JAVA_INT, H_DEAD_LINES, 0);
+	}
+
+	/**
+	 * Writes any changes in the mapping back to the file.
+	 */
+	public void force() {
+		segment.force();
+	}
+
+	/**
+	 * Flushes the mapping, unmaps it and the mappings it replaced, and closes the file.
+	 */
+	@Override
+	public void close() {
+		try {
+			segment.force();
+			arena.close();
+			for (Arena old : retired) {
+				old.close();
+			}
+			retired.clear();
+			channel.close();
+		} catch (IOException e) {
+			System.err.println("Could not close " + file + ": " + e.getMessage());
+		}
+	}
+
+	private long orderOffset(int slot) {
+		return HEADER_BYTES + slot * ORDER_BYTES;
+	}
+
+	private long lineOffset(int line) {
+		return lineBase + line * LINE_BYTES;
+	}
+
+	private long indexOffset(int bucket) {
+		return indexBase + bucket * INDEX_BYTES;
+	}
+
+	private int indexFind(int orderNum) {
+		for (int bucket = hash(orderNum) & indexMask; ; bucket = (bucket + 1) & indexMask) {
+			int key = segment.get(JAVA_INT, indexOffset(bucket));
+			if (key == orderNum) {
+				// An entry left by an append cut short may name a slot since given to another order.
+				int slot = segment.get(JAVA_INT, indexOffset(bucket) + 4);
+				return slot < orders && segment.get(JAVA_INT, orderOffset(slot)) == orderNum ? slot : -1;
+			}
+			if (key == 0) {
+				return -1;
+			}
+		}
+	}
+
+	private void indexPut(int orderNum, int slot) {
+		int bucket = hash(orderNum) & indexMask;
+		while (true) {
+			int key = segment.get(JAVA_INT, indexOffset(bucket));
+			if (key == 0 || key == orderNum) {
+				break;
+			}
+			bucket = (bucket + 1) & indexMask;
+		}
+		segment.set(JAVA_INT, indexOffset(bucket), orderNum);
+		segment.set(JAVA_INT, indexOffset(bucket) + 4, slot);
+	}
+
+	private void indexRemove(int orderNum) {
+		int hole = hash(orderNum) & indexMask;
+		while (segment.get(JAVA_INT, indexOffset(hole)) != orderNum) {
+			hole = (hole + 1) & indexMask;
+		}
+		// Backward-shift deletion, as in IntIndex, so the table never holds tombstones.
+		for (int next = (hole + 1) & indexMask; ; next = (next + 1) & indexMask) {
+			int key = segment.get(JAVA_INT, indexOffset(next));
+			if (key == 0) {
+				break;
+			}
+			int home = hash(key) & indexMask;
+			if (((next - home) & indexMask) >= ((next - hole) & indexMask)) {
+				MemorySegment.copy(segment, indexOffset(next), segment, indexOffset(hole), INDEX_BYTES);
+				hole = next;
+			}
+		}
+		segment.set(JAVA_INT, indexOffset(hole), 0);
+	}
+
+	private void rebuildIndex() {
+		segment.asSlice(indexBase, (indexMask + 1L) * INDEX_BYTES).fill((byte) 0);
+		for (int slot = 0; slot < orders; slot++) {
+			indexPut(orderNumber(slot), slot);
+		}
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void ensureCapacity(int neededOrders, int neededLines) {
+		if (neededOrders <= orderCapacity && neededLines <= lineCapacity) {
+			return;
+		}
+		int newOrders = neededOrders > orderCapacity ? Math.max(neededOrders, orderCapacity * 2) : orderCapacity;
+		int newLines = neededLines > lineCapacity ? Math.max(neededLines, lineCapacity * 2) : lineCapacity;
+		long oldBase = lineBase;
+		try {
+			map(newOrders, newLines);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not grow " + file, e);
+		}
+		if (lineBase != oldBase) {
+			MemorySegment.copy(segment, oldBase, segment, lineBase, lines * LINE_BYTES);
+			rebuildIndex();
+		}
+		segment.set(JAVA_INT, H_ORDER_CAPACITY, newOrders);
+		segment.set(JAVA_INT, H_LINE_CAPACITY, newLines);
+	}
+
+	private void map(int newOrderCapacity, int newLineCapacity) throws IOException {
+		int buckets = Integer.highestOneBit(Math.max(2, newOrderCapacity) * 2 - 1) << 1;
+		long size = HEADER_BYTES + newOrderCapacity * ORDER_BYTES + buckets * INDEX_BYTES + newLineCapacity * LINE_BYTES;
+		Arena mapping = Arena.ofShared();
+		MemorySegment mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, mapping);
+		if (arena != null) {
+			segment.force();
+			retired.add(arena);
+		}
+		arena = mapping;
+		segment = mapped;
+		orderCapacity = newOrderCapacity;
+		lineCapacity = newLineCapacity;
+		indexBase = HEADER_BYTES + newOrderCapacity * ORDER_BYTES;
+		indexMask = buckets - 1;
+		lineBase = indexBase + buckets * INDEX_BYTES;
+	}
+}
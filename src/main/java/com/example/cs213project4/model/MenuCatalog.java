@@ -0,0 +1,303 @@
+/**
+ * MenuCatalog.java
+ *
+ * Summary:
+ * The menu's prices and pictures, loaded from a local file so they can change without a
+ * rebuild. A catalog is immutable: prices sit in primitive arrays indexed by the ordinal of
+ * the enum they belong to, and a reload builds a whole new catalog and publishes it with one
+ * volatile write (see CatalogWatcher). The model classes read current() on every cost()
+ * call, which takes no lock and always sees one complete catalog, never a half-applied edit.
+ *
+ * The options themselves (Bread, Protein, AddOns, Size, Flavor, SideOption) stay enums,
+ * because placed orders are stored by their ordinals; the catalog can reprice them and give
+ * them pictures, but adding a new flavor still takes a release.
+ *
+ * File format, one entry per line, # starts a comment, and anything left out keeps the
+ * built-in value:
+ *   protein.SALMON = 9.99          bread.BAGEL = 0.25          addon.CHEESE = 1.00
+ *   side.FRIES = 2.49              side.size.LARGE = 1.50      beverage.size.MEDIUM = 2.49
+ *   burger.double = 2.50           combo.extra = 2.00
+ *   image.beverage.COLA = /com/example/cs213project4/image/beverage_cola.png
+ * Pictures can be set for image.beverage.FLAVOR, image.side.OPTION and image.burger; values
+ * are resource paths, or file: URLs for pictures kept next to the file.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class MenuCatalog {
+	/** The prices the menu was built with, used until a catalog file is loaded. */
+	public static final MenuCatalog DEFAULT = defaults();
+
+	private static volatile MenuCatalog current = DEFAULT;
+	// Goes up whenever the prices shown may have changed; see pricesChanged().
+	private static final ReadOnlyIntegerWrapper priceVersion = new ReadOnlyIntegerWrapper();
+
+	private final double[] breads;
+	private final double[] proteins;
+	private final double[] addOns;
+	private final double[] sides;
+	private final double[] sideSizes;
+	private final double[] beverageSizes;
+	private final double doublePatty;
+	private final double comboExtra;
+	private final Map<String, String> images;
+
+	private MenuCatalog(double[] breads, double[] proteins, double[] addOns, double[] sides, double[] sideSizes,
+						double[] beverageSizes, double doublePatty, double comboExtra, Map<String, String> images) {
+		this.breads = breads;
+		this.proteins = proteins;
+		this.addOns = addOns;
+		this.sides = sides;
+		this.sideSizes = sideSizes;
+		this.beverageSizes = beverageSizes;
+		this.doublePatty = doublePatty;
+		this.comboExtra = comboExtra;
+		this.images = images;
+	}
+
+	private static MenuCatalog defaults() {
+		double[] breads = new double[Bread.values().length];
+		for (Bread bread : Bread.values()) {
+			breads[bread.ordinal()] = bread.getCost();
+		}
+		double[] proteins = new double[Protein.values().length];
+		for (Protein protein : Protein.values()) {
+			proteins[protein.ordinal()] = protein.getCost();
+		}
+		double[] addOns = new double[AddOns.values().length];
+		for (AddOns extra : AddOns.values()) {
+			addOns[extra.ordinal()] = extra.getCost();
+		}
+		double[] sides = new double[SideOption.values().length];
+		for (SideOption side : SideOption.values()) {
+			sides[side.ordinal()] = side.getBaseCost();
+		}
+		return new MenuCatalog(breads, proteins, addOns, sides, new double[] {0, 0.50, 1.50},
+				new double[] {1.99, 2.49, 2.99}, 2.50, 2.00, Map.of());
+	}
+
+	/**
+	 * Returns the catalog items are priced with right now.
+	 *
+	 * @return the current catalog.
+	 */
+	public static MenuCatalog current() {
+		return current;
+	}
+
+	/**
+	 * Makes a catalog the current one. Items priced after this call use its prices.
+	 *
+	 * @param catalog the new catalog.
+	 */
+	public static void setCurrent(MenuCatalog catalog) {
+		current = catalog;
+	}
+
+	/**
+	 * Returns a number that goes up whenever the prices items are shown with may have changed:
+	 * a catalog reload, new promotions, or a promotion's time window opening or closing. Item
+	 * costs and order subtotals bound in views depend on it, as cost() reads current() and
+	 * Promotions.active() without them being observable.
+	 *
+	 * @return the price version.
+	 */
+	public static ReadOnlyIntegerProperty priceVersionProperty() {
+		return priceVersion.getReadOnlyProperty();
+	}
+
+	/**
+	 * Tells views bound to prices to work them out again. Called on the FX thread once
+	 * views are showing prices.
+	 */
+	public static void pricesChanged() {
+		priceVersion.set(priceVersion.get() + 1);
+	}
+
+	/**
+	 * Loads a catalog file.
+	 *
+	 * @param file the file.
+	 * @return the catalog.
+	 * @throws IOException if the file cannot be read.
+	 * @throws IllegalArgumentException if an entry is malformed.
+	 */
+	public static MenuCatalog load(Path file) throws IOException {
+		return parse(Files.readAllLines(file));
+	}
+
+	/**
+	 * Parses catalog entries on top of the built-in prices.
+	 *
+	 * @param lines the entries, one per line.
+	 * @return the catalog.
+	 * @throws IllegalArgumentException if an entry is malformed, naming its line.
+	 */
+	public static MenuCatalog parse(List<String> lines) {
+		double[] breads = DEFAULT.breads.clone();
+		double[] proteins = DEFAULT.proteins.clone();
+		double[] addOns = DEFAULT.addOns.clone();
+		double[] sides = DEFAULT.sides.clone();
+		double[] sideSizes = DEFAULT.sideSizes.clone();
+		double[] beverageSizes = DEFAULT.beverageSizes.clone();
+		double doublePatty = DEFAULT.doublePatty;
+		double comboExtra = DEFAULT.comboExtra;
+		Map<String, String> images = new HashMap<>();
+		for (int n = 0; n < lines.size(); n++) {
+			String line = lines.get(n);
+			int hash = line.indexOf('#');
+			line = (hash < 0 ? line : line.substring(0, hash)).strip();
+			if (line.isEmpty()) {
+				continue;
+			}
+			try {
+				int equals = line.indexOf('=');
+				if (equals < 0) {
+					throw new IllegalArgumentException("Expected key = value");
+				}
+				String key = line.substring(0, equals).strip();
+				String value = line.substring(equals + 1).strip();
+				if (key.startsWith("image.")) {
+					images.put(key.substring("image.".length()), value);
+					continue;
+				}
+				double price = Double.parseDouble(value);
+				if (price < 0 || Double.isNaN(price) || Double.isInfinite(price)) {
+					throw new IllegalArgumentException("Price must be zero or more: " + value);
+				}
+				int dot = key.lastIndexOf('.');
+				String group = dot < 0 ? key : key.substring(0, dot);
+				String name = dot < 0 ? "" : key.substring(dot + 1);
+				switch (group) {
+					case "bread" -> breads[Bread.valueOf(name).ordinal()] = price;
+					case "protein" -> proteins[Protein.valueOf(name).ordinal()] = price;
+					case "addon" -> addOns[AddOns.valueOf(name).ordinal()] = price;
+					case "side" -> sides[SideOption.valueOf(name).ordinal()] = price;
+					case "side.size" -> sideSizes[Size.valueOf(name).ordinal()] = price;
+					case "beverage.size" -> beverageSizes[Size.valueOf(name).ordinal()] = price;
+					case "burger" -> {
+						if (!name.equals("double")) {
+							throw new IllegalArgumentException("Unknown key: " + key);
+						}
+						doublePatty = price;
+					}
+					case "combo" -> {
+						if (!name.equals("extra")) {
+							throw new IllegalArgumentException("Unknown key: " + key);
+						}
+						comboExtra = price;
+					}
+					default -> throw new IllegalArgumentException("Unknown key: " + key);
+				}
+			} catch (IllegalArgumentException e) {
+				// Unknown enum constants and bad numbers land here too.
+				throw new IllegalArgumentException("Catalog line " + (n + 1) + ": " + e.getMessage(), e);
+			}
+		}
+		return new MenuCatalog(breads, proteins, addOns, sides, sideSizes, beverageSizes,
+				doublePatty, comboExtra, Map.copyOf(images));
+	}
+
+	/**
+	 * Returns the price of a bread.
+	 *
+	 * @param bread the bread.
+	 * @return the price in dollars.
+	 */
+	public double bread(Bread bread) {
+		return breads[bread.ordinal()];
+	}
+
+	/**
+	 * Returns the price of a protein.
+	 *
+	 * @param protein the protein.
+	 * @return the price in dollars.
+	 */
+	public double protein(Protein protein) {
+		return proteins[protein.ordinal()];
+	}
+
+	/**
+	 * Returns the price of an add-on.
+	 *
+	 * @param extra the add-on.
+	 * @return the price in dollars.
+	 */
+	public double addOn(AddOns extra) {
+		return addOns[extra.ordinal()];
+	}
+
+	/**
+	 * Returns the price of a small side.
+	 *
+	 * @param side the side option.
+	 * @return the price in dollars.
+	 */
+	public double side(SideOption side) {
+		return sides[side.ordinal()];
+	}
+
+	/**
+	 * Returns what a side size adds to the price of a small side.
+	 *
+	 * @param size the size.
+	 * @return the surcharge in dollars.
+	 */
+	public double sideSize(Size size) {
+		return sideSizes[size.ordinal()];
+	}
+
+	/**
+	 * Returns the price of a beverage of a size.
+	 *
+	 * @param size the size.
+	 * @return the price in dollars.
+	 */
+	public double beverage(Size size) {
+		return beverageSizes[size.ordinal()];
+	}
+
+	/**
+	 * Returns the surcharge for a double patty.
+	 *
+	 * @return the surcharge in dollars.
+	 */
+	public double doublePatty() {
+		return doublePatty;
+	}
+
+	/**
+	 * Returns what a combo adds to the price of its sandwich.
+	 *
+	 * @return the surcharge in dollars.
+	 */
+	public double comboExtra() {
+		return comboExtra;
+	}
+
+	/**
+	 * Returns the picture configured for a menu entry, such as "beverage.COLA".
+	 *
+	 * @param key the entry.
+	 * @param fallback the picture to use if the catalog has none.
+	 * @return the resource path or file: URL of the picture.
+	 */
+	public String image(String key, String fallback) {
+		return images.getOrDefault(key, fallback);
+	}
+}
@@ -1,19 +1,84 @@
-package com.example.cs213project4.model;
-
-public abstract class MenuItem 
-{
-	protected int quantity; 
-
-	public abstract double cost(); 
-	public int getQuantity()
-	{
-		return quantity; 
-	}
-	public void setQuantity(int quantity)
-	{
-		this.quantity = quantity; 
-	}
-	public abstract String toString(); 
-	
-
-}
+package com.example.cs213project4.model;
+
+import javafx.beans.Observable;
+import javafx.beans.binding.DoubleBinding;
+import javafx.beans.binding.DoubleExpression;
+
+public abstract class MenuItem 
+{
+	protected int quantity; 
+	private int version;
+	/* last rendered receipt line, see ReceiptLine */
+	ReceiptLine.Rendered rendered;
+	/* cents the item was sold for, when rebuilt from an order archive; -1 until then, and again once it changes */
+	int soldCents = -1;
+	/* observable cost, created the first time a view asks for it, see costProperty() */
+	private DoubleBinding costBinding;
+
+	public abstract double cost(); 
+	public int getQuantity()
+	{
+		return quantity; 
+	}
+	public void setQuantity(int quantity)
+	{
+		this.quantity = quantity; 
+		changed();
+	}
+	/*
+	 * Counts changes to the item; every setter calls changed() so cached text goes stale.
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+	protected void changed()
+	{
+		version++;
+		soldCents = -1;
+		if (costBinding != null)
+		{
+			costBinding.invalidate();
+		}
+	}
+	/*
+	 * Returns the cost as an observable value for views to bind to. cost() is only called
+	 * when the value is read after a change, however many events a view gets in between.
+	 */
+	public DoubleExpression costProperty()
+	{
+		if (costBinding == null)
+		{
+			costBinding = new DoubleBinding()
+			{
+				{
+					bind(costDependencies());
+				}
+				@Override
+				protected double computeValue()
+				{
+					return cost();
+				}
+			};
+		}
+		return costBinding;
+	}
+	/*
+	 * Returns the observables other than this item that cost() reads: the menu's prices, or
+	 * for a combo its sandwich, whose cost follows them.
+	 */
+	protected Observable[] costDependencies()
+	{
+		return new Observable[] {MenuCatalog.priceVersionProperty()};
+	}
+	/*
+	 * Appends the item's receipt line, without caching.
+	 */
+	protected abstract void describe(StringBuilder out);
+	@Override
+	public final String toString()
+	{
+		return ReceiptLine.render(this);
+	}
+
+}
@@ -0,0 +1,388 @@
+/**
+ * OpenTabs.java
+ *
+ * Summary:
+ * The orders in progress at one terminal, so a cashier can hold a slow customer's order
+ * while serving the next one. One tab is active: its order is a live Order, and once
+ * record() has been called its edits can be undone and are journaled. Every other tab is
+ * parked in the form the session snapshot stores, four ints per line
+ *   item type, packed configuration, quantity, cents
+ * plus the custom names of its sandwiches, so a parked tab holds no item objects, bindings
+ * or undo history. Switching tabs parks the active order and rebuilds the other one line for
+ * line, in time proportional to the lines of the two orders.
+ *
+ * Each tab is bounded: its order holds at most maxLines lines and its undo history at most
+ * maxSteps edits, and at most maxTabs tabs are open at once.
+ *
+ * Tabs are used on the thread that edits orders.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class OpenTabs {
+	// Ints per parked line: type, config, quantity, cents.
+	static final int LINE = 4;
+
+	private final int maxTabs;
+	private final int maxLines;
+	private final int maxSteps;
+	// Order numbers of the open tabs, in the order they were opened, and each tab's parked
+	// form; the active tab's entry is null, as its order is live.
+	private int[] numbers = new int[4];
+	private Parked[] parked = new Parked[4];
+	private int count;
+	// Slot of the active tab, or -1 if no tab is active.
+	private int active = -1;
+	private Order order;
+	private EditLog edits;
+	// Set by record(): the active tab's edits are kept for undo and written to the journal.
+	private boolean recording;
+	private EditJournal journal;
+
+	/**
+	 * An order set aside: its lines packed LINE ints each, and the custom names of its
+	 * sandwiches. A line the codec cannot pack (a sandwich with no protein yet) is kept as
+	 * the item itself, with type -1.
+	 */
+	private static final class Parked {
+		final int[] lines;
+		// Custom sandwich names by line, or null if no line has one.
+		final String[] names;
+		// Items that could not be packed, by line, or null if every line was packed.
+		final MenuItem[] held;
+
+		Parked(int[] lines, String[] names, MenuItem[] held) {
+			this.lines = lines;
+			this.names = names;
+			this.held = held;
+		}
+
+		static Parked of(Order order) {
+			List<MenuItem> items = order.getItems();
+			int[] lines = new int[items.size() * LINE];
+			String[] names = null;
+			MenuItem[] held = null;
+			for (int i = 0; i < items.size(); i++) {
+				MenuItem item = items.get(i);
+				int at = i * LINE;
+				try {
+					lines[at] = ItemCodec.type(item);
+					lines[at + 1] = ItemCodec.pack(item);
+					lines[at + 3] = ItemCodec.cents(item.cost());
+				} catch (IllegalArgumentException e) {
+					if (held == null) {
+						held = new MenuItem[items.size()];
+					}
+					held[i] = item;
+					lines[at] = -1;
+				}
+				lines[at + 2] = item.getQuantity();
+				if (item instanceof Sandwich sandwich && sandwich.getName() != null) {
+					if (names == null) {
+						names = new String[items.size()];
+					}
+					names[i] = sandwich.getName();
+				}
+			}
+			return new Parked(lines, names, held);
+		}
+
+		Order unpark(int orderNum) {
+			Order order = new Order(orderNum);
+			for (int i = 0; i < lines.length / LINE; i++) {
+				int at = i * LINE;
+				MenuItem item;
+				if (lines[at] < 0) {
+					item = held[i];
+				} else {
+					item = ItemCodec.unpack(lines[at], lines[at + 1], lines[at + 2]);
+					if (names != null && names[i] != null) {
+						((Sandwich) item).setName(names[i]);
+					}
+				}
+				// Line for line, without merging, so the edit journal's line positions still apply.
+				order.insertLine(i, 0, item);
+			}
+			return order;
+		}
+	}
+
+	/**
+	 * Creates a terminal's tabs, with none open.
+	 *
+	 * @param maxTabs the most tabs that can be open at once.
+	 * @param maxLines the most lines an order can hold while it is a tab.
+	 * @param maxSteps the most edits of the active tab that can be undone; at least 2.
+	 */
+	public OpenTabs(int maxTabs, int maxLines, int maxSteps) {
+		if (maxTabs < 1 || maxLines < 1 || maxSteps < 2) {
+			throw new IllegalArgumentException("Tabs need room for at least 1 tab of 1 line and 2 undo steps, not "
+					+ maxTabs + ", " + maxLines + " and " + maxSteps);
+		}
+		this.maxTabs = maxTabs;
+		this.maxLines = maxLines;
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Keeps the active tab's edits for undo from now on, and journals them and every tab
+	 * opened, switched to or closed. Until then tabs are not recorded, as while they are
+	 * rebuilt from a snapshot and a journal.
+	 *
+	 * @param journal the journal to write to, or null to keep undo history only.
+	 */
+	public void record(EditJournal journal) {
+		recording = true;
+		this.journal = journal;
+		if (order != null) {
+			follow();
+		}
+	}
+
+	/**
+	 * Opens a tab for an order and makes it the active tab, parking the one that was active.
+	 *
+	 * @param newOrder the order, which must not have a tab yet.
+	 * @return the order.
+	 * @throws IllegalStateException if maxTabs tabs are already open.
+	 * @throws IllegalArgumentException if the order already has a tab.
+	 */
+	public Order open(Order newOrder) {
+		if (count >= maxTabs) {
+			throw new IllegalStateException("All " + maxTabs + " tabs are open; place or close one first");
+		}
+		if (slotOf(newOrder.getNumber()) >= 0) {
+			throw new IllegalArgumentException("Order #" + newOrder.getNumber() + " already has a tab");
+		}
+		park();
+		int slot = append(newOrder.getNumber(), null);
+		activate(slot, newOrder);
+		return newOrder;
+	}
+
+	/**
+	 * Makes an open tab the active one, parking the tab that was active. The undo history
+	 * of the tab that was active is dropped.
+	 *
+	 * @param orderNum the tab's order number.
+	 * @return the tab's order, rebuilt if it was parked.
+	 * @throws IllegalArgumentException if the order has no tab.
+	 */
+	public Order switchTo(int orderNum) {
+		int slot = slotOf(orderNum);
+		if (slot < 0) {
+			throw new IllegalArgumentException("Order #" + orderNum + " has no open tab");
+		}
+		if (slot != active) {
+			park();
+			Order rebuilt = parked[slot].unpark(orderNum);
+			parked[slot] = null;
+			activate(slot, rebuilt);
+		}
+		return order;
+	}
+
+	/**
+	 * Closes a tab, once its order has been placed or discarded. If it was the active tab,
+	 * no tab is active afterwards.
+	 *
+	 * @param orderNum the tab's order number.
+	 * @return false if the order had no open tab.
+	 */
+	public boolean close(int orderNum) {
+		int slot = slotOf(orderNum);
+		if (slot < 0) {
+			return false;
+		}
+		if (slot == active) {
+			if (edits != null) {
+				edits.detach();
+			}
+			order.setLineLimit(Integer.MAX_VALUE);
+			order = null;
+			edits = null;
+			active = -1;
+		} else if (active > slot) {
+			active--;
+		}
+		System.arraycopy(numbers, slot + 1, numbers, slot, count - slot - 1);
+		System.arraycopy(parked, slot + 1, parked, slot, count - slot - 1);
+		parked[--count] = null;
+		if (journal != null) {
+			journal.closed(orderNum);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the active tab's order.
+	 *
+	 * @return the order, or null if no tab is active.
+	 */
+	public Order getActive() {
+		return order;
+	}
+
+	/**
+	 * Returns the undo history of the active tab.
+	 *
+	 * @return the log, or null if no tab is active or tabs are not being recorded.
+	 */
+	public EditLog getEdits() {
+		return edits;
+	}
+
+	/**
+	 * Returns whether an order has an open tab.
+	 *
+	 * @param orderNum the order number.
+	 * @return true if the tab is open, active or parked.
+	 */
+	public boolean isOpen(int orderNum) {
+		return slotOf(orderNum) >= 0;
+	}
+
+	/**
+	 * Returns the number of open tabs.
+	 *
+	 * @return the tab count.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the order numbers of the open tabs, in the order the tabs were opened.
+	 *
+	 * @return a new array of order numbers.
+	 */
+	public int[] getNumbers() {
+		return Arrays.copyOf(numbers, count);
+	}
+
+	/**
+	 * Returns the most tabs that can be open at once.
+	 *
+	 * @return the tab limit.
+	 */
+	public int getMaxTabs() {
+		return maxTabs;
+	}
+
+	/**
+	 * Returns a tab's lines in parked form, LINE ints each, leaving out lines that could
+	 * not be packed. The active tab is packed on the spot.
+	 *
+	 * @param slot the tab's position in getNumbers().
+	 * @return the packed lines.
+	 */
+	int[] lineRecords(int slot) {
+		return packed(slot == active ? Parked.of(order) : parked[slot]);
+	}
+
+	/**
+	 * Returns an order's lines packed as they would be parked, leaving out lines that could
+	 * not be packed.
+	 *
+	 * @param order the order.
+	 * @return the packed lines, LINE ints each.
+	 */
+	static int[] lineRecords(Order order) {
+		return packed(Parked.of(order));
+	}
+
+	/**
+	 * Rebuilds an order from packed lines, line for line.
+	 *
+	 * @param orderNum the order number.
+	 * @param lines the packed lines, LINE ints each.
+	 * @return the order.
+	 */
+	static Order unpack(int orderNum, int[] lines) {
+		return new Parked(lines, null, null).unpark(orderNum);
+	}
+
+	private static int[] packed(Parked form) {
+		if (form.held == null) {
+			return form.lines;
+		}
+		int[] packed = new int[form.lines.length];
+		int n = 0;
+		for (int at = 0; at < form.lines.length; at += LINE) {
+			if (form.lines[at] >= 0) {
+				System.arraycopy(form.lines, at, packed, n, LINE);
+				n += LINE;
+			}
+		}
+		return Arrays.copyOf(packed, n);
+	}
+
+	/**
+	 * Opens a parked tab from packed lines, as saved in a session snapshot. The tab limit
+	 * does not apply, so every saved tab comes back.
+	 *
+	 * @param orderNum the tab's order number.
+	 * @param lines the packed lines, LINE ints each.
+	 */
+	void addParked(int orderNum, int[] lines) {
+		if (slotOf(orderNum) >= 0) {
+			throw new IllegalArgumentException("Order #" + orderNum + " already has a tab");
+		}
+		append(orderNum, new Parked(lines, null, null));
+	}
+
+	private int slotOf(int orderNum) {
+		for (int slot = 0; slot < count; slot++) {
+			if (numbers[slot] == orderNum) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	private int append(int orderNum, Parked form) {
+		if (count == numbers.length) {
+			numbers = Arrays.copyOf(numbers, count * 2);
+			parked = Arrays.copyOf(parked, count * 2);
+		}
+		numbers[count] = orderNum;
+		parked[count] = form;
+		return count++;
+	}
+
+	private void park() {
+		if (active < 0) {
+			return;
+		}
+		if (edits != null) {
+			edits.detach();
+		}
+		parked[active] = Parked.of(order);
+		order = null;
+		edits = null;
+		active = -1;
+	}
+
+	private void activate(int slot, Order next) {
+		active = slot;
+		order = next;
+		order.setLineLimit(maxLines);
+		if (recording) {
+			follow();
+		}
+	}
+
+	private void follow() {
+		if (edits != null) {
+			edits.detach();
+		}
+		edits = EditLog.attach(order, journal, maxSteps);
+	}
+}
@@ -1,58 +1,408 @@
-package com.example.cs213project4.model;
-import java.util.ArrayList;
-public class Order 
-{
-	private int orderNum; 
-	private ArrayList<MenuItem> items; 
-	private static final double TAX = 0.06625;
-	
-	public Order(int num)
-	{
-		this.orderNum = num; 
-		this.items = new ArrayList<>(); 
-	}
-	public int getNumber() {
-		return orderNum; 
-	}
-	public ArrayList<MenuItem> getItems()
-	{
-		return items; 
-	}
-	public void addItem(MenuItem item)
-	{
-		items.add(item);
-	}
-	public boolean eradicateItem(MenuItem item)
-	{
-		return items.remove(item);
-		
-	}
-	public void removeItem(MenuItem loc)
-	{
-		items.remove(loc);
-	}
-	public void eradicateAllItems()
-	{
-		items.clear();
-	}
-	public double getTotalCost()
-	{
-		double totalCost = 0.0; 
-		for(MenuItem item : items)
-		{
-			totalCost+=item.cost(); 
-		}
-		return totalCost;
-	}
-	public double getTax()
-	{
-		return getTotalCost()*TAX;
-	}
-	public double getTotal()
-	{
-		return getTotalCost()+getTax();
-	}
-	/*
-	 * Insert toString here
-	 */
-}
+package com.example.cs213project4.model;
+import java.util.List;
+import java.util.Objects;
+import javafx.beans.binding.DoubleBinding;
+import javafx.beans.binding.DoubleExpression;
+public class Order 
+{
+	private int orderNum; 
+	private LineItems items; 
+	// Line ID of the line for each configuration (ItemCodec.key), so adding an item that
+	// is already in the order raises that line's quantity instead of adding a line.
+	private IntIndex lines = new IntIndex(8);
+	static final double TAX = 0.06625;
+	// Set once the order is placed; from then on its discount is the Discount line, if any.
+	private boolean placed;
+	// Observable totals, created the first time a view asks for them.
+	private Subtotal subtotal;
+	private DoubleBinding tax;
+	private DoubleBinding total;
+	// Records edits for undo, or null when the order is not being edited at a register.
+	private EditLog log;
+	// Most lines the order may hold; bounded while it is an open tab.
+	private int lineLimit = Integer.MAX_VALUE;
+	
+	public Order(int num)
+	{
+		this.orderNum = num; 
+		this.items = new LineItems(); 
+	}
+	public int getNumber() {
+		return orderNum; 
+	}
+	/*
+	 * Returns a read-only view of the items, one per line, in the order they were added.
+	 */
+	public List<MenuItem> getItems()
+	{
+		return items.asList(); 
+	}
+	/*
+	 * Adds an item, merging it into the existing line when the order already has an item
+	 * with the same configuration (and the same custom name, for sandwiches).
+	 * Returns the ID of the line holding the item. Throws IllegalStateException if the item
+	 * needs a line of its own and the order already has as many lines as it may hold.
+	 */
+	public int addItem(MenuItem item)
+	{
+		int key = configKey(item);
+		if (key >= 0)
+		{
+			int lineId = lines.get(key);
+			MenuItem line = lineId < 0 ? null : items.item(lineId);
+			if (line != null && Objects.equals(nameOf(line), nameOf(item)))
+			{
+				int before = line.getQuantity();
+				line.setQuantity(before + item.getQuantity());
+				if (log != null)
+				{
+					log.quantityChanged(lineId, before);
+				}
+				return lineId;
+			}
+			if (line == null)
+			{
+				checkRoom();
+				lineId = items.add(item);
+				lines.put(key, lineId);
+				return added(lineId, item);
+			}
+		}
+		checkRoom();
+		return added(items.add(item), item);
+	}
+	private void checkRoom()
+	{
+		if (items.size() >= lineLimit)
+		{
+			throw new IllegalStateException("Order #" + orderNum + " already has " + lineLimit + " lines, the most it can hold");
+		}
+	}
+	private int added(int lineId, MenuItem item)
+	{
+		track(item);
+		if (log != null)
+		{
+			log.added(lineId);
+		}
+		return lineId;
+	}
+	/*
+	 * Returns the ID of the line at a position in getItems().
+	 */
+	public int getLineId(int index)
+	{
+		return items.lineId(index);
+	}
+	/*
+	 * Returns the item on a line, or null if the line has been removed.
+	 */
+	public MenuItem getLine(int lineId)
+	{
+		return items.item(lineId);
+	}
+	/*
+	 * Removes a line by its ID. Other lines keep their IDs.
+	 */
+	public boolean removeLine(int lineId)
+	{
+		int index = log == null ? -1 : items.indexOf(lineId);
+		MenuItem removed = dropLine(lineId);
+		if (removed == null)
+		{
+			return false;
+		}
+		if (log != null)
+		{
+			log.removed(lineId, index, removed);
+		}
+		return true;
+	}
+	/*
+	 * Removes a line without recording it; returns the item, or null if there was no such line.
+	 */
+	MenuItem dropLine(int lineId)
+	{
+		MenuItem removed = items.remove(lineId);
+		if (removed == null)
+		{
+			return null;
+		}
+		if (subtotal != null)
+		{
+			subtotal.untrack(removed);
+			subtotal.invalidate();
+		}
+		int key = configKey(removed);
+		if (key >= 0 && lines.get(key) == lineId)
+		{
+			lines.remove(key);
+		}
+		return removed;
+	}
+	/*
+	 * Puts a line in at a position without merging or recording it, for undo and for
+	 * rebuilding an order line by line. Returns the line's ID.
+	 */
+	int insertLine(int index, int lineId, MenuItem item)
+	{
+		int id = items.insert(index, lineId, item);
+		int key = configKey(item);
+		if (key >= 0 && lines.get(key) < 0)
+		{
+			lines.put(key, id);
+		}
+		track(item);
+		return id;
+	}
+	/*
+	 * Returns the position of a line in getItems(), or -1 if there is no such line.
+	 */
+	int indexOfLine(int lineId)
+	{
+		return items.indexOf(lineId);
+	}
+	public boolean eradicateItem(MenuItem item)
+	{
+		for (int i = 0; i < items.size(); i++)
+		{
+			if (items.get(i) == item)
+			{
+				return removeLine(items.lineId(i));
+			}
+		}
+		return false;
+		
+	}
+	public void removeItem(MenuItem loc)
+	{
+		eradicateItem(loc);
+	}
+	public void eradicateAllItems()
+	{
+		if (log != null && items.size() > 0)
+		{
+			// The lines are set aside whole rather than cleared, so the log can put them back.
+			log.cleared(swapContents(new Contents(items.successor(), new IntIndex(8))));
+			return;
+		}
+		if (subtotal != null)
+		{
+			for (MenuItem item : items.asList())
+			{
+				subtotal.untrack(item);
+			}
+		}
+		items.clear();
+		lines.clear();
+		invalidateTotals();
+	}
+	/*
+	 * The lines of an order and their configuration index, set aside together.
+	 */
+	record Contents(LineItems items, IntIndex lines)
+	{
+	}
+	/*
+	 * Installs other lines in place of the order's own, which are returned untouched.
+	 */
+	Contents swapContents(Contents next)
+	{
+		Contents previous = new Contents(items, lines);
+		if (subtotal != null)
+		{
+			for (MenuItem item : items.asList())
+			{
+				subtotal.untrack(item);
+			}
+		}
+		next.items().continueIds(items);
+		items = next.items();
+		lines = next.lines();
+		if (subtotal != null)
+		{
+			for (MenuItem item : items.asList())
+			{
+				subtotal.track(item);
+			}
+		}
+		invalidateTotals();
+		return previous;
+	}
+	void setEditLog(EditLog log)
+	{
+		this.log = log;
+	}
+	/*
+	 * Bounds the number of lines addItem() may create. Lines already in the order stay,
+	 * and undo may put back lines the order held before.
+	 */
+	void setLineLimit(int lineLimit)
+	{
+		this.lineLimit = lineLimit;
+	}
+	/*
+	 * Returns the configuration key of an item, or -1 for items that cannot be packed
+	 * (such as a sandwich with no protein yet), which are never merged.
+	 */
+	private static int configKey(MenuItem item)
+	{
+		try
+		{
+			return ItemCodec.key(ItemCodec.type(item), ItemCodec.pack(item));
+		}
+		catch (IllegalArgumentException e)
+		{
+			return -1;
+		}
+	}
+	private static String nameOf(MenuItem item)
+	{
+		if (item instanceof Combo combo)
+		{
+			return combo.getSandwich().getName();
+		}
+		return item instanceof Sandwich sandwich ? sandwich.getName() : null;
+	}
+	public double getTotalCost()
+	{
+		double totalCost = 0.0; 
+		for(MenuItem item : items.asList())
+		{
+			totalCost+=item.cost(); 
+		}
+		return totalCost - getDiscount();
+	}
+	/*
+	 * Returns what the active promotions take off an order that is still being built.
+	 * A placed order returns 0: its discount is already a Discount line.
+	 */
+	public double getDiscount()
+	{
+		return placed ? 0 : Promotions.active().discountCents(items.asList()) / 100.0;
+	}
+	/*
+	 * Places the order with the active promotions: the discount at this moment is added as
+	 * a Discount line, so it no longer depends on the time of day or the rules in force.
+	 * A placed order is no longer a tab, so its line limit is lifted first; the discount
+	 * line may be one past it.
+	 */
+	void applyPromotions()
+	{
+		if (placed)
+		{
+			return;
+		}
+		lineLimit = Integer.MAX_VALUE;
+		int cents = Promotions.active().discountCents(items.asList());
+		placed = true;
+		if (cents > 0)
+		{
+			addItem(new Discount(cents));
+		}
+		invalidateTotals();
+	}
+	/*
+	 * Marks an order rebuilt from storage as placed, so promotions are not applied again.
+	 */
+	void markPlaced()
+	{
+		placed = true;
+		invalidateTotals();
+	}
+	public double getTax()
+	{
+		return getTotalCost()*TAX;
+	}
+	public double getTotal()
+	{
+		return getTotalCost()+getTax();
+	}
+	/*
+	 * Returns the subtotal after discounts as an observable value. It is summed again only
+	 * when it is read after an item was added, removed or changed, so a label bound to it
+	 * does no work for events that leave the order as it was.
+	 */
+	public DoubleExpression subtotalProperty()
+	{
+		if (subtotal == null)
+		{
+			subtotal = new Subtotal();
+			for (MenuItem item : items.asList())
+			{
+				subtotal.track(item);
+			}
+		}
+		return subtotal;
+	}
+	/*
+	 * Returns the tax as an observable value, derived from subtotalProperty().
+	 */
+	public DoubleExpression taxProperty()
+	{
+		if (tax == null)
+		{
+			tax = subtotalProperty().multiply(TAX);
+		}
+		return tax;
+	}
+	/*
+	 * Returns the total with tax as an observable value, derived from subtotalProperty().
+	 */
+	public DoubleExpression totalProperty()
+	{
+		if (total == null)
+		{
+			total = subtotalProperty().add(taxProperty());
+		}
+		return total;
+	}
+	private void track(MenuItem item)
+	{
+		if (subtotal != null)
+		{
+			subtotal.track(item);
+			subtotal.invalidate();
+		}
+	}
+	private void invalidateTotals()
+	{
+		if (subtotal != null)
+		{
+			subtotal.invalidate();
+		}
+	}
+	/*
+	 * The same sum as getTotalCost(), kept stale until an item's cost property says otherwise.
+	 * Reading each item through its property keeps those properties valid, which they must be
+	 * to pass their next change on.
+	 */
+	private final class Subtotal extends DoubleBinding
+	{
+		{
+			// The discount follows the active promotions and the time of day.
+			bind(MenuCatalog.priceVersionProperty());
+		}
+		void track(MenuItem item)
+		{
+			bind(item.costProperty());
+		}
+		void untrack(MenuItem item)
+		{
+			unbind(item.costProperty());
+		}
+		@Override
+		protected double computeValue()
+		{
+			double sum = 0.0;
+			for (MenuItem item : items.asList())
+			{
+				sum += item.costProperty().get();
+			}
+			return sum - getDiscount();
+		}
+	}
+	/*
+	 * Insert toString here
+	 */
+}
@@ -0,0 +1,186 @@
+/**
+ * OrderArchive.java
+ *
+ * Summary:
+ * Base class for the stores that placed orders migrate into. An archive keeps orders as
+ * a table of order slots plus a table of line items, where each line is described only
+ * by primitives: item type, packed configuration (see ItemCodec), quantity and cost in cents.
+ * Scans, reports and exports read these columns directly; Order objects are only rebuilt
+ * on demand through materialize().
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public abstract class OrderArchive {
+
+	/**
+	 * Returns the number of orders held in the archive.
+	 *
+	 * @return the order count.
+	 */
+	public abstract int orderCount();
+
+	/**
+	 * Returns the order number stored in a slot.
+	 *
+	 * @param slot the order slot, from 0 to orderCount() - 1.
+	 * @return the order number.
+	 */
+	public abstract int orderNumber(int slot);
+
+	/**
+	 * Returns the index of the first line item of an order.
+	 *
+	 * @param slot the order slot.
+	 * @return the line index.
+	 */
+	public abstract int firstLine(int slot);
+
+	/**
+	 * Returns the number of line items in an order.
+	 *
+	 * @param slot the order slot.
+	 * @return the line count.
+	 */
+	public abstract int lineCount(int slot);
+
+	/**
+	 * Returns the ItemCodec type code of a line item.
+	 *
+	 * @param line the line index.
+	 * @return the item type.
+	 */
+	public abstract int itemType(int line);
+
+	/**
+	 * Returns the packed configuration of a line item.
+	 *
+	 * @param line the line index.
+	 * @return the packed configuration.
+	 */
+	public abstract int config(int line);
+
+	/**
+	 * Returns the quantity of a line item.
+	 *
+	 * @param line the line index.
+	 * @return the quantity.
+	 */
+	public abstract int quantity(int line);
+
+	/**
+	 * Returns the cost of a line item (quantity included) in cents.
+	 *
+	 * @param line the line index.
+	 * @return the cost in cents.
+	 */
+	public abstract int cents(int line);
+
+	/**
+	 * Finds the slot holding an order.
+	 *
+	 * @param orderNum the order number.
+	 * @return the slot, or -1 if the order is not in the archive.
+	 */
+	public abstract int find(int orderNum);
+
+	/**
+	 * Appends a placed order to the archive.
+	 *
+	 * @param order the order to append.
+	 */
+	public abstract void append(Order order);
+
+	/**
+	 * Removes an order from the archive. Slots after it move down by one.
+	 *
+	 * @param orderNum the number of the order to remove.
+	 * @return true if the order was found and removed.
+	 */
+	public abstract boolean remove(int orderNum);
+
+	/**
+	 * Returns the highest order number ever appended, or 0 if the archive is empty.
+	 *
+	 * @return the highest order number.
+	 */
+	public abstract int maxOrderNumber();
+
+	/**
+	 * Releases any resources held by the archive. The default does nothing.
+	 */
+	public void close() {
+	}
+
+	/**
+	 * Returns whether the archive already keeps its orders on disk, so that a session
+	 * snapshot does not need to copy them.
+	 *
+	 * @return true for file-backed archives.
+	 */
+	public boolean isDurable() {
+		return false;
+	}
+
+	/**
+	 * Returns a read-only copy of the archive as it is now. Later changes to this archive
+	 * do not show up in the copy. The default copies every live row; archives that can
+	 * share their storage override this with something cheaper.
+	 *
+	 * @return a frozen copy of the archive.
+	 */
+	public OrderArchive snapshot() {
+		return ColumnarOrderArchive.copyOf(this).snapshot();
+	}
+
+	/**
+	 * Returns the subtotal of an order in cents, summed straight from the cents column.
+	 *
+	 * @param slot the order slot.
+	 * @return the subtotal in cents.
+	 */
+	public long subtotalCents(int slot) {
+		int first = firstLine(slot);
+		int end = first + lineCount(slot);
+		long total = 0;
+		for (int line = first; line < end; line++) {
+			total += cents(line);
+		}
+		return total;
+	}
+
+	/**
+	 * Rebuilds a line item as a MenuItem. Its receipt line shows the price it was archived
+	 * with, so an order's lines still add up to its subtotal after the prices change.
+	 *
+	 * @param line the line index.
+	 * @return a new MenuItem for the line.
+	 */
+	public MenuItem item(int line) {
+		MenuItem item = ItemCodec.unpack(itemType(line), config(line), quantity(line));
+		item.soldCents = cents(line);
+		return item;
+	}
+
+	/**
+	 * Rebuilds the order in a slot as an Order object, line for line: lines with the same
+	 * configuration are not merged, so the order's lines match the archived ones.
+	 *
+	 * @param slot the order slot.
+	 * @return a new Order with the same number and items.
+	 */
+	public Order materialize(int slot) {
+		Order order = new Order(orderNumber(slot));
+		order.markPlaced();
+		int first = firstLine(slot);
+		int end = first + lineCount(slot);
+		for (int line = first; line < end; line++) {
+			order.insertLine(line - first, 0, item(line));
+		}
+		return order;
+	}
+}
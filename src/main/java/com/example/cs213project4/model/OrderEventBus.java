@@ -0,0 +1,207 @@
+/**
+ * OrderEventBus.java
+ *
+ * Summary:
+ * Carries order lifecycle events (see OrderStage) from the store and the kitchen to whoever
+ * wants to follow them: the counter's views, the event log, and anything added later. Events
+ * go into a fixed ring of preallocated slots, two longs each, so publishing allocates nothing
+ * and never waits on a reader. Publishing is serialized; there is one writer at a time.
+ *
+ * Every reader has its own cursor and polls on its own thread, taking everything published
+ * since its last poll in one go. Readers are not registered with the writer, so a slow or
+ * abandoned reader costs nothing. The price is that a reader that falls a whole ring behind
+ * loses the oldest events, and is told how many.
+ *
+ * The writer claims a slot before overwriting it. A reader checks the claim after reading a
+ * slot, so it never delivers a slot that was overwritten while it was reading.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OrderEventBus implements OrderListener {
+	private static final OrderStage[] STAGES = OrderStage.values();
+
+	private final int mask;
+	private final long capacity;
+	private final long[] times;
+	// Order number in the high bits, stage ordinal in the low byte.
+	private final long[] tags;
+	// Events 0 to published - 1 can be read.
+	private final AtomicLong published = new AtomicLong();
+	// Highest event whose slot the writer has started to write.
+	private final AtomicLong claimed = new AtomicLong(-1);
+
+	/**
+	 * Creates a bus.
+	 *
+	 * @param capacity the number of events kept for readers; a power of two.
+	 * @throws IllegalArgumentException if the capacity is not a power of two.
+	 */
+	public OrderEventBus(int capacity) {
+		if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		this.mask = capacity - 1;
+		this.capacity = capacity;
+		this.times = new long[capacity];
+		this.tags = new long[capacity];
+	}
+
+	/**
+	 * Publishes an event, stamped with the current time.
+	 *
+	 * @param stage the stage the order reached.
+	 * @param orderNum the order number.
+	 */
+	public synchronized void publish(OrderStage stage, int orderNum) {
+		long sequence = published.get();
+		int slot = (int) sequence & mask;
+		claimed.set(sequence);
+		// Readers must see the claim before any of the new slot contents.
+		VarHandle.storeStoreFence();
+		times[slot] = System.currentTimeMillis();
+		tags[slot] = (long) orderNum << 8 | stage.ordinal();
+		published.setRelease(sequence + 1);
+	}
+
+	@Override
+	public void placed(Order order) {
+		publish(OrderStage.PLACED, order.getNumber());
+	}
+
+	@Override
+	public void cancelled(int orderNum) {
+		publish(OrderStage.CANCELLED, orderNum);
+	}
+
+	/**
+	 * Returns the number of events published so far.
+	 *
+	 * @return the event count.
+	 */
+	public long getPublished() {
+		return published.get();
+	}
+
+	/**
+	 * Creates a reader that starts with the oldest event still in the ring, so a view
+	 * opened late can catch up on recent history.
+	 *
+	 * @return the reader.
+	 */
+	public Reader subscribe() {
+		return new Reader(Math.max(0, published.get() - capacity));
+	}
+
+	/**
+	 * One subscriber's position in the ring. A reader must only be polled by one thread at a time.
+	 */
+	public final class Reader {
+		private long cursor;
+		private long missed;
+
+		private Reader(long cursor) {
+			this.cursor = cursor;
+		}
+
+		/**
+		 * Delivers every event published since the last poll.
+		 *
+		 * @param handler receives the events.
+		 * @return the number of events delivered.
+		 */
+		public int poll(OrderEventHandler handler) {
+			int delivered = 0;
+			long available = published.getAcquire();
+			while (cursor < available) {
+				if (available - cursor > capacity) {
+					skip(handler, available - capacity);
+				}
+				int slot = (int) cursor & mask;
+				long time = times[slot];
+				long tag = tags[slot];
+				// Read the slot before the claim, then make sure the writer has not come round to it.
+				VarHandle.loadLoadFence();
+				long overwritten = claimed.get() - capacity;
+				if (overwritten >= cursor) {
+					skip(handler, overwritten + 1);
+					available = published.getAcquire();
+					continue;
+				}
+				handler.onEvent(STAGES[(int) tag & 0xff], (int) (tag >>> 8), time);
+				cursor++;
+				delivered++;
+			}
+			return delivered;
+		}
+
+		private void skip(OrderEventHandler handler, long to) {
+			missed += to - cursor;
+			handler.missed(to - cursor);
+			cursor = to;
+		}
+
+		/**
+		 * Returns the number of events this reader has lost by falling behind.
+		 *
+		 * @return the missed count.
+		 */
+		public long getMissed() {
+			return missed;
+		}
+	}
+
+	/**
+	 * Publishes events from one thread as fast as it can while reader threads poll them, and
+	 * prints the throughput.
+	 *
+	 * Arguments: [events [readers]].
+	 *
+	 * @param args the command-line arguments.
+	 * @throws InterruptedException if interrupted.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		long events = args.length > 0 ? Long.parseLong(args[0]) : 20_000_000;
+		int readers = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		OrderEventBus bus = new OrderEventBus(1 << 16);
+		long[] seen = new long[readers];
+		long[] lost = new long[readers];
+		CountDownLatch done = new CountDownLatch(readers);
+		for (int r = 0; r < readers; r++) {
+			int id = r;
+			Reader reader = bus.subscribe();
+			Thread thread = new Thread(() -> {
+				long count = 0;
+				while (count + reader.getMissed() < events) {
+					count += reader.poll((stage, orderNum, time) -> { });
+					Thread.onSpinWait();
+				}
+				seen[id] = count;
+				lost[id] = reader.getMissed();
+				done.countDown();
+			}, "event-reader-" + r);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		long start = System.nanoTime();
+		OrderStage[] stages = OrderStage.values();
+		for (long i = 0; i < events; i++) {
+			bus.publish(stages[(int) (i % stages.length)], (int) i);
+		}
+		long published = System.nanoTime() - start;
+		done.await();
+		long read = System.nanoTime() - start;
+		System.out.printf("published %d events in %.2fs: %.1fM events/s%n", events, published / 1e9, events * 1e3 / published);
+		for (int r = 0; r < readers; r++) {
+			System.out.printf("reader %d: %d delivered, %d missed, done after %.2fs%n", r, seen[r], lost[r], read / 1e9);
+		}
+	}
+}
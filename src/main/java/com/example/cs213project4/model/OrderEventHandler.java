@@ -0,0 +1,33 @@
+/**
+ * OrderEventHandler.java
+ *
+ * Summary:
+ * Receives events from an OrderEventBus reader. Events arrive as plain arguments, so
+ * delivering one allocates nothing, and always on the thread that polls the reader.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public interface OrderEventHandler {
+	/**
+	 * Called for each event, in the order they were published.
+	 *
+	 * @param stage the stage the order reached.
+	 * @param orderNum the order number.
+	 * @param timeMillis when the event was published, in epoch milliseconds.
+	 */
+	void onEvent(OrderStage stage, int orderNum, long timeMillis);
+
+	/**
+	 * Called when the reader fell a whole ring behind and events were overwritten before
+	 * it read them. Delivery carries on with the oldest event still in the ring.
+	 *
+	 * @param count the number of events lost.
+	 */
+	default void missed(long count) {
+	}
+}
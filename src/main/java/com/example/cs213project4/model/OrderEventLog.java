@@ -0,0 +1,136 @@
+/**
+ * OrderEventLog.java
+ *
+ * Summary:
+ * Appends every event on an OrderEventBus to a local file, one line each:
+ *   1760871600123 READY 42
+ * giving the time in epoch milliseconds, the stage and the order number. The log reads the bus
+ * on its own daemon thread and writes through one reused buffer. It flushes whenever it
+ * catches up, so the file is current within a few milliseconds while a burst is written in
+ * large blocks. Events lost by falling a ring behind are noted in the file as a MISSED line.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+public class OrderEventLog implements AutoCloseable, OrderEventHandler {
+	// How long the thread sleeps when it has caught up with the bus.
+	private static final long IDLE_NANOS = 2_000_000;
+
+	private final OrderEventBus.Reader reader;
+	private final BufferedWriter out;
+	private final StringBuilder line = new StringBuilder(64);
+	// The line is copied out here, as appending a StringBuilder directly would make a String of it.
+	private final char[] chars = new char[64];
+	// Set by start() once the log is built.
+	private Thread thread;
+	private volatile boolean open = true;
+	private volatile long written;
+
+	private OrderEventLog(OrderEventBus bus, Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		this.reader = bus.subscribe();
+	}
+
+	/**
+	 * Starts logging a bus's events, from the oldest it still holds, to the end of a file.
+	 *
+	 * @param bus the bus.
+	 * @param file the log file; created if missing.
+	 * @return the log.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static OrderEventLog start(OrderEventBus bus, Path file) throws IOException {
+		OrderEventLog log = new OrderEventLog(bus, file);
+		log.thread = new Thread(log::run, "order-event-log");
+		log.thread.setDaemon(true);
+		log.thread.start();
+		return log;
+	}
+
+	private void run() {
+		try {
+			while (open) {
+				if (reader.poll(this) == 0) {
+					out.flush();
+					LockSupport.parkNanos(IDLE_NANOS);
+				}
+			}
+			// Take whatever was published before close().
+			reader.poll(this);
+			out.flush();
+		} catch (IOException | RuntimeException e) {
+			System.out.println("Order event log stopped: " + e.getMessage());
+		} finally {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// Nothing more can be written anyway.
+			}
+		}
+	}
+
+	@Override
+	public void onEvent(OrderStage stage, int orderNum, long timeMillis) {
+		line.setLength(0);
+		line.append(timeMillis).append(' ').append(stage.name()).append(' ').append(orderNum).append('\n');
+		write();
+	}
+
+	@Override
+	public void missed(long count) {
+		line.setLength(0);
+		line.append(System.currentTimeMillis()).append(" MISSED ").append(count).append('\n');
+		write();
+	}
+
+	private void write() {
+		try {
+			line.getChars(0, line.length(), chars, 0);
+			out.write(chars, 0, line.length());
+			written++;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns the number of lines written so far.
+	 *
+	 * @return the line count.
+	 */
+	public long getWritten() {
+		return written;
+	}
+
+	/**
+	 * Writes out the events published so far and closes the file.
+	 */
+	@Override
+	public void close() {
+		open = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join(5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/**
+ * OrderHistory.java
+ *
+ * Summary:
+ * A persistent OrderArchive made of one MappedOrderArchive segment file per day, kept in
+ * a single directory (orders-YYYY-MM-DD.oa). Orders are appended to the segment for the
+ * current day, rolling over to a new file when the date changes. Reopening the history
+ * after a restart only maps the segment files, so startup does not grow with the amount
+ * of history, and a StoredOrder built on it continues numbering where it left off.
+ *
+ * Slots and line indexes run across all segments from oldest to newest. Looking up an old
+ * order uses each segment's order number range and on-disk index instead of a scan.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class OrderHistory extends OrderArchive {
+	private static final String PREFIX = "orders-";
+	private static final String SUFFIX = ".oa";
+
+	private final Path directory;
+	private final Clock clock;
+	private final List<MappedOrderArchive> segments = new ArrayList<>();
+	private final List<LocalDate> days = new ArrayList<>();
+
+	// Running totals of orders and line rows before each segment; entry i is the start of segment i.
+	private int[] orderStarts = new int[1];
+	private int[] lineStarts = new int[1];
+	private int maxOrderNum;
+
+	/**
+	 * Opens the history stored in a directory, creating the directory if needed.
+	 *
+	 * @param directory the directory holding the segment files.
+	 * @throws IOException if a segment cannot be opened.
+	 */
+	public OrderHistory(Path directory) throws IOException {
+		this(directory, Clock.systemDefaultZone());
+	}
+
+	/**
+	 * Opens the history stored in a directory, using the given clock to decide the current day.
+	 *
+	 * @param directory the directory holding the segment files.
+	 * @param clock the clock used to roll segments.
+	 * @throws IOException if a segment cannot be opened.
+	 */
+	public OrderHistory(Path directory, Clock clock) throws IOException {
+		this.directory = directory;
+		this.clock = clock;
+		Files.createDirectories(directory);
+
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+			for (Path file : stream) {
+				files.add(file);
+			}
+		}
+		// ISO dates in the file names sort chronologically.
+		Collections.sort(files);
+		try {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				LocalDate day = LocalDate.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+				MappedOrderArchive segment = new MappedOrderArchive(file);
+				segments.add(segment);
+				days.add(day);
+				maxOrderNum = Math.max(maxOrderNum, segment.maxOrderNumber());
+			}
+		} catch (IOException | RuntimeException e) {
+			closeSegments();
+			throw e;
+		}
+		recount();
+	}
+
+	/**
+	 * Returns the directory holding the segment files.
+	 *
+	 * @return the history directory.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns the number of daily segment files in the history.
+	 *
+	 * @return the segment count.
+	 */
+	public int segmentCount() {
+		return segments.size();
+	}
+
+	@Override
+	public int orderCount() {
+		return orderStarts[segments.size()];
+	}
+
+	@Override
+	public int orderNumber(int slot) {
+		int s = segmentOf(orderStarts, slot);
+		return segments.get(s).orderNumber(slot - orderStarts[s]);
+	}
+
+	@Override
+	public int firstLine(int slot) {
+		int s = segmentOf(orderStarts, slot);
+		return lineStarts[s] + segments.get(s).firstLine(slot - orderStarts[s]);
+	}
+
+	@Override
+	public int lineCount(int slot) {
+		int s = segmentOf(orderStarts, slot);
+		return segments.get(s).lineCount(slot - orderStarts[s]);
+	}
+
+	@Override
+	public int itemType(int line) {
+		int s = segmentOf(lineStarts, line);
+		return segments.get(s).itemType(line - lineStarts[s]);
+	}
+
+	@Override
+	public int config(int line) {
+		int s = segmentOf(lineStarts, line);
+		return segments.get(s).config(line - lineStarts[s]);
+	}
+
+	@Override
+	public int quantity(int line) {
+		int s = segmentOf(lineStarts, line);
+		return segments.get(s).quantity(line - lineStarts[s]);
+	}
+
+	@Override
+	public int cents(int line) {
+		int s = segmentOf(lineStarts, line);
+		return segments.get(s).cents(line - lineStarts[s]);
+	}
+
+	@Override
+	public int find(int orderNum) {
+		// Newest first: recent orders are the ones looked up most often.
+		for (int s = segments.size() - 1; s >= 0; s--) {
+			int slot = segments.get(s).find(orderNum);
+			if (slot >= 0) {
+				return orderStarts[s] + slot;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean isDurable() {
+		return true;
+	}
+
+	@Override
+	public int maxOrderNumber() {
+		return maxOrderNum;
+	}
+
+	@Override
+	public void append(Order order) {
+		MappedOrderArchive today = today();
+		today.append(order);
+		maxOrderNum = Math.max(maxOrderNum, order.getNumber());
+		int last = segments.size() - 1;
+		orderStarts[last + 1] = orderStarts[last] + today.orderCount();
+		lineStarts[last + 1] = lineStarts[last] + today.lineEnd();
+	}
+
+	@Override
+	public boolean remove(int orderNum) {
+		for (int s = segments.size() - 1; s >= 0; s--) {
+			if (segments.get(s).remove(orderNum)) {
+				recount();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes every segment's changes back to disk.
+	 */
+	public void force() {
+		for (MappedOrderArchive segment : segments) {
+			segment.force();
+		}
+	}
+
+	@Override
+	public void close() {
+		closeSegments();
+	}
+
+	/**
+	 * Closes every segment and forgets them. Not overridable, so the constructor can clean
+	 * up with it when a segment fails to open.
+	 */
+	private void closeSegments() {
+		for (MappedOrderArchive segment : segments) {
+			segment.close();
+		}
+		segments.clear();
+		days.clear();
+		recount();
+	}
+
+	/**
+	 * Returns the segment for the current day, creating it when the day has rolled over.
+	 * If the clock has gone back to an earlier day, orders keep going to the newest segment,
+	 * so a day's file is never mapped twice and slots stay in date order.
+	 */
+	private MappedOrderArchive today() {
+		LocalDate day = LocalDate.now(clock);
+		int last = segments.size() - 1;
+		if (last >= 0 && !day.isAfter(days.get(last))) {
+			return segments.get(last);
+		}
+		MappedOrderArchive segment;
+		try {
+			segment = new MappedOrderArchive(directory.resolve(PREFIX + day + SUFFIX));
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not start the order history for " + day, e);
+		}
+		segments.add(segment);
+		days.add(day);
+		recount();
+		return segment;
+	}
+
+	private void recount() {
+		int count = segments.size();
+		orderStarts = new int[count + 1];
+		lineStarts = new int[count + 1];
+		for (int s = 0; s < count; s++) {
+			orderStarts[s + 1] = orderStarts[s] + segments.get(s).orderCount();
+			lineStarts[s + 1] = lineStarts[s] + segments.get(s).lineEnd();
+		}
+	}
+
+	/**
+	 * Finds the segment whose range in a running-total array contains a global index.
+	 */
+	private int segmentOf(int[] starts, int value) {
+		int low = 0;
+		int high = segments.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (starts[mid] <= value) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+}
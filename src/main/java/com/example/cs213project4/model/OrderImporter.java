@@ -0,0 +1,529 @@
+/**
+ * OrderImporter.java
+ *
+ * Summary:
+ * Loads historical or offline-terminal orders from a file back into a StoredOrder.
+ * The input is memory-mapped, split into chunks that start on record boundaries, and the
+ * chunks are parsed in parallel on the fork-join pool straight from the mapped bytes.
+ * The parsed orders are then inserted into the store in one batch.
+ *
+ * Two formats are accepted:
+ *   - the text report written by StoredOrder.exportOrders(). The report does not show the
+ *     quantity or patty choice of a plain sandwich or burger, so those import as a single,
+ *     single-patty item; for combos both are worked out from the printed price.
+ *   - the CSV written by StoredOrder.exportCsv(), one line item per row:
+ *     order,item,quantity,bread,protein,addons,double,sandwich_quantity,size,flavor,side
+ *     using enum constant names, add-ons separated by '|', and empty fields where they don't apply.
+ *     A DISCOUNT row carries the amount off for the whole line, in cents, as its quantity.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+public final class OrderImporter {
+	/** Header line of the CSV format. */
+	public static final String CSV_HEADER = "order,item,quantity,bread,protein,addons,double,sandwich_quantity,size,flavor,side";
+
+	private static final String DISCOUNT_MARK = "Discount -$";
+	private static final byte[] ORDER_MARK = "Order #".getBytes(StandardCharsets.US_ASCII);
+	// Chunks smaller than this are not worth handing to another worker.
+	private static final long MIN_CHUNK = 1 << 16;
+
+	private static final Map<String, Bread> BREAD_NAMES = displayNames(Bread.values());
+	private static final Map<String, Protein> PROTEIN_NAMES = displayNames(Protein.values());
+	private static final Map<String, AddOns> ADDON_NAMES = displayNames(AddOns.values());
+	private static final Map<String, Size> SIZE_NAMES = displayNames(Size.values());
+	private static final Map<String, Flavor> FLAVOR_NAMES = displayNames(Flavor.values());
+	private static final Map<String, SideOption> SIDE_NAMES = displayNames(SideOption.values());
+
+	private static final byte[][] ITEM_CODES = constantNames(new String[]{"", "SANDWICH", "BURGER", "BEVERAGE", "SIDE", "COMBO", "DISCOUNT"});
+	private static final byte[][] BREAD_CODES = constantNames(Bread.values());
+	private static final byte[][] PROTEIN_CODES = constantNames(Protein.values());
+	private static final byte[][] ADDON_CODES = constantNames(AddOns.values());
+	private static final byte[][] SIZE_CODES = constantNames(Size.values());
+	private static final byte[][] FLAVOR_CODES = constantNames(Flavor.values());
+	private static final byte[][] SIDE_CODES = constantNames(SideOption.values());
+
+	private OrderImporter() {
+	}
+
+	/**
+	 * Parses a file of orders and adds them to a store. Orders whose number is already
+	 * in the store are skipped, so importing the same file twice is harmless.
+	 *
+	 * @param file the text report or CSV file to import.
+	 * @param store the store to add the orders to.
+	 * @return the number of orders added.
+	 * @throws IOException if the file cannot be read or a record cannot be parsed.
+	 */
+	public static int importOrders(Path file, StoredOrder store) throws IOException {
+		return store.addOrders(parse(file, ForkJoinPool.commonPool()));
+	}
+
+	/**
+	 * Parses a file of orders without adding them anywhere.
+	 *
+	 * @param file the text report or CSV file.
+	 * @param pool the pool to parse on.
+	 * @return the orders in file order.
+	 * @throws IOException if the file cannot be read or a record cannot be parsed.
+	 */
+	public static List<Order> parse(Path file, ForkJoinPool pool) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ); Arena arena = Arena.ofShared()) {
+			long size = channel.size();
+			if (size == 0) {
+				return new ArrayList<>();
+			}
+			MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+			boolean text = startsWith(data, 0, ORDER_MARK);
+			long start = 0;
+			if (!text && startsWith(data, 0, "order,".getBytes(StandardCharsets.US_ASCII))) {
+				start = nextLine(data, 0);
+			}
+
+			// Cut the input into roughly equal chunks, each moved forward to a record boundary.
+			int target = pool.getParallelism() * 4;
+			long step = Math.max(MIN_CHUNK, (size - start) / target + 1);
+			List<Long> bounds = new ArrayList<>();
+			bounds.add(start);
+			for (long cut = start + step; cut < size; cut += step) {
+				long boundary = text ? nextOrderMark(data, cut) : nextLine(data, cut);
+				if (boundary >= size) {
+					break;
+				}
+				if (boundary > bounds.get(bounds.size() - 1)) {
+					bounds.add(boundary);
+				}
+			}
+			bounds.add(size);
+			long[] edges = bounds.stream().mapToLong(Long::longValue).toArray();
+
+			try {
+				return pool.invoke(new ParseTask(data, edges, 0, edges.length - 1, text));
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Could not import " + file + ": " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Parses a range of chunks, splitting it in half until a single chunk is left.
+	 */
+	private static final class ParseTask extends RecursiveTask<List<Order>> {
+		private static final long serialVersionUID = 1L;
+		private final transient MemorySegment data;
+		private final long[] edges;
+		private final int from;
+		private final int to;
+		private final boolean text;
+
+		ParseTask(MemorySegment data, long[] edges, int from, int to, boolean text) {
+			this.data = data;
+			this.edges = edges;
+			this.from = from;
+			this.to = to;
+			this.text = text;
+		}
+
+		@Override
+		protected List<Order> compute() {
+			if (to - from == 1) {
+				return text ? parseText(data, edges[from], edges[to]) : parseCsv(data, edges[from], edges[to]);
+			}
+			int mid = (from + to) >>> 1;
+			ParseTask right = new ParseTask(data, edges, mid, to, text);
+			right.fork();
+			List<Order> left = new ParseTask(data, edges, from, mid, text).compute();
+			List<Order> rest = right.join();
+			// A CSV order can straddle two chunks; its halves are joined back together here.
+			if (!left.isEmpty() && !rest.isEmpty()
+					&& left.get(left.size() - 1).getNumber() == rest.get(0).getNumber()) {
+				Order tail = left.get(left.size() - 1);
+				for (MenuItem item : rest.get(0).getItems()) {
+					tail.addItem(item);
+				}
+				rest = rest.subList(1, rest.size());
+			}
+			left.addAll(rest);
+			return left;
+		}
+	}
+
+	/**
+	 * Parses the text report between two offsets that both fall on "Order #" lines.
+	 */
+	private static List<Order> parseText(MemorySegment data, long from, long to) {
+		List<Order> orders = new ArrayList<>();
+		Order order = null;
+		for (long pos = from; pos < to; ) {
+			long end = lineEnd(data, pos, to);
+			if (startsWith(data, pos, ORDER_MARK)) {
+				order = new Order((int) parseLong(data, pos + ORDER_MARK.length, end));
+				orders.add(order);
+			} else if (order != null && pos < end && isDigit(data.get(JAVA_BYTE, pos))) {
+				// Numbered item line: "<n>. <item>"
+				long dot = pos;
+				while (dot < end && data.get(JAVA_BYTE, dot) != '.') {
+					dot++;
+				}
+				if (dot + 2 <= end) {
+					order.addItem(parseItemText(string(data, dot + 2, end)));
+				}
+			}
+			pos = end + 1;
+		}
+		return orders;
+	}
+
+	/**
+	 * Rebuilds a menu item from the text its toString() produced.
+	 */
+	static MenuItem parseItemText(String text) {
+		String body = text.strip();
+		if (body.startsWith(DISCOUNT_MARK)) {
+			return new Discount(ItemCodec.cents(Double.parseDouble(body.substring(DISCOUNT_MARK.length()))));
+		}
+		int cents = -1;
+		int dollar = body.lastIndexOf(" $");
+		if (dollar >= 0) {
+			cents = ItemCodec.cents(Double.parseDouble(body.substring(dollar + 2)));
+			body = body.substring(0, dollar);
+		}
+		int quantity = 1;
+		if (body.endsWith(")")) {
+			int open = body.lastIndexOf(" (");
+			String count = open < 0 ? "" : body.substring(open + 2, body.length() - 1);
+			if (!count.isEmpty() && count.chars().allMatch(Character::isDigit)) {
+				quantity = Integer.parseInt(count);
+				body = body.substring(0, open);
+			}
+		}
+
+		if (body.startsWith("Combo: ")) {
+			String rest = body.substring("Combo: ".length());
+			int flavorAt = rest.lastIndexOf(", ");
+			int sideAt = rest.lastIndexOf(", ", flavorAt - 1);
+			if (flavorAt < 0 || sideAt < 0) {
+				throw new IllegalArgumentException("Unrecognized combo: " + text);
+			}
+			Flavor flavor = lookup(FLAVOR_NAMES, rest.substring(flavorAt + 2), text);
+			SideOption option = lookup(SIDE_NAMES, rest.substring(sideAt + 2, flavorAt), text);
+			Combo combo = new Combo(parseSandwich(rest.substring(0, sideAt), text),
+					new Beverage(Size.MEDIUM, flavor), new Side(Size.SMALL, option));
+			combo.setQuantity(quantity);
+			if (cents >= 0) {
+				matchComboPrice(combo, cents);
+			}
+			return combo;
+		}
+		if (body.contains(" Sandwich with ")) {
+			Sandwich sandwich = parseSandwich(body, text);
+			sandwich.setQuantity(quantity);
+			return sandwich;
+		}
+
+		int space = body.indexOf(' ');
+		if (space < 0) {
+			throw new IllegalArgumentException("Unrecognized item: " + text);
+		}
+		Size size = lookup(SIZE_NAMES, body.substring(0, space), text);
+		String name = body.substring(space + 1);
+		MenuItem item;
+		if (FLAVOR_NAMES.containsKey(name)) {
+			item = new Beverage(size, FLAVOR_NAMES.get(name));
+		} else {
+			item = new Side(size, lookup(SIDE_NAMES, name, text));
+		}
+		item.setQuantity(quantity);
+		return item;
+	}
+
+	/**
+	 * Parses "<Bread> Sandwich with <Protein>[ (Add-ons: a, b)]"; a beef patty means a burger.
+	 */
+	private static Sandwich parseSandwich(String description, String text) {
+		int with = description.indexOf(" Sandwich with ");
+		if (with < 0) {
+			throw new IllegalArgumentException("Unrecognized sandwich: " + text);
+		}
+		Bread bread = lookup(BREAD_NAMES, description.substring(0, with), text);
+		String rest = description.substring(with + " Sandwich with ".length());
+		String extras = "";
+		int addOns = rest.indexOf(" (Add-ons: ");
+		if (addOns >= 0 && rest.endsWith(")")) {
+			extras = rest.substring(addOns + " (Add-ons: ".length(), rest.length() - 1);
+			rest = rest.substring(0, addOns);
+		}
+		Protein protein = lookup(PROTEIN_NAMES, rest, text);
+		Sandwich sandwich = protein == Protein.BEEF_PATTY ? new Burger(bread, false) : new Sandwich(bread, protein);
+		if (!extras.isEmpty()) {
+			for (String extra : extras.split(", ")) {
+				sandwich.addAddOns(lookup(ADDON_NAMES, extra, text));
+			}
+		}
+		return sandwich;
+	}
+
+	/**
+	 * Works out the sandwich quantity (and double patty, for burgers) that gives a combo its printed price.
+	 */
+	private static void matchComboPrice(Combo combo, int cents) {
+		Sandwich sandwich = combo.getSandwich();
+		boolean burger = sandwich instanceof Burger;
+		for (int patties = 0; patties < (burger ? 2 : 1); patties++) {
+			if (burger) {
+				((Burger) sandwich).setDoublePatty(patties == 1);
+			}
+			for (int count = 1; count <= 10; count++) {
+				sandwich.setQuantity(count);
+				if (ItemCodec.cents(combo.cost()) == cents) {
+					return;
+				}
+			}
+		}
+		sandwich.setQuantity(1);
+		if (burger) {
+			((Burger) sandwich).setDoublePatty(false);
+		}
+	}
+
+	/**
+	 * Parses CSV rows between two line-aligned offsets.
+	 */
+	private static List<Order> parseCsv(MemorySegment data, long from, long to) {
+		List<Order> orders = new ArrayList<>();
+		Order order = null;
+		long[] fields = new long[12];
+		for (long pos = from; pos < to; ) {
+			long end = lineEnd(data, pos, to);
+			long stop = end > pos && data.get(JAVA_BYTE, end - 1) == '\r' ? end - 1 : end;
+			if (stop > pos) {
+				int count = splitFields(data, pos, stop, fields);
+				if (count != 11) {
+					throw new IllegalArgumentException("Expected 11 fields but found " + count + " in: " + string(data, pos, stop));
+				}
+				int number = (int) parseLong(data, fields[0], fields[1] - 1);
+				if (order == null || order.getNumber() != number) {
+					order = new Order(number);
+					orders.add(order);
+				}
+				order.addItem(csvItem(data, fields));
+			}
+			pos = end + 1;
+		}
+		return orders;
+	}
+
+	/**
+	 * Builds the item of one CSV row. fields[i] is the start of field i and fields[i + 1] - 1 its end.
+	 */
+	private static MenuItem csvItem(MemorySegment data, long[] f) {
+		int type = code(data, f[1], f[2] - 1, ITEM_CODES);
+		int quantity = (int) parseLong(data, f[2], f[3] - 1);
+		MenuItem item;
+		if (type == ItemCodec.DISCOUNT) {
+			// The quantity field of a discount row is its amount.
+			return new Discount(quantity);
+		}
+		if (type == ItemCodec.BEVERAGE) {
+			item = new Beverage(Size.values()[code(data, f[8], f[9] - 1, SIZE_CODES)],
+					Flavor.values()[code(data, f[9], f[10] - 1, FLAVOR_CODES)]);
+		} else if (type == ItemCodec.SIDE) {
+			item = new Side(Size.values()[code(data, f[8], f[9] - 1, SIZE_CODES)],
+					SideOption.values()[code(data, f[10], f[11] - 1, SIDE_CODES)]);
+		} else {
+			Bread bread = Bread.values()[code(data, f[3], f[4] - 1, BREAD_CODES)];
+			Protein protein = Protein.values()[code(data, f[4], f[5] - 1, PROTEIN_CODES)];
+			// A combo is built around a burger when its protein is the beef patty.
+			boolean burger = type == ItemCodec.BURGER || type == ItemCodec.COMBO && protein == Protein.BEEF_PATTY;
+			boolean doublePatty = f[7] - 1 > f[6] && (data.get(JAVA_BYTE, f[6]) == 't' || data.get(JAVA_BYTE, f[6]) == 'T');
+			Sandwich sandwich = burger ? new Burger(bread, doublePatty) : new Sandwich(bread, protein);
+			for (long at = f[5]; at < f[6] - 1; ) {
+				long bar = at;
+				while (bar < f[6] - 1 && data.get(JAVA_BYTE, bar) != '|') {
+					bar++;
+				}
+				sandwich.addAddOns(AddOns.values()[code(data, at, bar, ADDON_CODES)]);
+				at = bar + 1;
+			}
+			if (type == ItemCodec.COMBO) {
+				sandwich.setQuantity((int) parseLong(data, f[7], f[8] - 1));
+				item = new Combo(sandwich, new Beverage(Size.MEDIUM, Flavor.values()[code(data, f[9], f[10] - 1, FLAVOR_CODES)]),
+						new Side(Size.SMALL, SideOption.values()[code(data, f[10], f[11] - 1, SIDE_CODES)]));
+			} else {
+				item = sandwich;
+			}
+		}
+		item.setQuantity(quantity);
+		return item;
+	}
+
+	/**
+	 * Writes one line item as a CSV row in the import format.
+	 *
+	 * @param out the builder to append to.
+	 * @param orderNum the order number.
+	 * @param item the item.
+	 */
+	static void appendCsv(StringBuilder out, int orderNum, MenuItem item) {
+		int type = ItemCodec.type(item);
+		out.append(orderNum).append(',').append(new String(ITEM_CODES[type], StandardCharsets.US_ASCII))
+				.append(',').append(item instanceof Discount discount
+						? (long) discount.getCents() * discount.getQuantity() : item.getQuantity()).append(',');
+		Sandwich sandwich = item instanceof Combo combo ? combo.getSandwich() : item instanceof Sandwich s ? s : null;
+		if (sandwich != null) {
+			out.append(sandwich.getBread().name()).append(',').append(sandwich.getProtein().name()).append(',');
+			for (int i = 0; i < sandwich.getAddons().size(); i++) {
+				out.append(i > 0 ? "|" : "").append(sandwich.getAddons().get(i).name());
+			}
+			out.append(',').append(sandwich instanceof Burger burger && burger.isDoublePatty()).append(',');
+		} else {
+			out.append(",,,,");
+		}
+		out.append(item instanceof Combo combo ? String.valueOf(combo.getSandwich().getQuantity()) : "").append(',');
+		if (item instanceof Beverage drink) {
+			out.append(drink.getSize().name()).append(',').append(drink.getFlavor().name()).append(',');
+		} else if (item instanceof Side side) {
+			out.append(side.getSize().name()).append(",,").append(side.getSide().name());
+		} else if (item instanceof Combo combo) {
+			out.append(',').append(combo.getDrink().getFlavor().name()).append(',').append(combo.getSide().getSide().name());
+		} else {
+			out.append(",,");
+		}
+		out.append('\n');
+	}
+
+	// ---- byte-level helpers over the mapped input ----
+
+	private static int splitFields(MemorySegment data, long from, long to, long[] fields) {
+		int count = 0;
+		fields[count++] = from;
+		for (long pos = from; pos < to; pos++) {
+			if (data.get(JAVA_BYTE, pos) == ',') {
+				if (count == fields.length - 1) {
+					return count + 1;
+				}
+				fields[count++] = pos + 1;
+			}
+		}
+		fields[count] = to + 1;
+		return count;
+	}
+
+	private static int code(MemorySegment data, long from, long to, byte[][] names) {
+		int length = (int) (to - from);
+		for (int i = 0; i < names.length; i++) {
+			byte[] name = names[i];
+			if (name.length == length && startsWith(data, from, name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown code: " + string(data, from, to));
+	}
+
+	private static long parseLong(MemorySegment data, long from, long to) {
+		long value = 0;
+		boolean any = false;
+		for (long pos = from; pos < to; pos++) {
+			byte b = data.get(JAVA_BYTE, pos);
+			if (isDigit(b)) {
+				value = value * 10 + (b - '0');
+				any = true;
+			} else if (b != ' ' && b != '\r') {
+				break;
+			}
+		}
+		if (!any) {
+			throw new IllegalArgumentException("Expected a number in: " + string(data, from, to));
+		}
+		return value;
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private static boolean startsWith(MemorySegment data, long pos, byte[] prefix) {
+		if (pos + prefix.length > data.byteSize()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (data.get(JAVA_BYTE, pos + i) != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long lineEnd(MemorySegment data, long pos, long limit) {
+		while (pos < limit && data.get(JAVA_BYTE, pos) != '\n') {
+			pos++;
+		}
+		return pos;
+	}
+
+	private static long nextLine(MemorySegment data, long pos) {
+		return lineEnd(data, pos, data.byteSize()) + 1;
+	}
+
+	private static long nextOrderMark(MemorySegment data, long pos) {
+		long size = data.byteSize();
+		for (pos = nextLine(data, pos); pos < size; pos = nextLine(data, pos)) {
+			if (startsWith(data, pos, ORDER_MARK)) {
+				return pos;
+			}
+		}
+		return size;
+	}
+
+	private static String string(MemorySegment data, long from, long to) {
+		if (to > from && data.get(JAVA_BYTE, to - 1) == '\r') {
+			to--;
+		}
+		return new String(data.asSlice(from, to - from).toArray(JAVA_BYTE), StandardCharsets.UTF_8);
+	}
+
+	private static <T> T lookup(Map<String, T> names, String name, String text) {
+		T value = names.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Unknown \"" + name + "\" in: " + text);
+		}
+		return value;
+	}
+
+	private static <E extends Enum<E>> Map<String, E> displayNames(E[] constants) {
+		Map<String, E> names = new HashMap<>();
+		for (E constant : constants) {
+			names.put(constant.toString(), constant);
+		}
+		return names;
+	}
+
+	private static byte[][] constantNames(Object[] constants) {
+		byte[][] names = new byte[constants.length][];
+		for (int i = 0; i < constants.length; i++) {
+			String name = constants[i] instanceof Enum<?> e ? e.name() : constants[i].toString();
+			names[i] = name.getBytes(StandardCharsets.US_ASCII);
+		}
+		return names;
+	}
+}
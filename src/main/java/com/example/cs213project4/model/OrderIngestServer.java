@@ -0,0 +1,319 @@
+/**
+ * OrderIngestServer.java
+ *
+ * Summary:
+ * A raw TCP endpoint for drive-through and delivery integrations that places orders into
+ * a StoredOrder. One thread runs a Selector over every connection. Each connection reads
+ * into a direct ByteBuffer borrowed from a shared pool, and messages are decoded in place
+ * with absolute reads, without copying them out of the buffer. Replies are written into a
+ * second pooled buffer and flushed when the socket is writable, so clients may pipeline
+ * as many messages as they like.
+ *
+ * Message (big-endian ints): length of the rest of the message, line count, then per line
+ * {item type, packed configuration, quantity}. Item types and configurations are the
+ * ItemCodec codes, i.e. the ordinals of Bread, Protein, AddOns, Size, Flavor and SideOption.
+ * Reply: one int per message, the placed order number, or REJECTED if a line is not a valid
+ * item or is a discount, which only promotions give. A message longer than MAX_MESSAGE bytes
+ * closes the connection.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OrderIngestServer implements AutoCloseable {
+	/** Reply sent for a message whose lines are not valid items. */
+	public static final int REJECTED = 0;
+	/** Size of each pooled connection buffer. */
+	static final int BUFFER_BYTES = 1 << 16;
+	/** Largest message accepted, length prefix included. */
+	public static final int MAX_MESSAGE = BUFFER_BYTES;
+	/** Bytes per line of a message. */
+	static final int LINE_BYTES = 12;
+
+	private final StoredOrder store;
+	private final ServerSocketChannel server;
+	private final Selector selector;
+	private final ConcurrentLinkedQueue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+	private final AtomicLong placed = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final Thread loop;
+	private volatile boolean closed;
+
+	/**
+	 * Opens the server on a port and starts its selector thread.
+	 *
+	 * @param store the store orders are placed into.
+	 * @param port the port to listen on, or 0 for any free port.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public OrderIngestServer(StoredOrder store, int port) throws IOException {
+		this.store = store;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		loop = new Thread(this::run, "order-ingest");
+		loop.setDaemon(true);
+		loop.start();
+	}
+
+	/**
+	 * Returns the port the server listens on.
+	 *
+	 * @return the local port.
+	 */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	/**
+	 * Returns the number of orders placed so far.
+	 *
+	 * @return the placed order count.
+	 */
+	public long getPlaced() {
+		return placed.get();
+	}
+
+	/**
+	 * Returns the number of messages rejected so far.
+	 *
+	 * @return the rejected message count.
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * Stops accepting orders and closes every connection.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		selector.wakeup();
+		try {
+			loop.join(2000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		try {
+			while (!closed) {
+				selector.select();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if (key.isAcceptable()) {
+							accept();
+						} else {
+							if (key.isReadable()) {
+								read(key);
+							}
+							if (key.isValid() && key.isWritable()) {
+								write(key);
+							}
+						}
+					} catch (IOException e) {
+						disconnect(key);
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Order ingest stopped: " + e.getMessage());
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				disconnect(key);
+			}
+			try {
+				selector.close();
+			} catch (IOException ignored) {
+				// Already closed.
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		channel.register(selector, SelectionKey.OP_READ, new Connection(borrow(), borrow()));
+	}
+
+	/**
+	 * Reads what is available and places every complete message in the buffer.
+	 */
+	private void read(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		if (((SocketChannel) key.channel()).read(connection.in) < 0) {
+			disconnect(key);
+			return;
+		}
+		process(key);
+	}
+
+	/**
+	 * Places the complete messages waiting in the input buffer, as long as there is room
+	 * for their replies, then sends the replies.
+	 */
+	private void process(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		ByteBuffer in = connection.in;
+		in.flip();
+		while (in.remaining() >= 4 && connection.out.remaining() >= 4) {
+			int start = in.position();
+			int length = in.getInt(start);
+			if (length < 4 || length > MAX_MESSAGE - 4) {
+				throw new IOException("Bad message length " + length);
+			}
+			if (in.remaining() < 4 + length) {
+				break;
+			}
+			connection.out.putInt(place(in, start + 4, length));
+			in.position(start + 4 + length);
+		}
+		in.compact();
+		flush(key);
+	}
+
+	/**
+	 * Decodes one message directly from the buffer and places it as an order.
+	 *
+	 * @return the order number, or REJECTED.
+	 */
+	private int place(ByteBuffer in, int offset, int length) {
+		int lines = in.getInt(offset);
+		if (lines < 1 || (length - 4) % LINE_BYTES != 0 || lines != (length - 4) / LINE_BYTES) {
+			rejected.incrementAndGet();
+			return REJECTED;
+		}
+		MenuItem[] items = new MenuItem[lines];
+		try {
+			for (int i = 0; i < lines; i++) {
+				int at = offset + 4 + i * LINE_BYTES;
+				int type = in.getInt(at);
+				int quantity = in.getInt(at + 8);
+				if (quantity < 1) {
+					throw new IllegalArgumentException("Quantity " + quantity);
+				}
+				if (type == ItemCodec.DISCOUNT) {
+					// Discounts come from the active promotions only, never from a client.
+					throw new IllegalArgumentException("Discount line");
+				}
+				items[i] = ItemCodec.unpack(type, in.getInt(at + 4), quantity);
+			}
+		} catch (RuntimeException e) {
+			// Unknown type, a discount line or an enum code outside the menu.
+			rejected.incrementAndGet();
+			return REJECTED;
+		}
+		Order order;
+		synchronized (store) {
+			order = store.createNewOrder();
+			for (MenuItem item : items) {
+				order.addItem(item);
+			}
+			store.addOrder(order);
+		}
+		placed.incrementAndGet();
+		return order.getNumber();
+	}
+
+	private void write(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		flush(key);
+		if (connection.in.position() > 0 && connection.out.remaining() >= 4) {
+			// Messages were left waiting while the reply buffer was full.
+			process(key);
+		}
+	}
+
+	/**
+	 * Writes as many replies as the socket takes. The connection waits for writability
+	 * only while replies are pending, and stops reading while the reply buffer is full,
+	 * so a client that never reads its replies cannot make the server buffer without bound.
+	 */
+	private void flush(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		ByteBuffer out = connection.out;
+		out.flip();
+		((SocketChannel) key.channel()).write(out);
+		out.compact();
+		int ops = out.position() > 0 ? SelectionKey.OP_WRITE : 0;
+		if (out.remaining() >= 4) {
+			ops |= SelectionKey.OP_READ;
+		}
+		key.interestOps(ops);
+	}
+
+	private void disconnect(SelectionKey key) {
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (IOException ignored) {
+			// Already closed.
+		}
+		if (key.attachment() instanceof Connection connection) {
+			key.attach(null);
+			release(connection.in);
+			release(connection.out);
+		}
+	}
+
+	private ByteBuffer borrow() {
+		ByteBuffer buffer = pool.poll();
+		return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_BYTES);
+	}
+
+	private void release(ByteBuffer buffer) {
+		buffer.clear();
+		pool.offer(buffer);
+	}
+
+	/**
+	 * The pooled input and reply buffers of one connection.
+	 */
+	private record Connection(ByteBuffer in, ByteBuffer out) {
+	}
+
+	/**
+	 * Runs the server on an in-memory store and prints the placing rate every second.
+	 *
+	 * @param args optionally, the port to listen on (default 7070).
+	 * @throws Exception if the server cannot start.
+	 */
+	public static void main(String[] args) throws Exception {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+		try (OrderIngestServer server = new OrderIngestServer(new StoredOrder(), port)) {
+			System.out.println("Listening on port " + server.getPort());
+			long last = 0;
+			while (true) {
+				Thread.sleep(1000);
+				long now = server.getPlaced();
+				System.out.println((now - last) + " orders/s, " + now + " placed, " + server.getRejected() + " rejected");
+				last = now;
+			}
+		}
+	}
+}
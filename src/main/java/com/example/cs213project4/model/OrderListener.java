@@ -0,0 +1,30 @@
+/**
+ * OrderListener.java
+ *
+ * Summary:
+ * Receives the orders placed into and cancelled from a StoredOrder on this terminal.
+ * Listeners are called while the store is locked, so they should only hand the event off.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public interface OrderListener {
+
+	/**
+	 * Called after an order has been placed.
+	 *
+	 * @param order the placed order.
+	 */
+	void placed(Order order);
+
+	/**
+	 * Called after an order has been cancelled.
+	 *
+	 * @param orderNum the number of the cancelled order.
+	 */
+	void cancelled(int orderNum);
+}
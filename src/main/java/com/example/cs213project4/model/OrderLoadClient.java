@@ -0,0 +1,203 @@
+/**
+ * OrderLoadClient.java
+ *
+ * Summary:
+ * Load generator for OrderIngestServer. Opens a number of connections, each on its own
+ * thread, and sends random valid orders over each one, keeping up to a window of messages
+ * in flight so the server sees pipelined traffic. Every reply's round trip is recorded in a
+ * LatencyHistogram, and the run is summarized as throughput plus latency percentiles.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class OrderLoadClient {
+	private final InetSocketAddress address;
+
+	/**
+	 * Creates a client for a server.
+	 *
+	 * @param host the server host.
+	 * @param port the server port.
+	 */
+	public OrderLoadClient(String host, int port) {
+		this.address = new InetSocketAddress(host, port);
+	}
+
+	/**
+	 * The outcome of a load run.
+	 *
+	 * @param placed orders the server accepted.
+	 * @param rejected orders the server rejected.
+	 * @param elapsedNanos wall time of the run.
+	 * @param latency round trip of every message.
+	 */
+	public record Report(long placed, long rejected, long elapsedNanos, LatencyHistogram latency) {
+		/**
+		 * Returns the accepted orders per second.
+		 *
+		 * @return the throughput.
+		 */
+		public double ordersPerSecond() {
+			return placed * 1e9 / Math.max(elapsedNanos, 1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d placed, %d rejected in %.2fs: %.0f orders/s%n%s",
+					placed, rejected, elapsedNanos / 1e9, ordersPerSecond(), latency.summary());
+		}
+	}
+
+	/**
+	 * Sends orders over several connections at once and waits for every reply.
+	 *
+	 * @param connections the number of connections.
+	 * @param orders the number of orders to send on each connection.
+	 * @param window the most messages in flight on a connection.
+	 * @return the report of the run.
+	 * @throws IOException if a connection fails.
+	 * @throws InterruptedException if interrupted while waiting for the connections.
+	 */
+	public Report run(int connections, int orders, int window) throws IOException, InterruptedException {
+		List<Thread> threads = new ArrayList<>();
+		Report[] reports = new Report[connections];
+		IOException[] failure = new IOException[1];
+		long start = System.nanoTime();
+		for (int c = 0; c < connections; c++) {
+			int id = c;
+			Thread thread = new Thread(() -> {
+				try {
+					reports[id] = runConnection(orders, window, new SplittableRandom(id));
+				} catch (IOException e) {
+					synchronized (failure) {
+						failure[0] = e;
+					}
+				}
+			}, "order-load-" + c);
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		long elapsed = System.nanoTime() - start;
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		LatencyHistogram latency = new LatencyHistogram();
+		long placed = 0;
+		long rejected = 0;
+		for (Report report : reports) {
+			latency.merge(report.latency());
+			placed += report.placed();
+			rejected += report.rejected();
+		}
+		return new Report(placed, rejected, elapsed, latency);
+	}
+
+	private Report runConnection(int orders, int window, SplittableRandom random) throws IOException {
+		LatencyHistogram latency = new LatencyHistogram();
+		long[] sentAt = new long[window];
+		long placed = 0;
+		long rejected = 0;
+		long start = System.nanoTime();
+		try (SocketChannel channel = SocketChannel.open(address)) {
+			channel.socket().setTcpNoDelay(true);
+			ByteBuffer out = ByteBuffer.allocateDirect(OrderIngestServer.BUFFER_BYTES);
+			ByteBuffer in = ByteBuffer.allocateDirect(OrderIngestServer.BUFFER_BYTES);
+			int sent = 0;
+			int received = 0;
+			while (received < orders) {
+				// Top the window up, then send everything encoded in one write.
+				while (sent < orders && sent - received < window && out.remaining() >= 4 + 4 + 4 * OrderIngestServer.LINE_BYTES) {
+					encodeOrder(out, random);
+					sentAt[sent % window] = System.nanoTime();
+					sent++;
+				}
+				out.flip();
+				while (out.hasRemaining()) {
+					channel.write(out);
+				}
+				out.clear();
+				if (channel.read(in) < 0) {
+					throw new EOFException("Server closed the connection after " + received + " replies");
+				}
+				in.flip();
+				long now = System.nanoTime();
+				while (in.remaining() >= 4) {
+					if (in.getInt() == OrderIngestServer.REJECTED) {
+						rejected++;
+					} else {
+						placed++;
+					}
+					latency.record(now - sentAt[received % window]);
+					received++;
+				}
+				in.compact();
+			}
+		}
+		return new Report(placed, rejected, System.nanoTime() - start, latency);
+	}
+
+	/**
+	 * Writes one message of one to four random menu items.
+	 */
+	private static void encodeOrder(ByteBuffer out, SplittableRandom random) {
+		int lines = 1 + random.nextInt(4);
+		out.putInt(4 + lines * OrderIngestServer.LINE_BYTES);
+		out.putInt(lines);
+		for (int i = 0; i < lines; i++) {
+			MenuItem item = randomItem(random);
+			out.putInt(ItemCodec.type(item));
+			out.putInt(ItemCodec.pack(item));
+			out.putInt(1 + random.nextInt(10));
+		}
+	}
+
+	private static MenuItem randomItem(SplittableRandom random) {
+		return switch (random.nextInt(4)) {
+			case 0 -> new Sandwich(Bread.values()[random.nextInt(Bread.values().length)],
+					Protein.values()[random.nextInt(Protein.values().length)]);
+			case 1 -> new Burger(Bread.values()[random.nextInt(Bread.values().length)], random.nextBoolean());
+			case 2 -> new Beverage(Size.values()[random.nextInt(Size.values().length)],
+					Flavor.values()[random.nextInt(Flavor.values().length)]);
+			default -> new Side(Size.values()[random.nextInt(Size.values().length)],
+					SideOption.values()[random.nextInt(SideOption.values().length)]);
+		};
+	}
+
+	/**
+	 * Runs a load test and prints the report. With no host, an in-memory server is started
+	 * in this JVM.
+	 *
+	 * Arguments: [connections [orders per connection [window [host port]]]].
+	 *
+	 * @param args the command-line arguments.
+	 * @throws Exception if the run fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int orders = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		int window = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+		if (args.length > 4) {
+			System.out.println(new OrderLoadClient(args[3], Integer.parseInt(args[4])).run(connections, orders, window));
+			return;
+		}
+		try (OrderIngestServer server = new OrderIngestServer(new StoredOrder(), 0)) {
+			System.out.println(new OrderLoadClient("localhost", server.getPort()).run(connections, orders, window));
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/**
+ * OrderPricer.java
+ *
+ * Summary:
+ * Prices many orders in one pass into primitive arrays of subtotal, tax and total, for
+ * reports and the stored orders list. Subtotals come from the archive's cents column, so no
+ * MenuItem is rebuilt or asked for its cost, and the tax and total are then computed for the
+ * whole range with the Vector API. Large ranges are split across cores with fork/join.
+ *
+ * Results match Order.getTotalCost(), getTax() and getTotal() for the same order, except
+ * that archived line costs are already rounded to the cent. Promotions are included: placed
+ * orders carry theirs as a Discount line, and unplaced ones are asked for getDiscount().
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public final class OrderPricer {
+	private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+	// Ranges at least this long are priced in parallel.
+	static final int PARALLEL_THRESHOLD = 1 << 14;
+
+	private OrderPricer() {
+	}
+
+	/**
+	 * Prices the orders in a range of archive slots. Entry i of each output array belongs to
+	 * slot from + i. The archive must not change while it is priced; pass a snapshot() or
+	 * hold the store's lock.
+	 *
+	 * @param archive the archive holding the orders.
+	 * @param from the first slot, inclusive.
+	 * @param to the last slot, exclusive.
+	 * @param subtotal receives each order's subtotal in dollars.
+	 * @param tax receives each order's tax.
+	 * @param total receives each order's total.
+	 */
+	public static void price(OrderArchive archive, int from, int to, double[] subtotal, double[] tax, double[] total) {
+		checkRange(from, to, archive.orderCount(), subtotal, tax, total);
+		if (to - from >= PARALLEL_THRESHOLD) {
+			ForkJoinPool.commonPool().invoke(new PriceTask(archive, from, to, from, subtotal, tax, total));
+		} else {
+			priceSlots(archive, from, to, from, subtotal, tax, total);
+		}
+	}
+
+	/**
+	 * Prices a range of Order objects, such as orders still being built. Each item's cost()
+	 * is asked once; the tax and total steps are the same as for archived orders.
+	 *
+	 * @param orders the orders.
+	 * @param from the first index, inclusive.
+	 * @param to the last index, exclusive.
+	 * @param subtotal receives each order's subtotal, at index i - from.
+	 * @param tax receives each order's tax.
+	 * @param total receives each order's total.
+	 */
+	public static void price(List<Order> orders, int from, int to, double[] subtotal, double[] tax, double[] total) {
+		checkRange(from, to, orders.size(), subtotal, tax, total);
+		for (int i = from; i < to; i++) {
+			double sum = 0;
+			for (MenuItem item : orders.get(i).getItems()) {
+				sum += item.cost();
+			}
+			subtotal[i - from] = sum - orders.get(i).getDiscount();
+		}
+		applyTax(subtotal, tax, total, 0, to - from);
+	}
+
+	/**
+	 * Sums a range of an int column with vector lanes. Used for the cents of an order's lines;
+	 * each lane holds well under Integer.MAX_VALUE cents for any real order.
+	 *
+	 * @param values the column.
+	 * @param from the first index, inclusive.
+	 * @param to the last index, exclusive.
+	 * @return the sum.
+	 */
+	static long sum(int[] values, int from, int to) {
+		int i = from;
+		long total = 0;
+		int bound = from + INTS.loopBound(to - from);
+		if (bound > from) {
+			IntVector acc = IntVector.zero(INTS);
+			for (; i < bound; i += INTS.length()) {
+				acc = acc.add(IntVector.fromArray(INTS, values, i));
+			}
+			total = acc.reduceLanesToLong(VectorOperators.ADD);
+		}
+		for (; i < to; i++) {
+			total += values[i];
+		}
+		return total;
+	}
+
+	private static void priceSlots(OrderArchive archive, int from, int to, int base,
+								   double[] subtotal, double[] tax, double[] total) {
+		for (int slot = from; slot < to; slot++) {
+			subtotal[slot - base] = archive.subtotalCents(slot) / 100.0;
+		}
+		applyTax(subtotal, tax, total, from - base, to - base);
+	}
+
+	/**
+	 * Computes tax = subtotal * TAX and total = subtotal + tax for a range of the arrays.
+	 */
+	static void applyTax(double[] subtotal, double[] tax, double[] total, int from, int to) {
+		int i = from;
+		int bound = from + DOUBLES.loopBound(to - from);
+		for (; i < bound; i += DOUBLES.length()) {
+			DoubleVector sub = DoubleVector.fromArray(DOUBLES, subtotal, i);
+			DoubleVector t = sub.mul(Order.TAX);
+			t.intoArray(tax, i);
+			sub.add(t).intoArray(total, i);
+		}
+		for (; i < to; i++) {
+			tax[i] = subtotal[i] * Order.TAX;
+			total[i] = subtotal[i] + tax[i];
+		}
+	}
+
+	private static void checkRange(int from, int to, int size, double[] subtotal, double[] tax, double[] total) {
+		if (from < 0 || to > size || from > to) {
+			throw new IndexOutOfBoundsException("Range " + from + ".." + to + " of " + size + " orders");
+		}
+		int needed = to - from;
+		if (subtotal.length < needed || tax.length < needed || total.length < needed) {
+			throw new IllegalArgumentException("Output arrays must hold " + needed + " orders");
+		}
+	}
+
+	/**
+	 * Splits a slot range in halves until each piece is small enough to price on one thread.
+	 */
+	private static final class PriceTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient OrderArchive archive;
+		private final int from;
+		private final int to;
+		private final int base;
+		private final double[] subtotal;
+		private final double[] tax;
+		private final double[] total;
+
+		PriceTask(OrderArchive archive, int from, int to, int base, double[] subtotal, double[] tax, double[] total) {
+			this.archive = archive;
+			this.from = from;
+			this.to = to;
+			this.base = base;
+			this.subtotal = subtotal;
+			this.tax = tax;
+			this.total = total;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from < PARALLEL_THRESHOLD) {
+				priceSlots(archive, from, to, base, subtotal, tax, total);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new PriceTask(archive, from, mid, base, subtotal, tax, total),
+					new PriceTask(archive, mid, to, base, subtotal, tax, total));
+		}
+	}
+}
@@ -0,0 +1,502 @@
+/**
+ * OrderReplicator.java
+ *
+ * Summary:
+ * Keeps the StoredOrders of several terminals in step over TCP. Every order placed or
+ * cancelled on this terminal is encoded once and queued for each peer; a sender thread per
+ * peer drains its queue in batches and writes them back to back without waiting for replies,
+ * so a slow link never holds up order entry. Incoming batches are applied to the local store
+ * under a single lock acquisition, then acknowledged. Each terminal numbers its orders from
+ * its own range (see StoredOrder.setNumbering), so replicated orders never collide.
+ *
+ * Wire format (big-endian ints): a connection starts with magic, the sender's terminal id
+ * and its session (a long chosen when the replicator starts), then carries batches of
+ * {sequence number, event count, events}. A placed order is
+ * {PLACE, order number, line count, lines x {type, config, quantity, cents}} and a
+ * cancellation is {CANCEL, order number}. The receiver answers each batch it has applied
+ * with its sequence number. A sender keeps every batch until it is acknowledged and sends
+ * all of them again after reconnecting, so a batch still in the socket buffers when the link
+ * drops is not lost. The receiver remembers the last batch it applied from each session and
+ * skips batches sent again, so it applies each batch once. The store remembers a cancellation
+ * that overtakes its order only until the order arrives.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OrderReplicator implements OrderListener, AutoCloseable {
+	static final int MAGIC = 0x52555250; // "RURP"
+	private static final int PLACE = 1;
+	private static final int CANCEL = 2;
+	// Most events written per batch.
+	private static final int MAX_BATCH = 512;
+	// Most batches written to a peer before waiting for one to be acknowledged.
+	private static final int MAX_IN_FLIGHT = 64;
+	// A peer that acknowledges nothing for this long is reconnected.
+	private static final int ACK_TIMEOUT_MILLIS = 10_000;
+	private static final int BUFFER_BYTES = 1 << 16;
+	private static final long RECONNECT_MILLIS = 250;
+
+	private final StoredOrder store;
+	private final int terminal;
+	private final ServerSocket server;
+	private final List<Peer> peers = new CopyOnWriteArrayList<>();
+	private final List<Socket> inbound = new CopyOnWriteArrayList<>();
+	private volatile boolean closed;
+	// Tells this replicator's batches apart from those of an earlier run of the same terminal.
+	private final long session = new Random().nextLong();
+	// The last batch applied from each peer terminal; guarded by the store's lock.
+	private final Map<Integer, Applied> applied = new HashMap<>();
+
+	private OrderReplicator(StoredOrder store, int terminal, int port) throws IOException {
+		this.store = store;
+		this.terminal = terminal;
+		this.server = new ServerSocket(port);
+	}
+
+	/**
+	 * Starts replicating a store: listens for peers on the given port and registers
+	 * with the store for locally placed and cancelled orders.
+	 *
+	 * @param store the store to replicate.
+	 * @param terminal this terminal's id.
+	 * @param port the port to listen on, or 0 for any free port.
+	 * @return the replicator.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public static OrderReplicator start(StoredOrder store, int terminal, int port) throws IOException {
+		OrderReplicator replicator = new OrderReplicator(store, terminal, port);
+		Thread acceptor = new Thread(replicator::acceptPeers, "replication-accept");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		store.addListener(replicator);
+		return replicator;
+	}
+
+	/**
+	 * Returns the port this terminal listens on.
+	 *
+	 * @return the local port.
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Starts sending this terminal's order events to a peer. The connection is retried
+	 * until it succeeds, and events placed meanwhile are queued.
+	 *
+	 * @param host the peer's host.
+	 * @param port the peer's replication port.
+	 */
+	public void addPeer(String host, int port) {
+		Peer peer = new Peer(new InetSocketAddress(host, port));
+		peers.add(peer);
+		peer.start();
+	}
+
+	@Override
+	public void placed(Order order) {
+		var items = order.getItems();
+		int[] event = new int[3 + items.size() * 4];
+		event[0] = PLACE;
+		event[1] = order.getNumber();
+		event[2] = items.size();
+		int i = 3;
+		for (MenuItem item : items) {
+			event[i++] = ItemCodec.type(item);
+			event[i++] = ItemCodec.pack(item);
+			event[i++] = item.getQuantity();
+			event[i++] = ItemCodec.cents(item.cost());
+		}
+		for (Peer peer : peers) {
+			peer.send(event);
+		}
+	}
+
+	@Override
+	public void cancelled(int orderNum) {
+		int[] event = {CANCEL, orderNum};
+		for (Peer peer : peers) {
+			peer.send(event);
+		}
+	}
+
+	/**
+	 * Waits until every queued event has been applied and acknowledged by every peer.
+	 *
+	 * @param timeoutMillis how long to wait.
+	 * @return true if everything was sent in time.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		for (Peer peer : peers) {
+			while (peer.unacked.get() > 0) {
+				if (System.currentTimeMillis() > deadline) {
+					return false;
+				}
+				Thread.sleep(5);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stops replicating and closes every connection.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		store.removeListener(this);
+		try {
+			server.close();
+		} catch (IOException ignored) {
+			// Already closed.
+		}
+		for (Peer peer : peers) {
+			peer.interrupt();
+		}
+		for (Socket socket : inbound) {
+			try {
+				socket.close();
+			} catch (IOException ignored) {
+				// Already closed.
+			}
+		}
+	}
+
+	private void acceptPeers() {
+		while (!closed) {
+			try {
+				Socket socket = server.accept();
+				socket.setTcpNoDelay(true);
+				inbound.add(socket);
+				Thread receiver = new Thread(() -> receive(socket), "replication-receive");
+				receiver.setDaemon(true);
+				receiver.start();
+			} catch (IOException e) {
+				if (!closed) {
+					System.err.println("Replication accept failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads batches from one peer, applies each batch to the store in one go and
+	 * acknowledges it.
+	 */
+	private void receive(Socket socket) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+			 DataOutputStream acks = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a replication peer: " + socket.getRemoteSocketAddress());
+			}
+			int peerTerminal = in.readInt();
+			if (peerTerminal == terminal) {
+				throw new IOException("Peer " + socket.getRemoteSocketAddress() + " uses this terminal's id " + terminal);
+			}
+			long peerSession = in.readLong();
+			List<Order> placed = new ArrayList<>();
+			List<Integer> kinds = new ArrayList<>();
+			List<Integer> numbers = new ArrayList<>();
+			while (!closed) {
+				int sequence = in.readInt();
+				int count = in.readInt();
+				placed.clear();
+				kinds.clear();
+				numbers.clear();
+				for (int e = 0; e < count; e++) {
+					int kind = in.readInt();
+					int number = in.readInt();
+					kinds.add(kind);
+					numbers.add(number);
+					if (kind == PLACE) {
+						Order order = new Order(number);
+						int lines = in.readInt();
+						for (int line = 0; line < lines; line++) {
+							int type = in.readInt();
+							int config = in.readInt();
+							int quantity = in.readInt();
+							in.readInt(); // cents are recomputed from the configuration
+							// Line for line, as sent, so the replica's lines match the sender's.
+							order.insertLine(line, 0, ItemCodec.unpack(type, config, quantity));
+						}
+						placed.add(order);
+					} else if (kind != CANCEL) {
+						throw new IOException("Unknown replication event " + kind);
+					}
+				}
+				synchronized (store) {
+					Applied last = applied.get(peerTerminal);
+					// A batch sent again after a reconnect is acknowledged, not applied twice.
+					if (last == null || last.session() != peerSession || sequence > last.sequence()) {
+						int next = 0;
+						for (int e = 0; e < count; e++) {
+							if (kinds.get(e) == PLACE) {
+								store.addReplicated(placed.get(next++));
+							} else {
+								store.cancelReplicated(numbers.get(e));
+							}
+						}
+						applied.put(peerTerminal, new Applied(peerSession, sequence));
+					}
+				}
+				acks.writeInt(sequence);
+				acks.flush();
+			}
+		} catch (EOFException e) {
+			// The peer closed the connection.
+		} catch (IOException e) {
+			if (!closed) {
+				System.err.println("Replication link failed: " + e.getMessage());
+			}
+		} finally {
+			inbound.remove(socket);
+		}
+	}
+
+	/**
+	 * Sends this terminal's events to one peer, reconnecting whenever the link drops. A
+	 * second thread per connection reads the peer's acknowledgements.
+	 */
+	private final class Peer extends Thread {
+		private final InetSocketAddress address;
+		private final LinkedBlockingQueue<int[]> queue = new LinkedBlockingQueue<>();
+		// Events queued or in a batch the peer has not acknowledged yet.
+		private final AtomicInteger unacked = new AtomicInteger();
+		// Batches written but not acknowledged, oldest first. The sender adds to the tail and
+		// the acknowledgement reader removes from the head.
+		private final ConcurrentLinkedDeque<Batch> pending = new ConcurrentLinkedDeque<>();
+		private int nextSequence = 1;
+
+		Peer(InetSocketAddress address) {
+			super("replication-send-" + address);
+			this.address = address;
+			setDaemon(true);
+		}
+
+		void send(int[] event) {
+			unacked.incrementAndGet();
+			queue.add(event);
+		}
+
+		@Override
+		public void run() {
+			while (!closed) {
+				try (Socket socket = new Socket()) {
+					socket.connect(address, 2000);
+					socket.setTcpNoDelay(true);
+					socket.setSoTimeout(ACK_TIMEOUT_MILLIS);
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+					out.writeInt(MAGIC);
+					out.writeInt(terminal);
+					out.writeLong(session);
+					// Whatever was not acknowledged on the last connection goes again first.
+					for (Batch batch : pending) {
+						write(out, batch);
+					}
+					out.flush();
+					Thread reader = new Thread(() -> readAcks(socket), "replication-ack-" + address);
+					reader.setDaemon(true);
+					reader.start();
+					while (!closed) {
+						if (socket.isClosed()) {
+							throw new IOException("Link to " + address + " dropped");
+						}
+						if (pending.size() >= MAX_IN_FLIGHT) {
+							synchronized (pending) {
+								pending.wait(100);
+							}
+							continue;
+						}
+						int[] first = queue.poll(100, TimeUnit.MILLISECONDS);
+						if (first == null) {
+							continue;
+						}
+						List<int[]> events = new ArrayList<>(MAX_BATCH);
+						events.add(first);
+						queue.drainTo(events, MAX_BATCH - 1);
+						Batch batch = new Batch(nextSequence++, events);
+						pending.add(batch);
+						write(out, batch);
+						out.flush();
+					}
+				} catch (IOException e) {
+					// Keep the unacknowledged batches and try again after a pause.
+					try {
+						Thread.sleep(RECONNECT_MILLIS);
+					} catch (InterruptedException interrupted) {
+						return;
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+
+		private void write(DataOutputStream out, Batch batch) throws IOException {
+			out.writeInt(batch.sequence());
+			out.writeInt(batch.events().size());
+			for (int[] event : batch.events()) {
+				for (int value : event) {
+					out.writeInt(value);
+				}
+			}
+		}
+
+		/**
+		 * Reads acknowledgements until the link drops, or the peer leaves a batch
+		 * unacknowledged for ACK_TIMEOUT_MILLIS, then closes the socket so the sender
+		 * reconnects.
+		 */
+		private void readAcks(Socket socket) {
+			try {
+				DataInputStream in = new DataInputStream(socket.getInputStream());
+				while (!closed) {
+					try {
+						acknowledged(in.readInt());
+					} catch (SocketTimeoutException e) {
+						if (!pending.isEmpty()) {
+							throw e;
+						}
+					}
+				}
+			} catch (IOException e) {
+				// The sender notices the closed socket and reconnects.
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException ignored) {
+					// Already closed.
+				}
+			}
+		}
+
+		/**
+		 * Drops the batches up to an acknowledged one; a peer applies batches in the order sent.
+		 */
+		private void acknowledged(int sequence) {
+			Batch oldest;
+			while ((oldest = pending.peek()) != null && oldest.sequence() <= sequence) {
+				pending.poll();
+				unacked.addAndGet(-oldest.events().size());
+			}
+			synchronized (pending) {
+				pending.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * The last batch applied from a peer terminal.
+	 *
+	 * @param session the session of the peer's replicator that sent it.
+	 * @param sequence the batch's sequence number.
+	 */
+	private record Applied(long session, int sequence) {
+	}
+
+	/**
+	 * A batch of encoded events as written to a peer.
+	 *
+	 * @param sequence the batch's number, counting from 1 for each peer.
+	 * @param events the events, in the order they happened.
+	 */
+	private record Batch(int sequence, List<int[]> events) {
+	}
+
+	/**
+	 * Runs a headless terminal that places synthetic orders while replicating with its peers,
+	 * then waits for every terminal's orders to arrive. Used to check convergence across JVMs.
+	 *
+	 * Arguments: terminal terminals orders [host:port ...]. Prints "port N" once listening and
+	 * "converged COUNT CHECKSUM" once the store holds orders x terminals orders.
+	 *
+	 * @param args the command-line arguments.
+	 * @throws Exception if the terminal cannot start.
+	 */
+	public static void main(String[] args) throws Exception {
+		int terminal = Integer.parseInt(args[0]);
+		int terminals = Integer.parseInt(args[1]);
+		int orders = Integer.parseInt(args[2]);
+		StoredOrder store = new StoredOrder();
+		store.setNumbering(terminal, terminals);
+		try (OrderReplicator replicator = OrderReplicator.start(store, terminal, 0)) {
+			System.out.println("port " + replicator.getPort());
+			System.out.flush();
+			for (int i = 3; i < args.length; i++) {
+				int colon = args[i].lastIndexOf(':');
+				replicator.addPeer(args[i].substring(0, colon), Integer.parseInt(args[i].substring(colon + 1)));
+			}
+			placeSyntheticOrders(store, orders, new Random(terminal));
+			long deadline = System.currentTimeMillis() + 60_000;
+			while (store.getOrders().size() < orders * terminals && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			replicator.awaitDrained(10_000);
+			System.out.println("converged " + store.getOrders().size() + " " + checksum(store));
+			System.out.flush();
+		}
+	}
+
+	/**
+	 * Places a number of small random orders into a store.
+	 *
+	 * @param store the store.
+	 * @param orders how many orders to place.
+	 * @param random the source of randomness.
+	 */
+	static void placeSyntheticOrders(StoredOrder store, int orders, Random random) {
+		for (int i = 0; i < orders; i++) {
+			Order order = store.createNewOrder();
+			order.addItem(new Sandwich(Bread.values()[random.nextInt(5)], Protein.values()[random.nextInt(3)]));
+			Side side = new Side(Size.values()[random.nextInt(3)], SideOption.values()[random.nextInt(4)]);
+			side.setQuantity(1 + random.nextInt(10));
+			order.addItem(side);
+			store.addOrder(order);
+		}
+	}
+
+	/**
+	 * Returns a checksum of a store's orders that does not depend on their order in the store.
+	 *
+	 * @param store the store.
+	 * @return the checksum.
+	 */
+	static long checksum(StoredOrder store) {
+		synchronized (store) {
+			OrderArchive archive = store.getArchive();
+			long sum = 0;
+			for (int slot = 0; slot < archive.orderCount(); slot++) {
+				sum += (long) archive.orderNumber(slot) * 1_000_003L + archive.subtotalCents(slot);
+			}
+			return sum;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+/**
+ * OrderStage.java
+ *
+ * Summary:
+ * The stages an order goes through, as reported on the OrderEventBus: placed at a register,
+ * in preparation once the kitchen starts on it, ready for pickup, and picked up; or cancelled.
+ * Stages are stored by ordinal in the bus, so new ones go at the end.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public enum OrderStage {
+	PLACED,
+	IN_PREP,
+	READY,
+	PICKED_UP,
+	CANCELLED
+}
@@ -0,0 +1,293 @@
+/**
+ * OrderValidator.java
+ *
+ * Summary:
+ * Checks an order before it is placed by running a list of ItemRules over its items, and
+ * stops at the first item that fails. The standard rules catch incomplete items (a sandwich
+ * with no protein, a combo missing its drink or side), quantities out of range and items
+ * the stock left can't cover.
+ *
+ * What cacheable rules say about an item is remembered by its configuration and quantity,
+ * so a hundred identical drinks are checked once; the other rules are run for every item,
+ * after the cacheable ones have passed. Orders of PARALLEL_THRESHOLD lines or more are
+ * split across cores with fork/join. The failure reported is always the first failing line,
+ * and parts of the order after a failure already found are skipped.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OrderValidator {
+	// Orders with at least this many lines are validated in parallel, LEAF lines per task.
+	static final int PARALLEL_THRESHOLD = 64;
+	private static final int LEAF = 16;
+	// Most quantity a line may have under the standard rules.
+	public static final int MAX_QUANTITY = 99;
+	// Remembered results are dropped once this many configurations are known.
+	private static final int CACHE_LIMIT = 1 << 12;
+	// Remembered result for an item that passed; compared by identity.
+	private static final String PASSED = new String("passed");
+
+	private final ItemRule[] cached;
+	private final ItemRule[] uncached;
+	// Result of the cacheable rules, by configuration key and quantity.
+	private final Map<Long, String> results = new ConcurrentHashMap<>();
+	private final AtomicLong evaluations = new AtomicLong();
+
+	/**
+	 * Why an order can't be placed: the first line that failed a rule.
+	 *
+	 * @param line the position of the line in Order.getItems().
+	 * @param item the item on the line.
+	 * @param reason what the rule said is wrong.
+	 */
+	public record Failure(int line, MenuItem item, String reason) {
+	}
+
+	/**
+	 * Creates a validator. Cacheable rules run first, in the order given, then the others.
+	 *
+	 * @param rules the rules every item must pass.
+	 */
+	public OrderValidator(List<ItemRule> rules) {
+		List<ItemRule> remembered = new ArrayList<>();
+		List<ItemRule> others = new ArrayList<>();
+		for (ItemRule rule : rules) {
+			(rule.isCacheable() ? remembered : others).add(rule);
+		}
+		cached = remembered.toArray(new ItemRule[0]);
+		uncached = others.toArray(new ItemRule[0]);
+	}
+
+	/**
+	 * Returns a validator with the standard rules: complete(), quantities(MAX_QUANTITY) and,
+	 * when stock is tracked, inStock().
+	 *
+	 * @param inventory the stock, or null when stock is not tracked.
+	 * @return the validator.
+	 */
+	public static OrderValidator standard(Inventory inventory) {
+		List<ItemRule> rules = new ArrayList<>(List.of(complete(), quantities(MAX_QUANTITY)));
+		if (inventory != null) {
+			rules.add(inStock(inventory));
+		}
+		return new OrderValidator(rules);
+	}
+
+	/**
+	 * Validates an order. The order must not change while it is validated.
+	 *
+	 * @param order the order about to be placed.
+	 * @return the first line that failed a rule, or null if every line passed.
+	 */
+	public Failure validate(Order order) {
+		MenuItem[] lines = order.getItems().toArray(new MenuItem[0]);
+		if (lines.length >= PARALLEL_THRESHOLD) {
+			return ForkJoinPool.commonPool().invoke(new ValidateTask(lines, 0, lines.length, new AtomicInteger(lines.length)));
+		}
+		for (int i = 0; i < lines.length; i++) {
+			String reason = check(lines[i]);
+			if (reason != null) {
+				return new Failure(i, lines[i], reason);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns how many times the cacheable rules have been run on an item, rather than
+	 * answered from what was remembered.
+	 *
+	 * @return the evaluation count.
+	 */
+	public long getEvaluations() {
+		return evaluations.get();
+	}
+
+	private String check(MenuItem item) {
+		long key = cacheKey(item);
+		String reason;
+		if (key < 0) {
+			evaluations.incrementAndGet();
+			reason = firstProblem(cached, item);
+		} else {
+			String known = results.get(key);
+			if (known == null) {
+				evaluations.incrementAndGet();
+				String found = firstProblem(cached, item);
+				known = found == null ? PASSED : found;
+				if (results.size() >= CACHE_LIMIT) {
+					results.clear();
+				}
+				results.put(key, known);
+			}
+			reason = known == PASSED ? null : known;
+		}
+		return reason != null ? reason : firstProblem(uncached, item);
+	}
+
+	private static String firstProblem(ItemRule[] rules, MenuItem item) {
+		for (ItemRule rule : rules) {
+			String reason = rule.check(item);
+			if (reason != null) {
+				return reason;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the configuration key and quantity of an item as one long, or -1 for items that
+	 * cannot be packed, which are never remembered. A combo missing a part can't be packed
+	 * either, and packing it fails on the missing part.
+	 */
+	private static long cacheKey(MenuItem item) {
+		try {
+			return (long) ItemCodec.key(ItemCodec.type(item), ItemCodec.pack(item)) << 32 | item.getQuantity() & 0xFFFFFFFFL;
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Validates a range of lines, splitting it until it is at most LEAF lines. first holds the
+	 * lowest failing line found so far; lines after it can't be the first failure, so they
+	 * are not checked.
+	 */
+	private final class ValidateTask extends RecursiveTask<Failure> {
+		private static final long serialVersionUID = 1L;
+		private final transient MenuItem[] lines;
+		private final int from;
+		private final int to;
+		private final AtomicInteger first;
+
+		ValidateTask(MenuItem[] lines, int from, int to, AtomicInteger first) {
+			this.lines = lines;
+			this.from = from;
+			this.to = to;
+			this.first = first;
+		}
+
+		@Override
+		protected Failure compute() {
+			if (to - from <= LEAF) {
+				for (int i = from; i < to && i < first.get(); i++) {
+					String reason = check(lines[i]);
+					if (reason != null) {
+						first.accumulateAndGet(i, Math::min);
+						return new Failure(i, lines[i], reason);
+					}
+				}
+				return null;
+			}
+			int mid = (from + to) >>> 1;
+			ValidateTask right = new ValidateTask(lines, mid, to, first);
+			right.fork();
+			Failure left = new ValidateTask(lines, from, mid, first).compute();
+			Failure later = right.join();
+			return left != null ? left : later;
+		}
+	}
+
+	/**
+	 * Returns the rule that every part of an item has been chosen: a sandwich's bread and
+	 * protein, a drink's size and flavor, a side's size and option, and all three parts of
+	 * a combo.
+	 *
+	 * @return the rule.
+	 */
+	public static ItemRule complete() {
+		return OrderValidator::missingPart;
+	}
+
+	private static String missingPart(MenuItem item) {
+		if (item instanceof Sandwich sandwich) {
+			if (sandwich.getBread() == null) {
+				return "no bread chosen";
+			}
+			return sandwich.getProtein() == null ? "no protein chosen" : null;
+		}
+		if (item instanceof Beverage drink) {
+			if (drink.getSize() == null) {
+				return "no size chosen";
+			}
+			return drink.getFlavor() == null ? "no flavor chosen" : null;
+		}
+		if (item instanceof Side side) {
+			if (side.getSize() == null) {
+				return "no size chosen";
+			}
+			return side.getSide() == null ? "no side chosen" : null;
+		}
+		if (item instanceof Combo combo) {
+			if (combo.getSandwich() == null || combo.getDrink() == null || combo.getSide() == null) {
+				return "combo is missing its sandwich, drink or side";
+			}
+			String part = missingPart(combo.getSandwich());
+			if (part == null) {
+				part = missingPart(combo.getDrink());
+			}
+			if (part == null) {
+				part = missingPart(combo.getSide());
+			}
+			return part == null ? null : "combo has " + part;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the rule that each line's quantity, and the sandwich quantity of a combo, is
+	 * between 1 and a maximum.
+	 *
+	 * @param max the largest quantity allowed.
+	 * @return the rule.
+	 */
+	public static ItemRule quantities(int max) {
+		return item -> {
+			if (item.getQuantity() < 1 || item.getQuantity() > max) {
+				return "quantity " + item.getQuantity() + " is not between 1 and " + max;
+			}
+			if (item instanceof Combo combo && combo.getSandwich() != null) {
+				int inside = combo.getSandwich().getQuantity();
+				if (inside < 1 || inside > max) {
+					return "combo sandwich quantity " + inside + " is not between 1 and " + max;
+				}
+			}
+			return null;
+		};
+	}
+
+	/**
+	 * Returns the rule that the stock left covers each line on its own. It is run every
+	 * time, as stock changes; Inventory.take() still has the last word on the whole order.
+	 *
+	 * @param inventory the stock.
+	 * @return the rule.
+	 */
+	public static ItemRule inStock(Inventory inventory) {
+		return new ItemRule() {
+			@Override
+			public String check(MenuItem item) {
+				String ingredient = inventory.shortOf(item);
+				return ingredient == null ? null : "not enough " + ingredient + " left";
+			}
+
+			@Override
+			public boolean isCacheable() {
+				return false;
+			}
+		};
+	}
+}
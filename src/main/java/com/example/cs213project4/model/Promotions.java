@@ -0,0 +1,402 @@
+/**
+ * Promotions.java
+ *
+ * Summary:
+ * Marketing's promotions, loaded from a plain text file and compiled into a decision table
+ * so an order's discount is one pass over its lines. The table is indexed by item type and by
+ * the ordinal of the item's main option (Protein for sandwiches and combos, Bread for burgers,
+ * Flavor for beverages, SideOption for sides) and lists the rules each cell takes part in, so
+ * evaluating a line is an array lookup rather than a match against every rule.
+ *
+ * One rule per line; blank lines and lines starting with # are ignored:
+ *   name  kind  target  value  [HH:MM-HH:MM]
+ * where kind is one of
+ *   percent  value like 15%; that share off every matching line.
+ *   bogo     value like 2+1; for every 2 matching units bought, 1 more is free (the cheapest).
+ *   bundle   target like burger+beverage, value in dollars like 1.50; off for every pair.
+ * and target is sandwich, burger, beverage, side, combo or *, optionally followed by
+ * :CONSTANT to pick one option, e.g. side:FRIES or beverage:ICED_TEA. The optional time window
+ * limits the rule to part of the day and may wrap past midnight.
+ *
+ * Every live rule applies, and the discount never exceeds the order's subtotal.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class Promotions {
+	private static final int PERCENT = 0;
+	private static final int BOGO = 1;
+	private static final int BUNDLE = 2;
+	// Columns per item type in the table; the widest option enum (Flavor) has 15 constants.
+	private static final int OPTIONS = 16;
+	// Rules live in one long bit mask while an order is evaluated.
+	private static final int MAX_RULES = 64;
+	private static final String[] TYPES = {null, "sandwich", "burger", "beverage", "side", "combo"};
+	private static final int[][] EMPTY = new int[0][];
+	private static final int[] NO_RULES = new int[0];
+
+	/** No promotions at all. */
+	public static final Promotions NONE = new Promotions(new String[0], new int[0], new int[0], new int[0],
+			new int[0], new int[0], new int[0], EMPTY);
+
+	private static volatile Promotions active = NONE;
+
+	private final String[] names;
+	private final int[] kinds;
+	// Percent off for PERCENT, cents off per pair for BUNDLE.
+	private final int[] values;
+	// Units bought and units free for BOGO.
+	private final int[] buy;
+	private final int[] free;
+	// Time window in minutes of the day, or -1 for all day.
+	private final int[] from;
+	private final int[] to;
+	// Entries of each cell, type * OPTIONS + option: rule * 2, plus 1 for a bundle's second target.
+	private final int[][] table;
+
+	private Promotions(String[] names, int[] kinds, int[] values, int[] buy, int[] free,
+					   int[] from, int[] to, int[][] table) {
+		this.names = names;
+		this.kinds = kinds;
+		this.values = values;
+		this.buy = buy;
+		this.free = free;
+		this.from = from;
+		this.to = to;
+		this.table = table;
+	}
+
+	/**
+	 * Returns the promotions orders are priced with.
+	 *
+	 * @return the active promotions, NONE unless set.
+	 */
+	public static Promotions active() {
+		return active;
+	}
+
+	/**
+	 * Sets the promotions orders are priced with from now on, and tells views showing prices
+	 * (see MenuCatalog.pricesChanged()), so it is called on the FX thread once they are up.
+	 * Orders already placed keep the discount they were placed with.
+	 *
+	 * @param promotions the promotions.
+	 */
+	public static void setActive(Promotions promotions) {
+		active = promotions;
+		MenuCatalog.pricesChanged();
+	}
+
+	/**
+	 * Returns whether a rule's time window opens or closes at a minute of the day, when
+	 * prices shown should be worked out again.
+	 *
+	 * @param minuteOfDay the time of day, in minutes since midnight.
+	 * @return true if some rule starts or stops applying at that minute.
+	 */
+	public boolean changesAt(int minuteOfDay) {
+		for (int r = 0; r < names.length; r++) {
+			if (from[r] >= 0 && (from[r] == minuteOfDay || to[r] == minuteOfDay)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Loads and compiles a promotions file.
+	 *
+	 * @param file the file.
+	 * @return the compiled promotions.
+	 * @throws IOException if the file cannot be read.
+	 * @throws IllegalArgumentException if a rule is malformed.
+	 */
+	public static Promotions load(Path file) throws IOException {
+		return compile(Files.readAllLines(file));
+	}
+
+	/**
+	 * Compiles promotion rules.
+	 *
+	 * @param lines the rules, one per line.
+	 * @return the compiled promotions.
+	 * @throws IllegalArgumentException if a rule is malformed, naming its line.
+	 */
+	public static Promotions compile(List<String> lines) {
+		List<String> names = new ArrayList<>();
+		List<int[]> rules = new ArrayList<>();
+		List<List<Integer>> cells = new ArrayList<>();
+		for (int i = 0; i < TYPES.length * OPTIONS; i++) {
+			cells.add(new ArrayList<>());
+		}
+		for (int n = 0; n < lines.size(); n++) {
+			String line = lines.get(n).strip();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			try {
+				if (rules.size() == MAX_RULES) {
+					throw new IllegalArgumentException("At most " + MAX_RULES + " promotions are supported");
+				}
+				String[] words = line.split("\\s+");
+				if (words.length != 4 && words.length != 5) {
+					throw new IllegalArgumentException("Expected: name kind target value [HH:MM-HH:MM]");
+				}
+				int id = rules.size();
+				// kind, value, buy, free, from, to
+				int[] rule = {0, 0, 0, 0, -1, -1};
+				String target = words[2];
+				switch (words[1]) {
+					case "percent" -> {
+						rule[0] = PERCENT;
+						if (!words[3].endsWith("%")) {
+							throw new IllegalArgumentException("Percent value must end with %: " + words[3]);
+						}
+						rule[1] = Integer.parseInt(words[3].substring(0, words[3].length() - 1));
+						if (rule[1] <= 0 || rule[1] > 100) {
+							throw new IllegalArgumentException("Percent out of range: " + words[3]);
+						}
+						mark(cells, target, id * 2);
+					}
+					case "bogo" -> {
+						rule[0] = BOGO;
+						int plus = words[3].indexOf('+');
+						if (plus < 0) {
+							throw new IllegalArgumentException("BOGO value must look like 1+1: " + words[3]);
+						}
+						rule[2] = Integer.parseInt(words[3].substring(0, plus));
+						rule[3] = Integer.parseInt(words[3].substring(plus + 1));
+						if (rule[2] <= 0 || rule[3] <= 0) {
+							throw new IllegalArgumentException("BOGO counts must be positive: " + words[3]);
+						}
+						mark(cells, target, id * 2);
+					}
+					case "bundle" -> {
+						rule[0] = BUNDLE;
+						int plus = target.indexOf('+');
+						if (plus < 0) {
+							throw new IllegalArgumentException("Bundle target must look like burger+beverage: " + target);
+						}
+						rule[1] = ItemCodec.cents(Double.parseDouble(words[3]));
+						mark(cells, target.substring(0, plus), id * 2);
+						mark(cells, target.substring(plus + 1), id * 2 + 1);
+						for (List<Integer> cell : cells) {
+							if (cell.contains(id * 2) && cell.contains(id * 2 + 1)) {
+								throw new IllegalArgumentException("Bundle targets overlap: " + target);
+							}
+						}
+					}
+					default -> throw new IllegalArgumentException("Unknown kind: " + words[1]);
+				}
+				if (words.length == 5) {
+					int dash = words[4].indexOf('-');
+					if (dash < 0) {
+						throw new IllegalArgumentException("Time window must look like 14:00-17:00: " + words[4]);
+					}
+					rule[4] = minutes(words[4].substring(0, dash));
+					rule[5] = minutes(words[4].substring(dash + 1));
+				}
+				names.add(words[0]);
+				rules.add(rule);
+			} catch (IllegalArgumentException e) {
+				// NumberFormatException lands here too.
+				throw new IllegalArgumentException("Promotion on line " + (n + 1) + ": " + e.getMessage(), e);
+			}
+		}
+
+		int count = rules.size();
+		int[] kinds = new int[count];
+		int[] values = new int[count];
+		int[] buy = new int[count];
+		int[] free = new int[count];
+		int[] from = new int[count];
+		int[] to = new int[count];
+		for (int r = 0; r < count; r++) {
+			int[] rule = rules.get(r);
+			kinds[r] = rule[0];
+			values[r] = rule[1];
+			buy[r] = rule[2];
+			free[r] = rule[3];
+			from[r] = rule[4];
+			to[r] = rule[5];
+		}
+		int[][] table = new int[cells.size()][];
+		for (int i = 0; i < table.length; i++) {
+			List<Integer> cell = cells.get(i);
+			table[i] = cell.isEmpty() ? NO_RULES : cell.stream().mapToInt(Integer::intValue).toArray();
+		}
+		return new Promotions(names.toArray(new String[0]), kinds, values, buy, free, from, to,
+				count == 0 ? EMPTY : table);
+	}
+
+	/**
+	 * Adds an entry to every cell a target covers.
+	 */
+	private static void mark(List<List<Integer>> cells, String target, int entry) {
+		int colon = target.indexOf(':');
+		String type = colon < 0 ? target : target.substring(0, colon);
+		String option = colon < 0 ? null : target.substring(colon + 1);
+		for (int t = 1; t < TYPES.length; t++) {
+			if (!type.equals("*") && !type.equals(TYPES[t])) {
+				continue;
+			}
+			if (option == null) {
+				for (int o = 0; o < OPTIONS; o++) {
+					cells.get(t * OPTIONS + o).add(entry);
+				}
+			} else if (type.equals("*")) {
+				throw new IllegalArgumentException("Pick an item type to use an option: " + target);
+			} else {
+				cells.get(t * OPTIONS + optionOrdinal(t, option)).add(entry);
+			}
+			if (!type.equals("*")) {
+				return;
+			}
+		}
+		if (!type.equals("*")) {
+			throw new IllegalArgumentException("Unknown item type: " + type);
+		}
+	}
+
+	private static int optionOrdinal(int type, String option) {
+		Class<? extends Enum<?>> options = switch (type) {
+			case ItemCodec.BURGER -> Bread.class;
+			case ItemCodec.BEVERAGE -> Flavor.class;
+			case ItemCodec.SIDE -> SideOption.class;
+			default -> Protein.class;
+		};
+		for (Enum<?> constant : options.getEnumConstants()) {
+			if (constant.name().equals(option)) {
+				return constant.ordinal();
+			}
+		}
+		throw new IllegalArgumentException("Unknown " + options.getSimpleName() + ": " + option);
+	}
+
+	private static int minutes(String time) {
+		LocalTime parsed = LocalTime.parse(time.length() == 4 ? "0" + time : time);
+		return parsed.getHour() * 60 + parsed.getMinute();
+	}
+
+	/**
+	 * Returns the names of the rules, in file order.
+	 *
+	 * @return the names.
+	 */
+	public List<String> names() {
+		return List.of(names);
+	}
+
+	/**
+	 * Works out the discount on a list of lines at the current time of day.
+	 *
+	 * @param items the lines.
+	 * @return the amount off in cents.
+	 */
+	public int discountCents(List<MenuItem> items) {
+		if (names.length == 0) {
+			return 0;
+		}
+		LocalTime now = LocalTime.now();
+		return discountCents(items, now.getHour() * 60 + now.getMinute());
+	}
+
+	/**
+	 * Works out the discount on a list of lines at a given time of day. Discount lines and
+	 * items that are not fully configured take no part.
+	 *
+	 * @param items the lines.
+	 * @param minuteOfDay the time of day, in minutes since midnight.
+	 * @return the amount off in cents.
+	 */
+	public int discountCents(List<MenuItem> items, int minuteOfDay) {
+		long live = 0;
+		for (int r = 0; r < names.length; r++) {
+			if (from[r] < 0 || (from[r] <= to[r]
+					? minuteOfDay >= from[r] && minuteOfDay < to[r]
+					: minuteOfDay >= from[r] || minuteOfDay < to[r])) {
+				live |= 1L << r;
+			}
+		}
+		if (live == 0) {
+			return 0;
+		}
+
+		// Units matched by each entry, and the cheapest unit matched by each BOGO rule.
+		long[] units = new long[names.length * 2];
+		long[] cheapest = new long[names.length];
+		Arrays.fill(cheapest, Long.MAX_VALUE);
+		long subtotal = 0;
+		long off = 0;
+		for (MenuItem item : items) {
+			long cents = ItemCodec.cents(item.cost());
+			subtotal += cents;
+			int cell = cell(item);
+			int quantity = item.getQuantity();
+			if (cell < 0 || quantity <= 0) {
+				continue;
+			}
+			for (int entry : table[cell]) {
+				int r = entry >>> 1;
+				if ((live & 1L << r) == 0) {
+					continue;
+				}
+				switch (kinds[r]) {
+					case PERCENT -> off += (cents * values[r] + 50) / 100;
+					case BOGO -> {
+						units[entry] += quantity;
+						cheapest[r] = Math.min(cheapest[r], cents / quantity);
+					}
+					default -> units[entry] += quantity;
+				}
+			}
+		}
+		for (int r = 0; r < names.length; r++) {
+			if (kinds[r] == BOGO && units[r * 2] > 0) {
+				off += units[r * 2] / (buy[r] + free[r]) * free[r] * cheapest[r];
+			} else if (kinds[r] == BUNDLE) {
+				off += Math.min(units[r * 2], units[r * 2 + 1]) * values[r];
+			}
+		}
+		return (int) Math.max(0, Math.min(off, subtotal));
+	}
+
+	/**
+	 * Returns the table cell of an item, or -1 if no rule can match it.
+	 */
+	private static int cell(MenuItem item) {
+		Enum<?> option;
+		int type;
+		if (item instanceof Burger burger) {
+			type = ItemCodec.BURGER;
+			option = burger.getBread();
+		} else if (item instanceof Sandwich sandwich) {
+			type = ItemCodec.SANDWICH;
+			option = sandwich.getProtein();
+		} else if (item instanceof Beverage drink) {
+			type = ItemCodec.BEVERAGE;
+			option = drink.getFlavor();
+		} else if (item instanceof Side side) {
+			type = ItemCodec.SIDE;
+			option = side.getSide();
+		} else if (item instanceof Combo combo) {
+			type = ItemCodec.COMBO;
+			option = combo.getSandwich().getProtein();
+		} else {
+			return -1;
+		}
+		return option == null ? -1 : type * OPTIONS + option.ordinal();
+	}
+}
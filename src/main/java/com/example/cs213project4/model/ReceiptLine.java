@@ -0,0 +1,130 @@
+/**
+ * ReceiptLine.java
+ *
+ * Summary:
+ * Renders the one-line text of a MenuItem that the order lists, the export and receipts show,
+ * e.g. "Medium Cola (2) $4.98". An item's text is cached on the item together with the
+ * item's version and the MenuCatalog it was priced with, and is only rendered again after a
+ * setter has changed the item or new prices were loaded, so list cells can ask for it on
+ * every scroll. Prices are written by appendCents(), which puts the
+ * digits straight into the builder instead of going through String.format, and enum labels
+ * are looked up once per constant rather than rebuilt from name() every time.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.StringBinding;
+import javafx.beans.value.ObservableNumberValue;
+
+public final class ReceiptLine {
+	// Display labels of each enum, indexed by ordinal, built on first use.
+	private static final ClassValue<String[]> LABELS = new ClassValue<>() {
+		@Override
+		protected String[] computeValue(Class<?> type) {
+			Object[] constants = type.getEnumConstants();
+			String[] labels = new String[constants.length];
+			for (int i = 0; i < constants.length; i++) {
+				labels[i] = constants[i].toString();
+			}
+			return labels;
+		}
+	};
+
+	/**
+	 * A rendered line and the item version and catalog it was rendered for. Immutable, so an
+	 * item can be rendered from any thread without the text and version getting out of step.
+	 */
+	record Rendered(int version, MenuCatalog catalog, String text) {
+	}
+
+	private ReceiptLine() {
+	}
+
+	/**
+	 * Returns an item's line, rendering it only if the item changed since the last call.
+	 *
+	 * @param item the item.
+	 * @return the item's line.
+	 */
+	public static String render(MenuItem item) {
+		int version = item.getVersion();
+		MenuCatalog catalog = MenuCatalog.current();
+		Rendered cached = item.rendered;
+		if (cached == null || cached.version() != version || cached.catalog() != catalog) {
+			StringBuilder out = new StringBuilder(64);
+			item.describe(out);
+			cached = new Rendered(version, catalog, out.toString());
+			item.rendered = cached;
+		}
+		return cached.text();
+	}
+
+	/**
+	 * Appends the display label of an enum constant, the same text as its toString().
+	 *
+	 * @param out the builder to append to.
+	 * @param constant the constant, or null for an option not chosen yet.
+	 * @return the builder.
+	 */
+	public static StringBuilder appendLabel(StringBuilder out, Enum<?> constant) {
+		if (constant == null) {
+			return out.append("null");
+		}
+		return out.append(LABELS.get(constant.getDeclaringClass())[constant.ordinal()]);
+	}
+
+	/**
+	 * Appends the quantity (when more than one) and the price that end a priced line,
+	 * e.g. " (2) $4.98". An item rebuilt from an order archive shows what it was sold for,
+	 * not what the current catalog would charge.
+	 *
+	 * @param out the builder to append to.
+	 * @param item the item.
+	 * @return the builder.
+	 */
+	public static StringBuilder appendQuantityAndPrice(StringBuilder out, MenuItem item) {
+		if (item.getQuantity() > 1) {
+			out.append(" (").append(item.getQuantity()).append(')');
+		}
+		out.append(" $");
+		return appendCents(out, item.soldCents >= 0 ? item.soldCents : ItemCodec.cents(item.cost()));
+	}
+
+	/**
+	 * Appends an amount of cents as dollars with two decimals, e.g. 498 as "4.98". Nothing is
+	 * allocated apart from growing the builder.
+	 *
+	 * @param out the builder to append to.
+	 * @param cents the amount in cents.
+	 * @return the builder.
+	 */
+	public static StringBuilder appendCents(StringBuilder out, long cents) {
+		if (cents < 0) {
+			out.append('-');
+			cents = -cents;
+		}
+		int fraction = (int) (cents % 100);
+		return out.append(cents / 100)
+				.append('.')
+				.append((char) ('0' + fraction / 10))
+				.append((char) ('0' + fraction % 10));
+	}
+
+	/**
+	 * Returns an amount as text like "$4.98" that follows the amount, for a price label to
+	 * bind to. The text is only written again when it is read after the amount changed.
+	 *
+	 * @param amount the amount in dollars.
+	 * @return the text of the amount.
+	 */
+	public static StringBinding dollars(ObservableNumberValue amount) {
+		return Bindings.createStringBinding(
+				() -> appendCents(new StringBuilder(12).append('$'), ItemCodec.cents(amount.doubleValue())).toString(),
+				amount);
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * ReceiptPrinter.java
+ *
+ * Summary:
+ * Prints receipts by dropping them into the spool directory that the printer service
+ * watches, one file per order named receipt-NUMBER.txt. Every receipt is rendered into the
+ * same direct ByteBuffer, which only grows when a receipt does not fit, and written with a
+ * single channel write. The file is written under a hidden temporary name and then moved
+ * into place, so the printer service never picks up a half-written receipt.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class ReceiptPrinter {
+	private static final int INITIAL_BYTES = 8 * 1024;
+
+	private final Path spool;
+	private final ReceiptTemplate template;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_BYTES);
+	private long printed;
+
+	/**
+	 * Creates a printer for a spool directory, creating the directory if needed.
+	 *
+	 * @param spool the directory the printer service watches.
+	 * @param template the receipt layout.
+	 * @throws IOException if the directory cannot be created.
+	 */
+	public ReceiptPrinter(Path spool, ReceiptTemplate template) throws IOException {
+		this.spool = Files.createDirectories(spool);
+		this.template = template;
+	}
+
+	/**
+	 * Prints an order's receipt. Printing the same order again replaces its receipt if the
+	 * printer service has not taken it yet.
+	 *
+	 * @param order the order.
+	 * @return the receipt file.
+	 * @throws IOException if the receipt cannot be written.
+	 */
+	public synchronized Path print(Order order) throws IOException {
+		render(order);
+		Path temp = spool.resolve(".receipt-" + order.getNumber() + ".tmp");
+		Path receipt = spool.resolve("receipt-" + order.getNumber() + ".txt");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		Files.move(temp, receipt, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		printed++;
+		return receipt;
+	}
+
+	/**
+	 * Renders a receipt into the buffer and flips it for writing, doubling the buffer until
+	 * the receipt fits.
+	 */
+	private void render(Order order) {
+		while (true) {
+			buffer.clear();
+			try {
+				template.render(order, buffer);
+				buffer.flip();
+				return;
+			} catch (BufferOverflowException e) {
+				buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of receipts printed so far.
+	 *
+	 * @return the count.
+	 */
+	public synchronized long getPrinted() {
+		return printed;
+	}
+
+	/**
+	 * Returns the spool directory.
+	 *
+	 * @return the directory.
+	 */
+	public Path getSpool() {
+		return spool;
+	}
+}
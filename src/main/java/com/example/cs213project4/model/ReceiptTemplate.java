@@ -0,0 +1,275 @@
+/**
+ * ReceiptTemplate.java
+ *
+ * Summary:
+ * The layout of a printed receipt. A template is plain text with fields in braces; it is
+ * compiled once into a list of segments (literal bytes and fields), and each receipt is then
+ * rendered by walking the segments and writing straight into a ByteBuffer. Item lines come
+ * from ReceiptLine's cache and numbers and prices are written digit by digit, so rendering a
+ * receipt allocates nothing per line.
+ *
+ * Fields: {order}, {count}, {subtotal}, {tax} and {total} outside lines; {n}, {item},
+ * {quantity} and {price} inside a {lines}...{/lines} block, which is repeated for each line
+ * of the order. {{ writes a single brace. Text is written as UTF-8.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ReceiptTemplate {
+	// Segment kinds.
+	private static final int LITERAL = 0;
+	private static final int ORDER = 1;
+	private static final int COUNT = 2;
+	private static final int SUBTOTAL = 3;
+	private static final int TAX = 4;
+	private static final int TOTAL = 5;
+	private static final int LINES = 6;
+	private static final int END_LINES = 7;
+	private static final int N = 8;
+	private static final int ITEM = 9;
+	private static final int QUANTITY = 10;
+	private static final int PRICE = 11;
+
+	private static final String[] FIELDS = {
+			null, "order", "count", "subtotal", "tax", "total", "lines", "/lines", "n", "item", "quantity", "price"};
+
+	/**
+	 * The layout used when no template is configured; the same text as an order in the export.
+	 */
+	public static final String STANDARD = """
+			Order #{order}
+			----------------------------------------
+			{lines}{n}. {item}
+			{/lines}Subtotal: ${subtotal}
+			Tax: ${tax}
+			Total: ${total}
+			========================================
+			""";
+
+	private final int[] kinds;
+	// Bytes of each LITERAL segment; for LINES, jumps holds the index of its END_LINES.
+	private final byte[][] literals;
+	private final int[] jumps;
+
+	private ReceiptTemplate(int[] kinds, byte[][] literals, int[] jumps) {
+		this.kinds = kinds;
+		this.literals = literals;
+		this.jumps = jumps;
+	}
+
+	/**
+	 * Returns the standard template.
+	 *
+	 * @return the compiled STANDARD layout.
+	 */
+	public static ReceiptTemplate standard() {
+		return compile(STANDARD);
+	}
+
+	/**
+	 * Compiles a template.
+	 *
+	 * @param text the template text.
+	 * @return the compiled template.
+	 * @throws IllegalArgumentException if a field is unknown, unclosed or out of place.
+	 */
+	public static ReceiptTemplate compile(String text) {
+		List<Integer> kinds = new ArrayList<>();
+		List<byte[]> literals = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		int open = -1;
+		int i = 0;
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c != '{') {
+				literal.append(c);
+				i++;
+				continue;
+			}
+			if (i + 1 < text.length() && text.charAt(i + 1) == '{') {
+				literal.append('{');
+				i += 2;
+				continue;
+			}
+			int close = text.indexOf('}', i);
+			if (close < 0) {
+				throw new IllegalArgumentException("Unclosed field at " + i);
+			}
+			int kind = field(text.substring(i + 1, close));
+			if (kind >= N && open < 0) {
+				throw new IllegalArgumentException("{" + FIELDS[kind] + "} is only allowed inside {lines}");
+			}
+			if (kind < LINES && open >= 0) {
+				throw new IllegalArgumentException("{" + FIELDS[kind] + "} is not allowed inside {lines}");
+			}
+			if (kind == LINES && open >= 0) {
+				throw new IllegalArgumentException("{lines} blocks cannot be nested");
+			}
+			if (kind == END_LINES && open < 0) {
+				throw new IllegalArgumentException("{/lines} without {lines}");
+			}
+			if (literal.length() > 0) {
+				kinds.add(LITERAL);
+				literals.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+				literal.setLength(0);
+			}
+			if (kind == LINES) {
+				open = kinds.size();
+			} else if (kind == END_LINES) {
+				open = -1;
+			}
+			kinds.add(kind);
+			literals.add(null);
+			i = close + 1;
+		}
+		if (open >= 0) {
+			throw new IllegalArgumentException("{lines} without {/lines}");
+		}
+		if (literal.length() > 0) {
+			kinds.add(LITERAL);
+			literals.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+		}
+
+		int[] kindArray = new int[kinds.size()];
+		int[] jumps = new int[kinds.size()];
+		int start = -1;
+		for (int k = 0; k < kindArray.length; k++) {
+			kindArray[k] = kinds.get(k);
+			if (kindArray[k] == LINES) {
+				start = k;
+			} else if (kindArray[k] == END_LINES) {
+				jumps[start] = k;
+			}
+		}
+		return new ReceiptTemplate(kindArray, literals.toArray(new byte[0][]), jumps);
+	}
+
+	private static int field(String name) {
+		for (int kind = 1; kind < FIELDS.length; kind++) {
+			if (FIELDS[kind].equals(name)) {
+				return kind;
+			}
+		}
+		throw new IllegalArgumentException("Unknown field {" + name + "}");
+	}
+
+	/**
+	 * Renders an order's receipt at the buffer's position.
+	 *
+	 * @param order the order.
+	 * @param out the buffer to write to.
+	 * @throws BufferOverflowException if the receipt does not fit; the buffer's position is
+	 *         then undefined, so clear it before trying again with a larger one.
+	 */
+	public void render(Order order, ByteBuffer out) {
+		List<MenuItem> items = order.getItems();
+		long subtotal = 0;
+		for (MenuItem item : items) {
+			subtotal += ItemCodec.cents(item.cost());
+		}
+		long tax = Math.round(subtotal * Order.TAX);
+
+		int k = 0;
+		while (k < kinds.length) {
+			switch (kinds[k]) {
+				case LITERAL -> out.put(literals[k]);
+				case ORDER -> putNumber(out, order.getNumber());
+				case COUNT -> putNumber(out, items.size());
+				case SUBTOTAL -> putCents(out, subtotal);
+				case TAX -> putCents(out, tax);
+				case TOTAL -> putCents(out, subtotal + tax);
+				case LINES -> {
+					int n = 0;
+					for (MenuItem item : items) {
+						renderLine(k + 1, jumps[k], item, ++n, out);
+					}
+					k = jumps[k];
+				}
+				default -> throw new IllegalStateException("Line field outside {lines}");
+			}
+			k++;
+		}
+	}
+
+	private void renderLine(int from, int to, MenuItem item, int n, ByteBuffer out) {
+		for (int k = from; k < to; k++) {
+			switch (kinds[k]) {
+				case LITERAL -> out.put(literals[k]);
+				case N -> putNumber(out, n);
+				case ITEM -> putText(out, item.toString());
+				case QUANTITY -> putNumber(out, item.getQuantity());
+				case PRICE -> putCents(out, ItemCodec.cents(item.cost()));
+				default -> throw new IllegalStateException("Order field inside {lines}");
+			}
+		}
+	}
+
+	/**
+	 * Writes text as UTF-8 without going through an encoder.
+	 */
+	private static void putText(ByteBuffer out, String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				out.put((byte) c);
+			} else if (c < 0x800) {
+				out.put((byte) (0xC0 | c >> 6));
+				out.put((byte) (0x80 | c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+					&& Character.isLowSurrogate(text.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, text.charAt(++i));
+				out.put((byte) (0xF0 | cp >> 18));
+				out.put((byte) (0x80 | cp >> 12 & 0x3F));
+				out.put((byte) (0x80 | cp >> 6 & 0x3F));
+				out.put((byte) (0x80 | cp & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				out.put((byte) '?');
+			} else {
+				out.put((byte) (0xE0 | c >> 12));
+				out.put((byte) (0x80 | c >> 6 & 0x3F));
+				out.put((byte) (0x80 | c & 0x3F));
+			}
+		}
+	}
+
+	/**
+	 * Writes the decimal digits of a number.
+	 */
+	private static void putNumber(ByteBuffer out, long value) {
+		if (value < 0) {
+			out.put((byte) '-');
+			value = -value;
+		}
+		long scale = 1;
+		while (scale <= value / 10) {
+			scale *= 10;
+		}
+		for (; scale > 0; scale /= 10) {
+			out.put((byte) ('0' + value / scale % 10));
+		}
+	}
+
+	/**
+	 * Writes cents as dollars with two decimals, like ReceiptLine.appendCents().
+	 */
+	private static void putCents(ByteBuffer out, long cents) {
+		if (cents < 0) {
+			out.put((byte) '-');
+			cents = -cents;
+		}
+		putNumber(out, cents / 100);
+		out.put((byte) '.');
+		out.put((byte) ('0' + cents % 100 / 10));
+		out.put((byte) ('0' + cents % 10));
+	}
+}
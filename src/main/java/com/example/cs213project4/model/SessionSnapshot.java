@@ -0,0 +1,272 @@
+/**
+ * SessionSnapshot.java
+ *
+ * Summary:
+ * A point-in-time copy of the point-of-sale session: the stored orders, the next order
+ * number and the open tabs, the orders being built. Capturing a snapshot is cheap enough to do
+ * on the JavaFX thread because the stored orders are taken with StoredOrder.snapshot(),
+ * which shares storage copy-on-write under the store's lock; writing the snapshot to disk is meant to happen on a
+ * background thread. Archives that are already durable on disk are not copied again.
+ *
+ * Binary layout (big-endian ints), using the same line records as the order archives:
+ *   magic, version, next order number,
+ *   active tab's order number (0 if none), tab count, tabs x {number, line count, lines},
+ *   archive flag, order count, line count, orders x {number, line count}, lines
+ * where each line is {item type, packed configuration, quantity, cents}. Version 1 files,
+ * which hold a single order in progress in place of the tabs, can still be read.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public final class SessionSnapshot {
+	private static final int MAGIC = 0x52555353; // "RUSS"
+	private static final int VERSION = 2;
+
+	private final int nextOrderNum;
+	// Order number of the active tab, or 0 if none was active.
+	private final int activeNum;
+	// Order numbers of the open tabs, and four ints per line of each: type, config, quantity, cents.
+	private final int[] tabNumbers;
+	private final int[][] tabLines;
+	// Null when the stored orders live in a durable archive.
+	private final OrderArchive archive;
+
+	private SessionSnapshot(int nextOrderNum, int activeNum, int[] tabNumbers, int[][] tabLines, OrderArchive archive) {
+		this.nextOrderNum = nextOrderNum;
+		this.activeNum = activeNum;
+		this.tabNumbers = tabNumbers;
+		this.tabLines = tabLines;
+		this.archive = archive;
+	}
+
+	/**
+	 * Captures a session with a single order in progress. Must be called on the thread that
+	 * edits the store and the order; the returned snapshot can then be written from any thread.
+	 *
+	 * @param store the stored orders.
+	 * @param current the order being built, or null.
+	 * @return the snapshot.
+	 */
+	public static SessionSnapshot capture(StoredOrder store, Order current) {
+		OrderArchive stored = store.getArchive().isDurable() ? null : store.snapshot();
+		if (current == null) {
+			return new SessionSnapshot(store.getNextOrderNumber(), 0, new int[0], new int[0][], stored);
+		}
+		return new SessionSnapshot(store.getNextOrderNumber(), current.getNumber(), new int[] {current.getNumber()},
+				new int[][] {OpenTabs.lineRecords(current)}, stored);
+	}
+
+	/**
+	 * Captures the current session. Must be called on the thread that edits the store and
+	 * the tabs; the returned snapshot can then be written from any thread. Parked tabs are
+	 * taken as they are, only the active one is packed.
+	 *
+	 * @param store the stored orders.
+	 * @param tabs the open tabs.
+	 * @return the snapshot.
+	 */
+	public static SessionSnapshot capture(StoredOrder store, OpenTabs tabs) {
+		int[] numbers = tabs.getNumbers();
+		int[][] lines = new int[numbers.length][];
+		for (int slot = 0; slot < numbers.length; slot++) {
+			lines[slot] = tabs.lineRecords(slot);
+		}
+		Order active = tabs.getActive();
+		OrderArchive stored = store.getArchive().isDurable() ? null : store.snapshot();
+		return new SessionSnapshot(store.getNextOrderNumber(), active == null ? 0 : active.getNumber(), numbers, lines, stored);
+	}
+
+	/**
+	 * Returns the next order number at the time of the snapshot.
+	 *
+	 * @return the next order number.
+	 */
+	public int getNextOrderNumber() {
+		return nextOrderNum;
+	}
+
+	/**
+	 * Rebuilds the order of the tab that was active when the snapshot was taken.
+	 *
+	 * @return the order, or null if no tab was active.
+	 */
+	public Order getCurrentOrder() {
+		for (int slot = 0; slot < tabNumbers.length; slot++) {
+			if (tabNumbers[slot] == activeNum) {
+				return OpenTabs.unpack(activeNum, tabLines[slot]);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reopens the tabs that were open when the snapshot was taken, parked, with the one
+	 * that was active active again. The tabs are not recorded yet.
+	 *
+	 * @param maxTabs the most tabs that can be open at once.
+	 * @param maxLines the most lines an order can hold while it is a tab.
+	 * @param maxSteps the most edits of the active tab that can be undone.
+	 * @return the tabs.
+	 */
+	public OpenTabs reopenTabs(int maxTabs, int maxLines, int maxSteps) {
+		OpenTabs tabs = new OpenTabs(maxTabs, maxLines, maxSteps);
+		for (int slot = 0; slot < tabNumbers.length; slot++) {
+			tabs.addParked(tabNumbers[slot], tabLines[slot]);
+		}
+		if (activeNum != 0) {
+			tabs.switchTo(activeNum);
+		}
+		return tabs;
+	}
+
+	/**
+	 * Returns the stored orders captured in the snapshot.
+	 *
+	 * @return the archive, or null if the stored orders were already durable.
+	 */
+	public OrderArchive getArchive() {
+		return archive;
+	}
+
+	/**
+	 * Restores the snapshot on top of a freshly opened store. If the store is durable it keeps
+	 * its own orders; otherwise the snapshot's orders are loaded into a new in-memory store.
+	 * Either way numbering continues after the snapshot's next order number.
+	 *
+	 * @param opened the store opened at startup.
+	 * @return the store to use for the session.
+	 */
+	public StoredOrder restore(StoredOrder opened) {
+		StoredOrder store = opened;
+		if (archive != null && !opened.getArchive().isDurable()) {
+			store = new StoredOrder(archive instanceof ColumnarOrderArchive ? archive : ColumnarOrderArchive.copyOf(archive));
+		}
+		store.advanceOrderNumber(nextOrderNum);
+		return store;
+	}
+
+	/**
+	 * Writes the snapshot to a file. The file is replaced atomically, so a crash while
+	 * writing leaves the previous snapshot in place.
+	 *
+	 * @param file the snapshot file.
+	 * @throws IOException if the snapshot cannot be written.
+	 */
+	public void write(Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(nextOrderNum);
+			out.writeInt(activeNum);
+			out.writeInt(tabNumbers.length);
+			for (int slot = 0; slot < tabNumbers.length; slot++) {
+				out.writeInt(tabNumbers[slot]);
+				out.writeInt(tabLines[slot].length / OpenTabs.LINE);
+				for (int value : tabLines[slot]) {
+					out.writeInt(value);
+				}
+			}
+			out.writeBoolean(archive != null);
+			if (archive != null) {
+				int orders = archive.orderCount();
+				int lineTotal = 0;
+				for (int slot = 0; slot < orders; slot++) {
+					lineTotal += archive.lineCount(slot);
+				}
+				out.writeInt(orders);
+				out.writeInt(lineTotal);
+				for (int slot = 0; slot < orders; slot++) {
+					out.writeInt(archive.orderNumber(slot));
+					out.writeInt(archive.lineCount(slot));
+				}
+				for (int slot = 0; slot < orders; slot++) {
+					int first = archive.firstLine(slot);
+					for (int line = first; line < first + archive.lineCount(slot); line++) {
+						out.writeInt(archive.itemType(line));
+						out.writeInt(archive.config(line));
+						out.writeInt(archive.quantity(line));
+						out.writeInt(archive.cents(line));
+					}
+				}
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a snapshot written by write().
+	 *
+	 * @param file the snapshot file.
+	 * @return the snapshot.
+	 * @throws IOException if the file cannot be read or is not a session snapshot.
+	 */
+	public static SessionSnapshot read(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+			int version = in.readInt() == MAGIC ? in.readInt() : -1;
+			if (version != 1 && version != VERSION) {
+				throw new IOException(file + " is not a session snapshot");
+			}
+			int next = in.readInt();
+			int activeNum = in.readInt();
+			int[] tabs;
+			int[][] lines;
+			if (version == 1) {
+				// The single order in progress, as the active tab.
+				tabs = activeNum == 0 ? new int[0] : new int[] {activeNum};
+				lines = new int[tabs.length][];
+				int[] current = readLines(in);
+				if (tabs.length > 0) {
+					lines[0] = current;
+				}
+			} else {
+				tabs = new int[in.readInt()];
+				lines = new int[tabs.length][];
+				for (int slot = 0; slot < tabs.length; slot++) {
+					tabs[slot] = in.readInt();
+					lines[slot] = readLines(in);
+				}
+			}
+			ColumnarOrderArchive stored = null;
+			if (in.readBoolean()) {
+				int orders = in.readInt();
+				int lineTotal = in.readInt();
+				int[] numbers = new int[orders];
+				int[] counts = new int[orders];
+				for (int slot = 0; slot < orders; slot++) {
+					numbers[slot] = in.readInt();
+					counts[slot] = in.readInt();
+				}
+				stored = new ColumnarOrderArchive(Math.max(orders, 1), Math.max(lineTotal, 1));
+				for (int slot = 0; slot < orders; slot++) {
+					stored.appendRaw(numbers[slot], counts[slot]);
+					for (int i = 0; i < counts[slot]; i++) {
+						stored.setLine(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+					}
+				}
+			}
+			return new SessionSnapshot(next, activeNum, tabs, lines, stored);
+		}
+	}
+
+	private static int[] readLines(DataInputStream in) throws IOException {
+		int[] lines = new int[in.readInt() * OpenTabs.LINE];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = in.readInt();
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * StockListener.java
+ *
+ * Summary:
+ * Receives low-stock and sold-out events from an Inventory. Events are delivered on the thread that took
+ * the stock, which may be a background thread; listeners that touch the UI must hand off to
+ * the FX thread themselves.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+public interface StockListener {
+	/**
+	 * Called once each time an ingredient drops below its low-stock mark.
+	 *
+	 * @param ingredient the ingredient, e.g. "protein.SALMON".
+	 * @param remaining the stock left; 0 means it has run out.
+	 */
+	void lowStock(String ingredient, long remaining);
+
+	/**
+	 * Called when an ingredient runs out, and again when it is back in stock.
+	 *
+	 * @param ingredient the ingredient, e.g. "protein.SALMON".
+	 * @param available false if it has just run out, true if it is back.
+	 */
+	default void availabilityChanged(String ingredient, boolean available) {
+	}
+}
@@ -1,76 +1,407 @@
-package com.example.cs213project4.model;
-import java.util.ArrayList;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-public class StoredOrder 
-{
-	private ArrayList<Order> listOrders; 
-	private int nextOrderNum;
-    private Order order;
-	public StoredOrder()
-	{
-		this.listOrders = new ArrayList<>(); 
-		this.nextOrderNum = 1; 
-	}
-    public Order createNewOrder()
-    {
-        order = new Order(nextOrderNum++);
-        return order;
-    }
-    public void addOrder(Order order)
-    {
-        listOrders.add(order);
-    }
-    public ArrayList<Order> getOrders()
-    {
-        return listOrders;
-    }
-    public Order findOrder(int orderNum)
-    {
-        for(Order order : listOrders)
-        {
-            if(order.getNumber() == orderNum)
-            {
-                return order;
-            }
-        }
-        return null;
-    }
-    public boolean cancelOrder(int orderNum)
-    {
-        Order order = findOrder(orderNum);
-        if(order != null)
-        {
-            return listOrders.remove(order);
-        }
-        return false;
-    }
-    public boolean exportOrders(String filePath) {
-        try (PrintWriter write = new PrintWriter(new FileWriter(filePath))) {
-            for (Order order : listOrders) {
-                write.println("Order #" + order.getNumber());
-                write.println("----------------------------------------");
-
-                ArrayList<MenuItem> items = order.getItems();
-                if (items.isEmpty()) {
-                    write.println("No items in order.");
-                } else {
-                    for (int i = 0; i < items.size(); i++) {
-                        write.println((i + 1) + ". " + items.get(i));
-                    }
-                }
-
-                write.println("Subtotal: $" + String.format("%.2f", order.getTotalCost()));
-                write.println("Tax: $" + String.format("%.2f", order.getTax()));
-                write.println("Total: $" + String.format("%.2f", order.getTotal()));
-                write.println("========================================");
-                write.println();
-            }
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
-    }
-
-}
+package com.example.cs213project4.model;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+/**
+ * The placed orders of a terminal. All methods are synchronized, so orders placed
+ * locally and orders replicated from other terminals can be applied from different threads.
+ */
+public class StoredOrder
+{
+	private final OrderArchive archive;
+	private int nextOrderNum;
+	// Order numbers advance by this step, so each terminal keeps to its own numbers.
+	private int numberStep = 1;
+    private Order order;
+    private final List<OrderListener> listeners = new CopyOnWriteArrayList<>();
+    // Gets back the stock of cancelled orders; null when stock is not tracked.
+    private volatile Inventory inventory;
+    // Numbers of the orders placed with placeOrder() that took their stock from inventory;
+    // only these give it back when cancelled.
+    private final IntIndex stocked = new IntIndex(64);
+    // Numbers of orders whose cancellation was replicated before the order itself, so the
+    // order is not added when it arrives. An entry is dropped once its order has arrived;
+    // the replicator never applies a batch twice, so the order does not come again.
+    private final IntIndex cancelled = new IntIndex(16);
+    // The most early cancellations remembered; past it they are forgotten, like a cache.
+    static final int CANCELLED_LIMIT = 1 << 12;
+	public StoredOrder()
+	{
+		this(new ColumnarOrderArchive());
+	}
+    /**
+     * Creates a store on top of an existing archive. Order numbering continues
+     * after the highest order number already in the archive.
+     *
+     * @param archive the archive that placed orders migrate into.
+     */
+    public StoredOrder(OrderArchive archive)
+    {
+        this.archive = archive;
+        this.nextOrderNum = archive.maxOrderNumber() + 1;
+    }
+    /**
+     * Gives this terminal its own range of order numbers when several terminals share
+     * orders: terminal t of n uses t, t + n, t + 2n, and so on, so two terminals never
+     * hand out the same number.
+     *
+     * @param terminal this terminal's id, from 1 to terminals.
+     * @param terminals the number of terminals.
+     */
+    public synchronized void setNumbering(int terminal, int terminals)
+    {
+        if (terminal < 1 || terminal > terminals)
+        {
+            throw new IllegalArgumentException("Terminal " + terminal + " is not in 1.." + terminals);
+        }
+        int next = nextOrderNum;
+        numberStep = terminals;
+        nextOrderNum = terminal;
+        advanceOrderNumber(next);
+    }
+    public synchronized Order createNewOrder()
+    {
+        order = new Order(nextOrderNum);
+        nextOrderNum += numberStep;
+        return order;
+    }
+    /**
+     * Returns the number the next created order will get.
+     *
+     * @return the next order number.
+     */
+    public synchronized int getNextOrderNumber()
+    {
+        return nextOrderNum;
+    }
+    /**
+     * Moves order numbering forward so the next created order gets at least the given number.
+     * Numbering never moves backwards and stays within this terminal's range.
+     *
+     * @param next the lowest number the next order may get.
+     */
+    public synchronized void advanceOrderNumber(int next)
+    {
+        if (next > nextOrderNum)
+        {
+            nextOrderNum += (next - nextOrderNum + numberStep - 1) / numberStep * numberStep;
+        }
+    }
+    /**
+     * Registers a listener for orders placed or cancelled on this terminal.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(OrderListener listener)
+    {
+        listeners.add(listener);
+    }
+    /**
+     * Removes a listener added with addListener().
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeListener(OrderListener listener)
+    {
+        listeners.remove(listener);
+    }
+    /**
+     * Places an order made at this terminal: takes the ingredients it needs from the
+     * inventory, all or nothing, then adds it. The order gives its stock back if it is
+     * cancelled, or if adding it fails. Taking the stock does not hold up the store.
+     *
+     * @param order the order to place.
+     * @return the ingredients that ran short; empty if the order was placed.
+     */
+    public List<String> placeOrder(Order order)
+    {
+        Inventory stock = inventory;
+        List<String> shortages = stock == null ? List.of() : stock.take(order);
+        if (!shortages.isEmpty())
+        {
+            return shortages;
+        }
+        synchronized (this)
+        {
+            try
+            {
+                if (stock != null && stock == inventory)
+                {
+                    stocked.put(order.getNumber(), 0);
+                }
+                addOrder(order);
+            }
+            catch (RuntimeException e)
+            {
+                // Unless the order made it into the archive, it never took anything.
+                if (archive.find(order.getNumber()) < 0)
+                {
+                    stocked.remove(order.getNumber());
+                    if (stock != null)
+                    {
+                        stock.restore(order);
+                    }
+                }
+                throw e;
+            }
+        }
+        return shortages;
+    }
+    /**
+     * Adds an order that took no stock, such as one ingested, simulated or replicated;
+     * cancelling it gives nothing back.
+     *
+     * @param order the order to add.
+     */
+    public synchronized void addOrder(Order order)
+    {
+        order.applyPromotions();
+        archive.append(order);
+        for (OrderListener listener : listeners)
+        {
+            listener.placed(order);
+        }
+    }
+    /**
+     * Adds a batch of orders, such as orders imported from a file. Orders whose number is
+     * already in the store are skipped, and numbering moves past the highest number added.
+     *
+     * @param orders the orders to add.
+     * @return the number of orders added.
+     */
+    public synchronized int addOrders(List<Order> orders)
+    {
+        int added = 0;
+        for (Order placed : orders)
+        {
+            if (archive.find(placed.getNumber()) < 0)
+            {
+                archive.append(placed);
+                advanceOrderNumber(placed.getNumber() + 1);
+                added++;
+            }
+        }
+        return added;
+    }
+    /**
+     * Applies an order placed on another terminal. Listeners are not told, so the order
+     * is not replicated back. An order that is already stored, or whose cancellation came
+     * first, is ignored.
+     *
+     * @param placed the replicated order.
+     */
+    synchronized void addReplicated(Order placed)
+    {
+        if (cancelled.remove(placed.getNumber()) < 0 && archive.find(placed.getNumber()) < 0)
+        {
+            archive.append(placed);
+            advanceOrderNumber(placed.getNumber() + 1);
+        }
+    }
+    /**
+     * Applies a cancellation made on another terminal, without telling listeners. The
+     * cancellation may arrive before the order itself, relayed by a third terminal; then
+     * the number is remembered until the order arrives, so it is not added.
+     *
+     * @param orderNum the cancelled order number.
+     */
+    synchronized void cancelReplicated(int orderNum)
+    {
+        Order taken = stockedOrder(orderNum);
+        if (!archive.remove(orderNum))
+        {
+            if (cancelled.size() >= CANCELLED_LIMIT)
+            {
+                cancelled.clear();
+            }
+            cancelled.put(orderNum, 0);
+        }
+        else if (taken != null)
+        {
+            inventory.restore(taken);
+        }
+    }
+    /**
+     * Returns how many replicated cancellations are waiting for their order to arrive.
+     *
+     * @return the number of early cancellations remembered.
+     */
+    synchronized int getEarlyCancellations()
+    {
+        return cancelled.size();
+    }
+    /**
+     * Returns a read-only view of the placed orders. Each Order is rebuilt from
+     * the archive when it is read, so the view holds no order objects itself.
+     *
+     * @return a list view over the archive.
+     */
+    public List<Order> getOrders()
+    {
+        return new AbstractList<>()
+        {
+            @Override
+            public Order get(int index)
+            {
+                synchronized (StoredOrder.this)
+                {
+                    return archive.materialize(index);
+                }
+            }
+            @Override
+            public int size()
+            {
+                synchronized (StoredOrder.this)
+                {
+                    return archive.orderCount();
+                }
+            }
+        };
+    }
+    /**
+     * Returns the archive backing this store, for scans that read its columns directly.
+     * Callers that may run alongside other threads should synchronize on the store.
+     *
+     * @return the order archive.
+     */
+    public OrderArchive getArchive()
+    {
+        return archive;
+    }
+    public synchronized Order findOrder(int orderNum)
+    {
+        int slot = archive.find(orderNum);
+        return slot < 0 ? null : archive.materialize(slot);
+    }
+    /**
+     * Sets the inventory placeOrder() takes stock from and cancelled orders give it back to.
+     *
+     * @param inventory the inventory, or null to stop tracking stock.
+     */
+    public synchronized void setInventory(Inventory inventory)
+    {
+        this.inventory = inventory;
+        // Stock taken from another inventory can't be given back to this one.
+        stocked.clear();
+    }
+    /**
+     * Cancels an order. Only an order placed with placeOrder() gives its stock back.
+     *
+     * @param orderNum the order number.
+     * @return false if the order is not stored.
+     */
+    public synchronized boolean cancelOrder(int orderNum)
+    {
+        Order taken = stockedOrder(orderNum);
+        if (!archive.remove(orderNum))
+        {
+            return false;
+        }
+        if (taken != null)
+        {
+            inventory.restore(taken);
+        }
+        for (OrderListener listener : listeners)
+        {
+            listener.cancelled(orderNum);
+        }
+        return true;
+    }
+    /**
+     * Returns a stored order that took stock, forgetting that it did, or null if it took none.
+     */
+    private Order stockedOrder(int orderNum)
+    {
+        if (inventory == null || stocked.remove(orderNum) < 0)
+        {
+            return null;
+        }
+        return findOrder(orderNum);
+    }
+    public synchronized boolean exportOrders(String filePath) {
+        return exportOrders(archive, filePath);
+    }
+    /**
+     * Exports the stored orders as CSV, one line item per row, in the format read by OrderImporter.
+     *
+     * @param filePath the file to write.
+     * @return true if the export succeeded.
+     */
+    public synchronized boolean exportCsv(String filePath) {
+        return exportCsv(archive, filePath);
+    }
+    /**
+     * Returns a read-only copy of the placed orders as they are now, so they can be
+     * exported on another thread without holding up the store.
+     *
+     * @return a snapshot of the archive.
+     */
+    public synchronized OrderArchive snapshot()
+    {
+        return archive.snapshot();
+    }
+    /**
+     * Writes the orders of an archive as a text report, in the format of exportOrders().
+     *
+     * @param orders the orders to export, typically a snapshot().
+     * @param filePath the file to write.
+     * @return true if the export succeeded.
+     */
+    public static boolean exportOrders(OrderArchive orders, String filePath) {
+        try (PrintWriter write = new PrintWriter(new FileWriter(filePath))) {
+            for (int slot = 0; slot < orders.orderCount(); slot++) {
+                write.println("Order #" + orders.orderNumber(slot));
+                write.println("----------------------------------------");
+
+                int first = orders.firstLine(slot);
+                int count = orders.lineCount(slot);
+                if (count == 0) {
+                    write.println("No items in order.");
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        write.println((i + 1) + ". " + orders.item(first + i));
+                    }
+                }
+
+                double subtotal = orders.subtotalCents(slot) / 100.0;
+                double tax = subtotal * Order.TAX;
+                write.println("Subtotal: $" + String.format("%.2f", subtotal));
+                write.println("Tax: $" + String.format("%.2f", tax));
+                write.println("Total: $" + String.format("%.2f", subtotal + tax));
+                write.println("========================================");
+                write.println();
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    /**
+     * Writes the orders of an archive as CSV, in the format of exportCsv().
+     *
+     * @param orders the orders to export, typically a snapshot().
+     * @param filePath the file to write.
+     * @return true if the export succeeded.
+     */
+    public static boolean exportCsv(OrderArchive orders, String filePath) {
+        try (PrintWriter write = new PrintWriter(new FileWriter(filePath))) {
+            StringBuilder row = new StringBuilder(128);
+            write.println(OrderImporter.CSV_HEADER);
+            for (int slot = 0; slot < orders.orderCount(); slot++) {
+                int first = orders.firstLine(slot);
+                for (int line = first; line < first + orders.lineCount(slot); line++) {
+                    row.setLength(0);
+                    OrderImporter.appendCsv(row, orders.orderNumber(slot), orders.item(line));
+                    write.append(row);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,357 @@
+/**
+ * TrafficSimulator.java
+ *
+ * Summary:
+ * Headless rush-hour load for the model. A number of threads act as registers: each builds
+ * random orders the way the ordering views do (createNewOrder, addItem, getTotal), places
+ * them into a shared StoredOrder and cancels a share of its recent orders. What gets ordered
+ * follows configurable weights over the item kinds, Protein, Flavor and SideOption, a chance
+ * for each AddOn, and quantities from 1 to 10. Building, placing and cancelling are timed
+ * separately and reported as throughput and latency percentiles.
+ *
+ * Authors:
+ * Anirudh Deveram
+ * Karthik Penumetch
+ */
+
+package com.example.cs213project4.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+public class TrafficSimulator {
+	// Indexes into the item kind weights.
+	private static final int SANDWICH = 0;
+	private static final int BURGER = 1;
+	private static final int BEVERAGE = 2;
+	private static final int SIDE = 3;
+	private static final int COMBO = 4;
+
+	private static final Bread[] BREADS = Bread.values();
+	private static final Protein[] PROTEINS = Protein.values();
+	private static final AddOns[] ADDONS = AddOns.values();
+	private static final Size[] SIZES = Size.values();
+	private static final Flavor[] FLAVORS = Flavor.values();
+	private static final SideOption[] SIDE_OPTIONS = SideOption.values();
+
+	// Cumulative weights, so a draw is one uniform double and a short scan.
+	private double[] kinds = cumulative(new double[] {3, 3, 2, 2, 2});
+	// Beef patty only comes on burgers.
+	private double[] proteins = cumulative(new double[] {1, 1, 1, 0});
+	private double[] flavors = cumulative(uniform(FLAVORS.length));
+	private double[] sideOptions = cumulative(uniform(SIDE_OPTIONS.length));
+	private double addOnChance = 0.3;
+	private double doublePattyChance = 0.25;
+	private double cancelRate = 0.05;
+	private int maxItems = 6;
+	private int maxQuantity = 10;
+	private long seed = 42;
+
+	/**
+	 * Sets the relative weights of the item kinds.
+	 *
+	 * @param sandwich weight of sandwiches.
+	 * @param burger weight of burgers.
+	 * @param beverage weight of beverages.
+	 * @param side weight of sides.
+	 * @param combo weight of combos.
+	 */
+	public void setKindWeights(double sandwich, double burger, double beverage, double side, double combo) {
+		kinds = cumulative(new double[] {sandwich, burger, beverage, side, combo});
+	}
+
+	/**
+	 * Sets the relative weights of each Protein, in enum order.
+	 *
+	 * @param weights one weight per protein.
+	 */
+	public void setProteinWeights(double... weights) {
+		proteins = cumulative(checkLength(weights, PROTEINS.length, "Protein"));
+	}
+
+	/**
+	 * Sets the relative weights of each Flavor, in enum order.
+	 *
+	 * @param weights one weight per flavor.
+	 */
+	public void setFlavorWeights(double... weights) {
+		flavors = cumulative(checkLength(weights, FLAVORS.length, "Flavor"));
+	}
+
+	/**
+	 * Sets the relative weights of each SideOption, in enum order.
+	 *
+	 * @param weights one weight per side option.
+	 */
+	public void setSideWeights(double... weights) {
+		sideOptions = cumulative(checkLength(weights, SIDE_OPTIONS.length, "SideOption"));
+	}
+
+	/**
+	 * Sets the chance that a sandwich or burger gets each add-on.
+	 *
+	 * @param chance the chance per add-on, from 0 to 1.
+	 */
+	public void setAddOnChance(double chance) {
+		addOnChance = chance;
+	}
+
+	/**
+	 * Sets the chance that a burger has a double patty.
+	 *
+	 * @param chance the chance, from 0 to 1.
+	 */
+	public void setDoublePattyChance(double chance) {
+		doublePattyChance = chance;
+	}
+
+	/**
+	 * Sets the share of placed orders that are later cancelled.
+	 *
+	 * @param rate the cancel rate, from 0 to 1.
+	 */
+	public void setCancelRate(double rate) {
+		cancelRate = rate;
+	}
+
+	/**
+	 * Sets the most items in one order and the highest quantity of one item.
+	 *
+	 * @param items the most items per order.
+	 * @param quantity the highest quantity, at most 10.
+	 */
+	public void setLimits(int items, int quantity) {
+		maxItems = items;
+		maxQuantity = quantity;
+	}
+
+	/**
+	 * Sets the random seed; each thread derives its own stream from it.
+	 *
+	 * @param seed the seed.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * The outcome of a simulation.
+	 *
+	 * @param placed orders placed.
+	 * @param cancelled orders cancelled.
+	 * @param elapsedNanos wall time of the run.
+	 * @param build time to build and price each order.
+	 * @param place time to place each order.
+	 * @param cancel time to cancel each cancelled order.
+	 */
+	public record Report(long placed, long cancelled, long elapsedNanos,
+						 LatencyHistogram build, LatencyHistogram place, LatencyHistogram cancel) {
+		/**
+		 * Returns the placed orders per second.
+		 *
+		 * @return the throughput.
+		 */
+		public double ordersPerSecond() {
+			return placed * 1e9 / Math.max(elapsedNanos, 1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d placed, %d cancelled in %.2fs: %.0f orders/s%nbuild  %s%nplace  %s%ncancel %s",
+					placed, cancelled, elapsedNanos / 1e9, ordersPerSecond(),
+					build.summary(), place.summary(), cancel.summary());
+		}
+	}
+
+	/**
+	 * Runs the simulation: every thread places the given number of orders into the store.
+	 *
+	 * @param store the store to load.
+	 * @param threads the number of registers.
+	 * @param ordersPerThread the orders each register places.
+	 * @return the report.
+	 * @throws InterruptedException if interrupted while waiting for the threads.
+	 */
+	public Report run(StoredOrder store, int threads, int ordersPerThread) throws InterruptedException {
+		Report[] reports = new Report[threads];
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch go = new CountDownLatch(1);
+		List<Thread> registers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int id = t;
+			Thread thread = new Thread(() -> {
+				ready.countDown();
+				try {
+					go.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				reports[id] = register(store, ordersPerThread, new SplittableRandom(seed + id));
+			}, "register-" + t);
+			registers.add(thread);
+			thread.start();
+		}
+		ready.await();
+		long start = System.nanoTime();
+		go.countDown();
+		for (Thread thread : registers) {
+			thread.join();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		LatencyHistogram build = new LatencyHistogram();
+		LatencyHistogram place = new LatencyHistogram();
+		LatencyHistogram cancel = new LatencyHistogram();
+		long placed = 0;
+		long cancelled = 0;
+		for (Report report : reports) {
+			build.merge(report.build());
+			place.merge(report.place());
+			cancel.merge(report.cancel());
+			placed += report.placed();
+			cancelled += report.cancelled();
+		}
+		return new Report(placed, cancelled, elapsed, build, place, cancel);
+	}
+
+	/**
+	 * One register: builds, places and sometimes cancels orders.
+	 */
+	private Report register(StoredOrder store, int orders, SplittableRandom random) {
+		LatencyHistogram build = new LatencyHistogram();
+		LatencyHistogram place = new LatencyHistogram();
+		LatencyHistogram cancel = new LatencyHistogram();
+		// Recent orders of this register that may still be cancelled.
+		int[] recent = new int[64];
+		int recentCount = 0;
+		long cancelled = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < orders; i++) {
+			long t0 = System.nanoTime();
+			Order order = store.createNewOrder();
+			int items = 1 + random.nextInt(maxItems);
+			for (int j = 0; j < items; j++) {
+				order.addItem(randomItem(random));
+			}
+			order.getTotal();
+			long t1 = System.nanoTime();
+			store.addOrder(order);
+			long t2 = System.nanoTime();
+			build.record(t1 - t0);
+			place.record(t2 - t1);
+
+			if (recentCount == recent.length) {
+				recentCount--;
+				System.arraycopy(recent, 1, recent, 0, recentCount);
+			}
+			recent[recentCount++] = order.getNumber();
+			if (random.nextDouble() < cancelRate) {
+				int pick = random.nextInt(recentCount);
+				int number = recent[pick];
+				recent[pick] = recent[--recentCount];
+				long t3 = System.nanoTime();
+				if (store.cancelOrder(number)) {
+					cancelled++;
+				}
+				cancel.record(System.nanoTime() - t3);
+			}
+		}
+		return new Report(orders, cancelled, System.nanoTime() - start, build, place, cancel);
+	}
+
+	/**
+	 * Builds one random menu item following the configured weights.
+	 *
+	 * @param random the source of randomness.
+	 * @return the item.
+	 */
+	MenuItem randomItem(SplittableRandom random) {
+		MenuItem item = switch (pick(kinds, random)) {
+			case SANDWICH -> randomSandwich(random, false);
+			case BURGER -> randomSandwich(random, true);
+			case BEVERAGE -> new Beverage(SIZES[random.nextInt(SIZES.length)], FLAVORS[pick(flavors, random)]);
+			case SIDE -> new Side(SIZES[random.nextInt(SIZES.length)], SIDE_OPTIONS[pick(sideOptions, random)]);
+			default -> new Combo(randomSandwich(random, random.nextBoolean()),
+					new Beverage(Size.MEDIUM, FLAVORS[pick(flavors, random)]),
+					new Side(Size.SMALL, SIDE_OPTIONS[pick(sideOptions, random)]));
+		};
+		item.setQuantity(1 + random.nextInt(maxQuantity));
+		return item;
+	}
+
+	private Sandwich randomSandwich(SplittableRandom random, boolean burger) {
+		Bread bread = BREADS[random.nextInt(BREADS.length)];
+		Sandwich sandwich = burger
+				? new Burger(bread, random.nextDouble() < doublePattyChance)
+				: new Sandwich(bread, PROTEINS[pick(proteins, random)]);
+		for (AddOns extra : ADDONS) {
+			if (random.nextDouble() < addOnChance) {
+				sandwich.addAddOns(extra);
+			}
+		}
+		return sandwich;
+	}
+
+	private static int pick(double[] cumulative, SplittableRandom random) {
+		double draw = random.nextDouble() * cumulative[cumulative.length - 1];
+		for (int i = 0; i < cumulative.length - 1; i++) {
+			if (draw < cumulative[i]) {
+				return i;
+			}
+		}
+		return cumulative.length - 1;
+	}
+
+	private static double[] cumulative(double[] weights) {
+		double[] sums = new double[weights.length];
+		double sum = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] < 0) {
+				throw new IllegalArgumentException("Negative weight " + weights[i]);
+			}
+			sum += weights[i];
+			sums[i] = sum;
+		}
+		if (sum <= 0) {
+			throw new IllegalArgumentException("At least one weight must be positive");
+		}
+		return sums;
+	}
+
+	private static double[] uniform(int length) {
+		double[] weights = new double[length];
+		Arrays.fill(weights, 1);
+		return weights;
+	}
+
+	private static double[] checkLength(double[] weights, int length, String name) {
+		if (weights.length != length) {
+			throw new IllegalArgumentException("Expected " + length + " " + name + " weights, got " + weights.length);
+		}
+		return weights;
+	}
+
+	/**
+	 * Runs a simulation against an in-memory store and prints the report.
+	 *
+	 * Arguments: [threads [orders per thread [cancel rate]]].
+	 *
+	 * @param args the command-line arguments.
+	 * @throws InterruptedException if interrupted.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int orders = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+		TrafficSimulator simulator = new TrafficSimulator();
+		if (args.length > 2) {
+			simulator.setCancelRate(Double.parseDouble(args[2]));
+		}
+		StoredOrder store = new StoredOrder();
+		Report report = simulator.run(store, threads, orders);
+		System.out.println(report);
+		System.out.println(store.getOrders().size() + " orders stored");
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for the Coalescer class.
+ */
+public class CoalescerTest {
+
+    /**
+     * Test case 1: Many requests before the scheduled run give one update, made with the latest
+     * state, and the next request schedules a new run.
+     */
+    @Test
+    public void testRequestsCollapseIntoOneRun() {
+        List<Runnable> pulse = new ArrayList<>();
+        Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.CHICKEN);
+        int[] quantity = {1};
+        Coalescer refresh = new Coalescer(pulse::add, () -> sandwich.setQuantity(quantity[0]));
+        int version = sandwich.getVersion();
+        for (int i = 2; i <= 10; i++) {
+            quantity[0] = i;
+            refresh.request();
+        }
+        assertEquals(1, pulse.size());
+        assertEquals(version, sandwich.getVersion());
+
+        pulse.remove(0).run();
+        assertEquals(10, sandwich.getQuantity());
+        assertEquals(version + 1, sandwich.getVersion());
+        assertEquals(9, refresh.getRequests());
+        assertEquals(1, refresh.getRuns());
+
+        refresh.request();
+        assertEquals(1, pulse.size());
+    }
+
+    /**
+     * Test case 2: flush() applies a pending update at once, and the scheduled run then does nothing.
+     */
+    @Test
+    public void testFlushRunsPendingUpdate() {
+        List<Runnable> pulse = new ArrayList<>();
+        int[] runs = new int[1];
+        Coalescer refresh = new Coalescer(pulse::add, () -> runs[0]++);
+        refresh.flush();
+        assertEquals(0, runs[0]);
+        refresh.request();
+        refresh.flush();
+        assertEquals(1, runs[0]);
+        pulse.remove(0).run();
+        assertEquals(1, runs[0]);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the EditLog and EditJournal classes.
+ */
+public class EditLogTest {
+
+    /**
+     * Test case 1: Adds, merges and removals undo back to the order as it was, line for line
+     * and with the same line IDs, and redo brings them back; a new edit drops the redo history.
+     */
+    @Test
+    public void testUndoRedoLines() {
+        Order order = new Order(1);
+        EditLog log = EditLog.attach(order, null);
+        int burger = order.addItem(new Burger(Bread.BRIOCHE, false));
+        int drink = order.addItem(new Beverage(Size.LARGE, Flavor.COLA));
+        int side = order.addItem(new Side(Size.SMALL, SideOption.FRIES));
+        order.addItem(new Burger(Bread.BRIOCHE, false));
+        order.removeLine(drink);
+        List<String> edited = lines(order);
+        assertEquals(5, log.getUndoCount());
+
+        assertTrue(log.undo());
+        assertEquals(3, order.getItems().size());
+        assertEquals("Large Cola $2.99", order.getItems().get(1).toString());
+        assertEquals(drink, order.getLineId(1));
+        assertTrue(log.undo());
+        assertEquals(1, order.getLine(burger).getQuantity());
+        while (log.undo()) {
+            // Back to the empty order.
+        }
+        assertEquals(0, order.getItems().size());
+        assertEquals(0, order.getTotalCost(), 0.001);
+
+        while (log.redo()) {
+            // Forward to the edited order.
+        }
+        assertEquals(edited, lines(order));
+        assertEquals(side, order.getLineId(1));
+
+        log.undo();
+        order.addItem(new Side(Size.LARGE, SideOption.CHIPS));
+        assertFalse(log.canRedo());
+        assertEquals(4, order.getItems().size());
+    }
+
+    /**
+     * Test case 2: Undoing a clear puts back the very same items rather than copies, after the
+     * edits made since the clear are undone, and redoing it clears them again.
+     */
+    @Test
+    public void testUndoClearSharesLines() {
+        Order order = new Order(1);
+        EditLog log = EditLog.attach(order, null);
+        for (int i = 0; i < 3000; i++) {
+            Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.SALMON);
+            sandwich.setName("Tray " + i);
+            order.addItem(sandwich);
+        }
+        List<MenuItem> before = new ArrayList<>(order.getItems());
+        order.eradicateAllItems();
+        assertEquals(0, order.getItems().size());
+        order.addItem(new Beverage(Size.SMALL, Flavor.LEMONADE));
+
+        log.undo();
+        log.undo();
+        assertEquals(3000, order.getItems().size());
+        for (int i = 0; i < before.size(); i++) {
+            assertSame(before.get(i), order.getItems().get(i));
+        }
+        assertEquals(3000 * before.get(0).cost(), order.getTotalCost(), 0.01);
+
+        log.redo();
+        assertEquals(0, order.getItems().size());
+        log.redo();
+        assertEquals(1, order.getItems().size());
+        assertEquals(Flavor.LEMONADE, ((Beverage) order.getItems().get(0)).getFlavor());
+    }
+
+    /**
+     * Test case 3: Replaying the journal on the order from the last snapshot rebuilds the order,
+     * undos included, and a checkpoint empties the journal once its snapshot is written.
+     */
+    @Test
+    public void testJournalReplays() throws IOException {
+        Path file = Files.createTempFile("edits", ".journal");
+        Files.delete(file);
+        try {
+            EditJournal journal = new EditJournal(file, Runnable::run);
+            Order order = new Order(7);
+            order.addItem(new Sandwich(Bread.BAGEL, Protein.CHICKEN));
+            EditLog log = EditLog.attach(order, journal);
+            order.addItem(new Side(Size.MEDIUM, SideOption.ONION_RINGS));
+            order.addItem(new Sandwich(Bread.BAGEL, Protein.CHICKEN));
+            int drink = order.addItem(new Beverage(Size.SMALL, Flavor.ICED_TEA));
+            order.removeLine(order.getLineId(0));
+            log.undo();
+            order.eradicateAllItems();
+            log.undo();
+            order.removeLine(drink);
+
+            Order snapshot = new Order(7);
+            snapshot.addItem(new Sandwich(Bread.BAGEL, Protein.CHICKEN));
+            Order replayed = EditJournal.replay(file, snapshot);
+            assertEquals(lines(order), lines(replayed));
+
+            // A new order starts after the placed one; the replay ends on it.
+            EditLog.attach(new Order(8), journal).getOrder().addItem(new Beverage(Size.LARGE, Flavor.GRAPE));
+            Order restarted = new Order(7);
+            restarted.addItem(new Sandwich(Bread.BAGEL, Protein.CHICKEN));
+            replayed = EditJournal.replay(file, restarted);
+            assertEquals(8, replayed.getNumber());
+            assertEquals(List.of("Large Grape $2.99"), lines(replayed));
+
+            boolean[] written = new boolean[1];
+            journal.checkpoint(() -> written[0] = true);
+            assertTrue(written[0]);
+            assertFalse(Files.exists(file));
+            assertSame(snapshot, EditJournal.replay(file, snapshot));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test case 4: Removals that compacted the order's lines away still undo to the right places.
+     */
+    @Test
+    public void testUndoAfterCompaction() {
+        Order order = new Order(1);
+        EditLog log = EditLog.attach(order, null);
+        for (int i = 0; i < 40; i++) {
+            Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.SALMON);
+            sandwich.setName("Tray " + i);
+            order.addItem(sandwich);
+        }
+        List<String> full = lines(order);
+        for (int i = 0; i < 35; i++) {
+            order.removeLine(order.getLineId((i * 7) % order.getItems().size()));
+        }
+        for (int i = 0; i < 35; i++) {
+            log.undo();
+        }
+        assertEquals(full, lines(order));
+        for (int i = 0; i < full.size(); i++) {
+            assertEquals(i, order.indexOfLine(order.getLineId(i)));
+        }
+    }
+
+    private static List<String> lines(Order order) {
+        List<String> lines = new ArrayList<>();
+        for (MenuItem item : order.getItems()) {
+            lines.add(item.toString());
+        }
+        return lines;
+    }
+}
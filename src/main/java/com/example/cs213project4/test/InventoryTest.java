@@ -0,0 +1,231 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the Inventory class.
+ */
+public class InventoryTest {
+
+    /**
+     * Test case 1: Stock files are parsed, untracked ingredients are unlimited, and bad lines are reported.
+     */
+    @Test
+    public void testParse() {
+        Inventory inventory = Inventory.parse(List.of(
+                "# morning delivery",
+                "protein.SALMON = 40",
+                "cups.LARGE = 100 20   # order more below 20"));
+        assertEquals(40, inventory.getStock("protein.SALMON"));
+        assertEquals(100, inventory.getStock("cups.LARGE"));
+        assertEquals(Long.MAX_VALUE, inventory.getStock("bread.BAGEL"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Inventory.parse(List.of("side.FRIES = 50", "protein.TOFU = 10")));
+        assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+        assertThrows(IllegalArgumentException.class, () -> Inventory.parse(List.of("side.FRIES = -1")));
+        assertThrows(IllegalArgumentException.class, () -> Inventory.parse(List.of("side.FRIES 50")));
+    }
+
+    /**
+     * Test case 2: An order the stock can't cover takes nothing, and cancelling a placed order gives its stock back,
+     * while cancelling an order that took no stock gives nothing back.
+     */
+    @Test
+    public void testTakeIsAllOrNothing() {
+        Inventory inventory = Inventory.parse(List.of("bread.BAGEL = 5", "protein.BEEF_PATTY = 3", "cups.MEDIUM = 10"));
+        StoredOrder store = new StoredOrder();
+        store.setInventory(inventory);
+
+        Order order = store.createNewOrder();
+        Burger burger = new Burger(Bread.BRIOCHE, true);
+        burger.setQuantity(2);
+        order.addItem(burger);
+        order.addItem(new Sandwich(Bread.BAGEL, Protein.CHICKEN));
+        assertEquals(List.of("protein.BEEF_PATTY"), store.placeOrder(order));
+        assertEquals(5, inventory.getStock("bread.BAGEL"));
+        assertEquals(3, inventory.getStock("protein.BEEF_PATTY"));
+        assertNull(store.findOrder(order.getNumber()));
+
+        burger.setQuantity(1);
+        order.addItem(new Combo(new Sandwich(Bread.BAGEL, Protein.SALMON), new Beverage(Size.SMALL, Flavor.COLA), new Side()));
+        assertEquals(List.of(), store.placeOrder(order));
+        assertEquals(3, inventory.getStock("bread.BAGEL"));
+        assertEquals(1, inventory.getStock("protein.BEEF_PATTY"));
+        assertEquals(9, inventory.getStock("cups.MEDIUM"));
+
+        Order ingested = store.createNewOrder();
+        ingested.addItem(new Sandwich(Bread.BAGEL, Protein.CHICKEN));
+        store.addOrder(ingested);
+        assertTrue(store.cancelOrder(ingested.getNumber()));
+        assertEquals(3, inventory.getStock("bread.BAGEL"));
+
+        assertTrue(store.cancelOrder(order.getNumber()));
+        assertEquals(5, inventory.getStock("bread.BAGEL"));
+        assertEquals(3, inventory.getStock("protein.BEEF_PATTY"));
+        assertEquals(10, inventory.getStock("cups.MEDIUM"));
+    }
+
+    /**
+     * Test case 3: Listeners hear once when an ingredient drops below its mark and again when it runs out.
+     */
+    @Test
+    public void testLowStockEvents() {
+        Inventory inventory = Inventory.parse(List.of("side.FRIES = 4 2"));
+        List<String> events = new ArrayList<>();
+        inventory.addListener((ingredient, remaining) -> events.add(ingredient + " " + remaining));
+        Order order = new Order(1);
+        order.addItem(new Side(Size.SMALL, SideOption.FRIES));
+        for (int n = 0; n < 5; n++) {
+            inventory.take(order);
+        }
+        assertEquals(List.of("side.FRIES 1", "side.FRIES 0"), events);
+    }
+
+    /**
+     * Test case 4: Registers placing orders at once never take more than the stock on hand.
+     */
+    @Test
+    public void testConcurrentTakes() throws InterruptedException {
+        Inventory inventory = Inventory.parse(List.of("bread.WHEAT = 1000", "protein.CHICKEN = 700"));
+        AtomicInteger placed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] registers = new Thread[8];
+        for (int t = 0; t < registers.length; t++) {
+            registers[t] = new Thread(() -> {
+                Order order = new Order(1);
+                order.addItem(new Sandwich(Bread.WHEAT, Protein.CHICKEN));
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int n = 0; n < 200; n++) {
+                    if (inventory.take(order).isEmpty()) {
+                        placed.incrementAndGet();
+                    }
+                }
+            });
+            registers[t].start();
+        }
+        start.countDown();
+        for (Thread register : registers) {
+            register.join();
+        }
+        assertEquals(700, placed.get());
+        assertEquals(0, inventory.getStock("protein.CHICKEN"));
+        assertEquals(300, inventory.getStock("bread.WHEAT"));
+    }
+
+    /**
+     * Test case 5: Sold-out changes are batched into one delivery until it runs, keeping only each ingredient's latest state.
+     */
+    @Test
+    public void testAvailabilityBatches() {
+        Inventory inventory = Inventory.parse(List.of("side.FRIES = 1", "cups.LARGE = 1"));
+        List<Runnable> queued = new ArrayList<>();
+        List<Map<String, Boolean>> batches = new ArrayList<>();
+        Availability availability = new Availability(queued::add, batches::add);
+        inventory.addListener(availability);
+
+        Order fries = new Order(1);
+        fries.addItem(new Side(Size.SMALL, SideOption.FRIES));
+        Order drink = new Order(2);
+        drink.addItem(new Beverage(Size.LARGE, Flavor.COLA));
+        for (int n = 0; n < 300; n++) {
+            assertEquals(List.of(), inventory.take(fries));
+            inventory.restore(fries);
+        }
+        assertEquals(List.of(), inventory.take(drink));
+        assertEquals(1, queued.size());
+
+        queued.remove(0).run();
+        assertEquals(List.of(Map.of("side.FRIES", true, "cups.LARGE", false)), batches);
+        assertEquals(1, availability.getFlushes());
+
+        inventory.setStock("cups.LARGE", 50, 5);
+        assertEquals(1, queued.size());
+        queued.remove(0).run();
+        assertEquals(Map.of("cups.LARGE", true), batches.get(1));
+        assertEquals("cups.LARGE", Inventory.ingredient(Size.LARGE));
+        assertThrows(IllegalArgumentException.class, () -> Inventory.ingredient(Flavor.COLA));
+    }
+
+    /**
+     * Test case 6: An order refused for one ingredient says nothing about the others it would have
+     * run low or out, even though they were taken before the shortage was found.
+     */
+    @Test
+    public void testRefusedOrderIsSilent() {
+        Inventory inventory = Inventory.parse(List.of("bread.BAGEL = 2 2", "cups.LARGE = 1"));
+        List<String> events = new ArrayList<>();
+        inventory.addListener(new StockListener() {
+            @Override
+            public void lowStock(String ingredient, long remaining) {
+                events.add(ingredient + " " + remaining);
+            }
+
+            @Override
+            public void availabilityChanged(String ingredient, boolean available) {
+                events.add(ingredient + (available ? " back" : " out"));
+            }
+        });
+        Sandwich sandwich = new Sandwich(Bread.BAGEL, Protein.CHICKEN);
+        sandwich.setQuantity(2);
+        Beverage drinks = new Beverage(Size.LARGE, Flavor.COLA);
+        drinks.setQuantity(2);
+        Order order = new Order(1);
+        order.addItem(sandwich);
+        order.addItem(drinks);
+        assertEquals(List.of("cups.LARGE"), inventory.take(order));
+        assertEquals(List.of(), events);
+        assertEquals(2, inventory.getStock("bread.BAGEL"));
+
+        drinks.setQuantity(1);
+        assertEquals(List.of(), inventory.take(order));
+        assertEquals(List.of("bread.BAGEL 0", "bread.BAGEL out", "cups.LARGE 0", "cups.LARGE out"), events);
+    }
+
+    /**
+     * Test case 7: An order whose stock was taken but that could not be stored gives the stock
+     * back, and is not treated as stocked afterwards.
+     */
+    @Test
+    public void testFailedPlaceGivesStockBack() {
+        Inventory inventory = Inventory.parse(List.of("bread.BAGEL = 5"));
+        boolean[] full = {true};
+        StoredOrder store = new StoredOrder(new ColumnarOrderArchive() {
+            @Override
+            public void append(Order order) {
+                if (full[0]) {
+                    throw new IllegalStateException("Archive is full");
+                }
+                super.append(order);
+            }
+        });
+        store.setInventory(inventory);
+
+        Order order = store.createNewOrder();
+        order.addItem(new Sandwich(Bread.BAGEL, Protein.CHICKEN));
+        assertThrows(IllegalStateException.class, () -> store.placeOrder(order));
+        assertEquals(5, inventory.getStock("bread.BAGEL"));
+        assertNull(store.findOrder(order.getNumber()));
+
+        // Added later without taking stock, it gives none back when cancelled.
+        full[0] = false;
+        store.addOrder(order);
+        assertTrue(store.cancelOrder(order.getNumber()));
+        assertEquals(5, inventory.getStock("bread.BAGEL"));
+    }
+}
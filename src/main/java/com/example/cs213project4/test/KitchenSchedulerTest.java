@@ -0,0 +1,115 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the KitchenScheduler and KitchenSimulator classes.
+ */
+public class KitchenSchedulerTest {
+
+    /**
+     * Test case 1: Prep estimates follow the item: a double patty takes longer than a single,
+     * fries longer than chips, and a combo as long as its parts.
+     */
+    @Test
+    public void testPrepEstimates() {
+        long single = KitchenScheduler.prepSeconds(new Burger(Bread.BRIOCHE, false));
+        long doubled = KitchenScheduler.prepSeconds(new Burger(Bread.BRIOCHE, true));
+        assertTrue(doubled > single);
+        long fries = KitchenScheduler.prepSeconds(new Side(Size.SMALL, SideOption.FRIES));
+        long chips = KitchenScheduler.prepSeconds(new Side(Size.SMALL, SideOption.CHIPS));
+        assertTrue(fries > chips);
+
+        Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.CHICKEN);
+        Beverage drink = new Beverage(Size.MEDIUM, Flavor.COLA);
+        Side side = new Side(Size.SMALL, SideOption.FRIES);
+        long parts = KitchenScheduler.prepSeconds(sandwich) + KitchenScheduler.prepSeconds(drink) + fries;
+        assertEquals(parts, KitchenScheduler.prepSeconds(new Combo(sandwich, drink, side)));
+    }
+
+    /**
+     * Test case 2: Behind a catering order, a single burger waits its turn under FIFO but goes
+     * next under SHORTEST_JOB; cancelled orders leave the kitchen.
+     */
+    @Test
+    public void testSmallOrderJumpsCatering() {
+        long fifo = burgerBehindCatering(KitchenScheduler.Policy.FIFO);
+        long shortest = burgerBehindCatering(KitchenScheduler.Policy.SHORTEST_JOB);
+        assertEquals(180 * 5, fifo);
+        assertEquals(180 + 180, shortest);
+
+        KitchenScheduler kitchen = new KitchenScheduler(KitchenScheduler.Policy.FIFO, 1, 1, 1);
+        kitchen.submit(catering(1), 0);
+        kitchen.submit(burger(2), 1);
+        kitchen.cancel(1);
+        assertEquals(-1, kitchen.expectedReady(1));
+        assertEquals(360, kitchen.expectedReady(2));
+        KitchenScheduler.Report report = kitchen.drain();
+        assertEquals(1, report.orders());
+        assertEquals(360, report.lastReady());
+    }
+
+    /**
+     * Test case 3: Under a steady stream of small orders, SHORTEST_JOB keeps a big order
+     * waiting until the stream ends, while EARLIEST_DEADLINE gets to it.
+     */
+    @Test
+    public void testDeadlinesPreventStarvation() {
+        long shortest = bigOrderUnderStream(KitchenScheduler.Policy.SHORTEST_JOB);
+        long deadline = bigOrderUnderStream(KitchenScheduler.Policy.EARLIEST_DEADLINE);
+        assertTrue(shortest > 30 * 180);
+        assertTrue(deadline < 3000);
+    }
+
+    /**
+     * Test case 4: On the same simulated rush, the priority policies serve more customers
+     * within the quoted time than FIFO.
+     */
+    @Test
+    public void testSimulatorBeatsFifo() {
+        KitchenSimulator simulator = new KitchenSimulator();
+        Map<KitchenScheduler.Policy, KitchenScheduler.Report> reports = simulator.run(1500);
+        long fifoLate = reports.get(KitchenScheduler.Policy.FIFO).late();
+        assertEquals(1500, reports.get(KitchenScheduler.Policy.FIFO).orders());
+        assertTrue(reports.get(KitchenScheduler.Policy.SHORTEST_JOB).late() < fifoLate);
+        assertTrue(reports.get(KitchenScheduler.Policy.EARLIEST_DEADLINE).late() < fifoLate);
+    }
+
+    private static long burgerBehindCatering(KitchenScheduler.Policy policy) {
+        KitchenScheduler kitchen = new KitchenScheduler(policy, 1, 1, 1);
+        kitchen.submit(catering(1), 0);
+        kitchen.submit(burger(2), 1);
+        return kitchen.expectedReady(2);
+    }
+
+    private static long bigOrderUnderStream(KitchenScheduler.Policy policy) {
+        KitchenScheduler kitchen = new KitchenScheduler(policy, 1, 1, 1);
+        kitchen.submit(catering(1), 0);
+        for (int i = 1; i <= 30; i++) {
+            kitchen.submit(burger(i + 1), i * 180L);
+        }
+        return kitchen.expectedReady(1);
+    }
+
+    /**
+     * Four single burgers on separate lines, 180 seconds each on the grill.
+     */
+    private static Order catering(int number) {
+        Order order = new Order(number);
+        for (Bread bread : new Bread[] {Bread.BRIOCHE, Bread.WHEAT, Bread.PRETZEL, Bread.BAGEL}) {
+            order.addItem(new Burger(bread, false));
+        }
+        return order;
+    }
+
+    private static Order burger(int number) {
+        Order order = new Order(number);
+        order.addItem(new Burger(Bread.SOURDOUGH, false));
+        return order;
+    }
+}
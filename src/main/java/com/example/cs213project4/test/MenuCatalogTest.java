@@ -0,0 +1,127 @@
+package com.example.cs213project4.model;
+
+import javafx.beans.binding.DoubleExpression;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Test class for the MenuCatalog and CatalogWatcher classes.
+ */
+public class MenuCatalogTest {
+
+    /**
+     * Test case 1: The built-in catalog prices items as before, and a parsed catalog only
+     * changes the entries it names.
+     */
+    @Test
+    public void testParseOverridesDefaults() {
+        Beverage drink = new Beverage(Size.MEDIUM, Flavor.COLA);
+        Side side = new Side(Size.LARGE, SideOption.FRIES);
+        assertEquals(2.49, drink.cost(), 0.0001);
+        assertEquals(3.99, side.cost(), 0.0001);
+
+        MenuCatalog catalog = MenuCatalog.parse(List.of(
+                "# spring prices",
+                "beverage.size.MEDIUM = 2.79",
+                "side.FRIES = 2.99   # new supplier",
+                "burger.double = 3.00",
+                "image.side.FRIES = file:/srv/menu/fries.png"));
+        assertEquals(2.79, catalog.beverage(Size.MEDIUM), 0.0001);
+        assertEquals(2.99, catalog.beverage(Size.LARGE), 0.0001);
+        assertEquals(2.99, catalog.side(SideOption.FRIES), 0.0001);
+        assertEquals(1.50, catalog.sideSize(Size.LARGE), 0.0001);
+        assertEquals(3.00, catalog.doublePatty(), 0.0001);
+        assertEquals(9.99, catalog.protein(Protein.SALMON), 0.0001);
+        assertEquals("file:/srv/menu/fries.png", catalog.image("side.FRIES", "fallback"));
+        assertEquals("fallback", catalog.image("side.CHIPS", "fallback"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> MenuCatalog.parse(List.of("side.FRIES = 2.99", "protein.TOFU = 7.99")));
+        assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+        assertThrows(IllegalArgumentException.class, () -> MenuCatalog.parse(List.of("combo.extra = -1")));
+        assertThrows(IllegalArgumentException.class, () -> MenuCatalog.parse(List.of("burger.triple = 5")));
+    }
+
+    /**
+     * Test case 2: Swapping the current catalog reprices existing items and refreshes their
+     * cached receipt lines, while placed orders keep showing what they were sold for. Bound
+     * costs and subtotals follow once prices are announced as changed.
+     */
+    @Test
+    public void testSwapReprices() {
+        Burger burger = new Burger(Bread.BRIOCHE, true);
+        Combo combo = new Combo(new Sandwich(Bread.WHEAT, Protein.CHICKEN), new Beverage(), new Side());
+        assertEquals("Combo: Wheat Sandwich with Chicken, Chips, Cola $10.99", combo.toString());
+        StoredOrder store = new StoredOrder();
+        Order sold = store.createNewOrder();
+        sold.addItem(new Combo(new Sandwich(Bread.WHEAT, Protein.CHICKEN), new Beverage(), new Side()));
+        store.addOrder(sold);
+        DoubleExpression bound = burger.costProperty();
+        assertEquals(burger.cost(), bound.get(), 0.0001);
+        Order open = new Order(50);
+        open.addItem(new Beverage(Size.LARGE, Flavor.COLA));
+        DoubleExpression subtotal = open.subtotalProperty();
+        assertEquals(2.99, subtotal.get(), 0.0001);
+        try {
+            MenuCatalog.setCurrent(MenuCatalog.parse(List.of("protein.BEEF_PATTY = 7.49", "combo.extra = 1.50")));
+            MenuCatalog.pricesChanged();
+            assertEquals(7.49 + 2.50, bound.get(), 0.0001);
+            Promotions.setActive(Promotions.compile(List.of("drinks percent beverage 50%")));
+            assertEquals(1.50, subtotal.get(), 0.01);
+            assertEquals(7.49 + 2.50, burger.cost(), 0.0001);
+            assertEquals("Combo: Wheat Sandwich with Chicken, Chips, Cola $10.49", combo.toString());
+            assertEquals("Combo: Wheat Sandwich with Chicken, Chips, Cola $10.99", store.getArchive().item(0).toString());
+            assertEquals("Combo: Wheat Sandwich with Chicken, Chips, Cola $10.99",
+                    store.findOrder(sold.getNumber()).getItems().get(0).toString());
+        } finally {
+            MenuCatalog.setCurrent(MenuCatalog.DEFAULT);
+            Promotions.setActive(Promotions.NONE);
+        }
+        assertEquals("Combo: Wheat Sandwich with Chicken, Chips, Cola $10.99", combo.toString());
+        assertEquals(2.99, subtotal.get(), 0.0001);
+    }
+
+    /**
+     * Test case 3: The watcher loads the file, picks up edits, and keeps the previous catalog
+     * when an edit does not parse.
+     */
+    @Test
+    public void testWatcherReloads() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("catalog");
+        Path file = dir.resolve("menu.catalog");
+        Files.writeString(file, "side.CHIPS = 2.25\n");
+        try (CatalogWatcher watcher = CatalogWatcher.start(file, null)) {
+            assertEquals(2.25, MenuCatalog.current().side(SideOption.CHIPS), 0.0001);
+
+            Files.writeString(file, "side.CHIPS = 2.45\n");
+            waitForReloads(watcher, 1);
+            assertEquals(2.45, MenuCatalog.current().side(SideOption.CHIPS), 0.0001);
+
+            Files.writeString(file, "side.CHIPS = two dollars\n");
+            assertFalse(watcher.reload());
+            assertEquals(2.45, MenuCatalog.current().side(SideOption.CHIPS), 0.0001);
+        } finally {
+            MenuCatalog.setCurrent(MenuCatalog.DEFAULT);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void waitForReloads(CatalogWatcher watcher, long reloads) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (watcher.getReloads() < reloads && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue("catalog was not reloaded", watcher.getReloads() >= reloads);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the OpenTabs class.
+ */
+public class OpenTabsTest {
+
+    /**
+     * Test case 1: A parked tab comes back line for line, custom names and quantities included,
+     * while the other tab is edited in between.
+     */
+    @Test
+    public void testSwitchKeepsParkedOrder() {
+        OpenTabs tabs = new OpenTabs(4, 50, 10);
+        Order first = tabs.open(new Order(1));
+        Sandwich sandwich = new Sandwich(Bread.SOURDOUGH, Protein.ROAST_BEEF);
+        sandwich.setName("The Usual");
+        first.addItem(sandwich);
+        first.addItem(new Side(Size.LARGE, SideOption.FRIES));
+        first.addItem(new Side(Size.LARGE, SideOption.FRIES));
+        List<String> held = lines(first);
+
+        Order second = tabs.open(new Order(2));
+        second.addItem(new Beverage(Size.SMALL, Flavor.LEMONADE));
+        assertArrayEquals(new int[] {1, 2}, tabs.getNumbers());
+
+        Order back = tabs.switchTo(1);
+        assertEquals(held, lines(back));
+        assertEquals(2, back.getItems().get(1).getQuantity());
+        assertEquals(first.getTotalCost(), back.getTotalCost(), 0.001);
+        // Merging still finds the rebuilt lines.
+        back.addItem(new Side(Size.LARGE, SideOption.FRIES));
+        assertEquals(2, back.getItems().size());
+
+        assertEquals(List.of("Small Lemonade $1.99 x1"), lines(tabs.switchTo(2)));
+        assertTrue(tabs.close(2));
+        assertNull(tabs.getActive());
+        assertArrayEquals(new int[] {1}, tabs.getNumbers());
+        assertFalse(tabs.close(2));
+    }
+
+    /**
+     * Test case 2: Tabs are bounded: the number open, the lines in each order and the edits
+     * that can be undone, and switching away drops a tab's undo history.
+     */
+    @Test
+    public void testTabsAreBounded() {
+        OpenTabs tabs = new OpenTabs(2, 3, 4);
+        tabs.record(null);
+        Order order = tabs.open(new Order(1));
+        order.addItem(new Beverage(Size.SMALL, Flavor.COLA));
+        order.addItem(new Beverage(Size.MEDIUM, Flavor.COLA));
+        order.addItem(new Beverage(Size.LARGE, Flavor.COLA));
+        // A merge needs no new line.
+        order.addItem(new Beverage(Size.LARGE, Flavor.COLA));
+        try {
+            order.addItem(new Beverage(Size.LARGE, Flavor.GRAPE));
+            fail("The fourth line was added");
+        } catch (IllegalStateException e) {
+            assertEquals(3, order.getItems().size());
+        }
+        order.removeLine(order.getLineId(0));
+        // The fifth edit went past the limit, so only the newer half of the history is kept.
+        assertEquals(2, tabs.getEdits().getUndoCount());
+        while (tabs.getEdits().undo()) {
+            // Back as far as the history goes.
+        }
+        assertEquals(3, order.getItems().size());
+        assertEquals(1, order.getItems().get(2).getQuantity());
+
+        tabs.open(new Order(2));
+        try {
+            tabs.open(new Order(3));
+            fail("A third tab was opened");
+        } catch (IllegalStateException e) {
+            assertEquals(2, tabs.size());
+        }
+        tabs.switchTo(1);
+        assertFalse(tabs.getEdits().canUndo());
+    }
+
+    /**
+     * Test case 3: The session snapshot keeps every open tab, and the journal replays tabs
+     * being opened, switched between, edited and closed since.
+     */
+    @Test
+    public void testSnapshotAndJournalKeepTabs() throws IOException {
+        Path snapshotFile = Files.createTempFile("session", ".snap");
+        Path journalFile = Files.createTempFile("edits", ".journal");
+        Files.delete(journalFile);
+        try {
+            StoredOrder store = new StoredOrder();
+            OpenTabs tabs = new OpenTabs(4, 50, 10);
+            tabs.open(store.createNewOrder()).addItem(new Burger(Bread.PRETZEL, true));
+            tabs.open(store.createNewOrder()).addItem(new Side(Size.SMALL, SideOption.CHIPS));
+            SessionSnapshot.capture(store, tabs).write(snapshotFile);
+
+            EditJournal journal = new EditJournal(journalFile, Runnable::run);
+            tabs.record(journal);
+            tabs.switchTo(1).addItem(new Beverage(Size.MEDIUM, Flavor.ICED_TEA));
+            tabs.getActive().addItem(new Burger(Bread.PRETZEL, true));
+            tabs.close(2);
+            tabs.open(store.createNewOrder()).addItem(new Side(Size.LARGE, SideOption.APPLE_SLICES));
+            tabs.switchTo(1);
+
+            OpenTabs restored = SessionSnapshot.read(snapshotFile).reopenTabs(4, 50, 10);
+            assertArrayEquals(new int[] {1, 2}, restored.getNumbers());
+            assertEquals(2, restored.getActive().getNumber());
+            EditJournal.replay(journalFile, restored);
+            assertArrayEquals(tabs.getNumbers(), restored.getNumbers());
+            assertEquals(1, restored.getActive().getNumber());
+            assertEquals(lines(tabs.getActive()), lines(restored.getActive()));
+            assertEquals(lines(tabs.switchTo(3)), lines(restored.switchTo(3)));
+        } finally {
+            Files.deleteIfExists(snapshotFile);
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    /**
+     * Test case 4: An order that fills its tab can still be placed with a promotion, whose
+     * Discount line goes one past the tab's line limit.
+     */
+    @Test
+    public void testFullTabPlacedWithDiscount() {
+        Promotions.setActive(Promotions.compile(List.of("drinks percent beverage 50%")));
+        try {
+            StoredOrder store = new StoredOrder();
+            OpenTabs tabs = new OpenTabs(2, 2, 4);
+            Order order = tabs.open(store.createNewOrder());
+            order.addItem(new Beverage(Size.LARGE, Flavor.LEMONADE));
+            order.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+
+            store.addOrder(order);
+            assertTrue(tabs.close(order.getNumber()));
+            assertEquals(3, order.getItems().size());
+            Order placed = store.findOrder(order.getNumber());
+            assertEquals("Discount -$1.50", placed.getItems().get(2).toString());
+            assertEquals(2.99 + 1.99 - 1.50, placed.getTotalCost(), 0.001);
+        } finally {
+            Promotions.setActive(Promotions.NONE);
+        }
+    }
+
+    private static List<String> lines(Order order) {
+        List<String> lines = new ArrayList<>();
+        for (MenuItem item : order.getItems()) {
+            lines.add(item.toString() + " x" + item.getQuantity());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the columnar order archive behind StoredOrder.
+ */
+public class OrderArchiveTest {
+
+    /**
+     * Test case 1: Every item type survives packing and unpacking with the same cost and description.
+     * Add-ons are listed in menu order, which is the order they come back in. A combo sandwich
+     * quantity too large for its bits is refused rather than wrapped.
+     */
+    @Test
+    public void testItemCodecRoundTrip() {
+        Burger burger = new Burger(Bread.PRETZEL, true);
+        burger.addAddOns(AddOns.AVOCADO);
+        burger.addAddOns(AddOns.CHEESE);
+        Sandwich sandwich = new Sandwich(Bread.BAGEL, Protein.SALMON);
+        sandwich.setQuantity(3);
+        Combo combo = new Combo(sandwich, new Beverage(Size.LARGE, Flavor.PEACH_TEA), new Side(Size.LARGE, SideOption.APPLE_SLICES));
+        Beverage drink = new Beverage(Size.LARGE, Flavor.ROOT_BEER);
+        drink.setQuantity(2);
+        Side side = new Side(Size.MEDIUM, SideOption.ONION_RINGS);
+
+        Discount discount = new Discount(150);
+
+        for (MenuItem item : new MenuItem[]{burger, sandwich, combo, drink, side, discount}) {
+            MenuItem copy = ItemCodec.unpack(ItemCodec.type(item), ItemCodec.pack(item), item.getQuantity());
+            assertEquals(item.getClass(), copy.getClass());
+            assertEquals(item.cost(), copy.cost(), 0.001);
+            assertEquals(item.toString(), copy.toString());
+        }
+        assertEquals(1, discount.getQuantity());
+
+        sandwich.setQuantity(ItemCodec.MAX_COMBO_QUANTITY + 2);
+        assertThrows(IllegalArgumentException.class, () -> ItemCodec.pack(combo));
+    }
+
+    /**
+     * Test case 2: Placed orders can be found, listed, exported from the archive and cancelled, and
+     * come back line for line, even lines with the same configuration.
+     */
+    @Test
+    public void testStoredOrderOnArchive() {
+        StoredOrder store = new StoredOrder();
+        for (int i = 0; i < 5; i++) {
+            Order order = store.createNewOrder();
+            Side side = new Side(Size.SMALL, SideOption.CHIPS);
+            side.setQuantity(i + 1);
+            order.addItem(side);
+            order.addItem(new Beverage(Size.MEDIUM, Flavor.COLA));
+            store.addOrder(order);
+        }
+        assertEquals(5, store.getOrders().size());
+        Order third = store.findOrder(3);
+        assertEquals(3, third.getNumber());
+        assertEquals(1.99 * 3 + 2.49, third.getTotalCost(), 0.001);
+        assertEquals(ItemCodec.cents(third.getTotalCost()), store.getArchive().subtotalCents(store.getArchive().find(3)));
+
+        assertTrue(store.cancelOrder(3));
+        assertFalse(store.cancelOrder(3));
+        assertNull(store.findOrder(3));
+        assertEquals(4, store.getOrders().size());
+        assertEquals(4, store.getOrders().get(2).getNumber());
+        assertEquals(6, store.createNewOrder().getNumber());
+
+        // Custom names are not archived, so these two lines share a configuration.
+        Order named = store.createNewOrder();
+        for (String name : new String[] {"Left", "Right"}) {
+            Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.SALMON);
+            sandwich.setName(name);
+            named.addItem(sandwich);
+        }
+        store.addOrder(named);
+        Order rebuilt = store.findOrder(named.getNumber());
+        assertEquals(2, rebuilt.getItems().size());
+        assertEquals(store.getArchive().lineCount(store.getArchive().find(named.getNumber())), rebuilt.getItems().size());
+        assertEquals(named.getTotalCost(), rebuilt.getTotalCost(), 0.001);
+    }
+
+    /**
+     * Test case 3: A mapped archive grows past its initial capacity and keeps its orders after reopening.
+     */
+    @Test
+    public void testMappedArchiveReopen() throws IOException {
+        Path file = Files.createTempFile("orders", ".oa");
+        try {
+            MappedOrderArchive archive = new MappedOrderArchive(file, 2, 2);
+            StoredOrder store = new StoredOrder(archive);
+            for (int i = 0; i < 50; i++) {
+                Order order = store.createNewOrder();
+                order.addItem(new Sandwich(Bread.WHEAT, Protein.CHICKEN));
+                order.addItem(new Side(Size.LARGE, SideOption.FRIES));
+                store.addOrder(order);
+            }
+            store.cancelOrder(10);
+            archive.close();
+
+            MappedOrderArchive reopened = new MappedOrderArchive(file);
+            StoredOrder restored = new StoredOrder(reopened);
+            assertEquals(49, restored.getOrders().size());
+            assertNull(restored.findOrder(10));
+            assertEquals(8.99 + 3.99, restored.findOrder(50).getTotalCost(), 0.001);
+            assertEquals(51, restored.createNewOrder().getNumber());
+            reopened.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test case 4: The order history rolls to a new file each day, never back to an earlier
+     * one, and after reopening it finds old orders and continues numbering after the last one.
+     */
+    @Test
+    public void testOrderHistoryRollsDaily() throws IOException {
+        Path dir = Files.createTempDirectory("history");
+        try {
+            Clock monday = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+            Clock tuesday = Clock.fixed(Instant.parse("2026-10-20T12:00:00Z"), ZoneOffset.UTC);
+
+            OrderHistory history = new OrderHistory(dir, monday);
+            StoredOrder store = new StoredOrder(history);
+            for (int i = 0; i < 3; i++) {
+                Order order = store.createNewOrder();
+                order.addItem(new Beverage(Size.SMALL, Flavor.WATER));
+                store.addOrder(order);
+            }
+            history.close();
+
+            history = new OrderHistory(dir, tuesday);
+            store = new StoredOrder(history);
+            Order order = store.createNewOrder();
+            assertEquals(4, order.getNumber());
+            order.addItem(new Burger());
+            store.addOrder(order);
+            assertEquals(2, history.segmentCount());
+            assertEquals(4, store.getOrders().size());
+            assertEquals(1.99, store.findOrder(2).getTotalCost(), 0.001);
+            assertEquals(6.99, store.findOrder(4).getTotalCost(), 0.001);
+            assertTrue(store.cancelOrder(1));
+            assertEquals(2, store.getOrders().get(0).getNumber());
+            assertEquals(4, store.getOrders().get(2).getNumber());
+            history.close();
+
+            // The clock goes back a day: orders still go to Tuesday's file.
+            history = new OrderHistory(dir, monday);
+            store = new StoredOrder(history);
+            order = store.createNewOrder();
+            order.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+            store.addOrder(order);
+            assertEquals(2, history.segmentCount());
+            history.close();
+            history = new OrderHistory(dir, tuesday);
+            store = new StoredOrder(history);
+            assertEquals(4, store.getOrders().size());
+            assertEquals(5, store.getOrders().get(3).getNumber());
+            assertEquals(1.99, store.findOrder(2).getTotalCost(), 0.001);
+            history.close();
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Test case 5: A session snapshot is unaffected by edits made after it was captured,
+     * and restores the stored orders, numbering and the order in progress.
+     */
+    @Test
+    public void testSessionSnapshotRoundTrip() throws IOException {
+        StoredOrder store = new StoredOrder();
+        for (int i = 0; i < 3; i++) {
+            Order order = store.createNewOrder();
+            order.addItem(new Side(Size.SMALL, SideOption.FRIES));
+            store.addOrder(order);
+        }
+        Order current = store.createNewOrder();
+        current.addItem(new Burger(Bread.SOURDOUGH, true));
+
+        SessionSnapshot snapshot = SessionSnapshot.capture(store, current);
+        store.cancelOrder(2);
+        Path file = Files.createTempFile("session", ".snap");
+        try {
+            snapshot.write(file);
+            SessionSnapshot read = SessionSnapshot.read(file);
+            StoredOrder restored = read.restore(new StoredOrder());
+            assertEquals(3, restored.getOrders().size());
+            assertEquals(2.49, restored.findOrder(2).getTotalCost(), 0.001);
+            assertEquals(4, read.getCurrentOrder().getNumber());
+            assertEquals(6.99 + 2.50, read.getCurrentOrder().getTotalCost(), 0.001);
+            assertEquals(5, restored.createNewOrder().getNumber());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertEquals(2, store.getOrders().size());
+    }
+
+    /**
+     * Test case 6: Batch pricing, including the parallel path for large ranges, agrees with
+     * pricing each Order on its own.
+     */
+    @Test
+    public void testBatchPricingMatchesOrders() {
+        TrafficSimulator simulator = new TrafficSimulator();
+        SplittableRandom random = new SplittableRandom(6);
+        StoredOrder store = new StoredOrder();
+        List<Order> placed = new ArrayList<>();
+        for (int i = 0; i < 3 * OrderPricer.PARALLEL_THRESHOLD; i++) {
+            Order order = store.createNewOrder();
+            int items = 1 + random.nextInt(12);
+            for (int j = 0; j < items; j++) {
+                order.addItem(simulator.randomItem(random));
+            }
+            store.addOrder(order);
+            placed.add(order);
+        }
+
+        int count = placed.size();
+        double[] subtotal = new double[count];
+        double[] tax = new double[count];
+        double[] total = new double[count];
+        OrderPricer.price(store.getArchive(), 0, count, subtotal, tax, total);
+        for (int i = 0; i < count; i++) {
+            Order order = placed.get(i);
+            assertEquals(order.getTotalCost(), subtotal[i], 0.005 * order.getItems().size());
+            assertEquals(subtotal[i] * Order.TAX, tax[i], 1e-9);
+            assertEquals(subtotal[i] + tax[i], total[i], 1e-9);
+        }
+
+        OrderPricer.price(placed, 100, 200, subtotal, tax, total);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(placed.get(100 + i).getTotal(), total[i], 1e-9);
+        }
+    }
+
+    /**
+     * Test case 7: A reader on another thread keeps reading a mapped archive while it grows,
+     * without the mapping it holds being closed under it.
+     */
+    @Test
+    public void testMappedArchiveGrowsUnderReader() throws Exception {
+        Path file = Files.createTempFile("orders", ".oa");
+        try {
+            MappedOrderArchive archive = new MappedOrderArchive(file, 2, 2);
+            StoredOrder store = new StoredOrder(archive);
+            Order first = store.createNewOrder();
+            first.addItem(new Beverage(Size.SMALL, Flavor.COLA));
+            store.addOrder(first);
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        assertEquals(1, archive.orderNumber(0));
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            for (int i = 0; i < 5000; i++) {
+                Order order = store.createNewOrder();
+                order.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+                store.addOrder(order);
+            }
+            done.set(true);
+            reader.join();
+            assertNull(failure.get());
+            archive.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test case 8: An index entry left by an append that never published its counts does not
+     * point at the order that takes its slot next.
+     */
+    @Test
+    public void testCutShortAppendNotFound() throws IOException {
+        Path file = Files.createTempFile("orders", ".oa");
+        try {
+            MappedOrderArchive archive = new MappedOrderArchive(file, 4, 4);
+            StoredOrder store = new StoredOrder(archive);
+            for (int i = 0; i < 2; i++) {
+                Order order = store.createNewOrder();
+                order.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+                store.addOrder(order);
+            }
+            archive.close();
+            // Take back the order count, as if the second append had been cut short.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(4).order(ByteOrder.nativeOrder()).putInt(0, 1), 16);
+            }
+
+            MappedOrderArchive reopened = new MappedOrderArchive(file);
+            assertEquals(-1, reopened.find(2));
+            StoredOrder restored = new StoredOrder(reopened);
+            Order next = restored.createNewOrder();
+            next.addItem(new Beverage(Size.LARGE, Flavor.COLA));
+            restored.addOrder(next);
+            assertEquals(1, reopened.find(next.getNumber()));
+            assertEquals(-1, reopened.find(2));
+            assertNull(restored.findOrder(2));
+            reopened.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
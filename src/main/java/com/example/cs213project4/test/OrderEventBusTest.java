@@ -0,0 +1,149 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the OrderEventBus and OrderEventLog classes.
+ */
+public class OrderEventBusTest {
+
+    /**
+     * Test case 1: Readers get every event in order, and a new reader catches up on the ring.
+     */
+    @Test
+    public void testDeliversInOrder() {
+        OrderEventBus bus = new OrderEventBus(16);
+        OrderEventBus.Reader first = bus.subscribe();
+        bus.publish(OrderStage.PLACED, 7);
+        bus.publish(OrderStage.IN_PREP, 7);
+        List<String> seen = new ArrayList<>();
+        assertEquals(2, first.poll((stage, orderNum, time) -> seen.add(stage + " " + orderNum)));
+        assertEquals(0, first.poll((stage, orderNum, time) -> seen.add("again")));
+
+        bus.publish(OrderStage.READY, 7);
+        OrderEventBus.Reader late = bus.subscribe();
+        assertEquals(1, first.poll((stage, orderNum, time) -> seen.add(stage + " " + orderNum)));
+        assertEquals(List.of("PLACED 7", "IN_PREP 7", "READY 7"), seen);
+        assertEquals(3, late.poll((stage, orderNum, time) -> assertTrue(time > 0)));
+    }
+
+    /**
+     * Test case 2: A reader that falls a whole ring behind is told how many events it lost and
+     * carries on with the oldest one left.
+     */
+    @Test
+    public void testSlowReaderMisses() {
+        OrderEventBus bus = new OrderEventBus(8);
+        OrderEventBus.Reader reader = bus.subscribe();
+        for (int i = 0; i < 20; i++) {
+            bus.publish(OrderStage.PLACED, i);
+        }
+        List<Integer> seen = new ArrayList<>();
+        long[] missed = new long[1];
+        reader.poll(new OrderEventHandler() {
+            @Override
+            public void onEvent(OrderStage stage, int orderNum, long timeMillis) {
+                seen.add(orderNum);
+            }
+
+            @Override
+            public void missed(long count) {
+                missed[0] += count;
+            }
+        });
+        assertEquals(12, missed[0]);
+        assertEquals(12, reader.getMissed());
+        assertEquals(List.of(12, 13, 14, 15, 16, 17, 18, 19), seen);
+    }
+
+    /**
+     * Test case 3: Readers polling while the writer laps them never see a torn or out of order
+     * event, and account for every event as delivered or missed.
+     */
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        OrderEventBus bus = new OrderEventBus(1 << 10);
+        int events = 1_000_000;
+        OrderStage[] stages = OrderStage.values();
+        long[] delivered = new long[2];
+        boolean[] broken = new boolean[2];
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            int id = r;
+            OrderEventBus.Reader reader = bus.subscribe();
+            readers[r] = new Thread(() -> {
+                int[] last = {-1};
+                while (delivered[id] + reader.getMissed() < events) {
+                    delivered[id] += reader.poll((stage, orderNum, time) -> {
+                        if (orderNum <= last[0] || stage != stages[orderNum % stages.length]) {
+                            broken[id] = true;
+                        }
+                        last[0] = orderNum;
+                    });
+                }
+            });
+            readers[r].start();
+        }
+        for (int i = 0; i < events; i++) {
+            bus.publish(stages[i % stages.length], i);
+        }
+        for (Thread reader : readers) {
+            reader.join(30_000);
+        }
+        assertEquals(events, bus.getPublished());
+        for (int r = 0; r < readers.length; r++) {
+            assertFalse("reader " + r + " saw a torn or reordered event", broken[r]);
+            assertTrue(delivered[r] > 0);
+        }
+    }
+
+    /**
+     * Test case 4: The store and the kitchen publish an order's whole life, and the log writes it to its file.
+     */
+    @Test
+    public void testStoreAndKitchenEvents() throws IOException {
+        OrderEventBus bus = new OrderEventBus(64);
+        Path file = Files.createTempFile("events", ".log");
+        try {
+            OrderEventLog log = OrderEventLog.start(bus, file);
+            StoredOrder store = new StoredOrder();
+            KitchenScheduler kitchen = new KitchenScheduler(KitchenScheduler.Policy.FIFO, 1, 1, 1);
+            kitchen.setEvents(bus);
+            store.addListener(bus);
+            Order order = store.createNewOrder();
+            order.addItem(new Burger(Bread.BRIOCHE, false));
+            store.addOrder(order);
+            kitchen.submit(order, 0);
+            kitchen.advance(1);
+            kitchen.advance(1000);
+            bus.publish(OrderStage.PICKED_UP, order.getNumber());
+            Order dropped = store.createNewOrder();
+            dropped.addItem(new Beverage(Size.SMALL, Flavor.COLA));
+            store.addOrder(dropped);
+            store.cancelOrder(dropped.getNumber());
+            log.close();
+
+            List<String> lines = new ArrayList<>();
+            for (String line : Files.readAllLines(file)) {
+                lines.add(line.substring(line.indexOf(' ') + 1));
+            }
+            int first = order.getNumber();
+            int second = dropped.getNumber();
+            assertEquals(List.of("PLACED " + first, "IN_PREP " + first, "READY " + first, "PICKED_UP " + first,
+                    "PLACED " + second, "CANCELLED " + second), lines);
+            assertEquals(6, log.getWritten());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the OrderImporter class.
+ */
+public class OrderImporterTest {
+
+    /**
+     * Builds a store whose orders use every item type.
+     */
+    private static StoredOrder sampleStore(int orders) {
+        StoredOrder store = new StoredOrder();
+        for (int i = 0; i < orders; i++) {
+            Order order = store.createNewOrder();
+            Sandwich sandwich = new Sandwich(Bread.values()[i % 5], Protein.CHICKEN);
+            sandwich.addAddOns(AddOns.LETTUCE);
+            sandwich.addAddOns(AddOns.CHEESE);
+            order.addItem(sandwich);
+            Burger burger = new Burger(Bread.PRETZEL, true);
+            burger.setQuantity(2);
+            order.addItem(new Combo(burger, new Beverage(Size.MEDIUM, Flavor.ICED_TEA), new Side(Size.SMALL, SideOption.APPLE_SLICES)));
+            Beverage drink = new Beverage(Size.LARGE, Flavor.values()[i % 15]);
+            drink.setQuantity(i % 10 + 1);
+            order.addItem(drink);
+            order.addItem(new Side(Size.MEDIUM, SideOption.ONION_RINGS));
+            store.addOrder(order);
+        }
+        return store;
+    }
+
+    /**
+     * Test case 1: Orders exported as a text report import back with the same items and totals.
+     */
+    @Test
+    public void testImportTextReport() throws IOException {
+        StoredOrder source = sampleStore(25);
+        Path file = Files.createTempFile("orders", ".txt");
+        try {
+            assertTrue(source.exportOrders(file.toString()));
+            StoredOrder target = new StoredOrder();
+            assertEquals(25, OrderImporter.importOrders(file, target));
+            for (int num = 1; num <= 25; num++) {
+                assertEquals(source.findOrder(num).getTotal(), target.findOrder(num).getTotal(), 0.001);
+                assertEquals(source.findOrder(num).getItems().toString(), target.findOrder(num).getItems().toString());
+            }
+            assertEquals(26, target.createNewOrder().getNumber());
+            // Importing the same file again adds nothing.
+            assertEquals(0, OrderImporter.importOrders(file, target));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test case 2: A CSV export large enough to be parsed in several chunks imports back exactly.
+     */
+    @Test
+    public void testImportCsvInParallel() throws IOException {
+        StoredOrder source = sampleStore(20000);
+        Path file = Files.createTempFile("orders", ".csv");
+        try {
+            assertTrue(source.exportCsv(file.toString()));
+            List<Order> orders = OrderImporter.parse(file, new ForkJoinPool(4));
+            assertEquals(20000, orders.size());
+            for (int i = 0; i < orders.size(); i += 997) {
+                Order expected = source.findOrder(i + 1);
+                assertEquals(expected.getNumber(), orders.get(i).getNumber());
+                assertEquals(expected.getItems().size(), orders.get(i).getItems().size());
+                assertEquals(expected.getTotal(), orders.get(i).getTotal(), 0.001);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the OrderIngestServer class.
+ */
+public class OrderIngestServerTest {
+
+    /**
+     * Test case 1: Pipelined orders from several connections are all placed, each under its own number.
+     */
+    @Test
+    public void testLoadIsPlaced() throws Exception {
+        StoredOrder store = new StoredOrder();
+        try (OrderIngestServer server = new OrderIngestServer(store, 0)) {
+            OrderLoadClient.Report report = new OrderLoadClient("localhost", server.getPort()).run(4, 5000, 32);
+            assertEquals(20000, report.placed());
+            assertEquals(0, report.rejected());
+            assertEquals(20000, report.latency().count());
+            assertEquals(20000, store.getOrders().size());
+            assertEquals(20001, store.createNewOrder().getNumber());
+        }
+    }
+
+    /**
+     * Test case 2: A message with an item code outside the menu, or a discount line, is rejected and
+     * the connection stays usable.
+     */
+    @Test
+    public void testInvalidItemRejected() throws Exception {
+        StoredOrder store = new StoredOrder();
+        try (OrderIngestServer server = new OrderIngestServer(store, 0);
+             SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            ByteBuffer out = ByteBuffer.allocate(64);
+            // A side with side option code 3 is valid; bread code 7 is not on the menu.
+            out.putInt(16).putInt(1).putInt(ItemCodec.SIDE).putInt(3 << 2).putInt(2);
+            out.putInt(16).putInt(1).putInt(ItemCodec.SANDWICH).putInt(7).putInt(1);
+            // A client can't give itself a discount.
+            out.putInt(16).putInt(1).putInt(ItemCodec.DISCOUNT).putInt(0).putInt(150);
+            out.flip();
+            channel.write(out);
+            ByteBuffer in = ByteBuffer.allocate(12);
+            while (in.hasRemaining()) {
+                assertTrue(channel.read(in) >= 0);
+            }
+            in.flip();
+            assertEquals(1, in.getInt());
+            assertEquals(OrderIngestServer.REJECTED, in.getInt());
+            assertEquals(OrderIngestServer.REJECTED, in.getInt());
+            assertEquals(1, store.getOrders().size());
+            assertEquals(2, store.findOrder(1).getItems().get(0).getQuantity());
+        }
+    }
+}
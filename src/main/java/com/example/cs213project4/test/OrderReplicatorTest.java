@@ -0,0 +1,199 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the OrderReplicator class.
+ */
+public class OrderReplicatorTest {
+
+    /**
+     * Test case 1: Two terminals in separate JVMs placing orders at the same time end up
+     * with the same orders and never hand out the same order number.
+     */
+    @Test
+    public void testTwoTerminalsConverge() throws Exception {
+        int orders = 2000;
+        StoredOrder store = new StoredOrder();
+        store.setNumbering(1, 2);
+        try (OrderReplicator replicator = OrderReplicator.start(store, 1, 0)) {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            Process child = new ProcessBuilder(java, "--add-modules", "jdk.incubator.vector",
+                    "-cp", System.getProperty("java.class.path"),
+                    OrderReplicator.class.getName(), "2", "2", String.valueOf(orders),
+                    "localhost:" + replicator.getPort())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            try {
+                BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream()));
+                String port = out.readLine();
+                assertTrue(port, port != null && port.startsWith("port "));
+                replicator.addPeer("localhost", Integer.parseInt(port.substring(5)));
+                CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return out.readLine();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+
+                OrderReplicator.placeSyntheticOrders(store, orders, new Random(1));
+                assertTrue(replicator.awaitDrained(30_000));
+                long deadline = System.currentTimeMillis() + 30_000;
+                while (store.getOrders().size() < 2 * orders && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+
+                String converged = result.get(60, TimeUnit.SECONDS);
+                assertEquals("converged " + 2 * orders + " " + OrderReplicator.checksum(store), converged);
+                assertEquals(2 * orders, store.getOrders().size());
+                // Terminal 1 of 2 keeps to the odd numbers.
+                assertEquals(1, store.createNewOrder().getNumber() % 2);
+            } finally {
+                child.destroy();
+                child.waitFor(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Test case 2: A cancellation that arrives before its order, relayed by a third terminal,
+     * keeps the order out when it arrives and is forgotten then, while cancelling an order
+     * already stored remembers nothing.
+     */
+    @Test
+    public void testCancelBeforePlace() {
+        StoredOrder store = new StoredOrder();
+        store.setNumbering(1, 3);
+        Order relayed = new Order(2);
+        relayed.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+        store.cancelReplicated(2);
+        assertEquals(1, store.getEarlyCancellations());
+        store.addReplicated(relayed);
+        assertNull(store.findOrder(2));
+        assertEquals(0, store.getEarlyCancellations());
+
+        Order kept = new Order(3);
+        kept.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+        store.addReplicated(kept);
+        assertEquals(1, store.getOrders().size());
+        Order dropped = new Order(5);
+        dropped.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+        store.addReplicated(dropped);
+        store.cancelReplicated(5);
+        assertEquals(1, store.getOrders().size());
+        assertEquals(0, store.getEarlyCancellations());
+    }
+
+    /**
+     * Test case 3: A batch the peer received but never acknowledged is not counted as sent,
+     * and goes again, under the same sequence number, after reconnecting.
+     */
+    @Test
+    public void testUnacknowledgedBatchResent() throws Exception {
+        StoredOrder store = new StoredOrder();
+        try (ServerSocket peer = new ServerSocket(0);
+             OrderReplicator replicator = OrderReplicator.start(store, 1, 0)) {
+            replicator.addPeer("localhost", peer.getLocalPort());
+            Order order = store.createNewOrder();
+            order.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+            store.addOrder(order);
+
+            int sequence;
+            try (Socket first = peer.accept()) {
+                DataInputStream in = new DataInputStream(first.getInputStream());
+                in.readInt();
+                assertEquals(1, in.readInt());
+                in.readLong();
+                sequence = in.readInt();
+                assertEquals(1, in.readInt());
+                in.readInt();
+                assertEquals(order.getNumber(), in.readInt());
+                // The link drops before the batch is acknowledged.
+            }
+            assertFalse(replicator.awaitDrained(300));
+
+            try (Socket second = peer.accept()) {
+                DataInputStream in = new DataInputStream(second.getInputStream());
+                in.readInt();
+                in.readInt();
+                in.readLong();
+                assertEquals(sequence, in.readInt());
+                assertEquals(1, in.readInt());
+                in.readInt();
+                assertEquals(order.getNumber(), in.readInt());
+                new DataOutputStream(second.getOutputStream()).writeInt(sequence);
+                assertTrue(replicator.awaitDrained(5_000));
+            }
+        }
+    }
+
+    /**
+     * Test case 4: A batch sent again after reconnecting is acknowledged but not applied a
+     * second time, so an order cancelled since does not come back, while a new session of the
+     * same terminal starts counting again.
+     */
+    @Test
+    public void testResentBatchAppliedOnce() throws Exception {
+        StoredOrder store = new StoredOrder();
+        store.setNumbering(1, 2);
+        try (OrderReplicator replicator = OrderReplicator.start(store, 1, 0)) {
+            int[] place = {1, 2, 1, ItemCodec.SIDE, 0, 1, 199};
+            try (Socket link = new Socket("localhost", replicator.getPort())) {
+                DataOutputStream out = handshake(link, 7);
+                assertEquals(1, batch(link, out, 1, place));
+                assertEquals(2, batch(link, out, 2, new int[] {2, 2}));
+            }
+            assertNull(store.findOrder(2));
+            try (Socket link = new Socket("localhost", replicator.getPort())) {
+                DataOutputStream out = handshake(link, 7);
+                assertEquals(1, batch(link, out, 1, place));
+            }
+            assertNull(store.findOrder(2));
+            assertEquals(0, store.getEarlyCancellations());
+
+            try (Socket link = new Socket("localhost", replicator.getPort())) {
+                DataOutputStream out = handshake(link, 8);
+                assertEquals(1, batch(link, out, 1, place));
+            }
+            assertEquals(1, store.getOrders().size());
+        }
+    }
+
+    private static DataOutputStream handshake(Socket link, long session) throws Exception {
+        DataOutputStream out = new DataOutputStream(link.getOutputStream());
+        out.writeInt(OrderReplicator.MAGIC);
+        out.writeInt(2);
+        out.writeLong(session);
+        return out;
+    }
+
+    /**
+     * Sends one batch of one event and returns the sequence number the peer acknowledges.
+     */
+    private static int batch(Socket link, DataOutputStream out, int sequence, int[] event) throws Exception {
+        out.writeInt(sequence);
+        out.writeInt(1);
+        for (int value : event) {
+            out.writeInt(value);
+        }
+        out.flush();
+        return new DataInputStream(link.getInputStream()).readInt();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.cs213project4.model;
+
+import javafx.beans.binding.DoubleExpression;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Test class for the Order class.
+ */
+public class OrderTest {
+
+    /**
+     * Test case 1: Adding the same burger configuration three times gives one line with quantity 3
+     * and the same total as three separate burgers; a different configuration gets its own line.
+     */
+    @Test
+    public void testIdenticalItemsConsolidate() {
+        Order order = new Order(1);
+        for (int i = 0; i < 3; i++) {
+            Burger burger = new Burger(Bread.BRIOCHE, true);
+            burger.addAddOns(AddOns.CHEESE);
+            order.addItem(burger);
+        }
+        Burger plain = new Burger(Bread.BRIOCHE, false);
+        order.addItem(plain);
+
+        assertEquals(2, order.getItems().size());
+        assertEquals(3, order.getItems().get(0).getQuantity());
+        assertEquals(3 * (6.99 + 2.50 + 1.00) + 6.99, order.getTotalCost(), 0.001);
+
+        // Removing a line frees its configuration, so the next identical item starts a new line.
+        order.removeItem(order.getItems().get(0));
+        Burger again = new Burger(Bread.BRIOCHE, true);
+        again.addAddOns(AddOns.CHEESE);
+        order.addItem(again);
+        order.addItem(new Burger(Bread.BRIOCHE, false));
+        assertEquals(2, order.getItems().size());
+        assertEquals(2, plain.getQuantity());
+        assertEquals(1, again.getQuantity());
+    }
+
+    /**
+     * Test case 2: Sandwiches with different custom names are kept on separate lines.
+     */
+    @Test
+    public void testNamedSandwichesStaySeparate() {
+        Order order = new Order(1);
+        Sandwich first = new Sandwich(Bread.BAGEL, Protein.CHICKEN);
+        first.setName("Bob's usual");
+        Sandwich second = new Sandwich(Bread.BAGEL, Protein.CHICKEN);
+        second.setName("Alice's usual");
+        order.addItem(first);
+        order.addItem(second);
+        order.addItem(new Sandwich());
+        assertEquals(3, order.getItems().size());
+        assertTrue(order.getTotalCost() > 0);
+    }
+
+    /**
+     * Test case 3: Line IDs stay valid while other lines are removed from a large order,
+     * and the remaining lines keep their order.
+     */
+    @Test
+    public void testLineIdsSurviveRemovals() {
+        Order order = new Order(1);
+        int[] ids = new int[5000];
+        for (int i = 0; i < ids.length; i++) {
+            Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.SALMON);
+            sandwich.setName("Tray " + i);
+            ids[i] = order.addItem(sandwich);
+        }
+        for (int i = 0; i < ids.length; i += 2) {
+            assertTrue(order.removeLine(ids[i]));
+        }
+        assertFalse(order.removeLine(ids[0]));
+        assertNull(order.getLine(ids[0]));
+
+        assertEquals(2500, order.getItems().size());
+        assertEquals("Tray 4999", order.getLine(ids[4999]).toString());
+        int position = 0;
+        for (MenuItem item : order.getItems()) {
+            assertEquals("Tray " + (2 * position + 1), item.toString());
+            assertEquals(ids[2 * position + 1], order.getLineId(position));
+            position++;
+        }
+        assertEquals("Tray 1001", order.getItems().get(500).toString());
+    }
+
+    /**
+     * Test case 4: The observable totals follow added, changed, merged and removed items, and
+     * an item's cost is only recalculated after that item changed.
+     */
+    @Test
+    public void testObservableTotals() {
+        Order order = new Order(1);
+        int[] sideCosts = new int[1];
+        Side side = new Side(Size.SMALL, SideOption.FRIES) {
+            @Override
+            public double cost() {
+                sideCosts[0]++;
+                return super.cost();
+            }
+        };
+        Burger burger = new Burger(Bread.BRIOCHE, false);
+        order.addItem(side);
+        DoubleExpression total = order.totalProperty();
+        int burgerLine = order.addItem(burger);
+        total.get();
+        assertEquals(1, sideCosts[0]);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, pricings(total, sideCosts));
+        }
+        assertEquals(order.getTotal(), total.get(), 0.001);
+        assertEquals(order.getTax(), order.taxProperty().get(), 0.001);
+        assertEquals("$" + String.format("%.2f", order.getTotalCost()),
+                ReceiptLine.dollars(order.subtotalProperty()).get());
+
+        // Merging into or changing the burger recalculates the total without pricing the side again.
+        order.addItem(new Burger(Bread.BRIOCHE, false));
+        assertEquals(2, burger.getQuantity());
+        assertEquals(0, pricings(total, sideCosts));
+        assertEquals(order.getTotal(), total.get(), 0.001);
+        burger.setDoublePatty(true);
+        assertEquals(0, pricings(total, sideCosts));
+        assertEquals(order.getTotal(), total.get(), 0.001);
+
+        side.setSize(Size.LARGE);
+        assertEquals(1, pricings(total, sideCosts));
+        assertEquals(order.getTotal(), total.get(), 0.001);
+
+        order.removeLine(burgerLine);
+        assertEquals(order.getTotal(), total.get(), 0.001);
+        burger.setQuantity(5);
+        assertEquals(order.getTotal(), total.get(), 0.001);
+        order.eradicateAllItems();
+        assertEquals(0, total.get(), 0.001);
+    }
+
+    /**
+     * Test case 5: A combo's observable cost follows its sandwich, and so does the order it is in.
+     */
+    @Test
+    public void testComboCostFollowsSandwich() {
+        Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.CHICKEN);
+        Combo combo = new Combo(sandwich, new Beverage(Size.SMALL, Flavor.COLA), new Side(Size.LARGE, SideOption.CHIPS));
+        Order order = new Order(1);
+        order.addItem(combo);
+        DoubleExpression subtotal = order.subtotalProperty();
+        double before = subtotal.get();
+        sandwich.addAddOns(AddOns.AVOCADO);
+        assertEquals(combo.cost(), combo.costProperty().get(), 0.001);
+        assertEquals(before + MenuCatalog.current().addOn(AddOns.AVOCADO), subtotal.get(), 0.001);
+    }
+
+    private static int pricings(DoubleExpression value, int[] costCalls) {
+        int before = costCalls[0];
+        value.get();
+        return costCalls[0] - before;
+    }
+}
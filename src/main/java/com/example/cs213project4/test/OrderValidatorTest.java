@@ -0,0 +1,113 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for the OrderValidator class.
+ */
+public class OrderValidatorTest {
+
+    /**
+     * Test case 1: The standard rules stop an order at its first incomplete item or quantity
+     * out of range, and pass a complete one.
+     */
+    @Test
+    public void testStandardRules() {
+        OrderValidator validator = OrderValidator.standard(null);
+        Order order = new Order(1);
+        order.addItem(new Beverage(Size.SMALL, Flavor.COLA));
+        assertNull(validator.validate(order));
+
+        Combo empty = new Combo();
+        empty.getSandwich().setProtein(null);
+        order.addItem(empty);
+        Side side = new Side(Size.LARGE, SideOption.FRIES);
+        side.setQuantity(0);
+        order.addItem(side);
+        OrderValidator.Failure failure = validator.validate(order);
+        assertEquals(1, failure.line());
+        assertEquals("combo has no protein chosen", failure.reason());
+
+        order.removeLine(order.getLineId(1));
+        failure = validator.validate(order);
+        assertEquals(1, failure.line());
+        assertEquals("quantity 0 is not between 1 and " + OrderValidator.MAX_QUANTITY, failure.reason());
+
+        // 257 sandwiches would share a packed configuration with 1 if the quantity wrapped.
+        Order combos = new Order(2);
+        combos.addItem(new Combo());
+        assertNull(validator.validate(combos));
+        Combo big = new Combo();
+        big.getSandwich().setQuantity(ItemCodec.MAX_COMBO_QUANTITY + 2);
+        combos.addItem(big);
+        assertEquals(1, validator.validate(combos).line());
+    }
+
+    /**
+     * Test case 2: Identical items are checked once, in this order and the next, while a rule
+     * that is not cacheable runs for every item.
+     */
+    @Test
+    public void testIdenticalItemsCheckedOnce() {
+        int[] stockChecks = new int[1];
+        OrderValidator validator = new OrderValidator(List.of(OrderValidator.complete(), new ItemRule() {
+            @Override
+            public String check(MenuItem item) {
+                stockChecks[0]++;
+                return null;
+            }
+
+            @Override
+            public boolean isCacheable() {
+                return false;
+            }
+        }));
+        Order order = trays(40);
+        order.addItem(new Beverage(Size.LARGE, Flavor.LEMONADE));
+        assertNull(validator.validate(order));
+        assertNull(validator.validate(trays(10)));
+        assertEquals(2, validator.getEvaluations());
+        assertEquals(51, stockChecks[0]);
+    }
+
+    /**
+     * Test case 3: A large order is validated in parallel and still reports its first failing
+     * line, here one the stock can't cover.
+     */
+    @Test
+    public void testParallelFindsFirstFailure() {
+        Inventory inventory = Inventory.parse(List.of("protein.SALMON = 40", "addon.AVOCADO = 3"));
+        OrderValidator validator = OrderValidator.standard(inventory);
+        Order order = trays(OrderValidator.PARALLEL_THRESHOLD * 3);
+        assertNull(validator.validate(order));
+
+        Sandwich late = new Sandwich(Bread.WHEAT, Protein.SALMON);
+        late.setQuantity(OrderValidator.MAX_QUANTITY + 1);
+        order.insertLine(170, 0, late);
+        Sandwich early = new Sandwich(Bread.WHEAT, Protein.SALMON);
+        early.addAddOns(AddOns.AVOCADO);
+        early.setQuantity(4);
+        order.insertLine(90, 0, early);
+        OrderValidator.Failure failure = validator.validate(order);
+        assertEquals(90, failure.line());
+        assertEquals("not enough addon.AVOCADO left", failure.reason());
+    }
+
+    /**
+     * An order of identical sandwiches, one line each as they have their own names.
+     */
+    private static Order trays(int count) {
+        Order order = new Order(1);
+        for (int i = 0; i < count; i++) {
+            Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.SALMON);
+            sandwich.setName("Tray " + i);
+            order.addItem(sandwich);
+        }
+        return order;
+    }
+}
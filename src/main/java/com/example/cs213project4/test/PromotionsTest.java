@@ -0,0 +1,128 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Test class for the Promotions class.
+ */
+public class PromotionsTest {
+
+    private static final Promotions RULES = Promotions.compile(List.of(
+            "# marketing, spring menu",
+            "happy-hour  percent  beverage        20%   14:00-17:00",
+            "fries-bogo  bogo     side:FRIES      1+1",
+            "burger-meal bundle   burger+side     1.50",
+            "late-night  percent  combo:SALMON    10%   22:00-02:00"));
+
+    private static MenuItem times(MenuItem item, int quantity) {
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    /**
+     * Test case 1: Percent rules only apply inside their time window, including windows that
+     * wrap past midnight, and prices change at each window's edges.
+     */
+    @Test
+    public void testPercentWindows() {
+        List<MenuItem> drinks = List.of(times(new Beverage(Size.LARGE, Flavor.COLA), 2));
+        assertEquals(120, RULES.discountCents(drinks, 15 * 60));
+        assertEquals(0, RULES.discountCents(drinks, 17 * 60));
+
+        Combo combo = new Combo(new Sandwich(Bread.BAGEL, Protein.SALMON), new Beverage(), new Side());
+        List<MenuItem> late = List.of(combo);
+        assertEquals(120, RULES.discountCents(late, 23 * 60));
+        assertEquals(120, RULES.discountCents(late, 60));
+        assertEquals(0, RULES.discountCents(late, 12 * 60));
+
+        assertTrue(RULES.changesAt(14 * 60));
+        assertTrue(RULES.changesAt(2 * 60));
+        assertFalse(RULES.changesAt(15 * 60));
+    }
+
+    /**
+     * Test case 2: BOGO gives away the cheapest matching units and bundles count pairs.
+     */
+    @Test
+    public void testBogoAndBundle() {
+        List<MenuItem> items = List.of(
+                times(new Side(Size.LARGE, SideOption.FRIES), 2),
+                new Side(Size.SMALL, SideOption.FRIES),
+                new Side(Size.SMALL, SideOption.CHIPS),
+                times(new Burger(Bread.BRIOCHE, false), 3));
+        // Three fries: one free at the small price. Three burgers, four sides: three bundles.
+        assertEquals(249 + 3 * 150, RULES.discountCents(items, 9 * 60));
+        // The discount never exceeds the subtotal.
+        Promotions generous = Promotions.compile(List.of("all percent * 100%", "extra bundle sandwich+beverage 50"));
+        List<MenuItem> meal = List.of(new Sandwich(Bread.WHEAT, Protein.CHICKEN), new Beverage(Size.SMALL, Flavor.WATER));
+        assertEquals(899 + 199, generous.discountCents(meal, 0));
+    }
+
+    /**
+     * Test case 3: Placing an order freezes its discount into a Discount line that is
+     * archived with it, and the order's totals include the discount before and after.
+     */
+    @Test
+    public void testPlacingFreezesDiscount() {
+        Promotions.setActive(Promotions.compile(List.of("drinks percent beverage 50%")));
+        try {
+            StoredOrder store = new StoredOrder();
+            Order order = store.createNewOrder();
+            order.addItem(new Beverage(Size.LARGE, Flavor.LEMONADE));
+            order.addItem(new Side(Size.SMALL, SideOption.CHIPS));
+            assertEquals(1.50, order.getDiscount(), 0.001);
+            assertEquals(2.99 + 1.99 - 1.50, order.getTotalCost(), 0.001);
+
+            store.addOrder(order);
+            assertEquals(3, order.getItems().size());
+            assertEquals("Discount -$1.50", order.getItems().get(2).toString());
+            assertEquals(0, order.getDiscount(), 0.001);
+
+            Promotions.setActive(Promotions.NONE);
+            Order placed = store.findOrder(order.getNumber());
+            assertEquals(2.99 + 1.99 - 1.50, placed.getTotalCost(), 0.001);
+            assertEquals(348, store.getArchive().subtotalCents(store.getArchive().find(order.getNumber())));
+            assertEquals(placed.getItems().get(2).toString(), OrderImporter.parseItemText("Discount -$1.50").toString());
+        } finally {
+            Promotions.setActive(Promotions.NONE);
+        }
+    }
+
+    /**
+     * Test case 4: Malformed rules are rejected with their line number, and evaluating an
+     * order of hundreds of lines stays cheap.
+     */
+    @Test
+    public void testErrorsAndLargeOrders() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Promotions.compile(List.of("ok percent side 5%", "bad percent side:PICKLES 5%")));
+        assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+        assertThrows(IllegalArgumentException.class, () -> Promotions.compile(List.of("x percent side 5")));
+        assertThrows(IllegalArgumentException.class, () -> Promotions.compile(List.of("x bundle side+side:FRIES 1")));
+        assertThrows(IllegalArgumentException.class, () -> Promotions.compile(List.of("x bogo drinks 1+1")));
+
+        TrafficSimulator simulator = new TrafficSimulator();
+        SplittableRandom random = new SplittableRandom(5);
+        Order big = new Order(1);
+        for (int i = 0; i < 500; i++) {
+            big.addItem(simulator.randomItem(random));
+        }
+        int expected = RULES.discountCents(big.getItems(), 15 * 60);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected, RULES.discountCents(big.getItems(), 15 * 60));
+        }
+        assertTrue(expected > 0);
+        // Generous bound for slow machines; typically a few microseconds per evaluation.
+        assertTrue((System.nanoTime() - start) / 1000 < 1_000_000);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+
+/**
+ * Test class for the ReceiptLine class.
+ */
+public class ReceiptLineTest {
+
+    /**
+     * Test case 1: Lines read the same as before caching, and asking again without a change
+     * returns the very same string.
+     */
+    @Test
+    public void testLinesAreCached() {
+        Beverage drink = new Beverage(Size.MEDIUM, Flavor.DIET_COLA);
+        drink.setQuantity(2);
+        assertEquals("Medium Diet Cola (2) $4.98", drink.toString());
+        assertSame(drink.toString(), drink.toString());
+
+        Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.SALMON);
+        sandwich.addAddOns(AddOns.LETTUCE);
+        Combo combo = new Combo(sandwich, new Beverage(Size.LARGE, Flavor.ICED_TEA), new Side(Size.LARGE, SideOption.ONION_RINGS));
+        assertEquals("Combo: Wheat Sandwich with Salmon (Add-ons: Lettuce), Onion Rings, Iced Tea $" +
+                String.format("%.2f", combo.cost()), combo.toString());
+    }
+
+    /**
+     * Test case 2: Changing an item, or a part of a combo, renders its line again.
+     */
+    @Test
+    public void testChangesInvalidateLine() {
+        Side side = new Side(Size.SMALL, SideOption.FRIES);
+        assertEquals("Small Fries $2.49", side.toString());
+        side.setSize(Size.LARGE);
+        assertEquals("Large Fries $3.99", side.toString());
+
+        Burger burger = new Burger(Bread.PRETZEL, false);
+        Combo combo = new Combo(burger, new Beverage(Size.MEDIUM, Flavor.COLA), new Side());
+        String before = combo.toString();
+        burger.clearAddOns();
+        assertSame(before, combo.toString());
+        burger.addAddOns(AddOns.CHEESE);
+        assertEquals("Combo: Pretzel Sandwich with Beef Patty (Add-ons: Cheese), Chips, Cola $9.99", combo.toString());
+
+        // Swapping in a drink whose own version is lower must still refresh the line.
+        Beverage used = new Beverage(Size.SMALL, Flavor.GRAPE);
+        used.setFlavor(Flavor.WATER);
+        combo.setDrink(new Beverage(Size.MEDIUM, Flavor.COFFEE));
+        assertEquals("Combo: Pretzel Sandwich with Beef Patty (Add-ons: Cheese), Chips, Coffee $9.99", combo.toString());
+        combo.setDrink(used);
+        assertEquals("Combo: Pretzel Sandwich with Beef Patty (Add-ons: Cheese), Chips, Water $9.99", combo.toString());
+    }
+
+    /**
+     * Test case 3: Cents are written with two decimals, including zero and negative amounts.
+     */
+    @Test
+    public void testAppendCents() {
+        assertEquals("0.00", ReceiptLine.appendCents(new StringBuilder(), 0).toString());
+        assertEquals("0.05", ReceiptLine.appendCents(new StringBuilder(), 5).toString());
+        assertEquals("12.30", ReceiptLine.appendCents(new StringBuilder(), 1230).toString());
+        assertEquals("-1.07", ReceiptLine.appendCents(new StringBuilder(), -107).toString());
+        assertEquals("$123456.78", ReceiptLine.appendCents(new StringBuilder("$"), 12345678).toString());
+    }
+}
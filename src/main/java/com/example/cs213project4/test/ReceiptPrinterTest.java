@@ -0,0 +1,122 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Test class for the ReceiptTemplate and ReceiptPrinter classes.
+ */
+public class ReceiptPrinterTest {
+
+    private static Order sampleOrder(int number) {
+        Order order = new Order(number);
+        Beverage drink = new Beverage(Size.LARGE, Flavor.LEMONADE);
+        drink.setQuantity(2);
+        order.addItem(drink);
+        order.addItem(new Burger(Bread.BAGEL, true));
+        return order;
+    }
+
+    private static String render(ReceiptTemplate template, Order order) {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        template.render(order, buffer);
+        buffer.flip();
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    /**
+     * Test case 1: The standard template renders the order's lines and totals, and a custom
+     * template can repeat line fields and write braces.
+     */
+    @Test
+    public void testRenderTemplates() {
+        Order order = sampleOrder(7);
+        assertEquals("Order #7\n"
+                + "----------------------------------------\n"
+                + "1. Large Lemonade (2) $5.98\n"
+                + "2. Bagel Sandwich with Beef Patty\n"
+                + "Subtotal: $15.47\n"
+                + "Tax: $1.02\n"
+                + "Total: $16.49\n"
+                + "========================================\n",
+                render(ReceiptTemplate.standard(), order));
+
+        ReceiptTemplate custom = ReceiptTemplate.compile("#{order} ({count}){lines} [{n}:{quantity}x{price}]{/lines} {{ok}");
+        assertEquals("#7 (2) [1:2x5.98] [2:1x9.49] {ok}", render(custom, order));
+    }
+
+    /**
+     * Test case 2: Malformed templates are rejected when they are compiled.
+     */
+    @Test
+    public void testCompileErrors() {
+        assertThrows(IllegalArgumentException.class, () -> ReceiptTemplate.compile("{nope}"));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptTemplate.compile("{item}"));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptTemplate.compile("{lines}{total}{/lines}"));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptTemplate.compile("{lines}{item}"));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptTemplate.compile("Total {total"));
+    }
+
+    /**
+     * Test case 3: Printing many receipts, including one larger than the initial buffer, leaves
+     * one complete file per order in the spool and no temporary files.
+     */
+    @Test
+    public void testPrintToSpool() throws IOException {
+        Path spool = Files.createTempDirectory("spool");
+        try {
+            ReceiptPrinter printer = new ReceiptPrinter(spool, ReceiptTemplate.standard());
+            for (int i = 1; i <= 500; i++) {
+                printer.print(sampleOrder(i));
+            }
+            Order big = new Order(501);
+            for (int i = 0; i < 400; i++) {
+                Sandwich sandwich = new Sandwich(Bread.WHEAT, Protein.CHICKEN);
+                sandwich.setName("Catering tray number " + i);
+                big.addItem(sandwich);
+            }
+            Path receipt = printer.print(big);
+
+            assertEquals(501, printer.getPrinted());
+            try (Stream<Path> files = Files.list(spool)) {
+                assertEquals(501, files.count());
+            }
+            assertEquals(render(ReceiptTemplate.standard(), sampleOrder(42)),
+                    Files.readString(spool.resolve("receipt-42.txt")));
+            String text = Files.readString(receipt);
+            assertTrue(text.contains("400. Catering tray number 399\n"));
+            assertTrue(text.endsWith("========================================\n"));
+        } finally {
+            try (Stream<Path> files = Files.walk(spool)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Test case 4: A discount line prints as one line of the amount off, with a quantity of 1.
+     */
+    @Test
+    public void testRenderDiscountLine() {
+        Order order = sampleOrder(8);
+        order.addItem(new Discount(150));
+        String receipt = render(ReceiptTemplate.standard(), order);
+        assertTrue(receipt, receipt.contains("3. Discount -$1.50\n"));
+        assertTrue(receipt, receipt.contains("Subtotal: $13.97\n"));
+
+        ReceiptTemplate custom = ReceiptTemplate.compile("{lines}[{n}:{quantity}x{price}]{/lines}");
+        assertEquals("[1:2x5.98][2:1x9.49][3:1x-1.50]", render(custom, order));
+    }
+}
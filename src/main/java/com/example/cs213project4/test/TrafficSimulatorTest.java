@@ -0,0 +1,44 @@
+package com.example.cs213project4.model;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the TrafficSimulator class.
+ */
+public class TrafficSimulatorTest {
+
+    /**
+     * Test case 1: Concurrent registers leave exactly the placed minus the cancelled orders,
+     * and the generated items follow the configured weights.
+     */
+    @Test
+    public void testSimulationFollowsWeights() throws InterruptedException {
+        TrafficSimulator simulator = new TrafficSimulator();
+        simulator.setKindWeights(1, 0, 0, 0, 0);
+        simulator.setProteinWeights(0, 0, 1, 0);
+        simulator.setAddOnChance(0);
+        simulator.setCancelRate(0.2);
+        StoredOrder store = new StoredOrder();
+        TrafficSimulator.Report report = simulator.run(store, 4, 2000);
+
+        assertEquals(8000, report.placed());
+        assertTrue(report.cancelled() > 0);
+        assertEquals(report.cancelled(), report.cancel().count());
+        List<Order> orders = store.getOrders();
+        assertEquals(report.placed() - report.cancelled(), orders.size());
+        for (Order order : orders) {
+            for (MenuItem item : order.getItems()) {
+                Sandwich sandwich = (Sandwich) item;
+                assertEquals(Protein.CHICKEN, sandwich.getProtein());
+                assertTrue(sandwich.getAddons().isEmpty());
+                // Identical sandwiches in one order share a line, so quantities can add up past 10.
+                assertTrue(item.getQuantity() >= 1);
+            }
+        }
+    }
+}
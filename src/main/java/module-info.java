@@ -14,6 +14,7 @@ module com.example.cs213project4 {
 module com.example.cs213project4 {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.incubator.vector;
     requires junit;
 
 